@@ -0,0 +1,79 @@
+package ru.andreynaz4renko.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.andreynaz4renko.data.ConcurrentTaskRepository;
+import ru.andreynaz4renko.data.TaskRepository;
+import ru.andreynaz4renko.domain.Task;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Операции ConcurrentTaskRepository, выполняемые одновременно из нескольких потоков.
+ * Число потоков задается параметром JMH -t, например -Pjmh="ConcurrentRepositoryBenchmark -t 1,2,4,8":
+ * при отсутствии общей блокировки суммарная пропускная способность растет с числом потоков.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ConcurrentRepositoryBenchmark {
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private ConcurrentTaskRepository repository;
+    private int[] ids;
+
+    /**
+     * Репозиторий пересоздается перед каждой итерацией, чтобы addTask не увеличивал его размер бесконечно.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        repository = new ConcurrentTaskRepository(new InMemoryTaskRepository());
+        TaskDataGenerator.generate(size, TaskDataGenerator.DEFAULT_SEED).getTasks().forEach(repository::addTask);
+        ids = repository.getTasksList().getTasks().stream().mapToInt(Task::getId).toArray();
+    }
+
+    @Benchmark
+    public boolean addTask() {
+        return repository.addTask(new Task(repository.nextTaskId(), "Новая задача", "Описание", 5, null));
+    }
+
+    @Benchmark
+    public Task getTask() {
+        return repository.getTask(randomId());
+    }
+
+    @Benchmark
+    public boolean editTask() {
+        return repository.editTask(randomId(), "Новый заголовок", null, "7", null);
+    }
+
+    @Benchmark
+    public boolean completeTask() {
+        return repository.completeTask(randomId());
+    }
+
+    private int randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    /**
+     * Репозиторий-делегат без внешнего хранилища: бенчмарк не вызывает загрузку и сохранение.
+     */
+    private static class InMemoryTaskRepository extends TaskRepository {
+
+        @Override
+        public boolean loadTasks() {
+            return true;
+        }
+
+        @Override
+        public boolean saveTasks() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package ru.andreynaz4renko.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.andreynaz4renko.converters.TaskConverter;
+import ru.andreynaz4renko.data.json.JsonTaskList;
+import ru.andreynaz4renko.data.xml.XmlTaskList;
+import ru.andreynaz4renko.domain.TaskList;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразования списков задач в TaskConverter между TaskList и XmlTaskList/JsonTaskList.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ConverterBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private TaskList taskList;
+    private XmlTaskList xmlTaskList;
+    private JsonTaskList jsonTaskList;
+
+    @Setup
+    public void setUp() {
+        taskList = TaskDataGenerator.generate(size, TaskDataGenerator.DEFAULT_SEED);
+        xmlTaskList = TaskConverter.taskListToXmlTaskList(taskList);
+        jsonTaskList = TaskConverter.taskListToJsonTaskList(taskList);
+    }
+
+    @Benchmark
+    public XmlTaskList taskListToXmlTaskList() {
+        return TaskConverter.taskListToXmlTaskList(taskList);
+    }
+
+    @Benchmark
+    public TaskList xmlTaskListToTaskList() {
+        return TaskConverter.xmlTaskListToTaskList(xmlTaskList);
+    }
+
+    @Benchmark
+    public JsonTaskList taskListToJsonTaskList() {
+        return TaskConverter.taskListToJsonTaskList(taskList);
+    }
+
+    @Benchmark
+    public TaskList jsonTaskListToTaskList() {
+        return TaskConverter.jsonTaskListToTaskList(jsonTaskList);
+    }
+}
@@ -0,0 +1,65 @@
+package ru.andreynaz4renko.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.andreynaz4renko.deadline.DeadlineScheduler;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Перенос срока, отмена и проверка наступивших событий в DeadlineScheduler с миллионами ожидающих сроков.
+ * Часы зафиксированы, поэтому advance() измеряет проверку без сработавших событий.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class DeadlineSchedulerBenchmark {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 1, 1);
+
+    @Param({"100000", "1000000", "5000000"})
+    private int size;
+
+    private DeadlineScheduler scheduler;
+
+    @Setup
+    public void setUp() {
+        Clock clock = Clock.fixed(Instant.parse("2024-01-01T00:00:00Z"), ZoneOffset.UTC);
+        scheduler = new DeadlineScheduler(clock, 1);
+        for (int id = 1; id <= size; id++) {
+            scheduler.schedule(id, randomDeadline());
+        }
+    }
+
+    @Benchmark
+    public void reschedule() {
+        scheduler.schedule(randomId(), randomDeadline());
+    }
+
+    @Benchmark
+    public void cancelAndSchedule() {
+        int id = randomId();
+        scheduler.cancel(id);
+        scheduler.schedule(id, randomDeadline());
+    }
+
+    @Benchmark
+    public int advance() {
+        return scheduler.advance();
+    }
+
+    private int randomId() {
+        return ThreadLocalRandom.current().nextInt(size) + 1;
+    }
+
+    private static LocalDate randomDeadline() {
+        return TODAY.plusDays(ThreadLocalRandom.current().nextInt(2, 3650));
+    }
+}
@@ -0,0 +1,76 @@
+package ru.andreynaz4renko.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.andreynaz4renko.data.journal.DiskTaskRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Изменение задачи в DiskTaskRepository для часто используемых задач, помещающихся в кеш (hot),
+ * и для случайных задач из всего файла (cold). Изменения сохраняются в конце каждой итерации.
+ * Счетчики кеша выводятся после прогона.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class DiskRepositoryBenchmark {
+
+    @Param({"1000000"})
+    private int size;
+
+    @Param({"10000"})
+    private int cacheSize;
+
+    private Path directory;
+    private DiskTaskRepository repository;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("tasks-disk");
+        repository = new DiskTaskRepository(directory.resolve("tasks.log").toString(), cacheSize);
+        TaskDataGenerator.generate(size, TaskDataGenerator.DEFAULT_SEED).getTasks().forEach(repository::addTask);
+        if (!repository.saveTasks() || !repository.loadTasks()) {
+            throw new IllegalStateException("Не удалось сохранить задачи в " + directory);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void save() {
+        repository.saveTasks();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.out.printf("%nhits %d, misses %d, evictions %d%n", repository.getCacheHitCount(),
+                repository.getCacheMissCount(), repository.getCacheEvictionCount());
+        repository.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean editHot() {
+        return edit(1 + ThreadLocalRandom.current().nextInt(cacheSize / 2));
+    }
+
+    @Benchmark
+    public boolean editCold() {
+        return edit(1 + ThreadLocalRandom.current().nextInt(size));
+    }
+
+    private boolean edit(int id) {
+        return repository.editTask(id, null, null, Integer.toString(ThreadLocalRandom.current().nextInt(11)), null);
+    }
+}
@@ -0,0 +1,179 @@
+package ru.andreynaz4renko.benchmarks;
+
+import ru.andreynaz4renko.data.ConcurrentTaskRepository;
+import ru.andreynaz4renko.data.TaskRepository;
+import ru.andreynaz4renko.http.TaskHttpServer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузочный генератор для TaskHttpServer. Запускает встроенный сервер на наборе задач из TaskDataGenerator
+ * и для каждого уровня конкурентности в течение заданного времени отправляет запросы из заданного числа
+ * виртуальных потоков: 70% чтений задачи, по 10% созданий, редактирований и выполнений.
+ * Для каждого уровня выводятся запросы в секунду, p50 и p99 задержки.
+ * Запускается задачей gradle httpLoad -Pconcurrency=1,4,16,64 -Pduration=10 -Psize=100000.
+ */
+public final class HttpLoadGenerator {
+
+    private static final String CREATE_BODY =
+            "{\"caption\": \"Новая задача\", \"description\": \"Описание\", \"priority\": 5, \"deadline\": \"2030-01-01\"}";
+    private static final String EDIT_BODY = "{\"priority\": 7}";
+
+    private HttpLoadGenerator() { }
+
+    /**
+     * Запускает нагрузку.
+     *
+     * @param args Уровни конкурентности через запятую, длительность уровня в секундах и количество задач.
+     * @throws Exception В случае ошибки запуска сервера или отправки запросов.
+     */
+    public static void main(String[] args) throws Exception {
+        int[] levels = Arrays.stream((args.length > 0 ? args[0] : "1,2,4,8,16,32,64,128").split(","))
+                .mapToInt(value -> Integer.parseInt(value.trim()))
+                .toArray();
+        int duration = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int size = args.length > 2 ? Integer.parseInt(args[2]) : 100000;
+
+        ConcurrentTaskRepository repository = new ConcurrentTaskRepository(new InMemoryTaskRepository());
+        TaskDataGenerator.generate(size, TaskDataGenerator.DEFAULT_SEED).getTasks().forEach(repository::addTask);
+
+        try (TaskHttpServer server = new TaskHttpServer(repository,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+             HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .build()) {
+            server.start();
+            String base = "http://localhost:" + server.getAddress().getPort() + "/tasks";
+            // Прогрев: первый уровень повторяется, его результат не выводится.
+            run(client, base, size, levels[0], Math.max(1, duration / 2));
+            System.out.printf("%12s %12s %12s %12s %10s%n", "concurrency", "requests/s", "p50, us", "p99, us", "errors");
+            for (int level : levels) {
+                Result result = run(client, base, size, level, duration);
+                System.out.printf("%12d %12.0f %12.1f %12.1f %10d%n", level,
+                        result.latencies.length / (double) duration,
+                        result.percentile(0.50) / 1e3,
+                        result.percentile(0.99) / 1e3,
+                        result.errors);
+            }
+        }
+    }
+
+    private static Result run(HttpClient client, String base, int size, int concurrency, int duration)
+            throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(duration);
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?>[] futures = new Future<?>[concurrency];
+            Result[] results = new Result[concurrency];
+            for (int i = 0; i < concurrency; i++) {
+                int worker = i;
+                futures[i] = workers.submit(() -> {
+                    results[worker] = worker(client, base, size, deadline);
+                    return null;
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return Result.merge(results);
+        }
+    }
+
+    private static Result worker(HttpClient client, String base, int size, long deadline)
+            throws IOException, InterruptedException {
+        long[] latencies = new long[1024];
+        int count = 0;
+        int errors = 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            HttpRequest request = request(base, random.nextInt(100), 1 + random.nextInt(size));
+            long start = System.nanoTime();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            long latency = System.nanoTime() - start;
+            if (response.statusCode() >= 400) {
+                errors++;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+        return new Result(Arrays.copyOf(latencies, count), errors);
+    }
+
+    private static HttpRequest request(String base, int operation, int id) {
+        if (operation < 70) {
+            return HttpRequest.newBuilder(URI.create(base + "/" + id)).GET().build();
+        }
+        if (operation < 80) {
+            return HttpRequest.newBuilder(URI.create(base))
+                    .POST(HttpRequest.BodyPublishers.ofString(CREATE_BODY)).build();
+        }
+        if (operation < 90) {
+            return HttpRequest.newBuilder(URI.create(base + "/" + id))
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString(EDIT_BODY)).build();
+        }
+        return HttpRequest.newBuilder(URI.create(base + "/" + id + "/complete"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    /**
+     * Задержки запросов в наносекундах и количество ответов с ошибкой.
+     */
+    private static class Result {
+
+        private final long[] latencies;
+        private final int errors;
+
+        Result(long[] latencies, int errors) {
+            this.latencies = latencies;
+            this.errors = errors;
+        }
+
+        static Result merge(Result[] results) {
+            long[] latencies = Arrays.stream(results)
+                    .flatMapToLong(result -> Arrays.stream(result.latencies))
+                    .sorted()
+                    .toArray();
+            return new Result(latencies, Arrays.stream(results).mapToInt(result -> result.errors).sum());
+        }
+
+        /**
+         * Возвращает перцентиль задержки. Задержки должны быть отсортированы.
+         */
+        double percentile(double quantile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            return latencies[Math.min(latencies.length - 1, (int) (quantile * latencies.length))];
+        }
+    }
+
+    /**
+     * Репозиторий-делегат без внешнего хранилища: генератор не вызывает загрузку и сохранение.
+     */
+    private static class InMemoryTaskRepository extends TaskRepository {
+
+        @Override
+        public boolean loadTasks() {
+            return true;
+        }
+
+        @Override
+        public boolean saveTasks() {
+            return true;
+        }
+    }
+}
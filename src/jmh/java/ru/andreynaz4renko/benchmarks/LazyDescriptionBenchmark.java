@@ -0,0 +1,58 @@
+package ru.andreynaz4renko.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.andreynaz4renko.data.TaskRepository;
+import ru.andreynaz4renko.data.binary.BinaryTaskRepository;
+import ru.andreynaz4renko.data.json.JsonTaskRepository;
+import ru.andreynaz4renko.domain.TaskList;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Загрузка файла задач JsonTaskRepository (json) и BinaryTaskRepository (bin) с описаниями (cacheSize = 0)
+ * и с ленивой загрузкой описаний. Занимаемую загруженными задачами память показывает профилировщик gc:
+ * gradle jmh -Pjmh="LazyDescriptionBenchmark -prof gc".
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class LazyDescriptionBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    @Param({"json", "bin"})
+    private String format;
+
+    @Param({"0", "1024"})
+    private int cacheSize;
+
+    private TaskRepository repository;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path source = TaskDataGenerator.dataFile(size, format);
+        if (format.equals("json")) {
+            JsonTaskRepository json = new JsonTaskRepository(source.toString());
+            json.setLazyDescriptions(cacheSize);
+            repository = json;
+        } else {
+            BinaryTaskRepository binary = new BinaryTaskRepository(source.toString());
+            binary.setLazyDescriptions(cacheSize);
+            repository = binary;
+        }
+    }
+
+    @Benchmark
+    public TaskList load() {
+        if (!repository.loadTasks()) {
+            throw new IllegalStateException("Не удалось загрузить задачи");
+        }
+        return repository.getTasksList();
+    }
+}
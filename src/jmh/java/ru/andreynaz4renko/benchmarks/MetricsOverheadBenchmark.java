@@ -0,0 +1,88 @@
+package ru.andreynaz4renko.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.andreynaz4renko.data.MetricsTaskRepository;
+import ru.andreynaz4renko.data.TaskRepository;
+import ru.andreynaz4renko.domain.Task;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость MetricsTaskRepository для операций над списком задач в памяти, где она заметнее всего.
+ * mode=plain - репозиторий без метрик, sampled - метрики с интервалом выборки по умолчанию,
+ * every - метрики с измерением длительности каждого вызова. Разница sampled и plain - накладные расходы
+ * метрик в режимах --batch и --http.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class MetricsOverheadBenchmark {
+
+    @Param({"plain", "sampled", "every"})
+    private String mode;
+
+    @Param({"100000"})
+    private int size;
+
+    private TaskRepository repository;
+    private int[] ids;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        TaskRepository plain = new InMemoryTaskRepository();
+        TaskDataGenerator.generate(size, TaskDataGenerator.DEFAULT_SEED).getTasks().forEach(plain::addTask);
+        ids = plain.getTasksList().getTasks().stream().mapToInt(Task::getId).toArray();
+        if (mode.equals("plain")) {
+            repository = plain;
+            return;
+        }
+        MetricsTaskRepository metricsRepository = new MetricsTaskRepository(plain);
+        if (mode.equals("every")) {
+            metricsRepository.getMetrics().setSamplingInterval(1);
+        }
+        repository = metricsRepository;
+    }
+
+    @Benchmark
+    public boolean editTask() {
+        return repository.editTask(randomId(), "Новый заголовок", null, "7", null);
+    }
+
+    @Benchmark
+    public boolean completeTask() {
+        return repository.completeTask(randomId());
+    }
+
+    /**
+     * Удаляет задачу и добавляет ее обратно, чтобы размер списка не менялся.
+     */
+    @Benchmark
+    public boolean removeAndAddTask() {
+        Task task = repository.getTask(randomId());
+        return repository.removeTask(task.getId()) && repository.addTask(task);
+    }
+
+    private int randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    /**
+     * Репозиторий без внешнего хранилища: бенчмарк не вызывает загрузку и сохранение.
+     */
+    private static class InMemoryTaskRepository extends TaskRepository {
+
+        @Override
+        public boolean loadTasks() {
+            return true;
+        }
+
+        @Override
+        public boolean saveTasks() {
+            return true;
+        }
+    }
+}
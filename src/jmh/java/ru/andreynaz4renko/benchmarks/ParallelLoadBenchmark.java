@@ -0,0 +1,52 @@
+package ru.andreynaz4renko.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.andreynaz4renko.data.TaskRepository;
+import ru.andreynaz4renko.data.json.JsonTaskRepository;
+import ru.andreynaz4renko.data.xml.StaxXmlTaskRepository;
+import ru.andreynaz4renko.domain.TaskList;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Загрузка файла задач StaxXmlTaskRepository (xml) и JsonTaskRepository (json) в зависимости от количества потоков.
+ * При threads = 1 используется обычная последовательная загрузка, при большем значении - разбор по частям.
+ * Например: gradle jmh -Pjmh="ParallelLoadBenchmark -p size=1000000 -p threads=1,2,4,8,16,32".
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class ParallelLoadBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    @Param({"xml", "json"})
+    private String format;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    private int threads;
+
+    private TaskRepository repository;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path source = TaskDataGenerator.dataFile(size, format);
+        repository = format.equals("xml")
+                ? new StaxXmlTaskRepository(source.toString(), threads)
+                : new JsonTaskRepository(source.toString(), threads);
+    }
+
+    @Benchmark
+    public TaskList load() {
+        if (!repository.loadTasks()) {
+            throw new IllegalStateException("Не удалось загрузить задачи");
+        }
+        return repository.getTasksList();
+    }
+}
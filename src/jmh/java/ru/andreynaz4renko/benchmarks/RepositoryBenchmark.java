@@ -0,0 +1,86 @@
+package ru.andreynaz4renko.benchmarks;
+
+import jakarta.xml.bind.JAXBException;
+import org.openjdk.jmh.annotations.*;
+import ru.andreynaz4renko.data.TaskRepository;
+import ru.andreynaz4renko.data.binary.BinaryTaskRepository;
+import ru.andreynaz4renko.data.json.JsonTaskRepository;
+import ru.andreynaz4renko.data.xml.StaxXmlTaskRepository;
+import ru.andreynaz4renko.data.xml.XmlTaskRepository;
+import ru.andreynaz4renko.domain.TaskList;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Загрузка и сохранение файла задач репозиториями XmlTaskRepository (jaxb), StaxXmlTaskRepository (stax)
+ * JsonTaskRepository (json) и BinaryTaskRepository (bin) на одном и том же наборе задач из TaskDataGenerator.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"jaxb", "stax", "json", "bin"})
+    private String format;
+
+    private Path target;
+    private TaskRepository loadRepository;
+    private TaskRepository saveRepository;
+
+    @Setup
+    public void setUp() throws IOException, JAXBException {
+        String extension = switch (format) {
+            case "json", "bin" -> format;
+            default -> "xml";
+        };
+        Path source = TaskDataGenerator.dataFile(size, extension);
+        target = Files.createTempFile("tasks-out", "." + extension);
+
+        loadRepository = createRepository(source);
+        saveRepository = createRepository(source);
+        if (!saveRepository.loadTasks()) {
+            throw new IllegalStateException("Не удалось загрузить " + source);
+        }
+        saveRepository = copyInto(saveRepository, createRepository(target));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(target);
+    }
+
+    @Benchmark
+    public TaskList load() {
+        loadRepository.loadTasks();
+        return loadRepository.getTasksList();
+    }
+
+    @Benchmark
+    public boolean save() {
+        return saveRepository.saveTasks();
+    }
+
+    private static TaskRepository copyInto(TaskRepository source, TaskRepository target) {
+        source.getTasksList().getTasks().forEach(target::addTask);
+        return target;
+    }
+
+    private TaskRepository createRepository(Path path) throws JAXBException {
+        return switch (format) {
+            case "jaxb" -> new XmlTaskRepository(path.toString());
+            case "stax" -> new StaxXmlTaskRepository(path.toString());
+            case "json" -> new JsonTaskRepository(path.toString());
+            case "bin" -> new BinaryTaskRepository(path.toString());
+            default -> throw new IllegalArgumentException("Неизвестный формат: " + format);
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package ru.andreynaz4renko.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.andreynaz4renko.converters.TaskFileConverter;
+import ru.andreynaz4renko.data.ShardedTaskRepository;
+import ru.andreynaz4renko.data.TaskRepository;
+import ru.andreynaz4renko.domain.Task;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Сохранение после изменения одной задачи, загрузка с чтением одной задачи и полная загрузка
+ * для ShardedTaskRepository с разным количеством шардов. Один шард соответствует обычному файлу задач.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ShardedRepositoryBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    @Param({"1", "16", "64"})
+    private int shards;
+
+    @Param({"xml", "bin"})
+    private String format;
+
+    private Path directory;
+    private ShardedTaskRepository repository;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("tasks-sharded");
+        repository = create();
+        TaskDataGenerator.generate(size, TaskDataGenerator.DEFAULT_SEED).getTasks().forEach(repository::addTask);
+        if (!repository.saveTasks()) {
+            throw new IllegalStateException("Не удалось сохранить задачи в " + directory);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean editOneAndSave() {
+        int id = 1 + ThreadLocalRandom.current().nextInt(size);
+        repository.editTask(id, null, null, Integer.toString(ThreadLocalRandom.current().nextInt(11)), null);
+        return repository.saveTasks();
+    }
+
+    @Benchmark
+    public boolean loadAndCheckOne() {
+        repository.loadTasks();
+        return repository.isTaskExists(1 + ThreadLocalRandom.current().nextInt(size));
+    }
+
+    @Benchmark
+    public int loadAll() {
+        repository.loadTasks();
+        return repository.getTasksList().size();
+    }
+
+    private ShardedTaskRepository create() {
+        return new ShardedTaskRepository(directory.resolve("tasks." + format).toString(), shards,
+                TaskFileConverter::repositoryFor);
+    }
+}
@@ -0,0 +1,137 @@
+package ru.andreynaz4renko.benchmarks;
+
+import ru.andreynaz4renko.converters.TaskFileConverter;
+import ru.andreynaz4renko.data.TaskRepository;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
+import ru.andreynaz4renko.domain.TaskStatus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Генератор синтетических наборов задач для бенчмарков.
+ * Набор полностью определяется размером и seed, поэтому повторные запуски работают на одинаковых данных.
+ * Файлы заранее можно записать задачей gradle jmhGenerateData -Psizes=1000,100000 -Pseed=42.
+ */
+public final class TaskDataGenerator {
+
+    /**
+     * Seed, используемый бенчмарками по умолчанию.
+     */
+    public static final long DEFAULT_SEED = 42;
+
+    private static final String[] WORDS = {
+            "подготовить", "отчет", "проверить", "исправить", "ошибку", "в", "модуле", "задач",
+            "обновить", "документацию", "согласовать", "план", "релиза", "клиента", "сервер", "базу",
+            "данных", "настроить", "мониторинг", "провести", "встречу", "с", "командой", "по", "проекту"
+    };
+
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    private TaskDataGenerator() { }
+
+    /**
+     * Генерирует список задач с идентификаторами от 1 до size.
+     *
+     * @param size Количество задач.
+     * @param seed Seed генератора случайных чисел.
+     * @return Список задач.
+     */
+    public static TaskList generate(int size, long seed) {
+        Random random = new Random(seed);
+        TaskList taskList = new TaskList();
+        for (int id = 1; id <= size; id++) {
+            taskList.addTask(generateTask(id, random));
+        }
+        return taskList;
+    }
+
+    /**
+     * Возвращает путь к файлу с набором задач указанного размера, создавая файл при первом обращении.
+     * Файлы кешируются в каталоге из системного свойства tasks.data.dir (по умолчанию build/jmh-data).
+     *
+     * @param size      Количество задач.
+     * @param extension Расширение файла: xml, json или bin.
+     * @return Путь к файлу с задачами.
+     * @throws IOException В случае ошибки записи файла.
+     */
+    public static Path dataFile(int size, String extension) throws IOException {
+        Path directory = Paths.get(System.getProperty("tasks.data.dir", "build/jmh-data"));
+        Path file = directory.resolve("tasks-" + size + "-" + DEFAULT_SEED + "." + extension);
+        if (!Files.exists(file)) {
+            Files.createDirectories(directory);
+            write(generate(size, DEFAULT_SEED), file);
+        }
+        return file;
+    }
+
+    /**
+     * Записывает список задач в файл, выбирая формат по расширению.
+     *
+     * @param taskList Список задач.
+     * @param file     Файл с расширением xml, json или bin.
+     * @throws IOException В случае ошибки записи файла.
+     */
+    public static void write(TaskList taskList, Path file) throws IOException {
+        TaskRepository repository = TaskFileConverter.repositoryFor(file.toString());
+        taskList.getTasks().forEach(repository::addTask);
+        if (!repository.saveTasks()) {
+            throw new IOException("Не удалось записать " + file);
+        }
+    }
+
+    private static Task generateTask(int id, Random random) {
+        TaskStatus status = TaskStatus.values()[random.nextInt(TaskStatus.values().length)];
+        LocalDate deadline = START.plusDays(random.nextInt(3650));
+        LocalDate completion = status == TaskStatus.DONE ? deadline.minusDays(random.nextInt(30)) : null;
+        return new Task(id,
+                words(random, 2 + random.nextInt(3), 50),
+                words(random, 5 + random.nextInt(20), Integer.MAX_VALUE),
+                random.nextInt(11),
+                deadline,
+                completion,
+                status);
+    }
+
+    private static String words(Random random, int count, int maxLength) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            if (builder.length() + word.length() + 1 > maxLength) {
+                break;
+            }
+            if (i > 0) {
+                builder.append(' ');
+            }
+            builder.append(word);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Записывает файлы tasks-[size]-[seed].xml, .json и .bin для каждого размера.
+     *
+     * @param args Каталог вывода, список размеров через запятую и seed.
+     * @throws IOException В случае ошибки записи файлов.
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "build/jmh-data");
+        String sizes = args.length > 1 ? args[1] : "1000,100000,1000000";
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+        Files.createDirectories(directory);
+        for (String value : sizes.split(",")) {
+            int size = Integer.parseInt(value.trim());
+            TaskList taskList = generate(size, seed);
+            for (String extension : new String[]{"xml", "json", "bin"}) {
+                Path file = directory.resolve("tasks-" + size + "-" + seed + "." + extension);
+                write(taskList, file);
+                System.out.println(file + ": " + Files.size(file) + " bytes");
+            }
+        }
+    }
+}
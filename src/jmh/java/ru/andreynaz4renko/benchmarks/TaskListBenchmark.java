@@ -0,0 +1,68 @@
+package ru.andreynaz4renko.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Операции TaskList над списком заданного размера: добавление, удаление и выполнение задачи по идентификатору,
+ * а также выборки по вторичным индексам.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class TaskListBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private TaskList taskList;
+    private Task[] tasks;
+    private int nextId;
+
+    /**
+     * Список пересоздается перед каждой итерацией, чтобы addTask не увеличивал его размер бесконечно.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        taskList = TaskDataGenerator.generate(size, TaskDataGenerator.DEFAULT_SEED);
+        tasks = taskList.getTasks().toArray(new Task[0]);
+        nextId = size + 1;
+    }
+
+    @Benchmark
+    public boolean addTask() {
+        return taskList.addTask(new Task(nextId++, "Новая задача", "Описание", 5, null));
+    }
+
+    /**
+     * Удаляет случайную задачу и возвращает ее обратно, сохраняя размер списка.
+     */
+    @Benchmark
+    public boolean removeTask() {
+        Task task = tasks[ThreadLocalRandom.current().nextInt(tasks.length)];
+        return taskList.removeTask(task.getId()) & taskList.addTask(task);
+    }
+
+    @Benchmark
+    public boolean completeTask() {
+        return taskList.completeTask(tasks[ThreadLocalRandom.current().nextInt(tasks.length)].getId());
+    }
+
+    @Benchmark
+    public int tasksByMinPriority() {
+        return taskList.getTasksByMinPriority(10).size();
+    }
+
+    @Benchmark
+    public int tasksByDeadlineBefore() {
+        return taskList.getTasksByDeadlineBefore(LocalDate.of(2020, 2, 1)).size();
+    }
+}
@@ -0,0 +1,90 @@
+package ru.andreynaz4renko.benchmarks;
+
+import ru.andreynaz4renko.domain.CompactTaskList;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+/**
+ * Измеряет объем кучи, занимаемый списком задач из TaskDataGenerator, для TaskList и CompactTaskList.
+ * Объем считается как разница занятой кучи после сборки мусора до и после построения списка,
+ * поэтому учитывает все объекты, достижимые из списка, включая индексы.
+ * Запускается задачей gradle footprint -Psize=1000000 и завершается с кодом 1, если CompactTaskList
+ * экономит меньше MIN_RATIO. То же соотношение на 100 000 задач проверяет CompactTaskListFootprintTest.
+ */
+public final class TaskListFootprint {
+
+    /**
+     * Наименьшее допустимое отношение объема TaskList к объему CompactTaskList.
+     */
+    private static final double MIN_RATIO = 3.0;
+
+    private TaskListFootprint() { }
+
+    /**
+     * Выводит объем кучи на задачу для обоих видов списка и их отношение.
+     *
+     * @param args Количество задач.
+     */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        TaskList source = TaskDataGenerator.generate(size, TaskDataGenerator.DEFAULT_SEED);
+        long regular = measure(() -> fill(new TaskList(), source));
+        long compact = measure(() -> fill(new CompactTaskList(), source));
+        System.out.printf("%-16s %14s %12s%n", "list", "bytes", "bytes/task");
+        System.out.printf("%-16s %14d %12.1f%n", "TaskList", regular, regular / (double) size);
+        System.out.printf("%-16s %14d %12.1f%n", "CompactTaskList", compact, compact / (double) size);
+        System.out.printf("ratio %.2fx%n", regular / (double) compact);
+        if (regular < MIN_RATIO * compact) {
+            System.err.printf("CompactTaskList must use at least %.1fx less heap than TaskList%n", MIN_RATIO);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Заполняет список копиями задач с собственными строками и датами, чтобы объекты исходного списка
+     * не уменьшали измеренный объем.
+     */
+    private static TaskList fill(TaskList taskList, TaskList source) {
+        for (Task task : source.getTasks()) {
+            taskList.addTask(new Task(task.getId(),
+                    new String(task.getCaption().toCharArray()),
+                    task.getDescription() == null ? null : new String(task.getDescription().toCharArray()),
+                    task.getPriority(),
+                    copy(task.getDeadline()),
+                    copy(task.getCompletion()),
+                    task.getStatus()));
+        }
+        taskList.trimToSize();
+        return taskList;
+    }
+
+    private static LocalDate copy(LocalDate date) {
+        return date == null ? null : LocalDate.of(date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+    }
+
+    /**
+     * Возвращает прирост занятой кучи после сборки мусора при удержании созданного списка.
+     */
+    private static long measure(Supplier<TaskList> factory) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long before = usedAfterGc(memory);
+        TaskList taskList = factory.get();
+        long after = usedAfterGc(memory);
+        if (taskList.size() == 0) {
+            throw new IllegalStateException("Пустой список задач");
+        }
+        return after - before;
+    }
+
+    private static long usedAfterGc(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,71 @@
+package ru.andreynaz4renko.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.andreynaz4renko.domain.CompactTaskList;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
+import ru.andreynaz4renko.domain.TaskStatus;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Постраничная выдача и выборки первых k задач в TaskList и CompactTaskList в сравнении с сортировкой
+ * всего списка (fullSortTop), которой раньше пришлось бы получать те же 10 задач.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class TaskListTopBenchmark {
+
+    private static final Comparator<Task> BY_PRIORITY = Comparator.comparingInt(Task::getPriority).reversed()
+            .thenComparingInt(Task::getId);
+
+    @Param({"plain", "compact"})
+    private String list;
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    @Param({"10"})
+    private int limit;
+
+    private TaskList taskList;
+
+    @Setup
+    public void setUp() {
+        taskList = TaskDataGenerator.generate(size, TaskDataGenerator.DEFAULT_SEED);
+        if (list.equals("compact")) {
+            taskList = new CompactTaskList(taskList.getTasks());
+        }
+    }
+
+    @Benchmark
+    public List<Task> fullSortTop() {
+        return taskList.getTasks().stream()
+                .filter(task -> task.getStatus() == TaskStatus.NEW)
+                .sorted(BY_PRIORITY)
+                .limit(limit)
+                .toList();
+    }
+
+    @Benchmark
+    public List<Task> topTasksByPriority() {
+        return taskList.getTopTasksByPriority(TaskStatus.NEW, limit);
+    }
+
+    @Benchmark
+    public List<Task> nextDeadlines() {
+        return taskList.getNextDeadlines(limit);
+    }
+
+    @Benchmark
+    public List<Task> tasksPage() {
+        return taskList.getTasksPage(ThreadLocalRandom.current().nextInt(size), limit);
+    }
+}
@@ -0,0 +1,68 @@
+package ru.andreynaz4renko.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
+import ru.andreynaz4renko.domain.TaskTextIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск TaskList.searchTasks() по словам из текста случайной задачи в сравнении с просмотром всех задач.
+ * Полнотекстовый индекс строится в setUp, поэтому измеряется только поиск.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class TextSearchBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    @Param({"1", "3"})
+    private int terms;
+
+    private TaskList taskList;
+    private String[] queries;
+
+    @Setup
+    public void setUp() {
+        taskList = TaskDataGenerator.generate(size, TaskDataGenerator.DEFAULT_SEED);
+        taskList.searchTasks("");
+        List<Task> tasks = taskList.getTasks();
+        queries = new String[1024];
+        for (int i = 0; i < queries.length; i++) {
+            Task task = tasks.get(ThreadLocalRandom.current().nextInt(tasks.size()));
+            List<String> words = new ArrayList<>(TaskTextIndex.tokenize(task.getCaption(), task.getDescription()));
+            queries[i] = String.join(" ", words.subList(0, Math.min(terms, words.size())));
+        }
+    }
+
+    @Benchmark
+    public int search() {
+        return taskList.searchTasks(query()).size();
+    }
+
+    @Benchmark
+    public int scan() {
+        Set<String> query = TaskTextIndex.tokenize(query());
+        int count = 0;
+        for (Task task : taskList.getTasks()) {
+            if (TaskTextIndex.matches(query, task)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private String query() {
+        return queries[ThreadLocalRandom.current().nextInt(queries.length)];
+    }
+}
@@ -0,0 +1,48 @@
+package ru.andreynaz4renko.benchmarks;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import org.openjdk.jmh.annotations.*;
+import ru.andreynaz4renko.data.xml.XmlTask;
+import ru.andreynaz4renko.data.xml.XmlTaskList;
+import ru.andreynaz4renko.data.xml.XmlTaskRepository;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость создания XmlTaskRepository. newContext повторяет прежний конструктор, создававший
+ * собственный JAXBContext, Marshaller и Unmarshaller, newRepository - текущий конструктор с общим XmlTaskContext.
+ * coldStart измеряет первое создание репозитория в новой JVM, включая создание общего контекста.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class XmlContextBenchmark {
+
+    @Benchmark
+    public Marshaller newContext() throws JAXBException {
+        JAXBContext context = JAXBContext.newInstance(XmlTaskList.class, XmlTask.class);
+        Marshaller marshaller = context.createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+        context.createUnmarshaller();
+        return marshaller;
+    }
+
+    @Benchmark
+    public XmlTaskRepository newRepository() throws JAXBException {
+        return new XmlTaskRepository("tasks.xml");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public XmlTaskRepository coldStart() throws JAXBException {
+        return new XmlTaskRepository("tasks.xml");
+    }
+}
@@ -0,0 +1,301 @@
+package ru.andreynaz4renko;
+
+import ru.andreynaz4renko.data.TaskRepository;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
+import ru.andreynaz4renko.domain.TaskStatus;
+import ru.andreynaz4renko.jfr.CommandEvent;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Класс BatchTaskManager выполняет команды TaskManager без интерактивного ввода: из файла сценария или из stdin.
+ * Аргументы команд передаются в той же строке, значения с пробелами заключаются в двойные кавычки,
+ * пустые строки и строки, начинающиеся с #, пропускаются.
+ * <pre>
+ * new "caption" "description" priority deadline
+ * edit id "caption" "description" priority deadline    ("" оставляет значение без изменений)
+ * complete id | remove id | list [-s status | -p priority | -d date] | search words | load | save
+ * page afterId size | top n [-s status] | due n
+ * </pre>
+ * На каждую команду выводится одна строка результата, поля которой разделены табуляцией:
+ * ok [значение], fail или error сообщение. Команды list, search, page, top и due перед строкой ok выводят
+ * строки task с полями задачи. Следующая страница запрашивается командой page с идентификатором
+ * последней задачи предыдущей страницы.
+ * Экран не очищается и приглашения не выводятся, поэтому вывод можно разбирать программно.
+ */
+public class BatchTaskManager {
+
+    private final TaskRepository taskRepository;
+    private final BufferedReader input;
+    private final PrintWriter output;
+
+    /**
+     * Конструктор класса BatchTaskManager.
+     *
+     * @param taskRepository Репозиторий задач.
+     * @param input          Источник команд.
+     * @param output         Приемник результатов команд.
+     */
+    public BatchTaskManager(TaskRepository taskRepository, BufferedReader input, PrintWriter output) {
+        this.taskRepository = taskRepository;
+        this.input = input;
+        this.output = output;
+    }
+
+    /**
+     * Выполняет все команды до конца ввода или до команды exit.
+     *
+     * @return Количество выполненных команд.
+     * @throws IOException В случае ошибки чтения команд.
+     */
+    public long run() throws IOException {
+        long commands = 0;
+        String line;
+        while ((line = input.readLine()) != null) {
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            List<String> args = tokenize(trimmed);
+            if (args.get(0).equals("exit")) {
+                break;
+            }
+            execute(args);
+            commands++;
+        }
+        output.flush();
+        return commands;
+    }
+
+    private void execute(List<String> args) {
+        CommandEvent event = new CommandEvent();
+        event.begin();
+        try {
+            switch (args.get(0)) {
+                case "list" -> listTasks(args);
+                case "search" -> searchTasks(args);
+                case "page" -> listPage(args);
+                case "top" -> listTopTasks(args);
+                case "due" -> listNextDeadlines(args);
+                case "new" -> createTask(args);
+                case "edit" -> editTask(args);
+                case "complete" -> printResult(args.size() == 2
+                        && taskRepository.completeTask(Integer.parseInt(args.get(1))));
+                case "remove" -> printResult(args.size() == 2
+                        && taskRepository.removeTask(Integer.parseInt(args.get(1))));
+                case "load" -> printResult(args.size() == 1 && taskRepository.loadTasks());
+                case "save" -> printResult(args.size() == 1 && taskRepository.saveTasks());
+                default -> printError("unknown command " + args.get(0));
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            printError(e.getLocalizedMessage());
+        } finally {
+            event.finish(args.get(0));
+        }
+    }
+
+    private void listTasks(List<String> args) {
+        TaskList taskList = taskRepository.getTasksList();
+        Collection<Task> tasks;
+        if (args.size() == 1) {
+            tasks = taskList.getTasks();
+        } else if (args.size() == 3) {
+            String value = args.get(2);
+            switch (args.get(1)) {
+                case "-s" -> tasks = taskList.getTasksByStatus(TaskStatus.valueOf(value.toUpperCase()));
+                case "-p" -> tasks = taskList.getTasksByMinPriority(Integer.parseInt(value));
+                case "-d" -> tasks = taskList.getTasksByDeadlineBefore(LocalDate.parse(value));
+                default -> {
+                    printError("unknown option " + args.get(1));
+                    return;
+                }
+            }
+        } else {
+            printError("usage: list [-s status | -p priority | -d date]");
+            return;
+        }
+        printTasks(tasks);
+    }
+
+    private void listPage(List<String> args) {
+        if (args.size() != 3) {
+            printError("usage: page afterId size");
+            return;
+        }
+        printTasks(taskRepository.getTasksPage(Integer.parseInt(args.get(1)),
+                Integer.parseInt(args.get(2))));
+    }
+
+    private void listTopTasks(List<String> args) {
+        TaskStatus status;
+        if (args.size() == 2) {
+            status = null;
+        } else if (args.size() == 4 && args.get(2).equals("-s")) {
+            status = TaskStatus.valueOf(args.get(3).toUpperCase());
+        } else {
+            printError("usage: top n [-s status]");
+            return;
+        }
+        printTasks(taskRepository.getTopTasksByPriority(status, Integer.parseInt(args.get(1))));
+    }
+
+    private void listNextDeadlines(List<String> args) {
+        if (args.size() != 2) {
+            printError("usage: due n");
+            return;
+        }
+        printTasks(taskRepository.getNextDeadlines(Integer.parseInt(args.get(1))));
+    }
+
+    private void searchTasks(List<String> args) {
+        if (args.size() < 2) {
+            printError("usage: search words");
+            return;
+        }
+        printTasks(taskRepository.searchTasks(String.join(" ", args.subList(1, args.size()))));
+    }
+
+    private void printTasks(Collection<Task> tasks) {
+        for (Task task : tasks) {
+            output.print("task\t");
+            output.print(task.getId());
+            printField(task.getCaption());
+            printField(task.getDescription());
+            output.print('\t');
+            output.print(task.getPriority());
+            printField(task.getDeadline());
+            printField(task.getCompletion());
+            printField(task.getStatus());
+            output.print('\n');
+        }
+        output.print("ok\t");
+        output.print(tasks.size());
+        output.print('\n');
+    }
+
+    private void createTask(List<String> args) {
+        if (args.size() != 5) {
+            printError("usage: new caption description priority deadline");
+            return;
+        }
+        Task task = new Task(taskRepository.nextTaskId(),
+                args.get(1),
+                args.get(2),
+                Integer.parseInt(args.get(3)),
+                args.get(4).isEmpty() ? null : LocalDate.parse(args.get(4)));
+        if (taskRepository.addTask(task)) {
+            output.print("ok\t");
+            output.print(task.getId());
+            output.print('\n');
+            return;
+        }
+        printResult(false);
+    }
+
+    private void editTask(List<String> args) {
+        if (args.size() != 6) {
+            printError("usage: edit id caption description priority deadline");
+            return;
+        }
+        printResult(taskRepository.editTask(Integer.parseInt(args.get(1)),
+                args.get(2),
+                args.get(3),
+                args.get(4),
+                args.get(5)));
+    }
+
+    private void printResult(boolean success) {
+        output.print(success ? "ok\n" : "fail\n");
+    }
+
+    private void printError(String message) {
+        output.print("error\t");
+        output.print(escape(message));
+        output.print('\n');
+    }
+
+    private void printField(Object value) {
+        output.print('\t');
+        if (value != null) {
+            output.print(escape(value.toString()));
+        }
+    }
+
+    /**
+     * Экранирует табуляцию, перевод строки и обратную косую черту, чтобы значение занимало одно поле вывода.
+     */
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder builder = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = switch (c) {
+                case '\t' -> "\\t";
+                case '\n' -> "\\n";
+                case '\r' -> "\\r";
+                case '\\' -> "\\\\";
+                default -> null;
+            };
+            if (replacement != null && builder == null) {
+                builder = new StringBuilder(value.length() + 8).append(value, 0, i);
+            }
+            if (builder != null) {
+                if (replacement != null) {
+                    builder.append(replacement);
+                } else {
+                    builder.append(c);
+                }
+            }
+        }
+        return builder == null ? value : builder.toString();
+    }
+
+    /**
+     * Разбивает строку команды на аргументы по пробелам. Значение в двойных кавычках образует один аргумент,
+     * внутри кавычек \" обозначает кавычку, а \\ - обратную косую черту.
+     */
+    static List<String> tokenize(String line) {
+        List<String> args = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        boolean inToken = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '\\' && i + 1 < line.length()) {
+                    current.append(line.charAt(++i));
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                inToken = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inToken) {
+                    args.add(current.toString());
+                    current.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                current.append(c);
+                inToken = true;
+            }
+        }
+        if (inToken) {
+            args.add(current.toString());
+        }
+        return args;
+    }
+}
@@ -1,13 +1,183 @@
 package ru.andreynaz4renko;
 
 import jakarta.xml.bind.JAXBException;
+import ru.andreynaz4renko.converters.TaskFileConverter;
+import ru.andreynaz4renko.data.AsyncTaskRepository;
+import ru.andreynaz4renko.data.ConcurrentTaskRepository;
+import ru.andreynaz4renko.data.DeadlineTaskRepository;
+import ru.andreynaz4renko.data.MetricsTaskRepository;
+import ru.andreynaz4renko.data.ShardedTaskRepository;
 import ru.andreynaz4renko.data.TaskRepository;
+import ru.andreynaz4renko.data.journal.DiskTaskRepository;
 import ru.andreynaz4renko.data.xml.XmlTaskRepository;
+import ru.andreynaz4renko.deadline.DeadlineEvent;
+import ru.andreynaz4renko.deadline.DeadlineScheduler;
+import ru.andreynaz4renko.domain.CompactTaskList;
+import ru.andreynaz4renko.http.TaskHttpServer;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import javax.management.JMException;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 public class Main {
-    public static void main(String[] args) throws JAXBException {
+    public static void main(String[] args) throws JAXBException, IOException {
+        if (args.length > 1 && args[0].equals("--jfr")) {
+            startRecording(args[1]);
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
         TaskRepository repository = new XmlTaskRepository("tasks.xml");
-        TaskManager taskManager = new TaskManager(repository);
-        taskManager.run();
+        // DiskTaskRepository держит в памяти только кеш, а ConcurrentTaskRepository скопировал бы в память все задачи,
+        // поэтому --disk, рассчитанный на один поток, не сочетается с --http.
+        if (args.length > 1 && args[0].equals("--disk")) {
+            if (Arrays.asList(args).contains("--http")) {
+                System.err.println("--disk can't be combined with --http.");
+                return;
+            }
+            repository = new DiskTaskRepository("tasks.log", Integer.parseInt(args[1]));
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+        if (args.length > 1 && args[0].equals("--shards")) {
+            repository = new ShardedTaskRepository("tasks.xml", Integer.parseInt(args[1]),
+                    TaskFileConverter::repositoryFor);
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+        if (args.length > 0 && args[0].equals("--compact")) {
+            repository.setTaskListFactory(CompactTaskList::new);
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+        // AsyncTaskRepository сохраняет задачи в фоне после каждой серии изменений, но рассчитан на один поток,
+        // поэтому не сочетается с --http, где файловый репозиторий оборачивает ConcurrentTaskRepository.
+        AsyncTaskRepository asyncRepository = null;
+        if (args.length > 1 && args[0].equals("--async")) {
+            if (Arrays.asList(args).contains("--http")) {
+                System.err.println("--async can't be combined with --http.");
+                return;
+            }
+            asyncRepository = new AsyncTaskRepository(repository, Long.parseLong(args[1]));
+            repository = asyncRepository;
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+        // В режиме --http задачи изменяются из нескольких потоков. ConcurrentTaskRepository вызывает делегат
+        // только для загрузки и сохранения, поэтому он оборачивает файловый репозиторий, а планировщик сроков
+        // и метрики - его, чтобы видеть каждую операцию.
+        if (Arrays.asList(args).contains("--http")) {
+            repository = new ConcurrentTaskRepository(repository);
+        }
+        if (args.length > 1 && args[0].equals("--deadlines")) {
+            repository = withDeadlines(repository, Integer.parseInt(args[1]));
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+        MetricsTaskRepository metricsRepository = withMetrics(repository);
+        if (args.length > 0 && args[0].equals("--http")) {
+            runHttp(metricsRepository, args.length > 1 ? Integer.parseInt(args[1]) : 8080);
+            return;
+        }
+        try {
+            if (args.length > 0 && args[0].equals("--batch")) {
+                runBatch(metricsRepository, args.length > 1 ? args[1] : null);
+                return;
+            }
+            // Команды вводятся вручную, поэтому измеряется каждый вызов.
+            metricsRepository.getMetrics().setSamplingInterval(1);
+            TaskManager taskManager = new TaskManager(metricsRepository);
+            taskManager.run();
+        } finally {
+            if (asyncRepository != null) {
+                asyncRepository.close();
+            }
+        }
+    }
+
+    /**
+     * Начинает запись JFR с настройками profile и событиями ru.andreynaz4renko.*. Запись сохраняется в файл
+     * при завершении процесса, в том числе по сигналу в режиме --http.
+     */
+    private static void startRecording(String file) {
+        try {
+            Recording recording = new Recording(Configuration.getConfiguration("profile"));
+            recording.setName("tasks");
+            recording.setDestination(Paths.get(file));
+            recording.setDumpOnExit(true);
+            recording.start();
+        } catch (Exception e) {
+            System.err.println(e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Оборачивает репозиторий в DeadlineTaskRepository, планировщик которого раз в минуту
+     * выводит в stdout задачи с приближающимся и прошедшим сроком.
+     */
+    private static TaskRepository withDeadlines(TaskRepository repository, int dueSoonDays) {
+        DeadlineScheduler scheduler = new DeadlineScheduler(Clock.systemDefaultZone(), dueSoonDays);
+        scheduler.addListener((event, taskId, deadline) -> System.out.println(event == DeadlineEvent.DUE_SOON
+                ? "Task " + taskId + " is due on " + deadline + "."
+                : "Task " + taskId + " is overdue since " + deadline + "."));
+        scheduler.start(1, TimeUnit.MINUTES);
+        return new DeadlineTaskRepository(repository, scheduler);
+    }
+
+    /**
+     * Оборачивает репозиторий в MetricsTaskRepository и публикует его метрики в JMX
+     * под именем ru.andreynaz4renko:type=TaskRepository,name=tasks.
+     */
+    private static MetricsTaskRepository withMetrics(TaskRepository repository) {
+        MetricsTaskRepository metricsRepository = new MetricsTaskRepository(repository);
+        try {
+            metricsRepository.getMetrics().register("tasks");
+        } catch (JMException e) {
+            System.err.println(e.getLocalizedMessage());
+        }
+        return metricsRepository;
+    }
+
+    /**
+     * Выполняет команды из файла сценария или, если он не указан, из stdin.
+     * Результаты команд выводятся в stdout, итоговая статистика - в stderr.
+     */
+    private static void runBatch(TaskRepository repository, String script) throws IOException {
+        BufferedReader input = script != null
+                ? Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8)
+                : new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16);
+        PrintWriter output = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16), false);
+        try (input) {
+            long start = System.nanoTime();
+            long commands = new BatchTaskManager(repository, input, output).run();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.err.printf("done\t%d commands\t%.3f s\t%.0f ops/s%n",
+                    commands, seconds, seconds > 0 ? commands / seconds : 0);
+        } finally {
+            output.flush();
+        }
+    }
+
+    /**
+     * Загружает задачи и запускает HTTP сервер над потокобезопасным репозиторием.
+     * Задачи сохраняются при остановке процесса.
+     */
+    private static void runHttp(TaskRepository repository, int port) throws IOException {
+        repository.loadTasks();
+        TaskHttpServer server = new TaskHttpServer(repository, new InetSocketAddress(port));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            repository.saveTasks();
+        }));
+        server.start();
+        System.out.println("Listening on http://localhost:" + server.getAddress().getPort() + "/tasks");
     }
-}
\ No newline at end of file
+}
@@ -1,16 +1,33 @@
 package ru.andreynaz4renko;
 
+import ru.andreynaz4renko.data.MetricsTaskRepository;
 import ru.andreynaz4renko.data.TaskRepository;
 import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
 import ru.andreynaz4renko.domain.TaskStatus;
+import ru.andreynaz4renko.jfr.CommandEvent;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.Scanner;
 
 public class TaskManager {
 
     private final TaskRepository taskRepository;
 
+    /**
+     * Буферизованный вывод списков задач. Сбрасывается после каждого списка, поэтому вывод команд
+     * не перемешивается с сообщениями, выводимыми напрямую в System.out.
+     */
+    private final PrintWriter output = new PrintWriter(new BufferedWriter(
+            new OutputStreamWriter(System.out, System.out.charset()), 1 << 16), false);
+
     public TaskManager(TaskRepository taskRepository) {
         this.taskRepository = taskRepository;
     }
@@ -27,13 +44,48 @@ public class TaskManager {
                     continue;
                 }
 
+                CommandEvent event = new CommandEvent();
+                event.begin();
                 switch (commandArgs[0]) {
                     case "help":
                         printHelp();
                         break;
                     case "list":
-                        if (commandArgs.length <= 3 && commandArgs[1].equals("-s")) {
-                            listTasks(commandArgs[2]);
+                        if (commandArgs.length == 1) {
+                            listTasks(taskRepository.getTasksList().getTasks());
+                            break;
+                        }
+                        if (commandArgs.length == 3) {
+                            listTasks(commandArgs[1], commandArgs[2]);
+                            break;
+                        }
+                        printInvalidCommand();
+                        break;
+                    case "page":
+                        if (commandArgs.length == 3) {
+                            listPage(commandArgs[1], commandArgs[2]);
+                            break;
+                        }
+                        printInvalidCommand();
+                        break;
+                    case "top":
+                        if (commandArgs.length == 2 || commandArgs.length == 4 && commandArgs[2].equals("-s")) {
+                            listTopTasks(commandArgs[1], commandArgs.length == 4 ? commandArgs[3] : null);
+                            break;
+                        }
+                        printInvalidCommand();
+                        break;
+                    case "due":
+                        if (commandArgs.length == 2) {
+                            listNextDeadlines(commandArgs[1]);
+                            break;
+                        }
+                        printInvalidCommand();
+                        break;
+                    case "search":
+                        if (commandArgs.length > 1) {
+                            String query = String.join(" ", Arrays.copyOfRange(commandArgs, 1, commandArgs.length));
+                            listTasks(taskRepository.searchTasks(query));
                             break;
                         }
                         printInvalidCommand();
@@ -72,6 +124,9 @@ public class TaskManager {
                     case "save":
                         saveTasks();
                         break;
+                    case "stats":
+                        printStats();
+                        break;
                     case "exit":
                         exit = true;
                         break;
@@ -79,6 +134,7 @@ public class TaskManager {
                         printInvalidCommand();
                         break;
                 }
+                event.finish(commandArgs[0]);
             }
         } catch (Exception e) {
             System.err.println(e.getLocalizedMessage());
@@ -105,26 +161,118 @@ public class TaskManager {
         System.out.println("Fail to save tasks.");
     }
 
+    private void printStats() {
+        if (taskRepository instanceof MetricsTaskRepository metricsRepository) {
+            System.out.println(metricsRepository.getMetrics());
+            return;
+        }
+        System.out.println("Metrics are not available for this repository.");
+    }
+
     private void printHelp() {
         System.out.println("Available commands:");
         System.out.println("help - Show this help message");
         System.out.println("list - List tasks");
         System.out.println("     -s [status (new/in_progress/done)]");
+        System.out.println("     -p [minimal priority (0-10)]");
+        System.out.println("     -d [deadline before (yyyy-mm-dd)]");
+        System.out.println("page [after id] [size] - List [size] tasks with ids greater than [after id], 0 for the first page");
+        System.out.println("top [n] - List [n] highest-priority tasks");
+        System.out.println("     -s [status (new/in_progress/done)]");
+        System.out.println("due [n] - List [n] unfinished tasks with the nearest deadlines, overdue first");
+        System.out.println("search [words] - List tasks containing all words, highest priority first");
         System.out.println("new - Create a new task");
         System.out.println("edit [id] - Edit an existing task");
         System.out.println("remove [id] - Remove a task");
         System.out.println("complete [id] - Mark a task as completed");
         System.out.println("load - Load tasks from repository");
         System.out.println("save - Save tasks into repository");
+        System.out.println("stats - Show operation counts, latencies in microseconds and I/O counters");
         System.out.println("exit - Exit the program");
+        System.out.println("Run with --batch [script] to execute commands from a file or stdin without prompts.");
+        System.out.println("Options go before --batch and --http, in this order:");
+        System.out.println("  --disk [cache size] - keep tasks in tasks.log on disk, only recently used ones in memory, not with --http");
+        System.out.println("  --shards [n] - split tasks across files tasks.0.xml ... tasks.[n-1].xml");
+        System.out.println("  --compact - keep tasks in compact columnar storage");
+        System.out.println("  --async [delay ms] - save changes in the background [delay ms] after the first one, not with --http");
+        System.out.println("  --deadlines [days] - report tasks due within [days] and overdue tasks every minute");
+    }
+
+    private void listTasks(String option, String value) {
+        TaskList taskList = taskRepository.getTasksList();
+        try {
+            switch (option) {
+                case "-s" -> listTasks(taskList.getTasksByStatus(TaskStatus.valueOf(value.toUpperCase())));
+                case "-p" -> listTasks(taskList.getTasksByMinPriority(Integer.parseInt(value)));
+                case "-d" -> listTasks(taskList.getTasksByDeadlineBefore(LocalDate.parse(value)));
+                default -> printInvalidCommand();
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            printInvalidCommand();
+        }
+    }
+
+    /**
+     * Выводит страницу задач и команду для следующей страницы, если страница заполнена.
+     * Следующая страница начинается после идентификатора последней выведенной задачи.
+     */
+    private void listPage(String afterId, String size) {
+        try {
+            int limit = Integer.parseInt(size);
+            List<Task> page = taskRepository.getTasksPage(Integer.parseInt(afterId), limit);
+            printTasks(page);
+            if (!page.isEmpty() && page.size() == limit) {
+                output.println("Next page: page " + page.get(page.size() - 1).getId() + " " + limit);
+            }
+            output.flush();
+        } catch (IllegalArgumentException e) {
+            printInvalidCommand();
+        }
+    }
+
+    private void listTopTasks(String count, String status) {
+        try {
+            listTasks(taskRepository.getTopTasksByPriority(
+                    status == null ? null : TaskStatus.valueOf(status.toUpperCase()), Integer.parseInt(count)));
+        } catch (IllegalArgumentException e) {
+            printInvalidCommand();
+        }
     }
 
-    private void listTasks(String status) {
-        System.out.println("Tasks:");
-        taskRepository.getTasksList().getTasks().stream()
-                .filter(task -> status == null || status.isEmpty() ||
-                        task.getStatus() == TaskStatus.valueOf(status.toUpperCase()))
-                .forEach(System.out::println);
+    private void listNextDeadlines(String count) {
+        try {
+            listTasks(taskRepository.getNextDeadlines(Integer.parseInt(count)));
+        } catch (IllegalArgumentException e) {
+            printInvalidCommand();
+        }
+    }
+
+    private void listTasks(Collection<Task> tasks) {
+        printTasks(tasks);
+        output.flush();
+    }
+
+    /**
+     * Выводит задачи в буфер вывода по полям, в том же виде, что и Task.toString(), но без сборки строки на задачу.
+     */
+    private void printTasks(Collection<Task> tasks) {
+        output.println("Tasks:");
+        for (Task task : tasks) {
+            output.print("Task ID: ");
+            output.print(task.getId());
+            output.print("\nCaption: ");
+            output.print(task.getCaption());
+            output.print("\nDescription: ");
+            output.print(task.getDescription());
+            output.print("\nPriority: ");
+            output.print(task.getPriority());
+            output.print("\nDeadline: ");
+            output.print(task.getDeadline());
+            output.print("\nCompletion Date: ");
+            output.print(task.getCompletion());
+            output.print("\nStatus: ");
+            output.println(task.getStatus());
+        }
     }
 
     private void completeTask(String taskId) {
@@ -145,7 +293,7 @@ public class TaskManager {
         System.out.print("Enter deadline: ");
         LocalDate deadline = LocalDate.parse(scanner.nextLine());
 
-        Task task = new Task(taskRepository.getMaxTaskId() + 1,
+        Task task = new Task(taskRepository.nextTaskId(),
                 caption,
                 description,
                 priority,
@@ -9,9 +9,50 @@ import ru.andreynaz4renko.data.xml.XmlTaskStatus;
 import ru.andreynaz4renko.domain.Task;
 import ru.andreynaz4renko.domain.TaskList;
 import ru.andreynaz4renko.domain.TaskStatus;
+import ru.andreynaz4renko.jfr.TaskConversionEvent;
 
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Класс TaskConverter преобразует задачи и списки задач между доменной моделью и моделями XML и JSON.
+ * Каждое преобразование списка записывается в JFR событием TaskConversionEvent. Представления и списки-приемники
+ * измеряют время каждой задачи только во время записи JFR; событие такого списка записывается вызовом finish().
+ */
 public class TaskConverter {
 
+    /**
+     * Таблицы соответствия статусов, индексированные порядковым номером исходного перечисления.
+     */
+    private static final XmlTaskStatus[] TASK_TO_XML_STATUS = new XmlTaskStatus[TaskStatus.values().length];
+    private static final TaskStatus[] XML_TO_TASK_STATUS = new TaskStatus[XmlTaskStatus.values().length];
+    private static final JsonTaskStatus[] TASK_TO_JSON_STATUS = new JsonTaskStatus[TaskStatus.values().length];
+    private static final TaskStatus[] JSON_TO_TASK_STATUS = new TaskStatus[JsonTaskStatus.values().length];
+
+    /**
+     * Имена статусов в XML и JSON файлах ("new", "in_progress", "done"), индексированные порядковым номером TaskStatus.
+     */
+    private static final String[] XML_STATUS_NAMES = new String[TaskStatus.values().length];
+    private static final String[] JSON_STATUS_NAMES = new String[TaskStatus.values().length];
+
+    static {
+        link(TaskStatus.NEW, XmlTaskStatus.NEW, JsonTaskStatus.NEW);
+        link(TaskStatus.IN_PROGRESS, XmlTaskStatus.IN_PROGRESS, JsonTaskStatus.IN_PROGRESS);
+        link(TaskStatus.DONE, XmlTaskStatus.DONE, JsonTaskStatus.DONE);
+    }
+
+    private static void link(TaskStatus status, XmlTaskStatus xmlStatus, JsonTaskStatus jsonStatus) {
+        TASK_TO_XML_STATUS[status.ordinal()] = xmlStatus;
+        XML_TO_TASK_STATUS[xmlStatus.ordinal()] = status;
+        TASK_TO_JSON_STATUS[status.ordinal()] = jsonStatus;
+        JSON_TO_TASK_STATUS[jsonStatus.ordinal()] = status;
+        XML_STATUS_NAMES[status.ordinal()] = xmlStatus.name().toLowerCase(Locale.ROOT);
+        JSON_STATUS_NAMES[status.ordinal()] = jsonStatus.name().toLowerCase(Locale.ROOT);
+    }
+
     /**
      * Преобразует статус задачи типа TaskStatus в XML-представление XmlTaskStatus.
      *
@@ -19,18 +60,7 @@ public class TaskConverter {
      * @return XML-представление статуса задачи XmlTaskStatus.
      */
     public static XmlTaskStatus taskStatusToXmlTaskStatus(TaskStatus status) {
-        switch (status) {
-            case NEW -> {
-                return XmlTaskStatus.NEW;
-            }
-            case IN_PROGRESS -> {
-                return XmlTaskStatus.IN_PROGRESS;
-            }
-            case DONE -> {
-                return XmlTaskStatus.DONE;
-            }
-        }
-        return XmlTaskStatus.NEW;
+        return TASK_TO_XML_STATUS[status.ordinal()];
     }
 
     /**
@@ -40,18 +70,7 @@ public class TaskConverter {
      * @return Статус задачи типа TaskStatus.
      */
     public static TaskStatus xmlTaskStatusToTaskStatus(XmlTaskStatus status) {
-        switch (status) {
-            case NEW -> {
-                return TaskStatus.NEW;
-            }
-            case IN_PROGRESS -> {
-                return TaskStatus.IN_PROGRESS;
-            }
-            case DONE -> {
-                return TaskStatus.DONE;
-            }
-        }
-        return TaskStatus.NEW;
+        return XML_TO_TASK_STATUS[status.ordinal()];
     }
 
     /**
@@ -61,18 +80,7 @@ public class TaskConverter {
      * @return JSON-представление статуса задачи JsonTaskStatus.
      */
     public static JsonTaskStatus taskStatusToJsonTaskStatus(TaskStatus status) {
-        switch (status) {
-            case NEW -> {
-                return JsonTaskStatus.NEW;
-            }
-            case IN_PROGRESS -> {
-                return JsonTaskStatus.IN_PROGRESS;
-            }
-            case DONE -> {
-                return JsonTaskStatus.DONE;
-            }
-        }
-        return JsonTaskStatus.NEW;
+        return TASK_TO_JSON_STATUS[status.ordinal()];
     }
 
     /**
@@ -82,18 +90,27 @@ public class TaskConverter {
      * @return Статус задачи типа TaskStatus.
      */
     public static TaskStatus jsonTaskStatusToTaskStatus(JsonTaskStatus status) {
-        switch (status) {
-            case NEW -> {
-                return TaskStatus.NEW;
-            }
-            case IN_PROGRESS -> {
-                return TaskStatus.IN_PROGRESS;
-            }
-            case DONE -> {
-                return TaskStatus.DONE;
-            }
-        }
-        return TaskStatus.NEW;
+        return JSON_TO_TASK_STATUS[status.ordinal()];
+    }
+
+    /**
+     * Возвращает имя статуса задачи в XML файле без создания новой строки.
+     *
+     * @param status Статус задачи типа TaskStatus.
+     * @return Имя статуса, например "in_progress".
+     */
+    public static String taskStatusToXmlName(TaskStatus status) {
+        return XML_STATUS_NAMES[status.ordinal()];
+    }
+
+    /**
+     * Возвращает имя статуса задачи в JSON файле без создания новой строки.
+     *
+     * @param status Статус задачи типа TaskStatus.
+     * @return Имя статуса, например "in_progress".
+     */
+    public static String taskStatusToJsonName(TaskStatus status) {
+        return JSON_STATUS_NAMES[status.ordinal()];
     }
 
     /**
@@ -162,14 +179,17 @@ public class TaskConverter {
 
     /**
      * Преобразует список задач типа TaskList в его XML-представление типа XmlTaskList.
+     * Список XmlTask не копируется: он является представлением TaskList, и каждый XmlTask создается
+     * при обращении к элементу, поэтому при маршализации в памяти находится только текущая задача.
      *
      * @param taskList Список задач типа TaskList.
      * @return XML-представление списка задач типа XmlTaskList.
      */
     public static XmlTaskList taskListToXmlTaskList(TaskList taskList) {
-        return new XmlTaskList(taskList.getTasks().stream()
-                .map(TaskConverter::taskToXmlTask)
-                .toList());
+        XmlTaskList xmlTaskList = new XmlTaskList(
+                new MappedList<>("Task -> XmlTask", taskList.getTasks(), TaskConverter::taskToXmlTask));
+        xmlTaskList.setLastTaskId(taskList.getLastTaskId());
+        return xmlTaskList;
     }
 
     /**
@@ -179,21 +199,46 @@ public class TaskConverter {
      * @return Объект списка задач типа TaskList.
      */
     public static TaskList xmlTaskListToTaskList(XmlTaskList xmlTaskList) {
-        return new TaskList(xmlTaskList.getTasks().stream()
-                .map(TaskConverter::xmlTaskToTask)
-                .toList());
+        TaskConversionEvent event = TaskConversionEvent.start("XmlTask -> Task");
+        long start = System.nanoTime();
+        TaskList taskList = new TaskList();
+        for (XmlTask task : xmlTaskList.getTasks()) {
+            taskList.addTask(xmlTaskToTask(task));
+        }
+        event.count(taskList.size(), System.nanoTime() - start);
+        event.finish();
+        if (xmlTaskList.getLastTaskId() != null) {
+            taskList.setLastTaskId(xmlTaskList.getLastTaskId());
+        }
+        return taskList;
+    }
+
+    /**
+     * Создает список-приемник XmlTask: каждый добавленный элемент преобразуется в Task и передается
+     * обработчику, а сам список остается пустым. Подставляется в XmlTaskList перед демаршализацией,
+     * чтобы задачи попадали в TaskList по мере разбора без промежуточного списка XmlTask.
+     * После демаршализации для списка вызывается finish().
+     *
+     * @param consumer Обработчик задач.
+     * @return Список-приемник.
+     */
+    public static List<XmlTask> xmlTaskSink(Consumer<Task> consumer) {
+        return new SinkList<>("XmlTask -> Task", task -> consumer.accept(xmlTaskToTask(task)));
     }
 
     /**
      * Преобразует список задач типа TaskList в его JSON-представление типа JsonTaskList.
+     * Список JsonTask не копируется: он является представлением TaskList, и каждый JsonTask создается
+     * при обращении к элементу.
      *
      * @param taskList Список задач типа TaskList.
      * @return JSON-представление списка задач типа JsonTaskList.
      */
     public static JsonTaskList taskListToJsonTaskList(TaskList taskList) {
-        return new JsonTaskList(taskList.getTasks().stream()
-                .map(TaskConverter::taskToJsonTask)
-                .toList());
+        JsonTaskList jsonTaskList = new JsonTaskList(
+                new MappedList<>("Task -> JsonTask", taskList.getTasks(), TaskConverter::taskToJsonTask));
+        jsonTaskList.setLastTaskId(taskList.getLastTaskId());
+        return jsonTaskList;
     }
 
     /**
@@ -203,9 +248,111 @@ public class TaskConverter {
      * @return Объект списка задач типа TaskList.
      */
     public static TaskList jsonTaskListToTaskList(JsonTaskList jsonTaskList) {
-        return new TaskList(jsonTaskList.getTasks().stream()
-                .map(TaskConverter::jsonTaskToTask)
-                .toList());
+        TaskConversionEvent event = TaskConversionEvent.start("JsonTask -> Task");
+        long start = System.nanoTime();
+        TaskList taskList = new TaskList();
+        for (JsonTask task : jsonTaskList.getTasks()) {
+            taskList.addTask(jsonTaskToTask(task));
+        }
+        event.count(taskList.size(), System.nanoTime() - start);
+        event.finish();
+        if (jsonTaskList.getLastTaskId() != null) {
+            taskList.setLastTaskId(jsonTaskList.getLastTaskId());
+        }
+        return taskList;
+    }
+
+    /**
+     * Создает список-приемник JsonTask: каждый добавленный элемент преобразуется в Task и передается
+     * обработчику, а сам список остается пустым.
+     *
+     * @param consumer Обработчик задач.
+     * @return Список-приемник.
+     */
+    public static List<JsonTask> jsonTaskSink(Consumer<Task> consumer) {
+        return new SinkList<>("JsonTask -> Task", task -> consumer.accept(jsonTaskToTask(task)));
+    }
+
+    /**
+     * Записывает событие JFR преобразования для представления списка задач или списка-приемника,
+     * созданного этим классом, после того как список полностью обработан. Для других списков ничего не делает.
+     *
+     * @param list Список, возвращенный taskListToXmlTaskList(), xmlTaskSink() или аналогичным методом.
+     */
+    public static void finish(List<?> list) {
+        if (list instanceof MappedList<?, ?> mappedList) {
+            mappedList.event.finish();
+        } else if (list instanceof SinkList<?> sinkList) {
+            sinkList.event.finish();
+        }
+    }
+
+    /**
+     * Представление списка, преобразующее элемент при каждом обращении к нему.
+     */
+    private static class MappedList<S, T> extends AbstractList<T> {
+
+        private final List<S> source;
+        private final Function<S, T> mapper;
+        private final TaskConversionEvent event;
+
+        MappedList(String conversion, List<S> source, Function<S, T> mapper) {
+            this.source = source;
+            this.mapper = mapper;
+            this.event = TaskConversionEvent.start(conversion);
+        }
+
+        @Override
+        public T get(int index) {
+            if (!event.isEnabled()) {
+                return mapper.apply(source.get(index));
+            }
+            long start = System.nanoTime();
+            T element = mapper.apply(source.get(index));
+            event.count(1, System.nanoTime() - start);
+            return element;
+        }
+
+        @Override
+        public int size() {
+            return source.size();
+        }
+    }
+
+    /**
+     * Список, передающий добавляемые элементы обработчику вместо хранения.
+     */
+    private static class SinkList<T> extends AbstractList<T> {
+
+        private final Consumer<T> consumer;
+        private final TaskConversionEvent event;
+
+        SinkList(String conversion, Consumer<T> consumer) {
+            this.consumer = consumer;
+            this.event = TaskConversionEvent.start(conversion);
+        }
+
+        @Override
+        public boolean add(T element) {
+            if (!event.isEnabled()) {
+                consumer.accept(element);
+                return true;
+            }
+            long start = System.nanoTime();
+            consumer.accept(element);
+            event.count(1, System.nanoTime() - start);
+            return true;
+        }
+
+        @Override
+        public T get(int index) {
+            throw new IndexOutOfBoundsException(index);
+        }
+
+        @Override
+        public int size() {
+            return 0;
+        }
     }
 
 }
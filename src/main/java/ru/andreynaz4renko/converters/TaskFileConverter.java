@@ -0,0 +1,62 @@
+package ru.andreynaz4renko.converters;
+
+import ru.andreynaz4renko.data.TaskRepository;
+import ru.andreynaz4renko.data.binary.BinaryTaskRepository;
+import ru.andreynaz4renko.data.json.JsonTaskRepository;
+import ru.andreynaz4renko.data.xml.StaxXmlTaskRepository;
+
+/**
+ * Класс TaskFileConverter преобразует файлы задач между форматами XML, JSON и бинарным снимком.
+ * Формат определяется по расширению файла: .xml, .json или .bin.
+ */
+public class TaskFileConverter {
+
+    /**
+     * Создает репозиторий задач для файла в соответствии с его расширением.
+     *
+     * @param filepath Путь к файлу задач.
+     * @return Репозиторий задач для указанного файла.
+     */
+    public static TaskRepository repositoryFor(String filepath) {
+        if (filepath.endsWith(".xml")) {
+            return new StaxXmlTaskRepository(filepath);
+        }
+        if (filepath.endsWith(".json")) {
+            return new JsonTaskRepository(filepath);
+        }
+        if (filepath.endsWith(".bin")) {
+            return new BinaryTaskRepository(filepath);
+        }
+        throw new IllegalArgumentException("Неизвестный формат файла задач: " + filepath);
+    }
+
+    /**
+     * Преобразует файл задач из одного формата в другой.
+     *
+     * @param source Путь к исходному файлу.
+     * @param target Путь к файлу результата.
+     * @return true, если файл успешно преобразован, в противном случае - false.
+     */
+    public static boolean convert(String source, String target) {
+        TaskRepository sourceRepository = repositoryFor(source);
+        TaskRepository targetRepository = repositoryFor(target);
+        if (!sourceRepository.loadTasks()) {
+            return false;
+        }
+        sourceRepository.getTasksList().getTasks().forEach(targetRepository::addTask);
+        targetRepository.getTasksList().setLastTaskId(sourceRepository.getTasksList().getLastTaskId());
+        return targetRepository.saveTasks();
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Usage: TaskFileConverter [source.xml|json|bin] [target.xml|json|bin]");
+            return;
+        }
+        if (convert(args[0], args[1])) {
+            System.out.println("Converted " + args[0] + " to " + args[1] + ".");
+            return;
+        }
+        System.out.println("Fail to convert " + args[0] + ".");
+    }
+}
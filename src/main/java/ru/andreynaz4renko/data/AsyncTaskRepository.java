@@ -0,0 +1,324 @@
+package ru.andreynaz4renko.data;
+
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
+import ru.andreynaz4renko.domain.TaskStatus;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Класс AsyncTaskRepository представляет собой репозиторий задач с фоновым сохранением.
+ * Изменения применяются к списку задач в памяти и помечают репозиторий измененным, а сохранение
+ * через репозиторий-делегат выполняется в отдельном потоке через заданную задержку.
+ * Все изменения, сделанные за время задержки, попадают в один снимок, поэтому серия изменений
+ * приводит к одной записи файла, а вызывающий поток не ждет диска.
+ * Загрузка и сохранение делегата выполняются только в фоновом потоке, поэтому делегат не требует синхронизации.
+ * Если делегат не сохранил задачи, репозиторий остается измененным и сохранение повторяется с удваивающейся
+ * задержкой; явный вызов saveTasks() или close() выполняет повтор сразу, не дожидаясь задержки.
+ * Изменять задачи должен один поток; для одновременных изменений из нескольких потоков
+ * предназначен ConcurrentTaskRepository.
+ * Для атомарной замены файла делегат должен записывать его через временный файл,
+ * как StaxXmlTaskRepository, JsonTaskRepository и BinaryTaskRepository.
+ */
+public class AsyncTaskRepository extends TaskRepository implements AutoCloseable {
+
+    /**
+     * Задержка по умолчанию между первым несохраненным изменением и записью снимка, в миллисекундах.
+     */
+    public static final long DEFAULT_COALESCE_DELAY = 100;
+
+    /**
+     * Задержка перед первым повтором неудавшегося сохранения, в миллисекундах.
+     */
+    private static final long MIN_RETRY_DELAY = 100;
+
+    /**
+     * Наибольшая задержка между повторами неудавшегося сохранения, в миллисекундах.
+     */
+    private static final long MAX_RETRY_DELAY = 30_000;
+
+    /**
+     * Репозиторий, через который задачи загружаются и сохраняются.
+     */
+    private final TaskRepository delegate;
+
+    /**
+     * Задержка между первым несохраненным изменением и записью снимка, в миллисекундах.
+     */
+    private final long coalesceDelay;
+
+    /**
+     * Фоновый поток загрузки и сохранения задач.
+     */
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "async-task-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Результат ближайшего запланированного сохранения или null, если несохраненных изменений нет.
+     */
+    private CompletableFuture<Boolean> pendingSave;
+
+    /**
+     * Задержка перед следующим повтором сохранения или 0, если последнее сохранение удалось.
+     */
+    private long retryDelay;
+
+    /**
+     * Признак закрытия репозитория: после него неудавшееся сохранение не повторяется.
+     */
+    private boolean closed;
+
+    /**
+     * Конструктор класса AsyncTaskRepository с задержкой сохранения по умолчанию.
+     *
+     * @param delegate Репозиторий, через который задачи загружаются и сохраняются.
+     */
+    public AsyncTaskRepository(TaskRepository delegate) {
+        this(delegate, DEFAULT_COALESCE_DELAY);
+    }
+
+    /**
+     * Конструктор класса AsyncTaskRepository.
+     *
+     * @param delegate      Репозиторий, через который задачи загружаются и сохраняются.
+     * @param coalesceDelay Задержка между первым несохраненным изменением и записью снимка, в миллисекундах.
+     */
+    public AsyncTaskRepository(TaskRepository delegate, long coalesceDelay) {
+        this.delegate = delegate;
+        this.coalesceDelay = coalesceDelay;
+    }
+
+    /**
+     * Загружает задачи через репозиторий-делегат в фоновом потоке, дожидаясь текущей записи.
+     * Несохраненные изменения отбрасываются.
+     *
+     * @return true, если задачи успешно загружены, в противном случае - false.
+     */
+    @Override
+    public boolean loadTasks() {
+        try {
+            TaskList loaded = writer.submit(() -> delegate.loadTasks() ? delegate.getTasksList() : null).get();
+            if (loaded == null) {
+                return false;
+            }
+            synchronized (this) {
+                tasks = loaded;
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println(e.getCause().getLocalizedMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Сохраняет задачи и ожидает завершения записи.
+     *
+     * @return true, если задачи успешно сохранены, в противном случае - false.
+     */
+    @Override
+    public boolean saveTasks() {
+        return saveTasksAsync().join();
+    }
+
+    /**
+     * Планирует сохранение задач, не ожидая записи. Если сохранение уже запланировано,
+     * возвращается его результат: оно включит все изменения, сделанные до момента записи.
+     * Повтор неудавшегося сохранения выполняется сразу, без ожидания задержки.
+     *
+     * @return Результат сохранения: true, если задачи успешно сохранены, в противном случае - false.
+     */
+    public synchronized CompletableFuture<Boolean> saveTasksAsync() {
+        if (pendingSave == null) {
+            schedule(0);
+        } else if (retryDelay > 0) {
+            writer.execute(this::flush);
+        }
+        return pendingSave;
+    }
+
+    @Override
+    public synchronized boolean addTask(Task task) {
+        return markDirty(super.addTask(task));
+    }
+
+    @Override
+    public synchronized boolean editTask(int id, String caption, String description, String priority, String deadline) {
+        return markDirty(super.editTask(id, caption, description, priority, deadline));
+    }
+
+    @Override
+    public synchronized boolean removeTask(int id) {
+        return markDirty(super.removeTask(id));
+    }
+
+    @Override
+    public synchronized boolean completeTask(int id) {
+        return markDirty(super.completeTask(id));
+    }
+
+    @Override
+    public synchronized boolean isTaskExists(int id) {
+        return super.isTaskExists(id);
+    }
+
+    @Override
+    public synchronized int nextTaskId() {
+        return super.nextTaskId();
+    }
+
+    @Override
+    public synchronized Task getTask(int id) {
+        return super.getTask(id);
+    }
+
+    @Override
+    public synchronized List<Task> searchTasks(String query) {
+        return super.searchTasks(query);
+    }
+
+    @Override
+    public synchronized List<Task> findTasks(Predicate<Task> filter, Comparator<Task> order) {
+        return super.findTasks(filter, order);
+    }
+
+    @Override
+    public synchronized List<Task> getTasksPage(int afterId, int limit) {
+        return super.getTasksPage(afterId, limit);
+    }
+
+    @Override
+    public synchronized List<Task> getTopTasksByPriority(TaskStatus status, int limit) {
+        return super.getTopTasksByPriority(status, limit);
+    }
+
+    @Override
+    public synchronized List<Task> getNextDeadlines(int limit) {
+        return super.getNextDeadlines(limit);
+    }
+
+    @Override
+    public long getBytesRead() {
+        return delegate.getBytesRead();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return delegate.getBytesWritten();
+    }
+
+    @Override
+    public long getTasksLoaded() {
+        return delegate.getTasksLoaded();
+    }
+
+    @Override
+    public long getTasksSaved() {
+        return delegate.getTasksSaved();
+    }
+
+    /**
+     * Возвращает список задач. Список уплотняется под блокировкой, чтобы его чтение вызывающим потоком
+     * не пересекалось с уплотнением при копировании снимка в фоновом потоке.
+     *
+     * @return Список задач.
+     */
+    @Override
+    public synchronized TaskList getTasksList() {
+        tasks.getTasks();
+        return super.getTasksList();
+    }
+
+    /**
+     * Сохраняет несохраненные изменения, ожидает завершения записи и останавливает фоновый поток.
+     * Если запись не удалась, она больше не повторяется, а изменения остаются несохраненными.
+     */
+    @Override
+    public void close() {
+        CompletableFuture<Boolean> save;
+        synchronized (this) {
+            closed = true;
+            save = pendingSave != null ? saveTasksAsync() : null;
+        }
+        if (save != null && !save.join()) {
+            System.err.println("Задачи не сохранены, несохраненные изменения потеряны.");
+        }
+        writer.shutdown();
+    }
+
+    /**
+     * Планирует сохранение, если изменение выполнено и сохранение еще не запланировано.
+     */
+    private boolean markDirty(boolean changed) {
+        if (changed && pendingSave == null) {
+            schedule(coalesceDelay);
+        }
+        return changed;
+    }
+
+    private void schedule(long delay) {
+        pendingSave = new CompletableFuture<>();
+        writer.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Копирует задачи под блокировкой и сохраняет копию через делегат без блокировки.
+     * Изменения, сделанные после копирования, планируют следующее сохранение.
+     * Если сохранение уже выполнено досрочно, ничего не делает.
+     */
+    private void flush() {
+        CompletableFuture<Boolean> save;
+        List<Task> snapshot;
+        int lastTaskId;
+        synchronized (this) {
+            save = pendingSave;
+            if (save == null) {
+                return;
+            }
+            pendingSave = null;
+            snapshot = tasks.getTasks().stream()
+                    .map(Task::new)
+                    .toList();
+            lastTaskId = tasks.getLastTaskId();
+        }
+        boolean saved = false;
+        try {
+            TaskList taskList = new TaskList(snapshot);
+            taskList.setLastTaskId(lastTaskId);
+            delegate.tasks = taskList;
+            saved = delegate.saveTasks();
+            save.complete(saved);
+        } catch (RuntimeException e) {
+            save.completeExceptionally(e);
+        } finally {
+            retry(saved);
+        }
+    }
+
+    /**
+     * Сбрасывает задержку повтора после удачного сохранения. После неудачного удваивает ее
+     * и планирует повтор, если репозиторий не закрыт и следующее сохранение еще не запланировано.
+     */
+    private synchronized void retry(boolean saved) {
+        if (saved) {
+            retryDelay = 0;
+            return;
+        }
+        retryDelay = retryDelay == 0 ? MIN_RETRY_DELAY : Math.min(retryDelay * 2, MAX_RETRY_DELAY);
+        if (!closed && pendingSave == null) {
+            schedule(retryDelay);
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package ru.andreynaz4renko.data;
+
+import ru.andreynaz4renko.domain.StripedTaskTextIndex;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
+import ru.andreynaz4renko.domain.TaskStatus;
+import ru.andreynaz4renko.domain.TaskTextIndex;
+import ru.andreynaz4renko.util.BoundedLongHeap;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Класс ConcurrentTaskRepository представляет собой потокобезопасный репозиторий задач.
+ * Задачи хранятся в ConcurrentHashMap как неизменяемые снимки: любое изменение создает копию задачи
+ * и атомарно заменяет ее в таблице. Поэтому чтение никогда не блокируется и не видит частично измененную задачу,
+ * а изменения задач с разными идентификаторами не конкурируют за общую блокировку.
+ * Полнотекстовый индекс строится при первом поиске, как в TaskList, и разбит на полосы по идентификатору задачи.
+ * После замены задачи в таблице индекс сверяется с ней вне вычисления ConcurrentHashMap, поэтому изменения текста
+ * задач блокируют только свою полосу индекса и не ждут поиска в других полосах.
+ * Загрузка и сохранение выполняются через репозиторий-делегат, хранящий задачи в файле целиком
+ * (например, XmlTaskRepository или JsonTaskRepository).
+ */
+public class ConcurrentTaskRepository extends TaskRepository {
+
+    private static final Comparator<Task> BY_PRIORITY = Comparator.comparingInt(Task::getPriority).reversed()
+            .thenComparingInt(Task::getId);
+
+    /**
+     * Количество полос полнотекстового индекса.
+     */
+    private static final int TEXT_INDEX_STRIPES = 64;
+
+    /**
+     * Репозиторий, через который задачи загружаются и сохраняются.
+     */
+    private final TaskRepository delegate;
+
+    /**
+     * Задачи, индексированные по идентификатору. Хранящиеся объекты Task не изменяются.
+     */
+    private final ConcurrentHashMap<Integer, Task> tasksById = new ConcurrentHashMap<>();
+
+    /**
+     * Последний выданный идентификатор задачи.
+     */
+    private final AtomicInteger lastTaskId = new AtomicInteger();
+
+    /**
+     * Полнотекстовый индекс заголовков и описаний задач или null, если поиск еще не выполнялся.
+     */
+    private volatile StripedTaskTextIndex textIndex;
+
+    /**
+     * Конструктор класса ConcurrentTaskRepository.
+     *
+     * @param delegate Репозиторий, через который задачи загружаются и сохраняются.
+     */
+    public ConcurrentTaskRepository(TaskRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Загружает задачи через репозиторий-делегат и заменяет ими текущие задачи.
+     *
+     * @return true, если задачи успешно загружены, в противном случае - false.
+     */
+    @Override
+    public synchronized boolean loadTasks() {
+        if (!delegate.loadTasks()) {
+            return false;
+        }
+        tasksById.clear();
+        textIndex = null;
+        TaskList loaded = delegate.getTasksList();
+        for (Task task : loaded.getTasks()) {
+            Task copy = new Task(task);
+            tasksById.put(copy.getId(), copy);
+        }
+        lastTaskId.set(loaded.getLastTaskId());
+        return true;
+    }
+
+    /**
+     * Сохраняет снимок текущих задач через репозиторий-делегат.
+     * Изменения, выполняемые другими потоками во время сохранения, могут не попасть в снимок.
+     *
+     * @return true, если задачи успешно сохранены, в противном случае - false.
+     */
+    @Override
+    public synchronized boolean saveTasks() {
+        delegate.tasks = getTasksList();
+        return delegate.saveTasks();
+    }
+
+    /**
+     * Задает фабрику списков задач делегата. Она же используется для снимков getTasksList(),
+     * поэтому, например, снимок с CompactTaskList::new сохраняется в поколоночном виде.
+     *
+     * @param taskListFactory Фабрика списков задач.
+     */
+    @Override
+    public void setTaskListFactory(Supplier<TaskList> taskListFactory) {
+        delegate.setTaskListFactory(taskListFactory);
+    }
+
+    @Override
+    protected TaskList newTaskList() {
+        return delegate.newTaskList();
+    }
+
+    @Override
+    public boolean isTaskExists(int id) {
+        return tasksById.containsKey(id);
+    }
+
+    @Override
+    public int getMaxTaskId() {
+        return tasksById.keySet().stream()
+                .mapToInt(Integer::intValue)
+                .max()
+                .orElse(0);
+    }
+
+    /**
+     * Атомарно выделяет идентификатор для новой задачи. Идентификаторы не повторяются,
+     * даже если несколько потоков создают задачи одновременно.
+     *
+     * @return Новый идентификатор задачи.
+     */
+    @Override
+    public int nextTaskId() {
+        return lastTaskId.incrementAndGet();
+    }
+
+    @Override
+    public boolean addTask(Task task) {
+        Task copy = new Task(task);
+        if (tasksById.putIfAbsent(copy.getId(), copy) != null) {
+            return false;
+        }
+        reindex(copy.getId());
+        lastTaskId.accumulateAndGet(task.getId(), Math::max);
+        return true;
+    }
+
+    @Override
+    public boolean editTask(int id, String caption, String description, String priority, String deadline) {
+        Integer newPriority = null;
+        if (priority != null && !priority.isEmpty()) {
+            newPriority = Integer.parseInt(priority);
+            if (newPriority < TaskList.MIN_PRIORITY || newPriority > TaskList.MAX_PRIORITY) {
+                return false;
+            }
+        }
+        LocalDate newDeadline = deadline != null && !deadline.isEmpty() ? LocalDate.parse(deadline) : null;
+        Integer finalPriority = newPriority;
+        boolean edited = tasksById.computeIfPresent(id, (key, current) -> {
+            Task task = new Task(current);
+            if (caption != null && !caption.isEmpty()) {
+                task.setCaption(caption);
+            }
+            if (description != null && !description.isEmpty()) {
+                task.setDescription(description);
+            }
+            if (finalPriority != null) {
+                task.setPriority(finalPriority);
+            }
+            if (newDeadline != null) {
+                task.setDeadline(newDeadline);
+            }
+            return task;
+        }) != null;
+        if (edited && (caption != null && !caption.isEmpty() || description != null && !description.isEmpty())) {
+            reindex(id);
+        }
+        return edited;
+    }
+
+    @Override
+    public boolean removeTask(int id) {
+        if (tasksById.remove(id) == null) {
+            return false;
+        }
+        reindex(id);
+        return true;
+    }
+
+    @Override
+    public boolean completeTask(int id) {
+        return tasksById.computeIfPresent(id, (key, current) -> {
+            Task task = new Task(current);
+            task.setStatus(TaskStatus.DONE);
+            task.setCompletion(LocalDate.now());
+            return task;
+        }) != null;
+    }
+
+    /**
+     * Возвращает задачу по идентификатору без блокировки. Возвращаемый объект не должен изменяться.
+     *
+     * @param id Идентификатор задачи.
+     * @return Задача или null, если задачи с таким идентификатором нет.
+     */
+    @Override
+    public Task getTask(int id) {
+        return tasksById.get(id);
+    }
+
+    /**
+     * Возвращает задачи, удовлетворяющие условию, без блокировки и без построения TaskList.
+     * Возвращаемые объекты не должны изменяться.
+     *
+     * @param filter Условие отбора задач.
+     * @param order  Порядок задач в результате.
+     * @return Список задач.
+     */
+    @Override
+    public List<Task> findTasks(Predicate<Task> filter, Comparator<Task> order) {
+        List<Task> result = new ArrayList<>();
+        for (Task task : tasksById.values()) {
+            if (filter.test(task)) {
+                result.add(task);
+            }
+        }
+        result.sort(order);
+        return result;
+    }
+
+    /**
+     * Ищет задачи, заголовок или описание которых содержат все слова запроса, по полнотекстовому индексу.
+     * Индекс строится при первом поиске. Найденные задачи перепроверяются по тексту, прочитанному из таблицы,
+     * поскольку задача могла измениться между поиском в индексе и чтением.
+     *
+     * @param query Слова через пробел, регистр и различие "е" и "ё" не учитываются.
+     * @return Задачи по убыванию приоритета, при равном приоритете - по идентификатору.
+     */
+    @Override
+    public List<Task> searchTasks(String query) {
+        int[] ids = textIndex().search(query);
+        Set<String> terms = TaskTextIndex.tokenize(query);
+        List<Task> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Task task = tasksById.get(id);
+            if (task != null && TaskTextIndex.matches(terms, task)) {
+                result.add(task);
+            }
+        }
+        result.sort(BY_PRIORITY);
+        return result;
+    }
+
+    /**
+     * Возвращает страницу задач по возрастанию идентификатора, отобранную ограниченной кучей
+     * за один проход по таблице без блокировки.
+     *
+     * @param afterId Идентификатор, после которого начинается страница, или 0 для первой страницы.
+     * @param limit   Размер страницы.
+     * @return Список не более чем из limit задач.
+     */
+    @Override
+    public List<Task> getTasksPage(int afterId, int limit) {
+        BoundedLongHeap heap = new BoundedLongHeap(limit);
+        for (Task task : tasksById.values()) {
+            if (task.getId() > afterId) {
+                heap.offer(BoundedLongHeap.key(0, task.getId()));
+            }
+        }
+        return tasksByKeys(heap);
+    }
+
+    /**
+     * Возвращает задачи с наивысшим приоритетом, отобранные ограниченной кучей за один проход по таблице.
+     *
+     * @param status Статус задач или null для задач с любым статусом.
+     * @param limit  Количество задач.
+     * @return Список задач.
+     */
+    @Override
+    public List<Task> getTopTasksByPriority(TaskStatus status, int limit) {
+        BoundedLongHeap heap = new BoundedLongHeap(limit);
+        for (Task task : tasksById.values()) {
+            if (status == null || task.getStatus() == status) {
+                heap.offer(BoundedLongHeap.key(TaskList.MAX_PRIORITY - task.getPriority(), task.getId()));
+            }
+        }
+        return tasksByKeys(heap);
+    }
+
+    /**
+     * Возвращает невыполненные задачи с ближайшими сроками, отобранные ограниченной кучей
+     * за один проход по таблице.
+     *
+     * @param limit Количество задач.
+     * @return Список задач.
+     */
+    @Override
+    public List<Task> getNextDeadlines(int limit) {
+        BoundedLongHeap heap = new BoundedLongHeap(limit);
+        for (Task task : tasksById.values()) {
+            if (task.getStatus() != TaskStatus.DONE && task.getDeadline() != null) {
+                heap.offer(BoundedLongHeap.key((int) task.getDeadline().toEpochDay(), task.getId()));
+            }
+        }
+        return tasksByKeys(heap);
+    }
+
+    /**
+     * Возвращает задачи по ключам, отобранным кучей, в порядке возрастания ключей.
+     * Задачи, удаленные после отбора, пропускаются.
+     */
+    private List<Task> tasksByKeys(BoundedLongHeap heap) {
+        long[] keys = heap.toSortedArray();
+        List<Task> result = new ArrayList<>(keys.length);
+        for (long key : keys) {
+            Task task = tasksById.get((int) key);
+            if (task != null) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Приводит текст задачи в полнотекстовом индексе к ее состоянию в таблице, если индекс уже построен.
+     * Вызывается после изменения таблицы, вне вычислений ConcurrentHashMap.
+     *
+     * @param id Идентификатор задачи.
+     */
+    private void reindex(int id) {
+        StripedTaskTextIndex index = textIndex;
+        if (index != null) {
+            index.sync(id, tasksById::get);
+        }
+    }
+
+    /**
+     * Возвращает полнотекстовый индекс, при первом обращении строя его по таблице.
+     * Индекс публикуется до обхода таблицы, поэтому изменения во время построения сверяются с ним сами,
+     * а обход сверяет задачи, измененные до публикации.
+     */
+    private StripedTaskTextIndex textIndex() {
+        StripedTaskTextIndex index = textIndex;
+        if (index != null) {
+            return index;
+        }
+        synchronized (tasksById) {
+            index = textIndex;
+            if (index == null) {
+                index = new StripedTaskTextIndex(TEXT_INDEX_STRIPES);
+                textIndex = index;
+                for (Integer id : tasksById.keySet()) {
+                    index.sync(id, tasksById::get);
+                }
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public long getBytesRead() {
+        return delegate.getBytesRead();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return delegate.getBytesWritten();
+    }
+
+    @Override
+    public long getTasksLoaded() {
+        return delegate.getTasksLoaded();
+    }
+
+    @Override
+    public long getTasksSaved() {
+        return delegate.getTasksSaved();
+    }
+
+    /**
+     * Возвращает снимок текущих задач, упорядоченных по идентификатору, в списке, созданном фабрикой делегата.
+     * Снимок строится за один проход по таблице и сортировку массива идентификаторов, поэтому
+     * предназначен для сохранения и редких чтений всего списка; отдельные задачи и выборки
+     * читаются из таблицы напрямую через getTask() и findTasks().
+     * Добавление и удаление задач в снимке не влияют на репозиторий. Задачи снимка разделяются
+     * с репозиторием и не должны изменяться.
+     *
+     * @return Список задач.
+     */
+    @Override
+    public TaskList getTasksList() {
+        int[] ids = tasksById.keySet().stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(ids);
+        TaskList taskList = newTaskList();
+        for (int id : ids) {
+            Task task = tasksById.get(id);
+            if (task != null) {
+                taskList.addTask(task);
+            }
+        }
+        taskList.setLastTaskId(lastTaskId.get());
+        return taskList;
+    }
+}
@@ -0,0 +1,228 @@
+package ru.andreynaz4renko.data;
+
+import ru.andreynaz4renko.deadline.DeadlineScheduler;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
+import ru.andreynaz4renko.domain.TaskStatus;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Класс DeadlineTaskRepository представляет собой репозиторий задач, передающий сроки выполнения
+ * задач в DeadlineScheduler. Все операции выполняются репозиторием-делегатом; после успешной операции
+ * планировщик начинает отслеживать срок новой задачи, переносит измененный срок и перестает отслеживать
+ * выполненную или удаленную задачу, каждый раз за O(log n).
+ * <p>
+ * После операции состояние задачи перечитывается из делегата под блокировкой планировщика, поэтому при
+ * потокобезопасном делегате (ConcurrentTaskRepository в режиме --http) одновременные изменения одной задачи
+ * не оставляют в планировщике устаревший срок: последнее перечитывание видит результат всех операций.
+ * После загрузки сроки всех невыполненных задач передаются в планировщик заново, поэтому события
+ * по уже прошедшим срокам срабатывают повторно.
+ * <p>
+ * Изменения, сделанные в обход репозитория, планировщик видит только после загрузки или сохранения.
+ * Поэтому при использовании с ConcurrentTaskRepository или AsyncTaskRepository, которые вызывают делегат
+ * только для загрузки и сохранения, этот репозиторий должен быть внешним.
+ */
+public class DeadlineTaskRepository extends TaskRepository {
+
+    /**
+     * Репозиторий, выполняющий операции с задачами.
+     */
+    private final TaskRepository delegate;
+
+    private final DeadlineScheduler scheduler;
+
+    /**
+     * Последний список задач, выданный getTasksList(). Если поле tasks указывает на другой список,
+     * его подменила обертка, и при сохранении он передается делегату, а сроки отслеживаются заново.
+     */
+    private TaskList view;
+
+    /**
+     * Конструктор класса DeadlineTaskRepository.
+     *
+     * @param delegate  Репозиторий, выполняющий операции с задачами.
+     * @param scheduler Планировщик, отслеживающий сроки задач.
+     */
+    public DeadlineTaskRepository(TaskRepository delegate, DeadlineScheduler scheduler) {
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+        this.view = tasks;
+    }
+
+    /**
+     * Загружает задачи через делегат и передает в планировщик сроки всех невыполненных задач.
+     *
+     * @return true, если задачи успешно загружены, в противном случае - false.
+     */
+    @Override
+    public boolean loadTasks() {
+        if (!delegate.loadTasks()) {
+            return false;
+        }
+        reschedule(getTasksList());
+        return true;
+    }
+
+    @Override
+    public boolean saveTasks() {
+        if (tasks != view) {
+            delegate.tasks = tasks;
+            reschedule(tasks);
+            view = tasks;
+        }
+        return delegate.saveTasks();
+    }
+
+    @Override
+    public void setTaskListFactory(Supplier<TaskList> taskListFactory) {
+        delegate.setTaskListFactory(taskListFactory);
+    }
+
+    @Override
+    public boolean isTaskExists(int id) {
+        return delegate.isTaskExists(id);
+    }
+
+    @Override
+    public int getMaxTaskId() {
+        return delegate.getMaxTaskId();
+    }
+
+    @Override
+    public int nextTaskId() {
+        return delegate.nextTaskId();
+    }
+
+    @Override
+    public Task getTask(int id) {
+        return delegate.getTask(id);
+    }
+
+    @Override
+    public boolean addTask(Task task) {
+        if (!delegate.addTask(task)) {
+            return false;
+        }
+        sync(task.getId());
+        return true;
+    }
+
+    @Override
+    public boolean editTask(int id, String caption, String description, String priority, String deadline) {
+        if (!delegate.editTask(id, caption, description, priority, deadline)) {
+            return false;
+        }
+        if (deadline != null && !deadline.isEmpty()) {
+            sync(id);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean removeTask(int id) {
+        if (!delegate.removeTask(id)) {
+            return false;
+        }
+        sync(id);
+        return true;
+    }
+
+    @Override
+    public boolean completeTask(int id) {
+        if (!delegate.completeTask(id)) {
+            return false;
+        }
+        sync(id);
+        return true;
+    }
+
+    @Override
+    public List<Task> searchTasks(String query) {
+        return delegate.searchTasks(query);
+    }
+
+    @Override
+    public List<Task> findTasks(Predicate<Task> filter, Comparator<Task> order) {
+        return delegate.findTasks(filter, order);
+    }
+
+    @Override
+    public List<Task> getTasksPage(int afterId, int limit) {
+        return delegate.getTasksPage(afterId, limit);
+    }
+
+    @Override
+    public List<Task> getTopTasksByPriority(TaskStatus status, int limit) {
+        return delegate.getTopTasksByPriority(status, limit);
+    }
+
+    @Override
+    public List<Task> getNextDeadlines(int limit) {
+        return delegate.getNextDeadlines(limit);
+    }
+
+    @Override
+    public long getBytesRead() {
+        return delegate.getBytesRead();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return delegate.getBytesWritten();
+    }
+
+    @Override
+    public long getTasksLoaded() {
+        return delegate.getTasksLoaded();
+    }
+
+    @Override
+    public long getTasksSaved() {
+        return delegate.getTasksSaved();
+    }
+
+    @Override
+    public TaskList getTasksList() {
+        TaskList taskList = delegate.getTasksList();
+        tasks = taskList;
+        view = taskList;
+        return taskList;
+    }
+
+    /**
+     * Перечитывает задачу из делегата и передает ее срок в планировщик или отменяет отслеживание,
+     * если задача удалена или выполнена. Чтение и изменение планировщика выполняются под его блокировкой.
+     */
+    private void sync(int id) {
+        synchronized (scheduler) {
+            Task task = delegate.getTask(id);
+            if (task == null) {
+                scheduler.cancel(id);
+            } else {
+                schedule(task);
+            }
+        }
+    }
+
+    /**
+     * Передает срок задачи в планировщик или отменяет отслеживание, если задача выполнена или срока нет.
+     */
+    private void schedule(Task task) {
+        LocalDate deadline = task.getStatus() == TaskStatus.DONE ? null : task.getDeadline();
+        scheduler.schedule(task.getId(), deadline);
+    }
+
+    private void reschedule(TaskList taskList) {
+        synchronized (scheduler) {
+            scheduler.clear();
+            for (Task task : taskList.getTasks()) {
+                schedule(task);
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package ru.andreynaz4renko.data;
+
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
+import ru.andreynaz4renko.domain.TaskStatus;
+import ru.andreynaz4renko.jfr.RepositoryLoadEvent;
+import ru.andreynaz4renko.jfr.RepositorySaveEvent;
+import ru.andreynaz4renko.metrics.RepositoryMetrics;
+import ru.andreynaz4renko.metrics.RepositoryOperation;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Класс MetricsTaskRepository представляет собой репозиторий задач, измеряющий операции репозитория-делегата.
+ * Для загрузки, сохранения, добавления, редактирования, выполнения, удаления, поиска и выборок учитываются
+ * количество вызовов, количество неудач (false или исключение) и гистограмма длительностей;
+ * количество прочитанных и записанных байт, загруженных и сохраненных задач берется из счетчиков делегата.
+ * Загрузка и сохранение также записываются в JFR событиями RepositoryLoadEvent и RepositorySaveEvent.
+ * <p>
+ * Учет вызова не блокирует и не выделяет память, поэтому репозиторий потокобезопасен, если потокобезопасен делегат.
+ * Длительность загрузки и сохранения измеряется всегда, а остальных операций - у случайной выборки вызовов
+ * (см. RepositoryMetrics.setSamplingInterval()), чтобы измерение не замедляло операции над списком в памяти.
+ * Обертки ConcurrentTaskRepository и AsyncTaskRepository вызывают делегат только для загрузки и сохранения,
+ * поэтому для измерения всех операций этот репозиторий должен быть внешним.
+ */
+public class MetricsTaskRepository extends TaskRepository {
+
+    /**
+     * Репозиторий, выполняющий операции с задачами.
+     */
+    private final TaskRepository delegate;
+
+    private final RepositoryMetrics metrics;
+
+    /**
+     * Последний список задач, выданный getTasksList(). Если поле tasks указывает на другой список,
+     * его подменила обертка, и при сохранении он передается делегату.
+     */
+    private TaskList view;
+
+    /**
+     * Конструктор класса MetricsTaskRepository.
+     *
+     * @param delegate Репозиторий, выполняющий операции с задачами.
+     */
+    public MetricsTaskRepository(TaskRepository delegate) {
+        this.delegate = delegate;
+        this.metrics = new RepositoryMetrics(delegate::getBytesRead, delegate::getBytesWritten,
+                delegate::getTasksLoaded, delegate::getTasksSaved);
+        this.view = tasks;
+    }
+
+    /**
+     * Возвращает метрики репозитория, например для регистрации в JMX.
+     *
+     * @return Метрики репозитория.
+     */
+    public RepositoryMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public boolean loadTasks() {
+        RepositoryLoadEvent event = new RepositoryLoadEvent();
+        event.start(delegate);
+        long start = metrics.start(RepositoryOperation.LOAD);
+        boolean loaded = false;
+        try {
+            loaded = delegate.loadTasks();
+            return loaded;
+        } finally {
+            metrics.record(RepositoryOperation.LOAD, start, loaded);
+            event.finish(loaded);
+        }
+    }
+
+    @Override
+    public boolean saveTasks() {
+        RepositorySaveEvent event = new RepositorySaveEvent();
+        event.start(delegate);
+        long start = metrics.start(RepositoryOperation.SAVE);
+        boolean saved = false;
+        try {
+            if (tasks != view) {
+                delegate.tasks = tasks;
+                view = tasks;
+            }
+            saved = delegate.saveTasks();
+            return saved;
+        } finally {
+            metrics.record(RepositoryOperation.SAVE, start, saved);
+            event.finish(saved);
+        }
+    }
+
+    @Override
+    public void setTaskListFactory(Supplier<TaskList> taskListFactory) {
+        delegate.setTaskListFactory(taskListFactory);
+    }
+
+    @Override
+    public boolean isTaskExists(int id) {
+        return delegate.isTaskExists(id);
+    }
+
+    @Override
+    public int getMaxTaskId() {
+        return delegate.getMaxTaskId();
+    }
+
+    @Override
+    public int nextTaskId() {
+        return delegate.nextTaskId();
+    }
+
+    @Override
+    public Task getTask(int id) {
+        return delegate.getTask(id);
+    }
+
+    @Override
+    public boolean addTask(Task task) {
+        long start = metrics.start(RepositoryOperation.ADD);
+        boolean added = false;
+        try {
+            added = delegate.addTask(task);
+            return added;
+        } finally {
+            metrics.record(RepositoryOperation.ADD, start, added);
+        }
+    }
+
+    @Override
+    public boolean editTask(int id, String caption, String description, String priority, String deadline) {
+        long start = metrics.start(RepositoryOperation.EDIT);
+        boolean edited = false;
+        try {
+            edited = delegate.editTask(id, caption, description, priority, deadline);
+            return edited;
+        } finally {
+            metrics.record(RepositoryOperation.EDIT, start, edited);
+        }
+    }
+
+    @Override
+    public boolean removeTask(int id) {
+        long start = metrics.start(RepositoryOperation.REMOVE);
+        boolean removed = false;
+        try {
+            removed = delegate.removeTask(id);
+            return removed;
+        } finally {
+            metrics.record(RepositoryOperation.REMOVE, start, removed);
+        }
+    }
+
+    @Override
+    public boolean completeTask(int id) {
+        long start = metrics.start(RepositoryOperation.COMPLETE);
+        boolean completed = false;
+        try {
+            completed = delegate.completeTask(id);
+            return completed;
+        } finally {
+            metrics.record(RepositoryOperation.COMPLETE, start, completed);
+        }
+    }
+
+    @Override
+    public List<Task> searchTasks(String query) {
+        long start = metrics.start(RepositoryOperation.SEARCH);
+        boolean succeeded = false;
+        try {
+            List<Task> result = delegate.searchTasks(query);
+            succeeded = true;
+            return result;
+        } finally {
+            metrics.record(RepositoryOperation.SEARCH, start, succeeded);
+        }
+    }
+
+    @Override
+    public List<Task> findTasks(Predicate<Task> filter, Comparator<Task> order) {
+        long start = metrics.start(RepositoryOperation.FIND);
+        boolean succeeded = false;
+        try {
+            List<Task> result = delegate.findTasks(filter, order);
+            succeeded = true;
+            return result;
+        } finally {
+            metrics.record(RepositoryOperation.FIND, start, succeeded);
+        }
+    }
+
+    @Override
+    public List<Task> getTasksPage(int afterId, int limit) {
+        long start = metrics.start(RepositoryOperation.FIND);
+        boolean succeeded = false;
+        try {
+            List<Task> result = delegate.getTasksPage(afterId, limit);
+            succeeded = true;
+            return result;
+        } finally {
+            metrics.record(RepositoryOperation.FIND, start, succeeded);
+        }
+    }
+
+    @Override
+    public List<Task> getTopTasksByPriority(TaskStatus status, int limit) {
+        long start = metrics.start(RepositoryOperation.FIND);
+        boolean succeeded = false;
+        try {
+            List<Task> result = delegate.getTopTasksByPriority(status, limit);
+            succeeded = true;
+            return result;
+        } finally {
+            metrics.record(RepositoryOperation.FIND, start, succeeded);
+        }
+    }
+
+    @Override
+    public List<Task> getNextDeadlines(int limit) {
+        long start = metrics.start(RepositoryOperation.FIND);
+        boolean succeeded = false;
+        try {
+            List<Task> result = delegate.getNextDeadlines(limit);
+            succeeded = true;
+            return result;
+        } finally {
+            metrics.record(RepositoryOperation.FIND, start, succeeded);
+        }
+    }
+
+    @Override
+    public long getBytesRead() {
+        return delegate.getBytesRead();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return delegate.getBytesWritten();
+    }
+
+    @Override
+    public long getTasksLoaded() {
+        return delegate.getTasksLoaded();
+    }
+
+    @Override
+    public long getTasksSaved() {
+        return delegate.getTasksSaved();
+    }
+
+    @Override
+    public TaskList getTasksList() {
+        TaskList taskList = delegate.getTasksList();
+        tasks = taskList;
+        view = taskList;
+        return taskList;
+    }
+}
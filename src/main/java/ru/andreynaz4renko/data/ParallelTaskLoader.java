@@ -0,0 +1,60 @@
+package ru.andreynaz4renko.data;
+
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Класс ParallelTaskLoader разбирает части файла задач параллельно и собирает их в один список задач.
+ */
+public final class ParallelTaskLoader {
+
+    /**
+     * Количество частей на поток: части разного размера и сложности распределяются между потоками равномернее.
+     */
+    public static final int CHUNKS_PER_THREAD = 4;
+
+    private static final Comparator<Task> BY_ID = Comparator.comparingInt(Task::getId);
+
+    private ParallelTaskLoader() { }
+
+    /**
+     * Разбирает части в отдельном ForkJoinPool и добавляет задачи в список в порядке идентификаторов.
+     *
+     * @param chunks  Части файла задач.
+     * @param threads Количество потоков разбора.
+     * @param target  Список, в который добавляются задачи.
+     * @throws Exception В случае ошибки разбора любой из частей.
+     */
+    public static void load(TaskChunks chunks, int threads, TaskList target) throws Exception {
+        List<Callable<List<Task>>> parses = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            int index = i;
+            parses.add(() -> chunks.parse(index));
+        }
+        List<Task> loaded = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (Future<List<Task>> parsed : pool.invokeAll(parses)) {
+                loaded.addAll(parsed.get());
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            pool.shutdown();
+        }
+        // Части обычно уже упорядочены, поэтому сортировка сводится к слиянию упорядоченных участков.
+        loaded.sort(BY_ID);
+        for (Task task : loaded) {
+            target.addTask(task);
+        }
+        target.setLastTaskId(chunks.getLastTaskId());
+    }
+}
@@ -0,0 +1,563 @@
+package ru.andreynaz4renko.data;
+
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
+import ru.andreynaz4renko.domain.TaskStatus;
+import ru.andreynaz4renko.util.AtomicFiles;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Класс ShardedTaskRepository представляет собой репозиторий задач, распределенных по нескольким файлам.
+ * Задача с идентификатором id хранится в шарде id mod N, каждый шард - отдельный файл tasks.[номер].xml
+ * (или другого формата), который загружается и сохраняется своим репозиторием.
+ * <p>
+ * После loadTasks() шарды загружаются лениво: операция с одной задачей загружает только ее шард,
+ * а операции со всем списком догружают недостающие шарды параллельно в общем ForkJoinPool.
+ * saveTasks() параллельно записывает только измененные шарды, поэтому время загрузки и сохранения
+ * определяется количеством затронутых шардов, а не общим количеством задач.
+ * Счетчик идентификаторов хранится в отдельном файле [filepath].lastid, чтобы выдача идентификатора
+ * не требовала загрузки всех шардов.
+ * <p>
+ * Обертки ConcurrentTaskRepository и AsyncTaskRepository сохраняют задачи, подменяя список задач делегата.
+ * В этом случае список заново распределяется по шардам и записываются все шарды.
+ */
+public class ShardedTaskRepository extends TaskRepository {
+
+    /**
+     * Значение счетчика, обозначающее, что файл счетчика не найден и последний идентификатор неизвестен.
+     */
+    private static final int UNKNOWN_ID = -1;
+
+    private static final Comparator<Task> BY_ID = Comparator.comparingInt(Task::getId);
+
+    private static final Comparator<Task> BY_PRIORITY = Comparator.comparingInt(Task::getPriority).reversed()
+            .thenComparing(BY_ID);
+
+    private static final Comparator<Task> BY_DEADLINE = Comparator.comparing(Task::getDeadline).thenComparing(BY_ID);
+
+    /**
+     * Пути к файлам шардов.
+     */
+    private final String[] paths;
+
+    /**
+     * Фабрика репозиториев шардов по пути к файлу.
+     */
+    private final Function<String, TaskRepository> repositoryFactory;
+
+    /**
+     * Путь к файлу счетчика идентификаторов.
+     */
+    private final Path counterPath;
+
+    private final TaskRepository[] shards;
+
+    /**
+     * Признаки того, что задачи шарда находятся в памяти.
+     */
+    private final boolean[] loaded;
+
+    /**
+     * Признаки того, что шард изменен после последней загрузки или сохранения.
+     */
+    private final boolean[] dirty;
+
+    private Supplier<TaskList> taskListFactory = TaskList::new;
+
+    /**
+     * Последний выданный идентификатор задачи или UNKNOWN_ID.
+     */
+    private int lastTaskId;
+
+    /**
+     * Признак того, что счетчик изменен после последней загрузки или сохранения.
+     */
+    private boolean counterDirty;
+
+    /**
+     * Последний список задач, выданный getTasksList(). Если поле tasks указывает на другой список,
+     * его подменила обертка, и при сохранении он распределяется по шардам.
+     */
+    private TaskList view;
+
+    /**
+     * Конструктор класса ShardedTaskRepository. Созданный репозиторий пуст; файлы шардов читаются после loadTasks().
+     *
+     * @param filepath          Путь к файлу задач, например tasks.xml. Шарды хранятся в файлах tasks.0.xml,
+     *                          tasks.1.xml и так далее.
+     * @param shardCount        Количество шардов.
+     * @param repositoryFactory Фабрика репозиториев шардов по пути к файлу, например TaskFileConverter::repositoryFor.
+     */
+    public ShardedTaskRepository(String filepath, int shardCount, Function<String, TaskRepository> repositoryFactory) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Количество шардов должно быть положительным");
+        }
+        this.repositoryFactory = repositoryFactory;
+        this.counterPath = Paths.get(filepath + ".lastid");
+        this.paths = new String[shardCount];
+        this.shards = new TaskRepository[shardCount];
+        this.loaded = new boolean[shardCount];
+        this.dirty = new boolean[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            paths[i] = shardPath(filepath, i);
+        }
+        reset(true);
+        view = tasks;
+    }
+
+    /**
+     * Отбрасывает задачи в памяти и читает счетчик идентификаторов. Шарды загружаются при первом обращении.
+     *
+     * @return true, если счетчик прочитан или файла счетчика нет, в противном случае - false.
+     */
+    @Override
+    public boolean loadTasks() {
+        reset(false);
+        try {
+            if (Files.exists(counterPath)) {
+                String counter = Files.readString(counterPath, StandardCharsets.US_ASCII);
+                countBytesRead(counter.length());
+                lastTaskId = Integer.parseInt(counter.trim());
+            } else {
+                lastTaskId = UNKNOWN_ID;
+            }
+            return true;
+        } catch (Exception e) {
+            System.err.println(e.getLocalizedMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Сохраняет измененные шарды параллельно. Счетчик идентификаторов записывается раньше шардов,
+     * поэтому после сбоя он может только опережать идентификаторы в файлах.
+     *
+     * @return true, если все измененные шарды успешно сохранены, в противном случае - false.
+     */
+    @Override
+    public boolean saveTasks() {
+        if (tasks != view) {
+            distribute(tasks);
+        }
+        if (counterDirty) {
+            try {
+                String counter = Integer.toString(lastTaskId);
+                countBytesWritten(AtomicFiles.write(counterPath,
+                        output -> output.write(counter.getBytes(StandardCharsets.US_ASCII))));
+                counterDirty = false;
+            } catch (Exception e) {
+                System.err.println(e.getLocalizedMessage());
+                return false;
+            }
+        }
+        List<Callable<Boolean>> saves = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            if (dirty[i]) {
+                int index = i;
+                saves.add(() -> {
+                    boolean saved = shards[index].saveTasks();
+                    dirty[index] = !saved;
+                    return saved;
+                });
+            }
+        }
+        return invokeAll(saves);
+    }
+
+    @Override
+    public void setTaskListFactory(Supplier<TaskList> taskListFactory) {
+        super.setTaskListFactory(taskListFactory);
+        this.taskListFactory = taskListFactory;
+        for (TaskRepository shard : shards) {
+            shard.setTaskListFactory(taskListFactory);
+        }
+        view = tasks;
+    }
+
+    @Override
+    public boolean isTaskExists(int id) {
+        TaskRepository shard = shardFor(id);
+        return shard != null && shard.isTaskExists(id);
+    }
+
+    @Override
+    public int getMaxTaskId() {
+        loadAll();
+        int max = 0;
+        for (int i = 0; i < shards.length; i++) {
+            if (loaded[i]) {
+                max = Math.max(max, shards[i].getMaxTaskId());
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Возвращает идентификатор для новой задачи. Если файла счетчика не было, при первом вызове
+     * загружаются все шарды, и счетчик восстанавливается по ним.
+     *
+     * @return Идентификатор, больший всех когда-либо выданных идентификаторов.
+     */
+    @Override
+    public int nextTaskId() {
+        if (lastTaskId == UNKNOWN_ID && loadAll()) {
+            int max = 0;
+            for (TaskRepository shard : shards) {
+                max = Math.max(max, shard.getTasksList().getLastTaskId());
+            }
+            lastTaskId = max;
+            counterDirty = true;
+        }
+        return Math.max(lastTaskId, 0) + 1;
+    }
+
+    @Override
+    public Task getTask(int id) {
+        TaskRepository shard = shardFor(id);
+        return shard == null ? null : shard.getTask(id);
+    }
+
+    @Override
+    public boolean addTask(Task task) {
+        TaskRepository shard = shardFor(task.getId());
+        if (shard == null || !markDirty(task.getId(), shard.addTask(task))) {
+            return false;
+        }
+        if (lastTaskId != UNKNOWN_ID && task.getId() > lastTaskId) {
+            lastTaskId = task.getId();
+            counterDirty = true;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean editTask(int id, String caption, String description, String priority, String deadline) {
+        TaskRepository shard = shardFor(id);
+        return shard != null && markDirty(id, shard.editTask(id, caption, description, priority, deadline));
+    }
+
+    @Override
+    public boolean removeTask(int id) {
+        TaskRepository shard = shardFor(id);
+        return shard != null && markDirty(id, shard.removeTask(id));
+    }
+
+    @Override
+    public boolean completeTask(int id) {
+        TaskRepository shard = shardFor(id);
+        return shard != null && markDirty(id, shard.completeTask(id));
+    }
+
+    /**
+     * Ищет задачи во всех шардах, догружая недостающие, и объединяет результаты.
+     * Каждый шард строит и поддерживает свой полнотекстовый индекс.
+     *
+     * @param query Слова через пробел, регистр и различие "е" и "ё" не учитываются.
+     * @return Задачи по убыванию приоритета, при равном приоритете - по идентификатору.
+     */
+    @Override
+    public List<Task> searchTasks(String query) {
+        loadAll();
+        List<Task> result = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            if (loaded[i]) {
+                result.addAll(shards[i].searchTasks(query));
+            }
+        }
+        result.sort(BY_PRIORITY);
+        return result;
+    }
+
+    /**
+     * Отбирает задачи в каждом шарде, догружая недостающие, и объединяет результаты.
+     *
+     * @param filter Условие отбора задач.
+     * @param order  Порядок задач в результате.
+     * @return Список задач.
+     */
+    @Override
+    public List<Task> findTasks(Predicate<Task> filter, Comparator<Task> order) {
+        loadAll();
+        List<Task> result = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            if (loaded[i]) {
+                result.addAll(shards[i].findTasks(filter, order));
+            }
+        }
+        result.sort(order);
+        return result;
+    }
+
+    /**
+     * Отбирает страницу в каждом шарде, догружая недостающие, и оставляет первые limit задач объединения.
+     *
+     * @param afterId Идентификатор, после которого начинается страница, или 0 для первой страницы.
+     * @param limit   Размер страницы.
+     * @return Список не более чем из limit задач.
+     */
+    @Override
+    public List<Task> getTasksPage(int afterId, int limit) {
+        loadAll();
+        List<Task> result = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            if (loaded[i]) {
+                result.addAll(shards[i].getTasksPage(afterId, limit));
+            }
+        }
+        return first(result, BY_ID, limit);
+    }
+
+    /**
+     * Отбирает limit задач с наивысшим приоритетом в каждом шарде и оставляет первые limit задач объединения.
+     *
+     * @param status Статус задач или null для задач с любым статусом.
+     * @param limit  Количество задач.
+     * @return Список задач.
+     */
+    @Override
+    public List<Task> getTopTasksByPriority(TaskStatus status, int limit) {
+        loadAll();
+        List<Task> result = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            if (loaded[i]) {
+                result.addAll(shards[i].getTopTasksByPriority(status, limit));
+            }
+        }
+        return first(result, BY_PRIORITY, limit);
+    }
+
+    /**
+     * Отбирает limit задач с ближайшими сроками в каждом шарде и оставляет первые limit задач объединения.
+     *
+     * @param limit Количество задач.
+     * @return Список задач.
+     */
+    @Override
+    public List<Task> getNextDeadlines(int limit) {
+        loadAll();
+        List<Task> result = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            if (loaded[i]) {
+                result.addAll(shards[i].getNextDeadlines(limit));
+            }
+        }
+        return first(result, BY_DEADLINE, limit);
+    }
+
+    /**
+     * Возвращает количество байт, прочитанных всеми шардами и файлом счетчика.
+     *
+     * @return Количество байт.
+     */
+    @Override
+    public long getBytesRead() {
+        long bytes = super.getBytesRead();
+        for (TaskRepository shard : shards) {
+            bytes += shard.getBytesRead();
+        }
+        return bytes;
+    }
+
+    /**
+     * Возвращает количество байт, записанных всеми шардами и в файл счетчика.
+     *
+     * @return Количество байт.
+     */
+    @Override
+    public long getBytesWritten() {
+        long bytes = super.getBytesWritten();
+        for (TaskRepository shard : shards) {
+            bytes += shard.getBytesWritten();
+        }
+        return bytes;
+    }
+
+    /**
+     * Возвращает количество задач, загруженных всеми шардами. Шарды загружаются лениво,
+     * поэтому значение растет по мере обращения к шардам.
+     *
+     * @return Количество задач.
+     */
+    @Override
+    public long getTasksLoaded() {
+        long count = super.getTasksLoaded();
+        for (TaskRepository shard : shards) {
+            count += shard.getTasksLoaded();
+        }
+        return count;
+    }
+
+    /**
+     * Возвращает количество задач, сохраненных всеми шардами.
+     *
+     * @return Количество задач.
+     */
+    @Override
+    public long getTasksSaved() {
+        long count = super.getTasksSaved();
+        for (TaskRepository shard : shards) {
+            count += shard.getTasksSaved();
+        }
+        return count;
+    }
+
+    /**
+     * Возвращает задачи всех шардов одним списком, упорядоченным по идентификатору.
+     * Недостающие шарды загружаются параллельно. Список является копией: изменять задачи нужно
+     * через методы репозитория, иначе шарды не узнают об изменениях.
+     *
+     * @return Список задач.
+     */
+    @Override
+    public TaskList getTasksList() {
+        loadAll();
+        List<Task> all = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            if (loaded[i]) {
+                all.addAll(shards[i].getTasksList().getTasks());
+            }
+        }
+        all.sort(BY_ID);
+        TaskList taskList = newTaskList();
+        all.forEach(taskList::addTask);
+        taskList.setLastTaskId(lastTaskId);
+        taskList.trimToSize();
+        tasks = taskList;
+        view = taskList;
+        return taskList;
+    }
+
+    /**
+     * Возвращает репозиторий шарда задачи, загружая шард при необходимости.
+     *
+     * @return Репозиторий шарда или null, если шард не удалось загрузить.
+     */
+    private TaskRepository shardFor(int id) {
+        int index = Math.floorMod(id, shards.length);
+        return load(index) ? shards[index] : null;
+    }
+
+    /**
+     * Загружает шард, если он еще не загружен. Отсутствующий файл шарда означает пустой шард.
+     */
+    private boolean load(int index) {
+        if (loaded[index]) {
+            return true;
+        }
+        if (Files.exists(Paths.get(paths[index])) && !shards[index].loadTasks()) {
+            return false;
+        }
+        loaded[index] = true;
+        return true;
+    }
+
+    /**
+     * Упорядочивает объединенные результаты шардов и оставляет первые limit задач.
+     */
+    private static List<Task> first(List<Task> tasks, Comparator<Task> order, int limit) {
+        tasks.sort(order);
+        return tasks.size() > limit ? new ArrayList<>(tasks.subList(0, Math.max(limit, 0))) : tasks;
+    }
+
+    /**
+     * Параллельно загружает все еще не загруженные шарды.
+     */
+    private boolean loadAll() {
+        List<Callable<Boolean>> loads = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            if (!loaded[i]) {
+                int index = i;
+                loads.add(() -> load(index));
+            }
+        }
+        return invokeAll(loads);
+    }
+
+    private boolean markDirty(int id, boolean changed) {
+        if (changed) {
+            dirty[Math.floorMod(id, shards.length)] = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Заменяет содержимое всех шардов задачами из списка и помечает все шарды измененными.
+     */
+    private void distribute(TaskList taskList) {
+        reset(true);
+        for (Task task : taskList.getTasks()) {
+            shards[Math.floorMod(task.getId(), shards.length)].addTask(task);
+        }
+        lastTaskId = Math.max(lastTaskId, taskList.getLastTaskId());
+        view = tasks;
+    }
+
+    /**
+     * Создает пустые репозитории шардов. Счетчики байт и задач заменяемых репозиториев
+     * переносятся в счетчики этого репозитория.
+     *
+     * @param inMemory true, если шарды считаются загруженными и подлежат записи целиком (новый репозиторий),
+     *                 false, если шарды должны загружаться из файлов при обращении.
+     */
+    private void reset(boolean inMemory) {
+        for (int i = 0; i < shards.length; i++) {
+            if (shards[i] != null) {
+                countBytesRead(shards[i].getBytesRead());
+                countBytesWritten(shards[i].getBytesWritten());
+                countTasksLoaded(shards[i].getTasksLoaded());
+                countTasksSaved(shards[i].getTasksSaved());
+            }
+            shards[i] = repositoryFactory.apply(paths[i]);
+            shards[i].setTaskListFactory(taskListFactory);
+        }
+        Arrays.fill(loaded, inMemory);
+        Arrays.fill(dirty, inMemory);
+        lastTaskId = 0;
+        counterDirty = inMemory;
+    }
+
+    private static boolean invokeAll(List<Callable<Boolean>> actions) {
+        if (actions.isEmpty()) {
+            return true;
+        }
+        boolean result = true;
+        for (Future<Boolean> future : ForkJoinPool.commonPool().invokeAll(actions)) {
+            try {
+                result &= future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (ExecutionException e) {
+                System.err.println(e.getCause().getLocalizedMessage());
+                result = false;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает путь к файлу шарда: номер шарда вставляется перед расширением файла.
+     */
+    private static String shardPath(String filepath, int index) {
+        int dot = filepath.lastIndexOf('.');
+        if (dot <= filepath.lastIndexOf('/') || dot <= filepath.lastIndexOf('\\')) {
+            return filepath + "." + index;
+        }
+        return filepath.substring(0, dot) + "." + index + filepath.substring(dot);
+    }
+}
@@ -0,0 +1,101 @@
+package ru.andreynaz4renko.data;
+
+import ru.andreynaz4renko.domain.Task;
+
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Класс TaskBatch представляет собой пакет изменений задач: добавлений, редактирований, выполнений и удалений.
+ * Операции применяются методом TaskRepository.applyBatch в порядке добавления в пакет,
+ * после чего все изменения сохраняются одной записью.
+ */
+public class TaskBatch {
+
+    /**
+     * Операции пакета в порядке добавления.
+     */
+    private final List<Operation> operations = new ArrayList<>();
+
+    /**
+     * Добавляет в пакет операцию добавления задачи.
+     *
+     * @param task Задача для добавления.
+     * @return Этот пакет.
+     */
+    public TaskBatch add(Task task) {
+        operations.add(repository -> repository.addTask(task));
+        return this;
+    }
+
+    /**
+     * Добавляет в пакет операцию редактирования задачи. Пустые и null значения оставляют атрибут без изменений.
+     *
+     * @param id          Идентификатор задачи для редактирования.
+     * @param caption     Новый заголовок задачи.
+     * @param description Новое описание задачи.
+     * @param priority    Новый приоритет задачи.
+     * @param deadline    Новый срок выполнения задачи.
+     * @return Этот пакет.
+     */
+    public TaskBatch edit(int id, String caption, String description, String priority, String deadline) {
+        operations.add(repository -> repository.editTask(id, caption, description, priority, deadline));
+        return this;
+    }
+
+    /**
+     * Добавляет в пакет операцию пометки задачи как выполненной.
+     *
+     * @param id Идентификатор задачи.
+     * @return Этот пакет.
+     */
+    public TaskBatch complete(int id) {
+        operations.add(repository -> repository.completeTask(id));
+        return this;
+    }
+
+    /**
+     * Добавляет в пакет операцию удаления задачи.
+     *
+     * @param id Идентификатор задачи для удаления.
+     * @return Этот пакет.
+     */
+    public TaskBatch remove(int id) {
+        operations.add(repository -> repository.removeTask(id));
+        return this;
+    }
+
+    /**
+     * Возвращает количество операций в пакете.
+     *
+     * @return Количество операций.
+     */
+    public int size() {
+        return operations.size();
+    }
+
+    /**
+     * Применяет операцию пакета к репозиторию. Некорректные аргументы операции, например
+     * нечисловой приоритет или неверная дата, считаются неуспешным результатом, а не ошибкой всего пакета.
+     *
+     * @param index      Индекс операции.
+     * @param repository Репозиторий, к которому применяется операция.
+     * @return true, если операция выполнена успешно, в противном случае - false.
+     */
+    boolean apply(int index, TaskRepository repository) {
+        try {
+            return operations.get(index).apply(repository);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Операция пакета над репозиторием.
+     */
+    @FunctionalInterface
+    private interface Operation {
+        boolean apply(TaskRepository repository);
+    }
+}
@@ -0,0 +1,72 @@
+package ru.andreynaz4renko.data;
+
+/**
+ * Класс TaskBatchResult представляет собой результат применения пакета изменений TaskBatch:
+ * успех каждой операции в порядке их добавления в пакет и успех сохранения пакета.
+ */
+public class TaskBatchResult {
+
+    /**
+     * Результаты операций в порядке их добавления в пакет.
+     */
+    private final boolean[] applied;
+
+    /**
+     * Признак успешного сохранения пакета.
+     */
+    private final boolean saved;
+
+    /**
+     * Конструктор класса TaskBatchResult.
+     *
+     * @param applied Результаты операций в порядке их добавления в пакет.
+     * @param saved   Признак успешного сохранения пакета.
+     */
+    public TaskBatchResult(boolean[] applied, boolean saved) {
+        this.applied = applied;
+        this.saved = saved;
+    }
+
+    /**
+     * Возвращает количество операций в пакете.
+     *
+     * @return Количество операций.
+     */
+    public int size() {
+        return applied.length;
+    }
+
+    /**
+     * Проверяет, выполнена ли операция с указанным индексом.
+     *
+     * @param index Индекс операции в пакете.
+     * @return true, если операция выполнена успешно, в противном случае - false.
+     */
+    public boolean isApplied(int index) {
+        return applied[index];
+    }
+
+    /**
+     * Возвращает количество успешно выполненных операций.
+     *
+     * @return Количество успешно выполненных операций.
+     */
+    public int getAppliedCount() {
+        int count = 0;
+        for (boolean value : applied) {
+            if (value) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Проверяет, сохранены ли изменения пакета.
+     *
+     * @return true, если изменения успешно сохранены, в противном случае - false.
+     */
+    public boolean isSaved() {
+        return saved;
+    }
+}
@@ -0,0 +1,35 @@
+package ru.andreynaz4renko.data;
+
+import ru.andreynaz4renko.domain.Task;
+
+import java.util.List;
+
+/**
+ * Файл задач, разбитый на части, которые можно разбирать независимо друг от друга.
+ * Используется ParallelTaskLoader для параллельной загрузки.
+ */
+public interface TaskChunks {
+
+    /**
+     * Возвращает количество частей.
+     *
+     * @return Количество частей.
+     */
+    int size();
+
+    /**
+     * Разбирает задачи части. Может вызываться одновременно из нескольких потоков для разных частей.
+     *
+     * @param index Номер части.
+     * @return Задачи части в порядке следования в файле.
+     * @throws Exception В случае ошибки разбора.
+     */
+    List<Task> parse(int index) throws Exception;
+
+    /**
+     * Возвращает последний выданный идентификатор задачи, сохраненный в файле.
+     *
+     * @return Последний выданный идентификатор задачи или 0, если он не сохранен.
+     */
+    int getLastTaskId();
+}
@@ -2,9 +2,16 @@ package ru.andreynaz4renko.data;
 
 import ru.andreynaz4renko.domain.Task;
 import ru.andreynaz4renko.domain.TaskList;
+import ru.andreynaz4renko.domain.TaskStatus;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Абстрактный класс TaskRepository представляет собой абстрактный репозиторий задач.
@@ -18,6 +25,20 @@ public abstract class TaskRepository {
      */
     protected TaskList tasks;
 
+    /**
+     * Фабрика списков задач, создаваемых при загрузке.
+     */
+    private Supplier<TaskList> taskListFactory = TaskList::new;
+
+    /**
+     * Количество байт, прочитанных из файлов и записанных в файлы репозитория, и количество загруженных
+     * и сохраненных задач.
+     */
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder tasksLoaded = new LongAdder();
+    private final LongAdder tasksSaved = new LongAdder();
+
     /**
      * Конструктор по умолчанию. Создает новый экземпляр TaskList и присваивает его полю tasks.
      */
@@ -25,6 +46,29 @@ public abstract class TaskRepository {
         tasks = new TaskList();
     }
 
+    /**
+     * Задает фабрику списков задач, например CompactTaskList::new для поколоночного хранения.
+     * Задачи, уже находящиеся в репозитории, переносятся в новый список.
+     *
+     * @param taskListFactory Фабрика списков задач.
+     */
+    public void setTaskListFactory(Supplier<TaskList> taskListFactory) {
+        this.taskListFactory = taskListFactory;
+        TaskList taskList = taskListFactory.get();
+        tasks.getTasks().forEach(taskList::addTask);
+        taskList.setLastTaskId(tasks.getLastTaskId());
+        tasks = taskList;
+    }
+
+    /**
+     * Создает пустой список задач заданного в репозитории вида. Используется реализациями при загрузке.
+     *
+     * @return Пустой список задач.
+     */
+    protected TaskList newTaskList() {
+        return taskListFactory.get();
+    }
+
     /**
      * Абстрактный метод для загрузки задач из внешнего источника данных.
      *
@@ -46,8 +90,7 @@ public abstract class TaskRepository {
      * @return true, если задача с указанным идентификатором существует, в противном случае - false.
      */
     public boolean isTaskExists(int id) {
-        return tasks.getTasks().stream()
-                .anyMatch(task -> task.getId() == id);
+        return tasks.containsTask(id);
     }
 
     /**
@@ -62,6 +105,27 @@ public abstract class TaskRepository {
                 .orElse(0);
     }
 
+    /**
+     * Возвращает идентификатор для новой задачи за константное время.
+     * Счетчик идентификаторов хранится в списке задач и сохраняется вместе с ним,
+     * поэтому идентификаторы удаленных задач не выдаются повторно.
+     *
+     * @return Идентификатор, больший всех когда-либо выданных идентификаторов.
+     */
+    public int nextTaskId() {
+        return tasks.getLastTaskId() + 1;
+    }
+
+    /**
+     * Возвращает задачу по идентификатору. Изменять задачу нужно через методы репозитория.
+     *
+     * @param id Идентификатор задачи.
+     * @return Задача или null, если задачи с таким идентификатором нет.
+     */
+    public Task getTask(int id) {
+        return tasks.getTask(id);
+    }
+
     /**
      * Добавляет задачу в список задач.
      *
@@ -87,25 +151,42 @@ public abstract class TaskRepository {
                             String description,
                             String priority,
                             String deadline) {
-        return tasks.getTasks().stream()
-                .filter(task -> task.getId() == id)
-                .findFirst()
-                .map(task -> {
-                    if (caption != null && !caption.isEmpty()) {
-                        task.setCaption(caption);
-                    }
-                    if (caption != null && !description.isEmpty()) {
-                        task.setDescription(description);
-                    }
-                    if (!priority.isEmpty()) {
-                        task.setPriority(Integer.parseInt(priority));
-                    }
-                    if (deadline != null && !deadline.isEmpty()) {
-                        task.setDeadline(LocalDate.parse(deadline));
-                    }
-                    return true;
-                })
-                .orElse(false);
+        Integer newPriority = null;
+        if (priority != null && !priority.isEmpty()) {
+            newPriority = Integer.parseInt(priority);
+            if (newPriority < TaskList.MIN_PRIORITY || newPriority > TaskList.MAX_PRIORITY) {
+                return false;
+            }
+        }
+        // Все значения разбираются до изменения задачи, чтобы неверное значение не оставило ее измененной частично.
+        LocalDate newDeadline = deadline != null && !deadline.isEmpty() ? LocalDate.parse(deadline) : null;
+        Integer finalPriority = newPriority;
+        return updateTask(id, task -> {
+            if (caption != null && !caption.isEmpty()) {
+                task.setCaption(caption);
+            }
+            if (description != null && !description.isEmpty()) {
+                task.setDescription(description);
+            }
+            if (finalPriority != null) {
+                task.setPriority(finalPriority);
+            }
+            if (newDeadline != null) {
+                task.setDeadline(newDeadline);
+            }
+        });
+    }
+
+    /**
+     * Изменяет задачу с указанным идентификатором. Используется методом editTask() после проверки значений;
+     * репозитории, хранящие задачи вне списка tasks, переопределяют этот метод.
+     *
+     * @param id     Идентификатор задачи.
+     * @param update Действие, изменяющее задачу.
+     * @return true, если задача найдена и изменена, в противном случае - false.
+     */
+    protected boolean updateTask(int id, Consumer<Task> update) {
+        return tasks.updateTask(id, update);
     }
 
     /**
@@ -128,6 +209,89 @@ public abstract class TaskRepository {
         return tasks.completeTask(id);
     }
 
+    /**
+     * Ищет задачи, заголовок или описание которых содержат все слова запроса.
+     *
+     * @param query Слова через пробел, регистр и различие "е" и "ё" не учитываются.
+     * @return Задачи по убыванию приоритета, при равном приоритете - по идентификатору.
+     */
+    public List<Task> searchTasks(String query) {
+        return tasks.searchTasks(query);
+    }
+
+    /**
+     * Возвращает задачи, удовлетворяющие условию, в заданном порядке. Возвращаемые объекты не должны изменяться.
+     * Потокобезопасные репозитории отбирают задачи без построения списка getTasksList(),
+     * обертки передают вызов делегату.
+     *
+     * @param filter Условие отбора задач.
+     * @param order  Порядок задач в результате.
+     * @return Список задач.
+     */
+    public List<Task> findTasks(Predicate<Task> filter, Comparator<Task> order) {
+        List<Task> result = new ArrayList<>();
+        for (Task task : getTasksList().getTasks()) {
+            if (filter.test(task)) {
+                result.add(task);
+            }
+        }
+        result.sort(order);
+        return result;
+    }
+
+    /**
+     * Возвращает страницу задач по возрастанию идентификатора, начиная после указанного идентификатора.
+     * Репозитории, хранящие задачи вне списка tasks, отбирают страницу без построения всего списка.
+     *
+     * @param afterId Идентификатор, после которого начинается страница, или 0 для первой страницы.
+     * @param limit   Размер страницы.
+     * @return Список не более чем из limit задач.
+     */
+    public List<Task> getTasksPage(int afterId, int limit) {
+        return getTasksList().getTasksPage(afterId, limit);
+    }
+
+    /**
+     * Возвращает не более limit задач с наивысшим приоритетом, а при равном приоритете - с меньшим
+     * идентификатором.
+     *
+     * @param status Статус задач или null для задач с любым статусом.
+     * @param limit  Количество задач.
+     * @return Список задач.
+     */
+    public List<Task> getTopTasksByPriority(TaskStatus status, int limit) {
+        return getTasksList().getTopTasksByPriority(status, limit);
+    }
+
+    /**
+     * Возвращает не более limit невыполненных задач с ближайшими сроками, включая просроченные,
+     * упорядоченные по сроку, а при равном сроке - по идентификатору.
+     *
+     * @param limit Количество задач.
+     * @return Список задач.
+     */
+    public List<Task> getNextDeadlines(int limit) {
+        return getTasksList().getNextDeadlines(limit);
+    }
+
+    /**
+     * Применяет пакет изменений в порядке добавления операций и сохраняет результат одним вызовом saveTasks().
+     * Неуспешная операция не прерывает пакет: ее результат отражается в TaskBatchResult.
+     * Если ни одна операция не выполнена, сохранение не выполняется.
+     *
+     * @param batch Пакет изменений.
+     * @return Результат каждой операции и признак успешного сохранения.
+     */
+    public TaskBatchResult applyBatch(TaskBatch batch) {
+        boolean[] applied = new boolean[batch.size()];
+        boolean changed = false;
+        for (int i = 0; i < applied.length; i++) {
+            applied[i] = batch.apply(i, this);
+            changed |= applied[i];
+        }
+        return new TaskBatchResult(applied, !changed || saveTasks());
+    }
+
     /**
      * Возвращает список задач, хранящийся в данном репозитории.
      *
@@ -137,4 +301,80 @@ public abstract class TaskRepository {
         return tasks;
     }
 
+    /**
+     * Возвращает количество байт, прочитанных репозиторием из файлов с момента создания.
+     * Обертки возвращают значение делегата.
+     *
+     * @return Количество байт.
+     */
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    /**
+     * Возвращает количество байт, записанных репозиторием в файлы с момента создания.
+     * Обертки возвращают значение делегата.
+     *
+     * @return Количество байт.
+     */
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    /**
+     * Возвращает количество задач, прочитанных репозиторием из файлов с момента создания.
+     * Обертки возвращают значение делегата.
+     *
+     * @return Количество задач.
+     */
+    public long getTasksLoaded() {
+        return tasksLoaded.sum();
+    }
+
+    /**
+     * Возвращает количество задач, записанных репозиторием в файлы с момента создания. Репозитории,
+     * дописывающие изменения в журнал, учитывают каждую записанную запись задачи.
+     * Обертки возвращают значение делегата.
+     *
+     * @return Количество задач.
+     */
+    public long getTasksSaved() {
+        return tasksSaved.sum();
+    }
+
+    /**
+     * Учитывает байты, прочитанные из файла. Вызывается реализациями, хранящими задачи в файлах.
+     *
+     * @param bytes Количество байт.
+     */
+    protected void countBytesRead(long bytes) {
+        bytesRead.add(bytes);
+    }
+
+    /**
+     * Учитывает байты, записанные в файл. Вызывается реализациями, хранящими задачи в файлах.
+     *
+     * @param bytes Количество байт.
+     */
+    protected void countBytesWritten(long bytes) {
+        bytesWritten.add(bytes);
+    }
+
+    /**
+     * Учитывает задачи, прочитанные из файла. Вызывается реализациями, хранящими задачи в файлах.
+     *
+     * @param count Количество задач.
+     */
+    protected void countTasksLoaded(long count) {
+        tasksLoaded.add(count);
+    }
+
+    /**
+     * Учитывает задачи, записанные в файл. Вызывается реализациями, хранящими задачи в файлах.
+     *
+     * @param count Количество задач.
+     */
+    protected void countTasksSaved(long count) {
+        tasksSaved.add(count);
+    }
 }
@@ -0,0 +1,44 @@
+package ru.andreynaz4renko.data.binary;
+
+/**
+ * Раскладка бинарного снимка задач.
+ * <pre>
+ * Заголовок (20 байт): magic, version, count, stringsOffset, lastId (последний выданный идентификатор задачи).
+ *     В версии 1 заголовок занимает 16 байт и не содержит lastId.
+ * Записи (count * 32 байта): id, priority (1 байт), status (1 байт), 2 байта выравнивания,
+ *     deadline, completion (эпохальные дни), captionOffset, captionLength, descriptionOffset, descriptionLength.
+ * Строки: UTF-8 байты заголовков и описаний, смещения отсчитываются от stringsOffset.
+ * </pre>
+ * Все числа записываются в порядке байт big-endian.
+ */
+final class BinaryTaskFormat {
+
+    static final int MAGIC = 0x54534B42;
+    static final int VERSION = 2;
+    static final int VERSION_WITHOUT_LAST_ID = 1;
+
+    static final int HEADER_SIZE = 20;
+    static final int HEADER_SIZE_WITHOUT_LAST_ID = 16;
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int COUNT_OFFSET = 8;
+    static final int STRINGS_OFFSET = 12;
+    static final int LAST_ID_OFFSET = 16;
+
+    static final int RECORD_SIZE = 32;
+    static final int ID = 0;
+    static final int PRIORITY = 4;
+    static final int STATUS = 5;
+    static final int DEADLINE = 8;
+    static final int COMPLETION = 12;
+    static final int CAPTION_OFFSET = 16;
+    static final int CAPTION_LENGTH = 20;
+    static final int DESCRIPTION_OFFSET = 24;
+    static final int DESCRIPTION_LENGTH = 28;
+
+    static final int NO_DATE = Integer.MIN_VALUE;
+    static final int NO_STRING = -1;
+    static final byte NO_STATUS = -1;
+
+    private BinaryTaskFormat() { }
+}
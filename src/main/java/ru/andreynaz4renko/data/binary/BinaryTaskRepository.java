@@ -0,0 +1,324 @@
+package ru.andreynaz4renko.data.binary;
+
+import ru.andreynaz4renko.data.TaskRepository;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
+import ru.andreynaz4renko.domain.TaskStatus;
+import ru.andreynaz4renko.util.BoundedLongHeap;
+import ru.andreynaz4renko.util.IntIntHashMap;
+import ru.andreynaz4renko.util.LruCache;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Класс BinaryTaskRepository представляет собой репозиторий задач, хранящий задачи в бинарном снимке.
+ * Загрузка только отображает файл в память: объекты Task и индексы списка создаются прямо из записей
+ * фиксированной длины, без разбора текстового формата и промежуточных DTO, при первом обращении,
+ * которому нужен список задач, - чтении или изменении задачи, getTasksList() или полнотекстовом поиске.
+ * <p>
+ * До этого постраничная выдача, выборки по приоритету и сроку и findTasks() читают поля из снимка:
+ * страница и первые k задач отбираются по колонкам снимка, и создаются только возвращаемые задачи,
+ * а findTasks() создает задачи по одной для проверки условия и не удерживает остальные.
+ */
+public class BinaryTaskRepository extends TaskRepository {
+
+    /**
+     * Путь к файлу бинарного снимка.
+     */
+    private final Path filepath;
+
+    /**
+     * Снимок, из которого были загружены задачи.
+     */
+    private BinaryTaskSnapshot snapshot;
+
+    /**
+     * Кеш описаний загруженного снимка в режиме ленивой загрузки описаний или null.
+     */
+    private LruCache<Integer, String> descriptions;
+
+    /**
+     * Пустой список, на который указывает поле tasks, пока задачи не созданы из снимка, или null.
+     * Если обертка подменила поле tasks, используется подмененный список.
+     */
+    private TaskList deferred;
+
+    /**
+     * Размер кеша описаний в режиме ленивой загрузки описаний или 0, если описания загружаются сразу.
+     */
+    private int descriptionCacheSize;
+
+    /**
+     * Конструктор класса BinaryTaskRepository.
+     *
+     * @param filepath Путь к файлу бинарного снимка.
+     */
+    public BinaryTaskRepository(String filepath) {
+        this.filepath = Paths.get(filepath);
+    }
+
+    /**
+     * Включает ленивую загрузку описаний: при загрузке описания не декодируются, а getDescription()
+     * читает их из отображенного снимка через кеш ограниченного размера.
+     * Снимок остается отображенным, пока на его задачи есть ссылки, поэтому замена файла при сохранении
+     * не влияет на уже загруженные задачи.
+     *
+     * @param cacheSize Количество кешируемых описаний или 0, чтобы загружать описания сразу.
+     */
+    public void setLazyDescriptions(int cacheSize) {
+        this.descriptionCacheSize = cacheSize;
+    }
+
+    /**
+     * Отображает бинарный снимок в память. Задачи создаются из снимка при первом обращении к списку задач.
+     *
+     * @return true, если снимок успешно открыт, в противном случае - false.
+     */
+    @Override
+    public boolean loadTasks() {
+        try {
+            BinaryTaskSnapshot loaded = BinaryTaskSnapshot.open(filepath);
+            snapshot = loaded;
+            descriptions = descriptionCacheSize > 0 ? new LruCache<>(descriptionCacheSize) : null;
+            deferred = newTaskList();
+            tasks = deferred;
+            countBytesRead(loaded.getByteSize());
+            countTasksLoaded(loaded.size());
+            return true;
+        } catch (Exception e) {
+            System.err.println(e.getLocalizedMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Сохраняет список задач в бинарный снимок.
+     *
+     * @return true, если задачи успешно сохранены, в противном случае - false.
+     */
+    @Override
+    public boolean saveTasks() {
+        try {
+            TaskList taskList = tasks();
+            countBytesWritten(BinaryTaskSnapshotWriter.write(taskList.getTasks(), taskList.getLastTaskId(), filepath));
+            countTasksSaved(taskList.size());
+            return true;
+        } catch (Exception e) {
+            System.err.println(e.getLocalizedMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Возвращает снимок, из которого были загружены задачи, для просмотра и фильтрации без создания объектов Task.
+     *
+     * @return Снимок задач или null, если задачи еще не загружались.
+     */
+    public BinaryTaskSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public void setTaskListFactory(Supplier<TaskList> taskListFactory) {
+        boolean pending = isDeferred();
+        super.setTaskListFactory(taskListFactory);
+        if (pending) {
+            deferred = tasks;
+        }
+    }
+
+    @Override
+    public boolean isTaskExists(int id) {
+        tasks();
+        return super.isTaskExists(id);
+    }
+
+    @Override
+    public int getMaxTaskId() {
+        tasks();
+        return super.getMaxTaskId();
+    }
+
+    @Override
+    public int nextTaskId() {
+        tasks();
+        return super.nextTaskId();
+    }
+
+    @Override
+    public Task getTask(int id) {
+        tasks();
+        return super.getTask(id);
+    }
+
+    @Override
+    public boolean addTask(Task task) {
+        tasks();
+        return super.addTask(task);
+    }
+
+    @Override
+    protected boolean updateTask(int id, Consumer<Task> update) {
+        tasks();
+        return super.updateTask(id, update);
+    }
+
+    @Override
+    public boolean removeTask(int id) {
+        tasks();
+        return super.removeTask(id);
+    }
+
+    @Override
+    public boolean completeTask(int id) {
+        tasks();
+        return super.completeTask(id);
+    }
+
+    @Override
+    public List<Task> searchTasks(String query) {
+        tasks();
+        return super.searchTasks(query);
+    }
+
+    /**
+     * Отбирает задачи, удовлетворяющие условию. Пока задачи не созданы из снимка, каждая запись
+     * превращается в задачу только на время проверки условия.
+     *
+     * @param filter Условие отбора задач.
+     * @param order  Порядок задач в результате.
+     * @return Список задач.
+     */
+    @Override
+    public List<Task> findTasks(Predicate<Task> filter, Comparator<Task> order) {
+        if (!isDeferred()) {
+            return super.findTasks(filter, order);
+        }
+        List<Task> result = new ArrayList<>();
+        for (int i = 0; i < snapshot.size(); i++) {
+            Task task = createTask(i);
+            if (filter.test(task)) {
+                result.add(task);
+            }
+        }
+        result.sort(order);
+        return result;
+    }
+
+    @Override
+    public List<Task> getTasksPage(int afterId, int limit) {
+        if (!isDeferred()) {
+            return super.getTasksPage(afterId, limit);
+        }
+        BoundedLongHeap heap = new BoundedLongHeap(Math.min(limit, snapshot.size()));
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (snapshot.getId(i) > afterId) {
+                heap.offer(BoundedLongHeap.key(0, snapshot.getId(i)));
+            }
+        }
+        return tasksByKeys(heap);
+    }
+
+    @Override
+    public List<Task> getTopTasksByPriority(TaskStatus status, int limit) {
+        if (!isDeferred()) {
+            return super.getTopTasksByPriority(status, limit);
+        }
+        BoundedLongHeap heap = new BoundedLongHeap(Math.min(limit, snapshot.size()));
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (status == null || snapshot.getStatus(i) == status) {
+                heap.offer(BoundedLongHeap.key(TaskList.MAX_PRIORITY - snapshot.getPriority(i), snapshot.getId(i)));
+            }
+        }
+        return tasksByKeys(heap);
+    }
+
+    @Override
+    public List<Task> getNextDeadlines(int limit) {
+        if (!isDeferred()) {
+            return super.getNextDeadlines(limit);
+        }
+        BoundedLongHeap heap = new BoundedLongHeap(Math.min(limit, snapshot.size()));
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (snapshot.getStatus(i) != TaskStatus.DONE && snapshot.hasDeadline(i)) {
+                heap.offer(BoundedLongHeap.key(snapshot.getDeadlineEpochDay(i), snapshot.getId(i)));
+            }
+        }
+        return tasksByKeys(heap);
+    }
+
+    /**
+     * Возвращает список задач, создавая задачи из снимка при первом обращении.
+     *
+     * @return Список задач.
+     */
+    @Override
+    public TaskList getTasksList() {
+        return tasks();
+    }
+
+    /**
+     * Проверяет, что задачи загруженного снимка еще не созданы и поле tasks не подменено оберткой.
+     */
+    private boolean isDeferred() {
+        return deferred != null && tasks == deferred;
+    }
+
+    /**
+     * Создает задачи из снимка, если они еще не созданы, и возвращает список задач.
+     */
+    private TaskList tasks() {
+        if (isDeferred()) {
+            TaskList taskList = newTaskList();
+            for (int i = 0; i < snapshot.size(); i++) {
+                taskList.addTask(createTask(i));
+            }
+            taskList.setLastTaskId(snapshot.getLastTaskId());
+            taskList.trimToSize();
+            tasks = taskList;
+        }
+        deferred = null;
+        return tasks;
+    }
+
+    /**
+     * Создает задачу из записи снимка; в режиме ленивой загрузки описаний описание читается через кеш.
+     */
+    private Task createTask(int index) {
+        BinaryTaskSnapshot source = snapshot;
+        LruCache<Integer, String> cache = descriptions;
+        Task task = source.getTask(index, cache == null);
+        if (cache != null && source.hasDescription(index)) {
+            task.setDescriptionLoader(() -> cache.get(index, source::getDescription));
+        }
+        return task;
+    }
+
+    /**
+     * Возвращает задачи снимка по ключам, отобранным кучей, в порядке возрастания ключей.
+     * Записи отобранных задач находятся одним проходом по колонке идентификаторов.
+     */
+    private List<Task> tasksByKeys(BoundedLongHeap heap) {
+        long[] keys = heap.toSortedArray();
+        IntIntHashMap positions = new IntIntHashMap(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            positions.put((int) keys[i], i);
+        }
+        Task[] result = new Task[keys.length];
+        for (int i = 0; i < snapshot.size() && keys.length > 0; i++) {
+            int position = positions.get(snapshot.getId(i), -1);
+            if (position >= 0) {
+                result[position] = createTask(i);
+            }
+        }
+        return new ArrayList<>(Arrays.asList(result));
+    }
+}
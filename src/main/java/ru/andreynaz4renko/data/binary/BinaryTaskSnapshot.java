@@ -0,0 +1,182 @@
+package ru.andreynaz4renko.data.binary;
+
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskStatus;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+import static ru.andreynaz4renko.data.binary.BinaryTaskFormat.*;
+
+/**
+ * Класс BinaryTaskSnapshot представляет собой бинарный снимок задач, отображенный в память через FileChannel.map.
+ * Поля задачи читаются по индексу записи напрямую из отображения: записи фиксированной длины,
+ * а строки декодируются только при обращении к ним. Поэтому снимок можно просматривать и фильтровать
+ * без разбора всех записей при открытии.
+ */
+public class BinaryTaskSnapshot {
+
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int stringsOffset;
+    private final int recordsOffset;
+    private final int lastTaskId;
+
+    private BinaryTaskSnapshot(ByteBuffer buffer) throws IOException {
+        if (buffer.limit() < HEADER_SIZE_WITHOUT_LAST_ID || buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+            throw new IOException("Файл не является бинарным снимком задач");
+        }
+        int version = buffer.getInt(VERSION_OFFSET);
+        if (version != VERSION && version != VERSION_WITHOUT_LAST_ID) {
+            throw new IOException("Неподдерживаемая версия бинарного снимка: " + version);
+        }
+        this.buffer = buffer;
+        this.count = buffer.getInt(COUNT_OFFSET);
+        this.stringsOffset = buffer.getInt(STRINGS_OFFSET);
+        this.recordsOffset = version == VERSION ? HEADER_SIZE : HEADER_SIZE_WITHOUT_LAST_ID;
+        this.lastTaskId = version == VERSION ? buffer.getInt(LAST_ID_OFFSET) : 0;
+    }
+
+    /**
+     * Возвращает размер снимка в байтах.
+     *
+     * @return Размер файла снимка.
+     */
+    public int getByteSize() {
+        return buffer.limit();
+    }
+
+    /**
+     * Открывает бинарный снимок, отображая файл в память только для чтения.
+     *
+     * @param path Путь к файлу снимка.
+     * @return Снимок задач.
+     * @throws IOException В случае ошибки чтения или некорректного файла.
+     */
+    public static BinaryTaskSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new BinaryTaskSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Возвращает количество задач в снимке.
+     *
+     * @return Количество задач.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Возвращает последний выданный идентификатор задачи, сохраненный в заголовке снимка.
+     *
+     * @return Последний выданный идентификатор задачи или 0 для снимков версии 1.
+     */
+    public int getLastTaskId() {
+        return lastTaskId;
+    }
+
+    public int getId(int index) {
+        return buffer.getInt(record(index) + ID);
+    }
+
+    public int getPriority(int index) {
+        return buffer.get(record(index) + PRIORITY);
+    }
+
+    public TaskStatus getStatus(int index) {
+        byte ordinal = buffer.get(record(index) + STATUS);
+        return ordinal == NO_STATUS ? null : STATUSES[ordinal];
+    }
+
+    public LocalDate getDeadline(int index) {
+        return date(buffer.getInt(record(index) + DEADLINE));
+    }
+
+    public boolean hasDeadline(int index) {
+        return buffer.getInt(record(index) + DEADLINE) != NO_DATE;
+    }
+
+    /**
+     * Возвращает срок задачи в днях эпохи без создания LocalDate. Имеет смысл, только если hasDeadline().
+     *
+     * @param index Индекс записи.
+     * @return Срок в днях эпохи.
+     */
+    public int getDeadlineEpochDay(int index) {
+        return buffer.getInt(record(index) + DEADLINE);
+    }
+
+    public LocalDate getCompletion(int index) {
+        return date(buffer.getInt(record(index) + COMPLETION));
+    }
+
+    public String getCaption(int index) {
+        int record = record(index);
+        return string(buffer.getInt(record + CAPTION_OFFSET), buffer.getInt(record + CAPTION_LENGTH));
+    }
+
+    public String getDescription(int index) {
+        int record = record(index);
+        return string(buffer.getInt(record + DESCRIPTION_OFFSET), buffer.getInt(record + DESCRIPTION_LENGTH));
+    }
+
+    public boolean hasDescription(int index) {
+        return buffer.getInt(record(index) + DESCRIPTION_LENGTH) != NO_STRING;
+    }
+
+    /**
+     * Создает объект задачи из записи снимка.
+     *
+     * @param index Индекс записи.
+     * @return Задача.
+     */
+    public Task getTask(int index) {
+        return getTask(index, true);
+    }
+
+    /**
+     * Создает объект задачи из записи снимка, при необходимости без описания.
+     *
+     * @param index           Индекс записи.
+     * @param withDescription false, если описание не нужно декодировать: поле description задачи будет null.
+     * @return Задача.
+     */
+    public Task getTask(int index, boolean withDescription) {
+        return new Task(getId(index),
+                getCaption(index),
+                withDescription ? getDescription(index) : null,
+                getPriority(index),
+                getDeadline(index),
+                getCompletion(index),
+                getStatus(index));
+    }
+
+    private int record(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return recordsOffset + index * RECORD_SIZE;
+    }
+
+    private String string(int offset, int length) {
+        if (length == NO_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(stringsOffset + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static LocalDate date(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+}
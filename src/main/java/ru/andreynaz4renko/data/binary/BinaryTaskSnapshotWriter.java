@@ -0,0 +1,90 @@
+package ru.andreynaz4renko.data.binary;
+
+import ru.andreynaz4renko.domain.Task;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Collection;
+
+import static ru.andreynaz4renko.data.binary.BinaryTaskFormat.*;
+
+/**
+ * Класс BinaryTaskSnapshotWriter записывает задачи в бинарный снимок, читаемый BinaryTaskSnapshot.
+ * Файл сначала пишется во временный файл рядом с целевым, а затем атомарно заменяет его.
+ */
+public final class BinaryTaskSnapshotWriter {
+
+    private BinaryTaskSnapshotWriter() { }
+
+    /**
+     * Записывает задачи в бинарный снимок.
+     *
+     * @param tasks      Задачи для записи.
+     * @param lastTaskId Последний выданный идентификатор задачи.
+     * @param path       Путь к файлу снимка.
+     * @return Размер записанного файла в байтах.
+     * @throws IOException В случае ошибки записи.
+     */
+    public static long write(Collection<Task> tasks, int lastTaskId, Path path) throws IOException {
+        ByteBuffer records = ByteBuffer.allocate(HEADER_SIZE + tasks.size() * RECORD_SIZE);
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        records.position(HEADER_SIZE);
+        for (Task task : tasks) {
+            records.putInt(task.getId());
+            records.put((byte) task.getPriority());
+            records.put(task.getStatus() == null ? NO_STATUS : (byte) task.getStatus().ordinal());
+            records.putShort((short) 0);
+            records.putInt(epochDay(task.getDeadline()));
+            records.putInt(epochDay(task.getCompletion()));
+            putString(records, strings, task.getCaption());
+            putString(records, strings, task.getDescription());
+        }
+        records.putInt(MAGIC_OFFSET, MAGIC);
+        records.putInt(VERSION_OFFSET, VERSION);
+        records.putInt(COUNT_OFFSET, tasks.size());
+        records.putInt(STRINGS_OFFSET, records.capacity());
+        records.putInt(LAST_ID_OFFSET, lastTaskId);
+        records.flip();
+
+        long size = records.remaining() + strings.size();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, records);
+            writeFully(channel, ByteBuffer.wrap(strings.toByteArray()));
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return size;
+    }
+
+    private static void putString(ByteBuffer records, ByteArrayOutputStream strings, String value) {
+        if (value == null) {
+            records.putInt(0);
+            records.putInt(NO_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        records.putInt(strings.size());
+        records.putInt(bytes.length);
+        strings.writeBytes(bytes);
+    }
+
+    private static int epochDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,760 @@
+package ru.andreynaz4renko.data.journal;
+
+import ru.andreynaz4renko.data.TaskRepository;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
+import ru.andreynaz4renko.domain.TaskStatus;
+import ru.andreynaz4renko.util.AtomicFiles;
+import ru.andreynaz4renko.util.BoundedLongHeap;
+import ru.andreynaz4renko.util.IntIntHashMap;
+import ru.andreynaz4renko.util.LruCache;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Класс DiskTaskRepository представляет собой репозиторий задач, хранящий задачи на диске, а в памяти -
+ * только индекс смещений записей и кеш LRU ограниченного размера с недавно использованными задачами.
+ * Поэтому количество задач ограничено размером файла, а не кучи.
+ * <p>
+ * Файл - это лог записей JournalRecord: PUT с полным состоянием задачи, REMOVE и COMMIT, завершающая сохранение.
+ * Изменения выполняются над задачами в кеше и записываются в лог при вытеснении измененной задачи из кеша
+ * или при saveTasks(). Поэтому повторные изменения часто используемых задач не обращаются к диску.
+ * При загрузке применяются только записи до последней COMMIT, поэтому несохраненные изменения
+ * и записи, оборванные при сбое, отбрасываются.
+ * Когда устаревшие записи занимают больше половины файла, saveTasks() переписывает файл,
+ * оставляя только последние записи существующих задач.
+ * <p>
+ * getTasksList() читает все задачи с диска и возвращает их копию, поэтому в памяти оказывается весь список.
+ * Постраничная выдача отбирается по индексу в памяти и читает с диска только задачи страницы, а выборки
+ * по приоритету и сроку читают задачи по одной и хранят в памяти только ограниченную кучу ключей.
+ * Изменять задачи нужно через методы репозитория. Репозиторий не потокобезопасен:
+ * для работы из нескольких потоков предназначен ConcurrentTaskRepository.
+ */
+public class DiskTaskRepository extends TaskRepository implements AutoCloseable {
+
+    /**
+     * Размер кеша задач по умолчанию.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 10_000;
+
+    /**
+     * Размер буфера записей, после которого записи дописываются в файл, не дожидаясь saveTasks().
+     */
+    private static final int FLUSH_THRESHOLD = 1 << 20;
+
+    /**
+     * Размер файла, до которого файл не переписывается независимо от доли устаревших записей.
+     */
+    private static final long MIN_COMPACTION_SIZE = 4L * 1024 * 1024;
+
+    private static final int NO_SLOT = -1;
+
+    /**
+     * Длина записи свободной ячейки индекса.
+     */
+    private static final int FREE_SLOT = -1;
+
+    /**
+     * Смещение задачи, которая еще не записана в файл и находится только в кеше.
+     */
+    private static final long NOT_WRITTEN = -1;
+
+    private static final Comparator<Task> BY_ID = Comparator.comparingInt(Task::getId);
+
+    /**
+     * Путь к файлу задач.
+     */
+    private final Path path;
+
+    /**
+     * Номера ячеек индекса по идентификатору задачи.
+     */
+    private final IntIntHashMap slots = new IntIntHashMap();
+
+    /**
+     * Идентификаторы задач, смещения и длины их последних записей по номеру ячейки.
+     */
+    private int[] ids = new int[16];
+    private long[] offsets = new long[16];
+    private int[] lengths = new int[16];
+    private int slotCount;
+
+    /**
+     * Номера освободившихся ячеек индекса.
+     */
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    private final LruCache<Integer, Task> cache;
+
+    /**
+     * Идентификаторы задач в кеше, измененных после записи в файл.
+     */
+    private final Set<Integer> dirty = new HashSet<>();
+
+    /**
+     * Записи, еще не дописанные в файл. Их смещения отсчитываются от конца файла.
+     */
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private final DataOutputStream pendingOut = new DataOutputStream(pending);
+
+    private FileChannel channel;
+
+    /**
+     * Количество байт, записанных в файл.
+     */
+    private long fileLength;
+
+    /**
+     * Суммарная длина последних записей существующих задач.
+     */
+    private long liveBytes;
+
+    private int lastTaskId;
+
+    /**
+     * Последний список задач, выданный getTasksList(). Если поле tasks указывает на другой список,
+     * его подменила обертка, и при сохранении файл приводится к этому списку.
+     */
+    private TaskList view;
+
+    /**
+     * Конструктор класса DiskTaskRepository с размером кеша по умолчанию.
+     *
+     * @param filepath Путь к файлу задач.
+     */
+    public DiskTaskRepository(String filepath) {
+        this(filepath, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Конструктор класса DiskTaskRepository. Созданный репозиторий пуст; файл читается после loadTasks(),
+     * а без загрузки saveTasks() заменяет содержимое файла задачами репозитория.
+     *
+     * @param filepath  Путь к файлу задач.
+     * @param cacheSize Количество задач, хранимых в памяти.
+     */
+    public DiskTaskRepository(String filepath, int cacheSize) {
+        this.path = Paths.get(filepath);
+        this.cache = new LruCache<>(cacheSize, this::evict);
+        this.view = tasks;
+    }
+
+    /**
+     * Строит индекс задач по файлу. Несохраненные изменения отбрасываются.
+     *
+     * @return true, если файл успешно прочитан, в противном случае - false.
+     */
+    @Override
+    public boolean loadTasks() {
+        try {
+            close();
+            reset();
+            channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            fileLength = scan();
+            channel.truncate(fileLength);
+            countTasksLoaded(slots.size());
+            return true;
+        } catch (Exception e) {
+            System.err.println(e.getLocalizedMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Записывает измененные задачи из кеша и запись COMMIT, сбрасывает файл на диск
+     * и при необходимости переписывает файл без устаревших записей.
+     *
+     * @return true, если задачи успешно сохранены, в противном случае - false.
+     */
+    @Override
+    public boolean saveTasks() {
+        try {
+            open();
+            if (tasks != view) {
+                replaceAll(tasks);
+            }
+            for (Integer id : dirty) {
+                append(slots.get(id, NO_SLOT), cache.getIfPresent(id));
+            }
+            dirty.clear();
+            JournalRecord.writeCommit(pendingOut, lastTaskId);
+            flush();
+            channel.force(false);
+            if (fileLength > MIN_COMPACTION_SIZE && fileLength > 2 * liveBytes) {
+                compact();
+            }
+            return true;
+        } catch (Exception e) {
+            System.err.println(e.getLocalizedMessage());
+        }
+        return false;
+    }
+
+    @Override
+    public void setTaskListFactory(Supplier<TaskList> taskListFactory) {
+        super.setTaskListFactory(taskListFactory);
+        view = tasks;
+    }
+
+    @Override
+    public boolean isTaskExists(int id) {
+        return slots.containsKey(id);
+    }
+
+    @Override
+    public int getMaxTaskId() {
+        int max = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (lengths[slot] != FREE_SLOT) {
+                max = Math.max(max, ids[slot]);
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public int nextTaskId() {
+        return lastTaskId + 1;
+    }
+
+    @Override
+    public boolean addTask(Task task) {
+        int id = task.getId();
+        if (slots.containsKey(id)) {
+            return false;
+        }
+        int slot = allocate(id);
+        offsets[slot] = NOT_WRITTEN;
+        lengths[slot] = 0;
+        lastTaskId = Math.max(lastTaskId, id);
+        dirty.add(id);
+        cache.put(id, task);
+        flushIfFull();
+        return true;
+    }
+
+    @Override
+    public boolean removeTask(int id) {
+        int slot = slots.get(id, NO_SLOT);
+        if (slot == NO_SLOT) {
+            return false;
+        }
+        cache.remove(id);
+        dirty.remove(id);
+        release(id, slot);
+        try {
+            JournalRecord.writeRemove(pendingOut, id);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        flushIfFull();
+        return true;
+    }
+
+    @Override
+    public boolean completeTask(int id) {
+        return updateTask(id, task -> {
+            task.setStatus(TaskStatus.DONE);
+            task.setCompletion(LocalDate.now());
+        });
+    }
+
+    /**
+     * Возвращает задачу по идентификатору, читая ее с диска при отсутствии в кеше.
+     * Возвращается задача из кеша: изменять ее нужно через методы репозитория.
+     *
+     * @param id Идентификатор задачи.
+     * @return Задача или null, если задачи нет или ее не удалось прочитать.
+     */
+    @Override
+    public Task getTask(int id) {
+        if (!slots.containsKey(id)) {
+            return null;
+        }
+        try {
+            return cache.get(id, this::read);
+        } catch (UncheckedIOException e) {
+            System.err.println(e.getCause().getLocalizedMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Читает все задачи и возвращает их копии одним списком, упорядоченным по идентификатору.
+     *
+     * @return Список задач.
+     */
+    @Override
+    public TaskList getTasksList() {
+        List<Task> all = new ArrayList<>(slots.size());
+        try {
+            flush();
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (lengths[slot] != FREE_SLOT) {
+                    Task cached = cache.getIfPresent(ids[slot]);
+                    all.add(cached != null ? new Task(cached) : read(ids[slot]));
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println(e.getLocalizedMessage());
+        }
+        all.sort(BY_ID);
+        TaskList taskList = newTaskList();
+        all.forEach(taskList::addTask);
+        taskList.setLastTaskId(lastTaskId);
+        taskList.trimToSize();
+        tasks = taskList;
+        view = taskList;
+        return taskList;
+    }
+
+    /**
+     * Ищет задачи по словам заголовка и описания. Полнотекстовый индекс не хранится:
+     * все задачи читаются с диска, как в getTasksList().
+     *
+     * @param query Слова через пробел, регистр и различие "е" и "ё" не учитываются.
+     * @return Задачи по убыванию приоритета, при равном приоритете - по идентификатору.
+     */
+    @Override
+    public List<Task> searchTasks(String query) {
+        return getTasksList().searchTasks(query);
+    }
+
+    /**
+     * Возвращает страницу задач по возрастанию идентификатора. Страница отбирается по индексу в памяти,
+     * с диска читаются только задачи страницы.
+     *
+     * @param afterId Идентификатор, после которого начинается страница, или 0 для первой страницы.
+     * @param limit   Размер страницы.
+     * @return Список не более чем из limit задач.
+     */
+    @Override
+    public List<Task> getTasksPage(int afterId, int limit) {
+        BoundedLongHeap heap = new BoundedLongHeap(Math.min(limit, slots.size()));
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (lengths[slot] != FREE_SLOT && ids[slot] > afterId) {
+                heap.offer(BoundedLongHeap.key(0, ids[slot]));
+            }
+        }
+        return tasksByKeys(heap);
+    }
+
+    /**
+     * Возвращает задачи с наивысшим приоритетом. Задачи читаются с диска по одной, в памяти хранится
+     * только ограниченная куча ключей.
+     *
+     * @param status Статус задач или null для задач с любым статусом.
+     * @param limit  Количество задач.
+     * @return Список задач.
+     */
+    @Override
+    public List<Task> getTopTasksByPriority(TaskStatus status, int limit) {
+        BoundedLongHeap heap = new BoundedLongHeap(Math.min(limit, slots.size()));
+        forEachTask(task -> {
+            if (status == null || task.getStatus() == status) {
+                heap.offer(BoundedLongHeap.key(TaskList.MAX_PRIORITY - task.getPriority(), task.getId()));
+            }
+        });
+        return tasksByKeys(heap);
+    }
+
+    /**
+     * Возвращает невыполненные задачи с ближайшими сроками. Задачи читаются с диска по одной, в памяти
+     * хранится только ограниченная куча ключей.
+     *
+     * @param limit Количество задач.
+     * @return Список задач.
+     */
+    @Override
+    public List<Task> getNextDeadlines(int limit) {
+        BoundedLongHeap heap = new BoundedLongHeap(Math.min(limit, slots.size()));
+        forEachTask(task -> {
+            if (task.getStatus() != TaskStatus.DONE && task.getDeadline() != null) {
+                heap.offer(BoundedLongHeap.key((int) task.getDeadline().toEpochDay(), task.getId()));
+            }
+        });
+        return tasksByKeys(heap);
+    }
+
+    /**
+     * Возвращает количество обращений к задачам, найденным в кеше.
+     *
+     * @return Количество попаданий в кеш.
+     */
+    public long getCacheHitCount() {
+        return cache.getHitCount();
+    }
+
+    /**
+     * Возвращает количество обращений к задачам, прочитанным с диска.
+     *
+     * @return Количество промахов кеша.
+     */
+    public long getCacheMissCount() {
+        return cache.getMissCount();
+    }
+
+    /**
+     * Возвращает количество задач, вытесненных из кеша.
+     *
+     * @return Количество вытеснений.
+     */
+    public long getCacheEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    /**
+     * Закрывает файл. Несохраненные изменения отбрасываются.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    @Override
+    protected boolean updateTask(int id, Consumer<Task> update) {
+        Task task = getTask(id);
+        if (task == null) {
+            return false;
+        }
+        try {
+            update.accept(task);
+        } finally {
+            dirty.add(id);
+        }
+        flushIfFull();
+        return true;
+    }
+
+    /**
+     * Записывает вытесняемую из кеша задачу, если она изменена.
+     */
+    private void evict(Integer id, Task task) {
+        if (dirty.remove(id)) {
+            append(slots.get(id, NO_SLOT), task);
+        }
+    }
+
+    /**
+     * Добавляет в буфер запись PUT и переносит на нее ячейку индекса.
+     */
+    private void append(int slot, Task task) {
+        long offset = fileLength + pending.size();
+        try {
+            JournalRecord.writePut(pendingOut, task);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        liveBytes -= lengths[slot];
+        offsets[slot] = offset;
+        lengths[slot] = (int) (fileLength + pending.size() - offset);
+        liveBytes += lengths[slot];
+        countTasksSaved(1);
+    }
+
+    /**
+     * Передает действию каждую задачу: из кеша или прочитанную с диска без помещения в кеш.
+     * Ошибка чтения выводится в stderr и прекращает обход.
+     */
+    private void forEachTask(Consumer<Task> action) {
+        try {
+            flush();
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (lengths[slot] != FREE_SLOT) {
+                    Task cached = cache.getIfPresent(ids[slot]);
+                    action.accept(cached != null ? cached : read(ids[slot]));
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println(e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Возвращает задачи по ключам, отобранным кучей, в порядке возрастания ключей.
+     */
+    private List<Task> tasksByKeys(BoundedLongHeap heap) {
+        long[] keys = heap.toSortedArray();
+        List<Task> result = new ArrayList<>(keys.length);
+        for (long key : keys) {
+            Task task = getTask((int) key);
+            if (task != null) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Читает последнюю запись задачи из файла.
+     */
+    private Task read(int id) {
+        int slot = slots.get(id, NO_SLOT);
+        try {
+            if (offsets[slot] + lengths[slot] > fileLength) {
+                flush();
+            }
+            ByteBuffer record = ByteBuffer.allocate(lengths[slot]);
+            readFully(record, offsets[slot]);
+            record.flip();
+            record.getInt();
+            int checksum = record.getInt();
+            ByteBuffer payload = record.slice();
+            if (!JournalRecord.verify(payload, checksum)) {
+                throw new IOException("Запись задачи " + id + " в файле " + path + " повреждена");
+            }
+            return JournalRecord.readPut(payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Неожиданный конец файла " + path);
+            }
+        }
+        countBytesRead(buffer.limit());
+    }
+
+    /**
+     * Дописывает буфер записей в конец файла без сброса на диск.
+     */
+    private void flush() throws IOException {
+        if (pending.size() == 0) {
+            return;
+        }
+        open();
+        ByteBuffer buffer = ByteBuffer.wrap(pending.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, fileLength + buffer.position());
+        }
+        fileLength += buffer.limit();
+        countBytesWritten(buffer.limit());
+        pending.reset();
+    }
+
+    private void flushIfFull() {
+        if (pending.size() < FLUSH_THRESHOLD) {
+            return;
+        }
+        try {
+            flush();
+        } catch (IOException e) {
+            System.err.println(e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Открывает файл, если он не открыт. Файл, не прочитанный loadTasks(), очищается:
+     * его содержимое заменяется задачами репозитория.
+     */
+    private void open() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            fileLength = 0;
+        }
+    }
+
+    /**
+     * Читает записи файла и строит по ним индекс. Записи после последней COMMIT в индекс не попадают.
+     *
+     * @return Длина файла до конца последней записи COMMIT.
+     */
+    private long scan() throws IOException {
+        long size = channel.size();
+        long position = 0;
+        long committed = 0;
+        int stagedCount = 0;
+        int[] stagedIds = new int[16];
+        long[] stagedOffsets = new long[16];
+        int[] stagedLengths = new int[16];
+        byte[] payload = new byte[256];
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            while (size - position >= JournalRecord.HEADER_SIZE) {
+                int length = input.readInt();
+                int checksum = input.readInt();
+                if (length < 1 + Integer.BYTES || length > size - position - JournalRecord.HEADER_SIZE) {
+                    break;
+                }
+                if (payload.length < length) {
+                    payload = new byte[Math.max(length, payload.length * 2)];
+                }
+                input.readFully(payload, 0, length);
+                ByteBuffer record = ByteBuffer.wrap(payload, 0, length);
+                if (!JournalRecord.verify(record, checksum)) {
+                    break;
+                }
+                byte operation = record.get();
+                int id = record.getInt();
+                int recordLength = JournalRecord.HEADER_SIZE + length;
+                if (operation == JournalRecord.COMMIT) {
+                    for (int i = 0; i < stagedCount; i++) {
+                        if (stagedOffsets[i] == NOT_WRITTEN) {
+                            int slot = slots.get(stagedIds[i], NO_SLOT);
+                            if (slot != NO_SLOT) {
+                                release(stagedIds[i], slot);
+                            }
+                        } else {
+                            int slot = slots.get(stagedIds[i], NO_SLOT);
+                            if (slot == NO_SLOT) {
+                                slot = allocate(stagedIds[i]);
+                                lengths[slot] = 0;
+                            }
+                            liveBytes += stagedLengths[i] - lengths[slot];
+                            offsets[slot] = stagedOffsets[i];
+                            lengths[slot] = stagedLengths[i];
+                        }
+                    }
+                    stagedCount = 0;
+                    lastTaskId = Math.max(lastTaskId, id);
+                    committed = position + recordLength;
+                } else if (operation == JournalRecord.PUT || operation == JournalRecord.REMOVE) {
+                    if (stagedCount == stagedIds.length) {
+                        stagedIds = Arrays.copyOf(stagedIds, stagedCount * 2);
+                        stagedOffsets = Arrays.copyOf(stagedOffsets, stagedCount * 2);
+                        stagedLengths = Arrays.copyOf(stagedLengths, stagedCount * 2);
+                    }
+                    stagedIds[stagedCount] = id;
+                    stagedOffsets[stagedCount] = operation == JournalRecord.PUT ? position : NOT_WRITTEN;
+                    stagedLengths[stagedCount] = recordLength;
+                    stagedCount++;
+                } else {
+                    break;
+                }
+                position += recordLength;
+            }
+        }
+        countBytesRead(position);
+        if (position < size) {
+            System.err.println("Файл " + path + " поврежден после " + position + " байт, хвост отброшен.");
+        }
+        return committed;
+    }
+
+    /**
+     * Приводит файл к списку задач, подмененному оберткой: удаляет отсутствующие в нем задачи
+     * и записывает все задачи списка.
+     */
+    private void replaceAll(TaskList taskList) throws IOException {
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (lengths[slot] != FREE_SLOT && !taskList.containsTask(ids[slot])) {
+                removeTask(ids[slot]);
+            }
+        }
+        for (Task task : taskList.getTasks()) {
+            int slot = slots.get(task.getId(), NO_SLOT);
+            if (slot == NO_SLOT) {
+                slot = allocate(task.getId());
+                lengths[slot] = 0;
+            }
+            cache.remove(task.getId());
+            dirty.remove(task.getId());
+            append(slot, task);
+            if (pending.size() >= FLUSH_THRESHOLD) {
+                flush();
+            }
+        }
+        lastTaskId = Math.max(lastTaskId, taskList.getLastTaskId());
+        view = tasks;
+    }
+
+    /**
+     * Переписывает файл, оставляя последние записи существующих задач и запись COMMIT.
+     * Вызывается после сохранения, когда все задачи записаны в файл.
+     */
+    private void compact() throws Exception {
+        long[] compacted = new long[offsets.length];
+        ByteArrayOutputStream commit = new ByteArrayOutputStream(16);
+        JournalRecord.writeCommit(new DataOutputStream(commit), lastTaskId);
+        countBytesWritten(AtomicFiles.write(path, output -> {
+            long position = 0;
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (lengths[slot] != FREE_SLOT) {
+                    ByteBuffer record = ByteBuffer.allocate(lengths[slot]);
+                    readFully(record, offsets[slot]);
+                    output.write(record.array());
+                    compacted[slot] = position;
+                    position += lengths[slot];
+                }
+            }
+            commit.writeTo(output);
+        }));
+        channel.close();
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        offsets = compacted;
+        fileLength = channel.size();
+    }
+
+    private int allocate(int id) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotCount == ids.length) {
+                ids = Arrays.copyOf(ids, slotCount * 2);
+                offsets = Arrays.copyOf(offsets, slotCount * 2);
+                lengths = Arrays.copyOf(lengths, slotCount * 2);
+            }
+            slot = slotCount++;
+        }
+        ids[slot] = id;
+        slots.put(id, slot);
+        return slot;
+    }
+
+    private void release(int id, int slot) {
+        liveBytes -= lengths[slot];
+        lengths[slot] = FREE_SLOT;
+        slots.remove(id);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Отбрасывает индекс, кеш и несохраненные записи.
+     */
+    private void reset() {
+        slots.clear();
+        slotCount = 0;
+        freeCount = 0;
+        cache.clear();
+        dirty.clear();
+        pending.reset();
+        fileLength = 0;
+        liveBytes = 0;
+        lastTaskId = 0;
+        tasks = newTaskList();
+        view = tasks;
+    }
+}
@@ -0,0 +1,241 @@
+package ru.andreynaz4renko.data.journal;
+
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
+import ru.andreynaz4renko.domain.TaskStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.zip.CRC32;
+
+/**
+ * Класс JournalRecord кодирует и применяет записи журнала изменений задач.
+ * Каждая запись имеет вид [длина][CRC32][данные], где данные начинаются с кода операции и идентификатора задачи.
+ * Все операции идемпотентны: PUT содержит полное состояние задачи, COMPLETE - дату завершения,
+ * поэтому журнал можно безопасно повторно применить поверх снимка, который уже содержит часть изменений.
+ * Запись COMMIT вместо идентификатора задачи содержит последний выданный идентификатор.
+ */
+final class JournalRecord {
+
+    /**
+     * Добавление или полная замена задачи.
+     */
+    static final byte PUT = 1;
+
+    /**
+     * Пометка задачи как выполненной.
+     */
+    static final byte COMPLETE = 2;
+
+    /**
+     * Удаление задачи.
+     */
+    static final byte REMOVE = 3;
+
+    /**
+     * Фиксация сохранения с последним выданным идентификатором задачи.
+     */
+    static final byte COMMIT = 4;
+
+    /**
+     * Размер заголовка записи: длина данных и контрольная сумма.
+     */
+    static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int NO_STRING = -1;
+    private static final byte NO_STATUS = -1;
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private JournalRecord() { }
+
+    /**
+     * Записывает запись PUT с полным состоянием задачи.
+     */
+    static void writePut(DataOutputStream out, Task task) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+        DataOutputStream data = new DataOutputStream(payload);
+        data.writeByte(PUT);
+        data.writeInt(task.getId());
+        writeString(data, task.getCaption());
+        writeString(data, task.getDescription());
+        data.writeByte(task.getPriority());
+        writeDate(data, task.getDeadline());
+        writeDate(data, task.getCompletion());
+        data.writeByte(task.getStatus() == null ? NO_STATUS : task.getStatus().ordinal());
+        writeFramed(out, payload);
+    }
+
+    /**
+     * Записывает запись COMPLETE с датой завершения задачи.
+     */
+    static void writeComplete(DataOutputStream out, int id, LocalDate completion) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(16);
+        DataOutputStream data = new DataOutputStream(payload);
+        data.writeByte(COMPLETE);
+        data.writeInt(id);
+        writeDate(data, completion);
+        writeFramed(out, payload);
+    }
+
+    /**
+     * Записывает запись REMOVE.
+     */
+    static void writeRemove(DataOutputStream out, int id) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(8);
+        DataOutputStream data = new DataOutputStream(payload);
+        data.writeByte(REMOVE);
+        data.writeInt(id);
+        writeFramed(out, payload);
+    }
+
+    /**
+     * Записывает запись COMMIT.
+     */
+    static void writeCommit(DataOutputStream out, int lastTaskId) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(8);
+        DataOutputStream data = new DataOutputStream(payload);
+        data.writeByte(COMMIT);
+        data.writeInt(lastTaskId);
+        writeFramed(out, payload);
+    }
+
+    /**
+     * Проверяет контрольную сумму данных записи, не изменяя позицию буфера.
+     */
+    static boolean verify(ByteBuffer payload, int checksum) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue() == checksum;
+    }
+
+    /**
+     * Читает задачу из данных записи PUT, начиная с кода операции.
+     */
+    static Task readPut(ByteBuffer payload) {
+        byte operation = payload.get();
+        if (operation != PUT) {
+            throw new IllegalArgumentException("Ожидалась запись PUT, получена операция " + operation);
+        }
+        return readTask(payload.getInt(), payload);
+    }
+
+    /**
+     * Применяет записи из буфера к списку задач, пока они целы.
+     * Чтение останавливается на первой неполной или поврежденной записи, например оборванной при сбое.
+     *
+     * @param buffer   Буфер с записями журнала.
+     * @param taskList Список задач, к которому применяются записи.
+     * @return Количество байт, занимаемое целыми записями от начала буфера.
+     */
+    static int replay(ByteBuffer buffer, TaskList taskList) {
+        while (buffer.remaining() >= HEADER_SIZE) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                return start;
+            }
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+            if (!verify(payload, checksum)) {
+                return start;
+            }
+            try {
+                apply(payload, taskList);
+            } catch (RuntimeException e) {
+                return start;
+            }
+            buffer.position(buffer.position() + length);
+        }
+        return buffer.position();
+    }
+
+    private static void apply(ByteBuffer payload, TaskList taskList) {
+        byte operation = payload.get();
+        int id = payload.getInt();
+        switch (operation) {
+            case PUT -> {
+                Task task = readTask(id, payload);
+                if (!taskList.updateTask(id, existing -> copyState(task, existing))) {
+                    taskList.addTask(task);
+                }
+            }
+            case COMPLETE -> {
+                LocalDate completion = readDate(payload);
+                taskList.updateTask(id, existing -> {
+                    existing.setStatus(TaskStatus.DONE);
+                    existing.setCompletion(completion);
+                });
+            }
+            case REMOVE -> taskList.removeTask(id);
+            case COMMIT -> taskList.setLastTaskId(id);
+            default -> throw new IllegalArgumentException("Неизвестная операция журнала: " + operation);
+        }
+    }
+
+    private static Task readTask(int id, ByteBuffer payload) {
+        return new Task(id,
+                readString(payload),
+                readString(payload),
+                payload.get(),
+                readDate(payload),
+                readDate(payload),
+                readStatus(payload));
+    }
+
+    private static void copyState(Task source, Task target) {
+        target.setCaption(source.getCaption());
+        target.setDescription(source.getDescription());
+        target.setPriority(source.getPriority());
+        target.setDeadline(source.getDeadline());
+        target.setCompletion(source.getCompletion());
+        target.setStatus(source.getStatus());
+    }
+
+    private static void writeFramed(DataOutputStream out, ByteArrayOutputStream payload) throws IOException {
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        out.writeInt(bytes.length);
+        out.writeInt((int) crc.getValue());
+        out.write(bytes);
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        if (value == null) {
+            data.writeInt(NO_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readString(ByteBuffer payload) {
+        int length = payload.getInt();
+        if (length == NO_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDate(DataOutputStream data, LocalDate date) throws IOException {
+        data.writeInt(date == null ? NO_DATE : (int) date.toEpochDay());
+    }
+
+    private static LocalDate readDate(ByteBuffer payload) {
+        int epochDay = payload.getInt();
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static TaskStatus readStatus(ByteBuffer payload) {
+        byte ordinal = payload.get();
+        return ordinal == NO_STATUS ? null : STATUSES[ordinal];
+    }
+}
@@ -0,0 +1,322 @@
+package ru.andreynaz4renko.data.journal;
+
+import ru.andreynaz4renko.data.TaskRepository;
+import ru.andreynaz4renko.data.xml.XmlTaskStreamReader;
+import ru.andreynaz4renko.data.xml.XmlTaskStreamWriter;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
+import ru.andreynaz4renko.util.AtomicFiles;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Класс JournalTaskRepository представляет собой репозиторий задач с журналом изменений.
+ * Состояние хранится как XML снимок (в формате XmlTaskRepository) плюс журнал операций, дописываемый в конец файла.
+ * Каждое добавление, редактирование, выполнение и удаление задачи кодируется компактной записью,
+ * а saveTasks() дописывает в журнал только накопленные записи, поэтому стоимость сохранения
+ * пропорциональна объему изменений, а не размеру списка.
+ * Когда журнал превышает заданный размер, он уплотняется в фоне: прежний снимок и журнал сводятся в новый снимок,
+ * а журнал начинается заново.
+ * С одной парой файлов снимка и журнала должен работать только один экземпляр репозитория.
+ */
+public class JournalTaskRepository extends TaskRepository {
+
+    /**
+     * Размер журнала по умолчанию, после которого запускается уплотнение.
+     */
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 4L * 1024 * 1024;
+
+    /**
+     * Путь к XML снимку задач.
+     */
+    private final Path snapshotPath;
+
+    /**
+     * Путь к журналу операций.
+     */
+    private final Path journalPath;
+
+    /**
+     * Путь к журналу, который уплотняется в данный момент. Существует только во время уплотнения
+     * или после сбоя во время него, и при загрузке применяется перед основным журналом.
+     */
+    private final Path compactingPath;
+
+    /**
+     * Размер журнала в байтах, после которого запускается уплотнение.
+     */
+    private final long compactionThreshold;
+
+    /**
+     * Записи журнала, накопленные с последнего сохранения.
+     */
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private final DataOutputStream pendingOut = new DataOutputStream(pending);
+
+    /**
+     * Количество записей в буфере журнала.
+     */
+    private int pendingRecords;
+
+    /**
+     * Фоновый поток уплотнения журнала.
+     */
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "journal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Результат последнего запущенного уплотнения.
+     */
+    private Future<?> compaction;
+
+    /**
+     * Конструктор класса JournalTaskRepository с порогом уплотнения по умолчанию.
+     *
+     * @param snapshotPath Путь к XML снимку задач.
+     * @param journalPath  Путь к журналу операций.
+     */
+    public JournalTaskRepository(String snapshotPath, String journalPath) {
+        this(snapshotPath, journalPath, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Конструктор класса JournalTaskRepository.
+     *
+     * @param snapshotPath        Путь к XML снимку задач.
+     * @param journalPath         Путь к журналу операций.
+     * @param compactionThreshold Размер журнала в байтах, после которого запускается уплотнение.
+     */
+    public JournalTaskRepository(String snapshotPath, String journalPath, long compactionThreshold) {
+        this.snapshotPath = Paths.get(snapshotPath);
+        this.journalPath = Paths.get(journalPath);
+        this.compactingPath = Paths.get(journalPath + ".compacting");
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * Загружает задачи из снимка и применяет к ним журнал операций. Несохраненные изменения отбрасываются.
+     *
+     * @return true, если задачи успешно загружены, в противном случае - false.
+     */
+    @Override
+    public boolean loadTasks() {
+        try {
+            awaitCompaction();
+            TaskList taskList = readSnapshot();
+            replay(compactingPath, taskList);
+            replay(journalPath, taskList);
+            taskList.trimToSize();
+            countTasksLoaded(taskList.size());
+            tasks = taskList;
+            pending.reset();
+            pendingRecords = 0;
+            return true;
+        } catch (Exception e) {
+            System.err.println(e.getLocalizedMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Дописывает накопленные записи в журнал и при необходимости запускает фоновое уплотнение.
+     *
+     * @return true, если изменения успешно записаны, в противном случае - false.
+     */
+    @Override
+    public boolean saveTasks() {
+        try {
+            if (pending.size() > 0) {
+                try (FileChannel channel = FileChannel.open(journalPath,
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    ByteBuffer buffer = ByteBuffer.wrap(pending.toByteArray());
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    channel.force(false);
+                    countBytesWritten(buffer.limit());
+                }
+                countTasksSaved(pendingRecords);
+                pending.reset();
+                pendingRecords = 0;
+            }
+            if (Files.exists(journalPath) && Files.size(journalPath) > compactionThreshold
+                    && (compaction == null || compaction.isDone())) {
+                startCompaction();
+            }
+            return true;
+        } catch (Exception e) {
+            System.err.println(e.getLocalizedMessage());
+        }
+        return false;
+    }
+
+    @Override
+    public boolean addTask(Task task) {
+        if (!super.addTask(task)) {
+            return false;
+        }
+        return record(() -> JournalRecord.writePut(pendingOut, task));
+    }
+
+    @Override
+    public boolean editTask(int id, String caption, String description, String priority, String deadline) {
+        if (!super.editTask(id, caption, description, priority, deadline)) {
+            return false;
+        }
+        return record(() -> JournalRecord.writePut(pendingOut, tasks.getTask(id)));
+    }
+
+    @Override
+    public boolean removeTask(int id) {
+        if (!super.removeTask(id)) {
+            return false;
+        }
+        return record(() -> JournalRecord.writeRemove(pendingOut, id));
+    }
+
+    @Override
+    public boolean completeTask(int id) {
+        if (!super.completeTask(id)) {
+            return false;
+        }
+        return record(() -> JournalRecord.writeComplete(pendingOut, id, tasks.getTask(id).getCompletion()));
+    }
+
+    /**
+     * Ожидает завершения текущего фонового уплотнения, если оно запущено.
+     * Ошибки уплотнения выводятся в stderr фоновым потоком и не передаются вызывающему.
+     *
+     * @throws Exception В случае прерывания ожидания.
+     */
+    public void awaitCompaction() throws Exception {
+        if (compaction != null) {
+            compaction.get();
+        }
+    }
+
+    /**
+     * Переносит текущий журнал в уплотняемый и запускает фоновое уплотнение.
+     * Новые изменения с этого момента пишутся в новый журнал.
+     */
+    private void startCompaction() throws IOException {
+        if (Files.exists(compactingPath)) {
+            // Уплотнение было прервано сбоем: оба журнала войдут в новый снимок.
+            try (FileChannel channel = FileChannel.open(compactingPath,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                byte[] journal = Files.readAllBytes(journalPath);
+                channel.write(ByteBuffer.wrap(journal));
+                channel.force(false);
+                countBytesRead(journal.length);
+                countBytesWritten(journal.length);
+            }
+            Files.delete(journalPath);
+        } else {
+            Files.move(journalPath, compactingPath, StandardCopyOption.ATOMIC_MOVE);
+        }
+        compaction = compactor.submit(this::compact);
+    }
+
+    /**
+     * Записывает в новый снимок прежний снимок с примененным уплотняемым журналом и удаляет уплотняемый журнал.
+     * Состояние читается из файлов, а не из списка задач, поэтому уплотнение не копирует задачи в вызывающем
+     * потоке и не пересекается с их изменениями. При ошибке уплотняемый журнал остается: он применяется
+     * при загрузке и войдет в новый снимок при следующем уплотнении.
+     */
+    private void compact() {
+        try {
+            TaskList taskList = readSnapshot();
+            replay(compactingPath, taskList);
+            writeSnapshot(taskList.getTasks(), taskList.getLastTaskId());
+            Files.delete(compactingPath);
+        } catch (Exception e) {
+            System.err.println("Уплотнение журнала " + journalPath + " не выполнено: " + e.getLocalizedMessage());
+        }
+    }
+
+    private TaskList readSnapshot() throws Exception {
+        TaskList taskList = newTaskList();
+        if (!Files.exists(snapshotPath)) {
+            return taskList;
+        }
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(snapshotPath));
+             XmlTaskStreamReader reader = new XmlTaskStreamReader(input)) {
+            Task task;
+            while ((task = reader.next()) != null) {
+                taskList.addTask(task);
+            }
+            taskList.setLastTaskId(reader.getLastTaskId());
+        }
+        countBytesRead(Files.size(snapshotPath));
+        return taskList;
+    }
+
+    private void writeSnapshot(List<Task> snapshot, int lastTaskId) throws Exception {
+        countBytesWritten(AtomicFiles.write(snapshotPath, output -> {
+            try (XmlTaskStreamWriter writer = new XmlTaskStreamWriter(output, lastTaskId)) {
+                for (Task task : snapshot) {
+                    writer.write(task);
+                }
+            }
+        }));
+        countTasksSaved(snapshot.size());
+    }
+
+    /**
+     * Применяет журнал к списку задач и обрезает его после последней целой записи.
+     */
+    private void replay(Path path, TaskList taskList) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(channel.size()));
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Журнал читается целиком: его размер ограничен порогом уплотнения.
+            }
+            buffer.flip();
+            countBytesRead(buffer.limit());
+            int valid = JournalRecord.replay(buffer, taskList);
+            if (valid < channel.size()) {
+                System.err.println("Журнал " + path + " поврежден после " + valid + " байт, хвост отброшен.");
+                channel.truncate(valid);
+            }
+        }
+    }
+
+    private boolean record(JournalWrite write) {
+        try {
+            write.run();
+            pendingRecords++;
+            return true;
+        } catch (IOException e) {
+            System.err.println(e.getLocalizedMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Запись в буфер журнала, которая может бросить IOException.
+     */
+    @FunctionalInterface
+    private interface JournalWrite {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,167 @@
+package ru.andreynaz4renko.data.json;
+
+import ru.andreynaz4renko.data.TaskChunks;
+import ru.andreynaz4renko.domain.Task;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JSON документ, разбитый на части по границам элементов массива ToDoList.
+ * В отличие от XML, фигурные скобки могут встречаться внутри строк, поэтому границы находятся одним
+ * проходом по байтам, отслеживающим только строки и глубину вложенности. Такой проход намного дешевле
+ * полного разбора. Каждая часть разбирается JsonTaskStreamReader как документ {"ToDoList": [часть]}.
+ */
+class JsonTaskChunks implements TaskChunks {
+
+    private static final byte[] LIST_START =
+            ("{\"" + JsonTaskFormat.TODO_LIST + "\": [").getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LIST_END = "]}".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TODO_LIST = JsonTaskFormat.TODO_LIST.getBytes(StandardCharsets.UTF_8);
+
+    private final byte[] data;
+
+    /**
+     * Начала и концы частей: часть index занимает байты с starts[index] по ends[index] не включительно.
+     */
+    private final int[] starts;
+    private final int[] ends;
+    private final int lastTaskId;
+
+    private JsonTaskChunks(byte[] data, int[] starts, int[] ends, int lastTaskId) {
+        this.data = data;
+        this.starts = starts;
+        this.ends = ends;
+        this.lastTaskId = lastTaskId;
+    }
+
+    /**
+     * Разбивает документ примерно на count частей равного размера.
+     *
+     * @param data  Документ с массивом ToDoList в корневом объекте.
+     * @param count Желаемое количество частей.
+     * @return Части документа.
+     * @throws IOException В случае ошибки разбора полей корневого объекта.
+     */
+    static JsonTaskChunks split(byte[] data, int count) throws IOException {
+        List<Integer> starts = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        int depth = 0;
+        boolean inString = false;
+        int keyStart = -1;
+        int keyEnd = -1;
+        int listStart = -1;
+        int listEnd = -1;
+        int elementEnd = -1;
+        long step = Math.max(1, data.length / Math.max(count, 1));
+        long nextBound = 0;
+        for (int i = 0; i < data.length && listEnd < 0; i++) {
+            byte b = data[i];
+            if (inString) {
+                if (b == '\\') {
+                    i++;
+                } else if (b == '"') {
+                    inString = false;
+                    keyEnd = i;
+                }
+                continue;
+            }
+            switch (b) {
+                case '"' -> {
+                    inString = true;
+                    keyStart = i + 1;
+                }
+                case '{', '[' -> {
+                    if (depth == 1 && b == '[' && listStart < 0 && isKey(data, keyStart, keyEnd, TODO_LIST)) {
+                        listStart = i;
+                    } else if (depth == 2 && listStart >= 0 && i >= nextBound) {
+                        if (elementEnd >= 0) {
+                            ends.add(elementEnd);
+                        }
+                        starts.add(i);
+                        nextBound = i + step;
+                    }
+                    depth++;
+                }
+                case '}', ']' -> {
+                    depth--;
+                    if (depth == 2 && listStart >= 0) {
+                        elementEnd = i + 1;
+                    } else if (depth == 1 && i > listStart && listStart >= 0) {
+                        listEnd = i;
+                    }
+                }
+                default -> {
+                    // Остальные символы не влияют на структуру.
+                }
+            }
+        }
+        if (!starts.isEmpty()) {
+            ends.add(elementEnd);
+        }
+        InputStream rest = listStart < 0 || listEnd < 0
+                ? new ByteArrayInputStream(data)
+                : new SequenceInputStream(new ByteArrayInputStream(data, 0, listStart + 1),
+                        new ByteArrayInputStream(data, listEnd, data.length - listEnd));
+        return new JsonTaskChunks(data,
+                starts.stream().mapToInt(Integer::intValue).toArray(),
+                ends.stream().mapToInt(Integer::intValue).toArray(),
+                readLastTaskId(rest));
+    }
+
+    @Override
+    public int size() {
+        return starts.length;
+    }
+
+    @Override
+    public List<Task> parse(int index) throws IOException {
+        InputStream chunk = new SequenceInputStream(Collections.enumeration(List.of(
+                new ByteArrayInputStream(LIST_START),
+                new ByteArrayInputStream(data, starts[index], ends[index] - starts[index]),
+                new ByteArrayInputStream(LIST_END))));
+        List<Task> tasks = new ArrayList<>();
+        try (JsonTaskStreamReader reader = new JsonTaskStreamReader(chunk)) {
+            Task task;
+            while ((task = reader.next()) != null) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    @Override
+    public int getLastTaskId() {
+        return lastTaskId;
+    }
+
+    /**
+     * Читает поле lastId из документа с пустым массивом ToDoList.
+     */
+    private static int readLastTaskId(InputStream input) throws IOException {
+        try (JsonTaskStreamReader reader = new JsonTaskStreamReader(input)) {
+            while (reader.next() != null) {
+                // Массив ToDoList пуст; цикл дочитывает поля корневого объекта.
+            }
+            return reader.getLastTaskId();
+        }
+    }
+
+    private static boolean isKey(byte[] data, int start, int end, byte[] key) {
+        if (start < 0 || end - start != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (data[start + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,19 @@
+package ru.andreynaz4renko.data.json;
+
+/**
+ * Имена полей JSON формата списка задач, совпадающие с файлом tasks.json.
+ */
+final class JsonTaskFormat {
+
+    static final String TODO_LIST = "ToDoList";
+    static final String LAST_ID = "lastId";
+    static final String ID = "id";
+    static final String CAPTION = "caption";
+    static final String DESCRIPTION = "description";
+    static final String PRIORITY = "priority";
+    static final String DEADLINE = "deadline";
+    static final String COMPLETE = "complete";
+    static final String STATUS = "status";
+
+    private JsonTaskFormat() { }
+}
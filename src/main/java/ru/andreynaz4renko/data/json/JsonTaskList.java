@@ -22,6 +22,11 @@ public class JsonTaskList {
      */
     private List<JsonTask> tasks;
 
+    /**
+     * Последний выданный идентификатор задачи. Может отсутствовать в файлах, сохраненных до его появления.
+     */
+    private Integer lastTaskId;
+
     /**
      * Конструктор по умолчанию. Создает новый пустой объект JsonTaskList.
      */
@@ -55,4 +60,22 @@ public class JsonTaskList {
     public void setTasks(List<JsonTask> tasks) {
         this.tasks = tasks;
     }
+
+    /**
+     * Возвращает последний выданный идентификатор задачи.
+     *
+     * @return Последний выданный идентификатор задачи или null, если он не был сохранен.
+     */
+    public Integer getLastTaskId() {
+        return lastTaskId;
+    }
+
+    /**
+     * Устанавливает последний выданный идентификатор задачи.
+     *
+     * @param lastTaskId Последний выданный идентификатор задачи.
+     */
+    public void setLastTaskId(Integer lastTaskId) {
+        this.lastTaskId = lastTaskId;
+    }
 }
\ No newline at end of file
@@ -1,36 +1,142 @@
 package ru.andreynaz4renko.data.json;
 
-import jakarta.xml.bind.JAXBContext;
-import jakarta.xml.bind.JAXBException;
-import jakarta.xml.bind.Marshaller;
-import jakarta.xml.bind.Unmarshaller;
-import ru.andreynaz4renko.converters.TaskConverter;
+import ru.andreynaz4renko.data.ParallelTaskLoader;
 import ru.andreynaz4renko.data.TaskRepository;
-import ru.andreynaz4renko.data.xml.XmlTask;
-import ru.andreynaz4renko.data.xml.XmlTaskList;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
+import ru.andreynaz4renko.util.AtomicFiles;
+import ru.andreynaz4renko.util.LruCache;
 
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
+/**
+ * Класс JsonTaskRepository представляет собой репозиторий задач, способный сохранять и загружать задачи в формате JSON.
+ * Он расширяет абстрактный класс TaskRepository и использует потоковые JsonParser и JsonGenerator из Jackson,
+ * поэтому задачи читаются и записываются по одной, без дерева документа и промежуточного JsonTaskList.
+ */
 public class JsonTaskRepository extends TaskRepository {
 
+    /**
+     * Путь к файлу, в котором хранятся задачи в формате JSON.
+     */
     private final String filepath;
-    private final Marshaller marshaller;
-    private final Unmarshaller unmarshaller;
-
-    public JsonTaskRepository(String filepath) throws JAXBException {
-        JAXBContext context = JAXBContext.newInstance(XmlTaskList.class, XmlTask.class);
-        this.marshaller = context.createMarshaller();
-        this.marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
-        this.unmarshaller = context.createUnmarshaller();
+
+    /**
+     * Количество потоков загрузки. Если больше 1, файл разбирается по частям параллельно.
+     */
+    private final int loadThreads;
+
+    /**
+     * Размер кеша описаний в режиме ленивой загрузки описаний или 0, если описания загружаются сразу.
+     */
+    private int descriptionCacheSize;
+
+    /**
+     * Канал файла, из которого читаются описания задач, загруженных в ленивом режиме.
+     */
+    private FileChannel descriptionChannel;
+
+    /**
+     * Конструктор класса JsonTaskRepository.
+     *
+     * @param filepath Путь к файлу, в котором хранятся задачи в формате JSON.
+     */
+    public JsonTaskRepository(String filepath) {
+        this(filepath, 1);
+    }
+
+    /**
+     * Конструктор класса JsonTaskRepository с параллельной загрузкой.
+     *
+     * @param filepath    Путь к файлу, в котором хранятся задачи в формате JSON.
+     * @param loadThreads Количество потоков загрузки. Если больше 1, файл читается в память целиком,
+     *                    разбивается на части по границам задач, части разбираются параллельно,
+     *                    а задачи добавляются в список в порядке идентификаторов.
+     */
+    public JsonTaskRepository(String filepath, int loadThreads) {
         this.filepath = filepath;
+        this.loadThreads = loadThreads;
     }
 
+    /**
+     * Включает ленивую загрузку описаний: при загрузке строки описаний пропускаются без декодирования,
+     * запоминается только их смещение в файле, а getDescription() читает описание по смещению через кеш
+     * ограниченного размера. Файл остается открытым до следующей загрузки: после атомарной замены файла
+     * при сохранении описания читаются из прежней версии, с которой совпадают смещения.
+     * Ленивая загрузка выполняется в одном потоке, даже если задано несколько потоков загрузки.
+     *
+     * @param cacheSize Количество кешируемых описаний или 0, чтобы загружать описания сразу.
+     */
+    public void setLazyDescriptions(int cacheSize) {
+        this.descriptionCacheSize = cacheSize;
+    }
+
+    /**
+     * Загружает задачи из файла в формате JSON.
+     *
+     * @return true, если задачи успешно загружены, в противном случае - false.
+     */
     @Override
     public boolean loadTasks() {
-        try (FileReader reader = new FileReader(filepath)) {
-            JsonTaskList jsonTaskList = (JsonTaskList) unmarshaller.unmarshal(reader);
-            tasks = TaskConverter.jsonTaskListToTaskList(jsonTaskList);
+        boolean lazy = descriptionCacheSize > 0;
+        if (loadThreads > 1 && !lazy) {
+            return loadTasksParallel();
+        }
+        FileChannel channel = null;
+        try (InputStream input = new BufferedInputStream(new FileInputStream(filepath));
+             JsonTaskStreamReader reader = new JsonTaskStreamReader(input, lazy)) {
+            LruCache<Long, String> descriptions = lazy ? new LruCache<>(descriptionCacheSize) : null;
+            if (lazy) {
+                channel = FileChannel.open(Paths.get(filepath), StandardOpenOption.READ);
+            }
+            FileChannel source = channel;
+            TaskList taskList = newTaskList();
+            Task task;
+            while ((task = reader.next()) != null) {
+                long offset = reader.getDescriptionOffset();
+                if (offset >= 0) {
+                    task.setDescriptionLoader(() -> descriptions.get(offset, key -> readDescription(source, key)));
+                }
+                taskList.addTask(task);
+            }
+            taskList.setLastTaskId(reader.getLastTaskId());
+            taskList.trimToSize();
+            tasks = taskList;
+            countBytesRead(Files.size(Paths.get(filepath)));
+            countTasksLoaded(taskList.size());
+            closeDescriptionChannel();
+            descriptionChannel = channel;
+            return true;
+        } catch (Exception e) {
+            System.err.println(e.getLocalizedMessage());
+            closeQuietly(channel);
+        }
+        return false;
+    }
+
+    /**
+     * Загружает задачи, разбирая части файла в loadThreads потоках.
+     */
+    private boolean loadTasksParallel() {
+        try {
+            closeDescriptionChannel();
+            TaskList taskList = newTaskList();
+            byte[] content = Files.readAllBytes(Paths.get(filepath));
+            JsonTaskChunks chunks = JsonTaskChunks.split(content,
+                    loadThreads * ParallelTaskLoader.CHUNKS_PER_THREAD);
+            ParallelTaskLoader.load(chunks, loadThreads, taskList);
+            taskList.trimToSize();
+            tasks = taskList;
+            countBytesRead(content.length);
+            countTasksLoaded(taskList.size());
             return true;
         } catch (Exception e) {
             System.err.println(e.getLocalizedMessage());
@@ -38,15 +144,51 @@ public class JsonTaskRepository extends TaskRepository {
         return false;
     }
 
+    /**
+     * Сохраняет список задач в формате JSON в указанный файл.
+     * Файл записывается через временный файл и атомарно заменяется.
+     *
+     * @return true, если задачи успешно сохранены, в противном случае - false.
+     */
     @Override
     public boolean saveTasks() {
-        try (FileWriter writer = new FileWriter(filepath)) {
-            JsonTaskList jsonTaskList = TaskConverter.taskListToJsonTaskList(tasks);
-            marshaller.marshal(jsonTaskList, writer);
+        try {
+            countBytesWritten(AtomicFiles.write(Paths.get(filepath), output -> {
+                try (JsonTaskStreamWriter writer = new JsonTaskStreamWriter(output, tasks.getLastTaskId())) {
+                    for (Task task : tasks.getTasks()) {
+                        writer.write(task);
+                    }
+                }
+            }));
+            countTasksSaved(tasks.size());
             return true;
         } catch (Exception e) {
             System.err.println(e.getLocalizedMessage());
         }
         return false;
     }
+
+    private static String readDescription(FileChannel channel, long offset) {
+        try {
+            return JsonTaskStreamReader.readString(channel, offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeDescriptionChannel() {
+        closeQuietly(descriptionChannel);
+        descriptionChannel = null;
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println(e.getLocalizedMessage());
+        }
+    }
 }
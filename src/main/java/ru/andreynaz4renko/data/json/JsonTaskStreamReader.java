@@ -0,0 +1,248 @@
+package ru.andreynaz4renko.data.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.io.JsonEOFException;
+import ru.andreynaz4renko.converters.TaskConverter;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Класс JsonTaskStreamReader представляет собой потоковый читатель задач из JSON формата на основе JsonParser.
+ * Элементы массива ToDoList читаются по одному и сразу преобразуются в объекты Task без построения
+ * дерева документа или промежуточного JsonTaskList.
+ */
+public class JsonTaskStreamReader implements AutoCloseable {
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .build();
+
+    /**
+     * Начальный размер окна, читаемого из файла для разбора строки по смещению.
+     */
+    private static final int STRING_WINDOW = 1024;
+
+    private final JsonParser parser;
+    private final boolean lazyDescriptions;
+    private boolean inList;
+    private int lastTaskId;
+    private long descriptionOffset = -1;
+
+    /**
+     * Конструктор класса JsonTaskStreamReader.
+     *
+     * @param input Поток, содержащий документ с массивом ToDoList.
+     * @throws IOException В случае ошибки при создании парсера.
+     */
+    public JsonTaskStreamReader(InputStream input) throws IOException {
+        this(input, false);
+    }
+
+    /**
+     * Конструктор класса JsonTaskStreamReader с возможностью пропускать описания.
+     *
+     * @param input            Поток, содержащий документ с массивом ToDoList. Смещения описаний отсчитываются
+     *                         от начала потока.
+     * @param lazyDescriptions true, если описания не нужно декодировать: у задач description будет null,
+     *                         а смещение описания возвращает getDescriptionOffset().
+     * @throws IOException В случае ошибки при создании парсера.
+     */
+    public JsonTaskStreamReader(InputStream input, boolean lazyDescriptions) throws IOException {
+        this.parser = JSON_FACTORY.createParser(input);
+        this.lazyDescriptions = lazyDescriptions;
+    }
+
+    /**
+     * Читает следующую задачу из документа.
+     *
+     * @return Следующая задача или null, если задачи в документе закончились.
+     * @throws IOException В случае ошибки чтения или некорректного документа.
+     */
+    public Task next() throws IOException {
+        if (!inList) {
+            if (!seekList()) {
+                return null;
+            }
+            inList = true;
+        }
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_ARRAY) {
+            readRootFields();
+            return null;
+        }
+        if (token == null) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Ожидался объект задачи в массиве " + JsonTaskFormat.TODO_LIST);
+        }
+        return readTask();
+    }
+
+    /**
+     * Возвращает последний выданный идентификатор задачи из поля lastId корневого объекта.
+     * Значение известно после того, как next() вернул null.
+     *
+     * @return Последний выданный идентификатор задачи или 0, если поле отсутствует.
+     */
+    public int getLastTaskId() {
+        return lastTaskId;
+    }
+
+    /**
+     * Возвращает смещение в байтах строки описания задачи, прочитанной последним вызовом next(),
+     * если описания пропускаются.
+     *
+     * @return Смещение открывающей кавычки описания или -1, если описание отсутствует или уже декодировано.
+     */
+    public long getDescriptionOffset() {
+        return descriptionOffset;
+    }
+
+    /**
+     * Читает строковое значение JSON, начинающееся с указанного смещения файла.
+     * Окно чтения увеличивается, пока строка не поместится в него целиком.
+     *
+     * @param channel Канал файла. Позиция канала не изменяется, поэтому метод можно вызывать из нескольких потоков.
+     * @param offset  Смещение открывающей кавычки строки.
+     * @return Строка.
+     * @throws IOException В случае ошибки чтения или если по смещению нет строки.
+     */
+    static String readString(FileChannel channel, long offset) throws IOException {
+        for (int window = STRING_WINDOW; ; window *= 2) {
+            ByteBuffer buffer = ByteBuffer.allocate(window);
+            while (buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) > 0) {
+                // Дочитывает окно до конца или до конца файла.
+            }
+            try (JsonParser string = JSON_FACTORY.createParser(buffer.array(), 0, buffer.position())) {
+                if (string.nextToken() != JsonToken.VALUE_STRING) {
+                    throw new JsonParseException(string, "Ожидалась строка по смещению " + offset);
+                }
+                return string.getText();
+            } catch (JsonEOFException e) {
+                if (buffer.hasRemaining()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Перемещает парсер на начало массива ToDoList в корневом объекте.
+     */
+    private boolean seekList() throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Ожидался корневой объект");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            JsonToken value = parser.nextToken();
+            if (JsonTaskFormat.TODO_LIST.equals(parser.getCurrentName()) && value == JsonToken.START_ARRAY) {
+                return true;
+            }
+            readRootField();
+        }
+        return false;
+    }
+
+    /**
+     * Читает поля корневого объекта, следующие за массивом ToDoList.
+     */
+    private void readRootFields() throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            parser.nextToken();
+            readRootField();
+        }
+    }
+
+    /**
+     * Читает значение текущего поля корневого объекта, отличного от ToDoList.
+     */
+    private void readRootField() throws IOException {
+        if (JsonTaskFormat.LAST_ID.equals(parser.getCurrentName())) {
+            lastTaskId = parser.getValueAsInt();
+            return;
+        }
+        parser.skipChildren();
+    }
+
+    /**
+     * Читает поля текущего объекта задачи, на начале которого стоит парсер.
+     */
+    private Task readTask() throws IOException {
+        Integer id = null;
+        String caption = null;
+        String description = null;
+        int priority = 0;
+        LocalDate deadline = null;
+        LocalDate completion = null;
+        TaskStatus status = null;
+        descriptionOffset = -1;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (name) {
+                case JsonTaskFormat.ID -> id = readId();
+                case JsonTaskFormat.CAPTION -> caption = parser.getText();
+                case JsonTaskFormat.DESCRIPTION -> {
+                    if (lazyDescriptions) {
+                        // Значение не декодируется: парсер пропустит строку при чтении следующего токена.
+                        descriptionOffset = parser.getTokenLocation().getByteOffset();
+                    } else {
+                        description = parser.getText();
+                    }
+                }
+                case JsonTaskFormat.PRIORITY -> priority = parser.getValueAsInt();
+                case JsonTaskFormat.DEADLINE -> deadline = LocalDate.parse(parser.getText());
+                case JsonTaskFormat.COMPLETE -> completion = LocalDate.parse(parser.getText());
+                case JsonTaskFormat.STATUS -> status = TaskConverter.jsonTaskStatusToTaskStatus(
+                        JsonTaskStatus.valueOf(parser.getText().toUpperCase(Locale.ROOT)));
+                default -> parser.skipChildren();
+            }
+        }
+        if (id == null) {
+            throw new JsonParseException(parser, "У задачи нет поля " + JsonTaskFormat.ID);
+        }
+        return new Task(id, caption, description, priority, deadline, completion, status);
+    }
+
+    /**
+     * Читает идентификатор задачи: целое число или строку с целым числом, как его записывает JsonTaskStreamWriter.
+     */
+    private int readId() throws IOException {
+        JsonToken token = parser.currentToken();
+        String id = parser.getText();
+        if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_STRING) {
+            throw new JsonParseException(parser, "Некорректный идентификатор задачи: " + id);
+        }
+        try {
+            return Integer.parseInt(id.trim());
+        } catch (NumberFormatException e) {
+            throw new JsonParseException(parser, "Некорректный идентификатор задачи: " + id);
+        }
+    }
+
+    /**
+     * Закрывает парсер. Исходный поток закрывается вызывающей стороной.
+     *
+     * @throws IOException В случае ошибки при закрытии парсера.
+     */
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
@@ -0,0 +1,105 @@
+package ru.andreynaz4renko.data.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.util.DefaultIndenter;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import ru.andreynaz4renko.converters.TaskConverter;
+import ru.andreynaz4renko.domain.Task;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+/**
+ * Класс JsonTaskStreamWriter представляет собой потоковый писатель задач в JSON формат на основе JsonGenerator.
+ * Задачи записываются по одной в массив ToDoList без построения промежуточного JsonTaskList.
+ * Форматирование совпадает с файлом tasks.json: отступ в два пробела и пробел после двоеточия.
+ */
+public class JsonTaskStreamWriter implements AutoCloseable {
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private final JsonGenerator generator;
+
+    /**
+     * Конструктор класса JsonTaskStreamWriter. Записывает начало корневого объекта, поле lastId и начало массива ToDoList.
+     *
+     * @param output     Поток для записи документа в кодировке UTF-8.
+     * @param lastTaskId Последний выданный идентификатор задачи.
+     * @throws IOException В случае ошибки записи.
+     */
+    public JsonTaskStreamWriter(OutputStream output, int lastTaskId) throws IOException {
+        this.generator = JSON_FACTORY.createGenerator(output, JsonEncoding.UTF8);
+        generator.setPrettyPrinter(new TasksPrettyPrinter());
+        generator.writeStartObject();
+        generator.writeNumberField(JsonTaskFormat.LAST_ID, lastTaskId);
+        generator.writeArrayFieldStart(JsonTaskFormat.TODO_LIST);
+    }
+
+    /**
+     * Записывает задачу в массив ToDoList.
+     *
+     * @param task Задача для записи.
+     * @throws IOException В случае ошибки записи.
+     */
+    public void write(Task task) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField(JsonTaskFormat.ID, Integer.toString(task.getId()));
+        writeField(JsonTaskFormat.CAPTION, task.getCaption());
+        writeField(JsonTaskFormat.DESCRIPTION, task.getDescription());
+        generator.writeNumberField(JsonTaskFormat.PRIORITY, task.getPriority());
+        writeField(JsonTaskFormat.DEADLINE, task.getDeadline());
+        writeField(JsonTaskFormat.COMPLETE, task.getCompletion());
+        if (task.getStatus() != null) {
+            writeField(JsonTaskFormat.STATUS, TaskConverter.taskStatusToJsonName(task.getStatus()));
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Завершает массив ToDoList и корневой объект. Исходный поток закрывается вызывающей стороной.
+     *
+     * @throws IOException В случае ошибки записи.
+     */
+    @Override
+    public void close() throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+        generator.close();
+    }
+
+    private void writeField(String name, LocalDate value) throws IOException {
+        if (value != null) {
+            writeField(name, value.toString());
+        }
+    }
+
+    private void writeField(String name, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        }
+    }
+
+    /**
+     * Форматирование с отступом в два пробела и разделителем ": " между именем поля и значением.
+     */
+    private static class TasksPrettyPrinter extends DefaultPrettyPrinter {
+
+        TasksPrettyPrinter() {
+            DefaultIndenter indenter = new DefaultIndenter("  ", "\n");
+            indentObjectsWith(indenter);
+            indentArraysWith(indenter);
+        }
+
+        @Override
+        public void writeObjectFieldValueSeparator(JsonGenerator generator) throws IOException {
+            generator.writeRaw(": ");
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package ru.andreynaz4renko.data.xml;
+
+import ru.andreynaz4renko.data.ParallelTaskLoader;
+import ru.andreynaz4renko.data.TaskRepository;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
+import ru.andreynaz4renko.util.AtomicFiles;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Класс StaxXmlTaskRepository представляет собой репозиторий задач, хранящий задачи в том же XML формате,
+ * что и XmlTaskRepository, но читающий и записывающий их потоково через StAX.
+ * В отличие от JAXB, при загрузке и сохранении не строится промежуточный XmlTaskList,
+ * поэтому пиковое потребление памяти растет на одну задачу, а не на весь документ.
+ */
+public class StaxXmlTaskRepository extends TaskRepository {
+
+    /**
+     * Путь к файлу, в котором хранятся задачи в формате XML.
+     */
+    private final String filepath;
+
+    /**
+     * Количество потоков загрузки. Если больше 1, файл разбирается по частям параллельно.
+     */
+    private final int loadThreads;
+
+    /**
+     * Конструктор класса StaxXmlTaskRepository.
+     *
+     * @param filepath Путь к файлу, в котором хранятся задачи в формате XML.
+     */
+    public StaxXmlTaskRepository(String filepath) {
+        this(filepath, 1);
+    }
+
+    /**
+     * Конструктор класса StaxXmlTaskRepository с параллельной загрузкой.
+     *
+     * @param filepath    Путь к файлу, в котором хранятся задачи в формате XML.
+     * @param loadThreads Количество потоков загрузки. Если больше 1, файл читается в память целиком,
+     *                    разбивается на части по границам задач, части разбираются параллельно,
+     *                    а задачи добавляются в список в порядке идентификаторов.
+     */
+    public StaxXmlTaskRepository(String filepath, int loadThreads) {
+        this.filepath = filepath;
+        this.loadThreads = loadThreads;
+    }
+
+    /**
+     * Загружает задачи из файла в формате XML, разбирая элементы Task по одному.
+     *
+     * @return true, если задачи успешно загружены, в противном случае - false.
+     */
+    @Override
+    public boolean loadTasks() {
+        if (loadThreads > 1) {
+            return loadTasksParallel();
+        }
+        try (InputStream input = new BufferedInputStream(new FileInputStream(filepath));
+             XmlTaskStreamReader reader = new XmlTaskStreamReader(input)) {
+            TaskList taskList = newTaskList();
+            Task task;
+            while ((task = reader.next()) != null) {
+                taskList.addTask(task);
+            }
+            taskList.setLastTaskId(reader.getLastTaskId());
+            taskList.trimToSize();
+            tasks = taskList;
+            countBytesRead(Files.size(Paths.get(filepath)));
+            countTasksLoaded(taskList.size());
+            return true;
+        } catch (Exception e) {
+            System.err.println(e.getLocalizedMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Загружает задачи, разбирая части файла в loadThreads потоках.
+     */
+    private boolean loadTasksParallel() {
+        try {
+            TaskList taskList = newTaskList();
+            byte[] content = Files.readAllBytes(Paths.get(filepath));
+            XmlTaskChunks chunks = XmlTaskChunks.split(content,
+                    loadThreads * ParallelTaskLoader.CHUNKS_PER_THREAD);
+            ParallelTaskLoader.load(chunks, loadThreads, taskList);
+            taskList.trimToSize();
+            tasks = taskList;
+            countBytesRead(content.length);
+            countTasksLoaded(taskList.size());
+            return true;
+        } catch (Exception e) {
+            System.err.println(e.getLocalizedMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Сохраняет список задач в формате XML в указанный файл, записывая задачи по одной.
+     * Файл записывается через временный файл и атомарно заменяется.
+     *
+     * @return true, если задачи успешно сохранены, в противном случае - false.
+     */
+    @Override
+    public boolean saveTasks() {
+        try {
+            countBytesWritten(AtomicFiles.write(Paths.get(filepath), output -> {
+                try (XmlTaskStreamWriter writer = new XmlTaskStreamWriter(output, tasks.getLastTaskId())) {
+                    for (Task task : tasks.getTasks()) {
+                        writer.write(task);
+                    }
+                }
+            }));
+            countTasksSaved(tasks.size());
+            return true;
+        } catch (Exception e) {
+            System.err.println(e.getLocalizedMessage());
+        }
+        return false;
+    }
+}
@@ -0,0 +1,173 @@
+package ru.andreynaz4renko.data.xml;
+
+import ru.andreynaz4renko.data.TaskChunks;
+import ru.andreynaz4renko.domain.Task;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * XML документ ToDoList, разбитый на части по границам элементов Task.
+ * В тексте и значениях атрибутов XML символ "<" экранируется, поэтому "<Task" вне комментариев, разделов CDATA
+ * и инструкций обработки является началом элемента. Границы ищутся одним проходом по байтам документа,
+ * который пропускает комментарии, CDATA и инструкции обработки, но не разбирает документ.
+ * Каждая часть разбирается как отдельный документ: заголовок исходного документа (пролог и открывающий
+ * тег ToDoList), элементы Task части и закрывающий тег, поэтому кодировка и атрибуты корня сохраняются.
+ */
+class XmlTaskChunks implements TaskChunks {
+
+    private static final byte[] TASK_START = ("<" + XmlTaskFormat.TASK).getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LIST_END = ("</" + XmlTaskFormat.TODO_LIST).getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CLOSE_LIST = ("</" + XmlTaskFormat.TODO_LIST + ">").getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] COMMENT_START = "<!--".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] COMMENT_END = "-->".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CDATA_START = "<![CDATA[".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CDATA_END = "]]>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PI_START = "<?".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PI_END = "?>".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] data;
+    private final int headerEnd;
+    private final int[] bounds;
+    private final int lastTaskId;
+
+    private XmlTaskChunks(byte[] data, int headerEnd, int[] bounds, int lastTaskId) {
+        this.data = data;
+        this.headerEnd = headerEnd;
+        this.bounds = bounds;
+        this.lastTaskId = lastTaskId;
+    }
+
+    /**
+     * Разбивает документ примерно на count частей равного размера.
+     *
+     * @param data  Документ ToDoList.
+     * @param count Желаемое количество частей.
+     * @return Части документа.
+     * @throws XMLStreamException В случае ошибки разбора заголовка документа.
+     */
+    static XmlTaskChunks split(byte[] data, int count) throws XMLStreamException {
+        List<Integer> bounds = new ArrayList<>();
+        int first = -1;
+        int end = -1;
+        int next = 1;
+        int i = 0;
+        while (i < data.length) {
+            if (data[i] != '<') {
+                i++;
+            } else if (startsWith(data, i, COMMENT_START)) {
+                i = skip(data, i + COMMENT_START.length, COMMENT_END);
+            } else if (startsWith(data, i, CDATA_START)) {
+                i = skip(data, i + CDATA_START.length, CDATA_END);
+            } else if (startsWith(data, i, PI_START)) {
+                i = skip(data, i + PI_START.length, PI_END);
+            } else if (isTaskStart(data, i)) {
+                if (first < 0) {
+                    first = i;
+                    bounds.add(i);
+                } else if (next < count && i >= first + (long) (data.length - first) * next / count) {
+                    // Граница ставится на первую задачу после очередной доли документа.
+                    bounds.add(i);
+                    while (next < count && i >= first + (long) (data.length - first) * next / count) {
+                        next++;
+                    }
+                }
+                i += TASK_START.length;
+            } else if (startsWith(data, i, LIST_END)) {
+                end = i;
+                i += LIST_END.length;
+            } else {
+                i++;
+            }
+        }
+        if (first < 0) {
+            return new XmlTaskChunks(data, data.length, new int[0], readLastTaskId(new ByteArrayInputStream(data)));
+        }
+        if (end < first) {
+            end = data.length;
+        }
+        bounds.add(end);
+        int lastTaskId = readLastTaskId(new SequenceInputStream(
+                new ByteArrayInputStream(data, 0, first), new ByteArrayInputStream(CLOSE_LIST)));
+        return new XmlTaskChunks(data, first, bounds.stream().mapToInt(Integer::intValue).toArray(), lastTaskId);
+    }
+
+    @Override
+    public int size() {
+        return Math.max(bounds.length - 1, 0);
+    }
+
+    @Override
+    public List<Task> parse(int index) throws XMLStreamException {
+        InputStream chunk = new SequenceInputStream(Collections.enumeration(List.of(
+                new ByteArrayInputStream(data, 0, headerEnd),
+                new ByteArrayInputStream(data, bounds[index], bounds[index + 1] - bounds[index]),
+                new ByteArrayInputStream(CLOSE_LIST))));
+        List<Task> tasks = new ArrayList<>();
+        try (XmlTaskStreamReader reader = new XmlTaskStreamReader(chunk)) {
+            Task task;
+            while ((task = reader.next()) != null) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    @Override
+    public int getLastTaskId() {
+        return lastTaskId;
+    }
+
+    /**
+     * Читает атрибут lastId из документа без элементов Task: next() дочитывает такой документ до конца.
+     */
+    private static int readLastTaskId(InputStream input) throws XMLStreamException {
+        try (XmlTaskStreamReader reader = new XmlTaskStreamReader(input)) {
+            reader.next();
+            return reader.getLastTaskId();
+        }
+    }
+
+    /**
+     * Проверяет, что с позиции начинается элемент Task: "<Task", за которым следует пробельный символ, ">" или "/".
+     */
+    private static boolean isTaskStart(byte[] data, int offset) {
+        if (offset + TASK_START.length >= data.length || !startsWith(data, offset, TASK_START)) {
+            return false;
+        }
+        byte next = data[offset + TASK_START.length];
+        return next == ' ' || next == '>' || next == '/' || next == '\n' || next == '\r' || next == '\t';
+    }
+
+    /**
+     * Возвращает позицию после конца конструкции или длину документа, если конец не найден:
+     * такой документ не разберется и при разборе части.
+     */
+    private static int skip(byte[] data, int from, byte[] end) {
+        for (int i = from; i <= data.length - end.length; i++) {
+            if (data[i] == end[0] && startsWith(data, i, end)) {
+                return i + end.length;
+            }
+        }
+        return data.length;
+    }
+
+    private static boolean startsWith(byte[] data, int offset, byte[] pattern) {
+        if (offset + pattern.length > data.length) {
+            return false;
+        }
+        for (int i = 0; i < pattern.length; i++) {
+            if (data[offset + i] != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,73 @@
+package ru.andreynaz4renko.data.xml;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
+
+/**
+ * Класс XmlTaskContext хранит общий для всех репозиториев JAXBContext классов XmlTaskList и XmlTask.
+ * Создание JAXBContext - самая дорогая операция JAXB, поэтому контекст создается один раз при первом обращении.
+ * JAXBContext потокобезопасен, а Marshaller и Unmarshaller - нет, поэтому они создаются по одному на поток
+ * и переиспользуются всеми репозиториями этого потока.
+ */
+public final class XmlTaskContext {
+
+    private static volatile JAXBContext context;
+
+    private static final ThreadLocal<Marshaller> MARSHALLERS = new ThreadLocal<>();
+    private static final ThreadLocal<Unmarshaller> UNMARSHALLERS = new ThreadLocal<>();
+
+    private XmlTaskContext() { }
+
+    /**
+     * Возвращает общий JAXBContext, создавая его при первом обращении.
+     *
+     * @return JAXBContext классов XmlTaskList и XmlTask.
+     * @throws JAXBException В случае ошибки при создании JAXBContext.
+     */
+    public static JAXBContext getContext() throws JAXBException {
+        JAXBContext result = context;
+        if (result == null) {
+            synchronized (XmlTaskContext.class) {
+                result = context;
+                if (result == null) {
+                    result = JAXBContext.newInstance(XmlTaskList.class, XmlTask.class);
+                    context = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает Marshaller текущего потока с форматированным выводом.
+     *
+     * @return Marshaller текущего потока.
+     * @throws JAXBException В случае ошибки при создании Marshaller.
+     */
+    public static Marshaller getMarshaller() throws JAXBException {
+        Marshaller marshaller = MARSHALLERS.get();
+        if (marshaller == null) {
+            marshaller = getContext().createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+            MARSHALLERS.set(marshaller);
+        }
+        return marshaller;
+    }
+
+    /**
+     * Возвращает Unmarshaller текущего потока.
+     *
+     * @return Unmarshaller текущего потока.
+     * @throws JAXBException В случае ошибки при создании Unmarshaller.
+     */
+    public static Unmarshaller getUnmarshaller() throws JAXBException {
+        Unmarshaller unmarshaller = UNMARSHALLERS.get();
+        if (unmarshaller == null) {
+            unmarshaller = getContext().createUnmarshaller();
+            UNMARSHALLERS.set(unmarshaller);
+        }
+        return unmarshaller;
+    }
+}
@@ -0,0 +1,20 @@
+package ru.andreynaz4renko.data.xml;
+
+/**
+ * Имена элементов и атрибутов XML формата списка задач, совпадающие с аннотациями XmlTaskList и XmlTask.
+ */
+final class XmlTaskFormat {
+
+    static final String TODO_LIST = "ToDoList";
+    static final String LAST_ID = "lastId";
+    static final String TASK = "Task";
+    static final String ID = "id";
+    static final String CAPTION = "caption";
+    static final String DESCRIPTION = "Description";
+    static final String PRIORITY = "Priority";
+    static final String DEADLINE = "Deadline";
+    static final String COMPLETE = "Complete";
+    static final String STATUS = "Status";
+
+    private XmlTaskFormat() { }
+}
@@ -19,6 +19,12 @@ public class XmlTaskList {
     @XmlElement(name = "Task")
     private List<XmlTask> tasks;
 
+    /**
+     * Последний выданный идентификатор задачи. Может отсутствовать в файлах, сохраненных до его появления.
+     */
+    @XmlAttribute(name = "lastId")
+    private Integer lastTaskId;
+
     /**
      * Конструктор по умолчанию. Создает новый пустой объект XmlTaskList.
      */
@@ -52,4 +58,22 @@ public class XmlTaskList {
     public void setTasks(List<XmlTask> tasks) {
         this.tasks = tasks;
     }
+
+    /**
+     * Возвращает последний выданный идентификатор задачи.
+     *
+     * @return Последний выданный идентификатор задачи или null, если он не был сохранен.
+     */
+    public Integer getLastTaskId() {
+        return lastTaskId;
+    }
+
+    /**
+     * Устанавливает последний выданный идентификатор задачи.
+     *
+     * @param lastTaskId Последний выданный идентификатор задачи.
+     */
+    public void setLastTaskId(Integer lastTaskId) {
+        this.lastTaskId = lastTaskId;
+    }
 }
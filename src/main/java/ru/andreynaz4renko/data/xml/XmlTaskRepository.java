@@ -1,19 +1,21 @@
 package ru.andreynaz4renko.data.xml;
 
-import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBException;
-import jakarta.xml.bind.Marshaller;
 import jakarta.xml.bind.Unmarshaller;
 import ru.andreynaz4renko.converters.TaskConverter;
 import ru.andreynaz4renko.data.TaskRepository;
+import ru.andreynaz4renko.domain.TaskList;
+import ru.andreynaz4renko.util.AtomicFiles;
 
 import java.io.FileReader;
-import java.io.FileWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 /**
  * Класс XmlTaskRepository представляет собой репозиторий задач, способный сохранять и загружать задачи в формате XML.
  * Он расширяет абстрактный класс TaskRepository и использует JAXB для маршализации и демаршализации данных задачи
- * в и из формата XML.
+ * в и из формата XML. JAXBContext, Marshaller и Unmarshaller берутся из общего XmlTaskContext,
+ * поэтому создание репозитория не требует создания нового JAXBContext.
  */
 public class XmlTaskRepository extends TaskRepository {
 
@@ -22,40 +24,56 @@ public class XmlTaskRepository extends TaskRepository {
      */
     private final String filepath;
 
-    /**
-     * Объект Marshaller для маршализации задач в XML формат.
-     */
-    private final Marshaller marshaller;
-
-    /**
-     * Объект Unmarshaller для демаршализации задач из XML формата.
-     */
-    private final Unmarshaller unmarshaller;
-
     /**
      * Конструктор класса XmlTaskRepository.
      *
      * @param filepath Путь к файлу, в котором хранятся задачи в формате XML.
-     * @throws JAXBException В случае ошибки при инициализации JAXBContext.
+     * @throws JAXBException В случае ошибки при инициализации общего JAXBContext.
      */
     public XmlTaskRepository(String filepath) throws JAXBException {
-        JAXBContext context = JAXBContext.newInstance(XmlTaskList.class, XmlTask.class);
-        this.marshaller = context.createMarshaller();
-        this.marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
-        this.unmarshaller = context.createUnmarshaller();
+        XmlTaskContext.getContext();
         this.filepath = filepath;
     }
 
     /**
      * Загружает задачи из файла в формате XML и преобразует их в список задач.
+     * Перед разбором списка задач в XmlTaskList подставляется список-приемник, поэтому каждая задача
+     * преобразуется и добавляется в TaskList сразу после разбора, без промежуточного списка XmlTask.
      *
      * @return true, если задачи успешно загружены, в противном случае - false.
      */
     @Override
     public boolean loadTasks() {
         try (FileReader reader = new FileReader(filepath)) {
-            XmlTaskList xmlTaskList = (XmlTaskList) unmarshaller.unmarshal(reader);
-            tasks = TaskConverter.xmlTaskListToTaskList(xmlTaskList);
+            TaskList taskList = newTaskList();
+            Unmarshaller unmarshaller = XmlTaskContext.getUnmarshaller();
+            unmarshaller.setListener(new Unmarshaller.Listener() {
+                @Override
+                public void beforeUnmarshal(Object target, Object parent) {
+                    if (target instanceof XmlTaskList xmlTaskList) {
+                        xmlTaskList.setTasks(TaskConverter.xmlTaskSink(taskList::addTask));
+                    }
+                }
+
+                @Override
+                public void afterUnmarshal(Object target, Object parent) {
+                    if (target instanceof XmlTaskList xmlTaskList) {
+                        TaskConverter.finish(xmlTaskList.getTasks());
+                    }
+                }
+            });
+            try {
+                XmlTaskList xmlTaskList = (XmlTaskList) unmarshaller.unmarshal(reader);
+                if (xmlTaskList.getLastTaskId() != null) {
+                    taskList.setLastTaskId(xmlTaskList.getLastTaskId());
+                }
+            } finally {
+                unmarshaller.setListener(null);
+            }
+            taskList.trimToSize();
+            tasks = taskList;
+            countBytesRead(Files.size(Paths.get(filepath)));
+            countTasksLoaded(taskList.size());
             return true;
         } catch (Exception e) {
             System.err.println(e.getLocalizedMessage());
@@ -65,14 +83,19 @@ public class XmlTaskRepository extends TaskRepository {
 
     /**
      * Сохраняет список задач в формате XML в указанный файл.
+     * XmlTask создаются по одному при маршализации представления списка задач.
+     * Файл записывается через временный файл и атомарно заменяется.
      *
      * @return true, если задачи успешно сохранены, в противном случае - false.
      */
     @Override
     public boolean saveTasks() {
-        try (FileWriter writer = new FileWriter(filepath)) {
+        try {
             XmlTaskList xmlTaskList = TaskConverter.taskListToXmlTaskList(tasks);
-            marshaller.marshal(xmlTaskList, writer);
+            countBytesWritten(AtomicFiles.write(Paths.get(filepath),
+                    output -> XmlTaskContext.getMarshaller().marshal(xmlTaskList, output)));
+            TaskConverter.finish(xmlTaskList.getTasks());
+            countTasksSaved(tasks.size());
             return true;
         } catch (Exception e) {
             System.err.println(e.getLocalizedMessage());
@@ -0,0 +1,133 @@
+package ru.andreynaz4renko.data.xml;
+
+import ru.andreynaz4renko.converters.TaskConverter;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskStatus;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Класс XmlTaskStreamReader представляет собой потоковый читатель задач из XML формата на основе StAX.
+ * Элементы Task читаются по одному и сразу преобразуются в объекты Task без промежуточного XmlTaskList,
+ * поэтому в памяти одновременно находится только одна разбираемая задача.
+ */
+public class XmlTaskStreamReader implements AutoCloseable {
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private final XMLStreamReader reader;
+    private int lastTaskId;
+
+    /**
+     * Конструктор класса XmlTaskStreamReader.
+     *
+     * @param input Поток, содержащий документ ToDoList.
+     * @throws XMLStreamException В случае ошибки при создании StAX-читателя.
+     */
+    public XmlTaskStreamReader(InputStream input) throws XMLStreamException {
+        this.reader = INPUT_FACTORY.createXMLStreamReader(input);
+    }
+
+    /**
+     * Читает следующую задачу из документа.
+     *
+     * @return Следующая задача или null, если задачи в документе закончились.
+     * @throws XMLStreamException В случае ошибки чтения или некорректного документа.
+     */
+    public Task next() throws XMLStreamException {
+        while (reader.hasNext()) {
+            if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            if (XmlTaskFormat.TASK.equals(reader.getLocalName())) {
+                return readTask();
+            }
+            if (XmlTaskFormat.TODO_LIST.equals(reader.getLocalName())) {
+                String lastId = reader.getAttributeValue(null, XmlTaskFormat.LAST_ID);
+                if (lastId != null) {
+                    lastTaskId = Integer.parseInt(lastId.trim());
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Возвращает последний выданный идентификатор задачи из атрибута lastId элемента ToDoList.
+     * Значение известно после первого вызова next().
+     *
+     * @return Последний выданный идентификатор задачи или 0, если атрибут отсутствует.
+     */
+    public int getLastTaskId() {
+        return lastTaskId;
+    }
+
+    /**
+     * Читает содержимое текущего элемента Task, на начале которого стоит читатель.
+     */
+    private Task readTask() throws XMLStreamException {
+        int id = readId();
+        String caption = reader.getAttributeValue(null, XmlTaskFormat.CAPTION);
+        String description = null;
+        int priority = 0;
+        LocalDate deadline = null;
+        LocalDate completion = null;
+        TaskStatus status = null;
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String name = reader.getLocalName();
+            String text = reader.getElementText();
+            switch (name) {
+                case XmlTaskFormat.DESCRIPTION -> description = text;
+                case XmlTaskFormat.PRIORITY -> priority = Integer.parseInt(text.trim());
+                case XmlTaskFormat.DEADLINE -> deadline = LocalDate.parse(text.trim());
+                case XmlTaskFormat.COMPLETE -> completion = LocalDate.parse(text.trim());
+                case XmlTaskFormat.STATUS -> status = TaskConverter.xmlTaskStatusToTaskStatus(
+                        XmlTaskStatus.valueOf(text.trim().toUpperCase(Locale.ROOT)));
+                default -> {
+                    // Неизвестные элементы пропускаются, как и при демаршализации JAXB.
+                }
+            }
+        }
+        return new Task(id, caption, description, priority, deadline, completion, status);
+    }
+
+    /**
+     * Читает обязательный атрибут id текущего элемента Task.
+     */
+    private int readId() throws XMLStreamException {
+        String id = reader.getAttributeValue(null, XmlTaskFormat.ID);
+        if (id == null) {
+            throw new XMLStreamException("У задачи нет атрибута " + XmlTaskFormat.ID, reader.getLocation());
+        }
+        try {
+            return Integer.parseInt(id.trim());
+        } catch (NumberFormatException e) {
+            throw new XMLStreamException("Некорректный идентификатор задачи: " + id, reader.getLocation());
+        }
+    }
+
+    /**
+     * Закрывает StAX-читатель. Исходный поток закрывается вызывающей стороной.
+     *
+     * @throws XMLStreamException В случае ошибки при закрытии читателя.
+     */
+    @Override
+    public void close() throws XMLStreamException {
+        reader.close();
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+}
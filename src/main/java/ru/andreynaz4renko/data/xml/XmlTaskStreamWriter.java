@@ -0,0 +1,111 @@
+package ru.andreynaz4renko.data.xml;
+
+import ru.andreynaz4renko.converters.TaskConverter;
+import ru.andreynaz4renko.domain.Task;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Класс XmlTaskStreamWriter представляет собой потоковый писатель задач в XML формат на основе StAX.
+ * Задачи записываются по одной без построения промежуточного XmlTaskList. Формат вывода, включая
+ * заголовок документа и отступы, совпадает с форматированным выводом JAXB в XmlTaskRepository.
+ */
+public class XmlTaskStreamWriter implements AutoCloseable {
+
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+    private static final byte[] DECLARATION =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n".getBytes(StandardCharsets.UTF_8);
+
+    private static final String TASK_INDENT = "\n    ";
+    private static final String FIELD_INDENT = "\n        ";
+
+    private final XMLStreamWriter writer;
+    private final int lastTaskId;
+    private boolean empty = true;
+
+    /**
+     * Конструктор класса XmlTaskStreamWriter. Записывает заголовок документа.
+     *
+     * @param output     Поток для записи документа в кодировке UTF-8.
+     * @param lastTaskId Последний выданный идентификатор задачи, записываемый в атрибут lastId элемента ToDoList.
+     * @throws IOException        В случае ошибки записи заголовка.
+     * @throws XMLStreamException В случае ошибки при создании StAX-писателя.
+     */
+    public XmlTaskStreamWriter(OutputStream output, int lastTaskId) throws IOException, XMLStreamException {
+        output.write(DECLARATION);
+        this.writer = OUTPUT_FACTORY.createXMLStreamWriter(output, StandardCharsets.UTF_8.name());
+        this.lastTaskId = lastTaskId;
+    }
+
+    /**
+     * Записывает задачу в документ.
+     *
+     * @param task Задача для записи.
+     * @throws XMLStreamException В случае ошибки записи.
+     */
+    public void write(Task task) throws XMLStreamException {
+        if (empty) {
+            writer.writeStartElement(XmlTaskFormat.TODO_LIST);
+            writer.writeAttribute(XmlTaskFormat.LAST_ID, Integer.toString(lastTaskId));
+            empty = false;
+        }
+        writer.writeCharacters(TASK_INDENT);
+        writer.writeStartElement(XmlTaskFormat.TASK);
+        writer.writeAttribute(XmlTaskFormat.ID, Integer.toString(task.getId()));
+        if (task.getCaption() != null) {
+            writer.writeAttribute(XmlTaskFormat.CAPTION, task.getCaption());
+        }
+        writeField(XmlTaskFormat.DESCRIPTION, task.getDescription());
+        writeField(XmlTaskFormat.PRIORITY, Integer.toString(task.getPriority()));
+        writeField(XmlTaskFormat.DEADLINE, task.getDeadline());
+        writeField(XmlTaskFormat.COMPLETE, task.getCompletion());
+        if (task.getStatus() != null) {
+            writeField(XmlTaskFormat.STATUS, TaskConverter.taskStatusToXmlName(task.getStatus()));
+        }
+        writer.writeCharacters(TASK_INDENT);
+        writer.writeEndElement();
+    }
+
+    /**
+     * Записывает закрывающий элемент ToDoList и завершает документ. Исходный поток закрывается вызывающей стороной.
+     *
+     * @throws XMLStreamException В случае ошибки записи.
+     */
+    @Override
+    public void close() throws XMLStreamException {
+        if (empty) {
+            writer.writeEmptyElement(XmlTaskFormat.TODO_LIST);
+            writer.writeAttribute(XmlTaskFormat.LAST_ID, Integer.toString(lastTaskId));
+        } else {
+            writer.writeCharacters("\n");
+            writer.writeEndElement();
+        }
+        writer.writeCharacters("\n");
+        writer.writeEndDocument();
+        writer.flush();
+        writer.close();
+    }
+
+    private void writeField(String name, LocalDate value) throws XMLStreamException {
+        if (value != null) {
+            writeField(name, value.toString());
+        }
+    }
+
+    private void writeField(String name, String value) throws XMLStreamException {
+        if (value == null) {
+            return;
+        }
+        writer.writeCharacters(FIELD_INDENT);
+        writer.writeStartElement(name);
+        writer.writeCharacters(value);
+        writer.writeEndElement();
+    }
+}
@@ -0,0 +1,17 @@
+package ru.andreynaz4renko.deadline;
+
+/**
+ * Событие срока выполнения задачи, о котором DeadlineScheduler уведомляет слушателей.
+ */
+public enum DeadlineEvent {
+
+    /**
+     * До срока осталось не больше заданного количества дней.
+     */
+    DUE_SOON,
+
+    /**
+     * Срок прошел, а задача не выполнена.
+     */
+    OVERDUE
+}
@@ -0,0 +1,19 @@
+package ru.andreynaz4renko.deadline;
+
+import java.time.LocalDate;
+
+/**
+ * Слушатель событий сроков выполнения задач.
+ */
+@FunctionalInterface
+public interface DeadlineListener {
+
+    /**
+     * Вызывается для каждого наступившего события.
+     *
+     * @param event    Событие.
+     * @param taskId   Идентификатор задачи.
+     * @param deadline Срок выполнения задачи.
+     */
+    void onDeadline(DeadlineEvent event, int taskId, LocalDate deadline);
+}
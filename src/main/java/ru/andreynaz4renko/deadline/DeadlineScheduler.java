@@ -0,0 +1,319 @@
+package ru.andreynaz4renko.deadline;
+
+import ru.andreynaz4renko.util.IntIntHashMap;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Класс DeadlineScheduler отслеживает сроки выполнения задач и уведомляет слушателей о приближении срока
+ * (DUE_SOON) и о его нарушении (OVERDUE).
+ * <p>
+ * Ожидаемые события хранятся в двоичной куче, упорядоченной по дню срабатывания, с индексом
+ * "идентификатор задачи - позиция в куче". Поэтому добавление, перенос срока и отмена стоят O(log n),
+ * а advance() просматривает только наступившие события. Куча хранится в массивах примитивов:
+ * несколько десятков байт на задачу, поэтому миллионы ожидающих сроков не нагружают сборщик мусора.
+ * <p>
+ * Текущая дата берется из Clock, поэтому время можно подменить, например Clock.fixed() или Clock.offset().
+ * События срабатывают при вызове advance() - явно или из фонового потока, запущенного start().
+ * Методы потокобезопасны; слушатели вызываются без блокировки планировщика, в потоке, вызвавшем advance().
+ */
+public class DeadlineScheduler implements AutoCloseable {
+
+    private static final int NO_POSITION = -1;
+
+    private static final byte DUE_SOON = 0;
+    private static final byte OVERDUE = 1;
+
+    private final Clock clock;
+
+    /**
+     * За сколько дней до срока срабатывает событие DUE_SOON.
+     */
+    private final int dueSoonDays;
+
+    private final List<DeadlineListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Позиции задач в куче по идентификатору.
+     */
+    private final IntIntHashMap positions = new IntIntHashMap();
+
+    /**
+     * Куча: идентификатор задачи, срок в днях эпохи и следующее ожидаемое событие.
+     */
+    private int[] ids = new int[16];
+    private int[] deadlines = new int[16];
+    private byte[] stages = new byte[16];
+    private int size;
+
+    private ScheduledExecutorService timer;
+
+    /**
+     * Конструктор класса DeadlineScheduler.
+     *
+     * @param clock       Часы, по которым определяется текущая дата.
+     * @param dueSoonDays За сколько дней до срока срабатывает событие DUE_SOON; 0 - в день срока.
+     */
+    public DeadlineScheduler(Clock clock, int dueSoonDays) {
+        if (dueSoonDays < 0) {
+            throw new IllegalArgumentException("Количество дней не может быть отрицательным");
+        }
+        this.clock = clock;
+        this.dueSoonDays = dueSoonDays;
+    }
+
+    /**
+     * Добавляет слушателя событий.
+     *
+     * @param listener Слушатель.
+     */
+    public void addListener(DeadlineListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Удаляет слушателя событий.
+     *
+     * @param listener Слушатель.
+     */
+    public void removeListener(DeadlineListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Начинает отслеживать срок задачи или переносит его. События по новому сроку срабатывают заново;
+     * повторная передача того же срока ничего не меняет.
+     *
+     * @param taskId   Идентификатор задачи.
+     * @param deadline Срок выполнения или null, чтобы перестать отслеживать задачу.
+     */
+    public synchronized void schedule(int taskId, LocalDate deadline) {
+        if (deadline == null) {
+            cancel(taskId);
+            return;
+        }
+        int position = positions.get(taskId, NO_POSITION);
+        if (position != NO_POSITION && deadlines[position] == deadline.toEpochDay()) {
+            return;
+        }
+        if (position == NO_POSITION) {
+            if (size == ids.length) {
+                grow();
+            }
+            position = size++;
+            ids[position] = taskId;
+        }
+        deadlines[position] = (int) deadline.toEpochDay();
+        stages[position] = DUE_SOON;
+        positions.put(taskId, position);
+        if (!siftUp(position)) {
+            siftDown(position);
+        }
+    }
+
+    /**
+     * Перестает отслеживать срок задачи, например после ее выполнения или удаления.
+     *
+     * @param taskId Идентификатор задачи.
+     * @return true, если срок задачи отслеживался, в противном случае - false.
+     */
+    public synchronized boolean cancel(int taskId) {
+        int position = positions.get(taskId, NO_POSITION);
+        if (position == NO_POSITION) {
+            return false;
+        }
+        removeAt(position);
+        return true;
+    }
+
+    /**
+     * Перестает отслеживать все сроки.
+     */
+    public synchronized void clear() {
+        positions.clear();
+        size = 0;
+    }
+
+    /**
+     * Возвращает количество отслеживаемых задач.
+     *
+     * @return Количество задач с ожидаемыми событиями.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Вызывает слушателей для всех событий, наступивших к текущей дате. Задача, срок которой уже прошел,
+     * получает только событие OVERDUE. После OVERDUE задача перестает отслеживаться.
+     *
+     * @return Количество сработавших событий.
+     */
+    public int advance() {
+        List<Fired> fired = new ArrayList<>();
+        synchronized (this) {
+            long today = LocalDate.now(clock).toEpochDay();
+            while (size > 0 && fireDay(0) <= today) {
+                int id = ids[0];
+                int deadline = deadlines[0];
+                if (stages[0] == DUE_SOON && today <= deadline) {
+                    fired.add(new Fired(DeadlineEvent.DUE_SOON, id, deadline));
+                    stages[0] = OVERDUE;
+                    siftDown(0);
+                } else {
+                    fired.add(new Fired(DeadlineEvent.OVERDUE, id, deadline));
+                    removeAt(0);
+                }
+            }
+        }
+        for (Fired event : fired) {
+            LocalDate deadline = LocalDate.ofEpochDay(event.deadline);
+            for (DeadlineListener listener : listeners) {
+                listener.onDeadline(event.event, event.taskId, deadline);
+            }
+        }
+        return fired.size();
+    }
+
+    /**
+     * Запускает фоновый поток, вызывающий advance() сразу и затем с заданным периодом.
+     *
+     * @param period Период проверки.
+     * @param unit   Единица измерения периода.
+     */
+    public synchronized void start(long period, TimeUnit unit) {
+        if (timer != null) {
+            throw new IllegalStateException("Планировщик уже запущен");
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "deadline-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleAtFixedRate(() -> {
+            try {
+                advance();
+            } catch (RuntimeException e) {
+                System.err.println(e.getLocalizedMessage());
+            }
+        }, 0, period, unit);
+    }
+
+    /**
+     * Останавливает фоновый поток, если он запущен.
+     */
+    @Override
+    public synchronized void close() {
+        if (timer != null) {
+            timer.shutdown();
+            timer = null;
+        }
+    }
+
+    private long fireDay(int position) {
+        return stages[position] == DUE_SOON
+                ? (long) deadlines[position] - dueSoonDays
+                : (long) deadlines[position] + 1;
+    }
+
+    private boolean before(int a, int b) {
+        long dayA = fireDay(a);
+        long dayB = fireDay(b);
+        return dayA < dayB || dayA == dayB && ids[a] < ids[b];
+    }
+
+    private void removeAt(int position) {
+        positions.remove(ids[position]);
+        int last = --size;
+        if (position != last) {
+            move(last, position);
+            if (!siftUp(position)) {
+                siftDown(position);
+            }
+        }
+    }
+
+    /**
+     * Поднимает элемент к корню, пока он раньше родителя.
+     *
+     * @return true, если элемент сдвинулся.
+     */
+    private boolean siftUp(int position) {
+        int start = position;
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!before(position, parent)) {
+                break;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+        return position != start;
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && before(child + 1, child)) {
+                child++;
+            }
+            if (!before(child, position)) {
+                return;
+            }
+            swap(position, child);
+            position = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int id = ids[a];
+        int deadline = deadlines[a];
+        byte stage = stages[a];
+        move(b, a);
+        ids[b] = id;
+        deadlines[b] = deadline;
+        stages[b] = stage;
+        positions.put(id, b);
+    }
+
+    private void move(int from, int to) {
+        ids[to] = ids[from];
+        deadlines[to] = deadlines[from];
+        stages[to] = stages[from];
+        positions.put(ids[to], to);
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        deadlines = Arrays.copyOf(deadlines, capacity);
+        stages = Arrays.copyOf(stages, capacity);
+    }
+
+    /**
+     * Сработавшее событие, ожидающее вызова слушателей.
+     */
+    private static final class Fired {
+
+        private final DeadlineEvent event;
+        private final int taskId;
+        private final int deadline;
+
+        Fired(DeadlineEvent event, int taskId, int deadline) {
+            this.event = event;
+            this.taskId = taskId;
+            this.deadline = deadline;
+        }
+    }
+}
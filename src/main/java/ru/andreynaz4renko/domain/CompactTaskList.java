@@ -0,0 +1,637 @@
+package ru.andreynaz4renko.domain;
+
+import ru.andreynaz4renko.util.BoundedLongHeap;
+import ru.andreynaz4renko.util.IntIntHashMap;
+
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Класс CompactTaskList представляет собой список задач с поколоночным хранением.
+ * Вместо объекта Task на задачу список хранит поля всех задач в массивах примитивов:
+ * идентификатор, приоритет, статус, срок и дату выполнения в виде номера дня эпохи,
+ * а заголовок и описание - в общем байтовом массиве. Каждая строка хранится в самой компактной
+ * подходящей кодировке: ISO-8859-1, windows-1251 для кириллицы или UTF-8, то есть латинский и русский
+ * текст занимает байт на символ вместо двух байт в String.
+ * Поэтому задача занимает в куче в несколько раз меньше места, чем в TaskList.
+ * <p>
+ * Методы чтения возвращают объекты Task, создаваемые по запросу из колонок. Это отдельные копии:
+ * их изменение не влияет на список, поэтому изменять задачи нужно через updateTask(), как и в TaskList.
+ * Вторичных индексов список не хранит: выборки по статусу, приоритету и сроку просматривают колонки,
+ * то есть стоят пропорционально размеру всего списка.
+ */
+public class CompactTaskList extends TaskList {
+
+    private static final int NO_POSITION = -1;
+
+    /**
+     * Значение колонки дат, обозначающее отсутствие даты.
+     */
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    /**
+     * Значение колонки статусов для задачи без статуса.
+     */
+    private static final byte NO_STATUS = -1;
+
+    /**
+     * Значение колонки статусов для удаленной задачи, еще не вычищенной из колонок.
+     */
+    private static final byte REMOVED = -2;
+
+    /**
+     * Значение колонки длин строк, обозначающее null.
+     * Иначе значение колонки - длина строки в байтах, сдвинутая на CHARSET_BITS, и номер кодировки в CHARSETS.
+     */
+    private static final int NULL_STRING = -1;
+
+    private static final int CHARSET_BITS = 2;
+    private static final int CHARSET_MASK = (1 << CHARSET_BITS) - 1;
+
+    private static final Charset CYRILLIC = Charset.isSupported("windows-1251") ? Charset.forName("windows-1251") : null;
+
+    /**
+     * Кодировки строк в порядке предпочтения; последняя кодирует любую строку.
+     */
+    private static final Charset[] CHARSETS = {StandardCharsets.ISO_8859_1, CYRILLIC, StandardCharsets.UTF_8};
+    private static final int LATIN1 = 0;
+    private static final int CP1251 = 1;
+    private static final int UTF8 = 2;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private int[] ids;
+    private byte[] priorities;
+    private byte[] statuses;
+    private int[] deadlines;
+    private int[] completions;
+    private int[] captionOffsets;
+    private int[] captionLengths;
+    private int[] descriptionOffsets;
+    private int[] descriptionLengths;
+
+    /**
+     * Заголовки и описания всех задач. Строки измененных и удаленных задач остаются
+     * в массиве до его уплотнения.
+     */
+    private byte[] strings;
+
+    /**
+     * Количество занятых байт в массиве strings.
+     */
+    private int stringsSize;
+
+    /**
+     * Количество байт в массиве strings, не принадлежащих ни одной задаче.
+     */
+    private int stringsGarbage;
+
+    /**
+     * Количество занятых строк колонок, включая удаленные задачи.
+     */
+    private int rows;
+
+    /**
+     * Количество удаленных задач, еще не вычищенных из колонок.
+     */
+    private int holes;
+
+    /**
+     * true, пока задачи добавлялись по возрастанию идентификатора: тогда колонка идентификаторов
+     * упорядочена, и страница по идентификатору находится двоичным поиском.
+     */
+    private boolean sortedById = true;
+
+    /**
+     * Индекс, отображающий идентификатор задачи в ее строку в колонках.
+     */
+    private final IntIntHashMap positions;
+
+    /**
+     * Кодировщик windows-1251 для проверки, представима ли строка в этой кодировке.
+     */
+    private final CharsetEncoder cyrillicEncoder = CYRILLIC == null ? null : CYRILLIC.newEncoder();
+
+    /**
+     * Конструктор по умолчанию. Создает пустой список задач.
+     */
+    public CompactTaskList() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Конструктор, принимающий список задач для инициализации.
+     * При повторении идентификатора остается первая задача.
+     *
+     * @param tasks Список задач.
+     */
+    public CompactTaskList(List<Task> tasks) {
+        this(Math.max(tasks.size(), INITIAL_CAPACITY));
+        for (Task task : tasks) {
+            addTask(task);
+        }
+        trimToSize();
+    }
+
+    private CompactTaskList(int capacity) {
+        ids = new int[capacity];
+        priorities = new byte[capacity];
+        statuses = new byte[capacity];
+        deadlines = new int[capacity];
+        completions = new int[capacity];
+        captionOffsets = new int[capacity];
+        captionLengths = new int[capacity];
+        descriptionOffsets = new int[capacity];
+        descriptionLengths = new int[capacity];
+        strings = new byte[capacity * 32];
+        positions = new IntIntHashMap(capacity);
+    }
+
+    @Override
+    public boolean addTask(Task task) {
+        if (positions.containsKey(task.getId())) {
+            return false;
+        }
+        if (rows == ids.length) {
+            grow();
+        }
+        int row = rows++;
+        ids[row] = task.getId();
+        write(row, task);
+        positions.put(task.getId(), row);
+        sortedById &= task.getId() > getLastTaskId();
+        setLastTaskId(task.getId());
+        indexText(task.getId(), task.getCaption(), task.getDescription());
+        return true;
+    }
+
+    @Override
+    public boolean removeTask(int id) {
+        int row = positions.get(id, NO_POSITION);
+        if (row == NO_POSITION) {
+            return false;
+        }
+        positions.remove(id);
+        if (hasTextIndex()) {
+            unindexText(id, readString(captionOffsets[row], captionLengths[row]),
+                    readString(descriptionOffsets[row], descriptionLengths[row]));
+        }
+        stringsGarbage += stringBytes(row);
+        statuses[row] = REMOVED;
+        if (++holes > rows / 2) {
+            compact();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean completeTask(int id) {
+        int row = positions.get(id, NO_POSITION);
+        if (row == NO_POSITION) {
+            return false;
+        }
+        statuses[row] = (byte) TaskStatus.DONE.ordinal();
+        completions[row] = toEpochDay(LocalDate.now());
+        return true;
+    }
+
+    /**
+     * Изменяет задачу с указанным идентификатором. Действие получает копию задачи, которая проверяется
+     * конструктором Task и записывается в колонки после успешного выполнения действия.
+     * Если действие или проверка выбросили исключение, список не изменяется.
+     *
+     * @param id     Идентификатор задачи.
+     * @param update Действие, изменяющее задачу.
+     * @return true, если задача найдена и изменена, в противном случае - false.
+     */
+    @Override
+    public boolean updateTask(int id, Consumer<Task> update) {
+        int row = positions.get(id, NO_POSITION);
+        if (row == NO_POSITION) {
+            return false;
+        }
+        Task task = read(row);
+        String caption = task.getCaption();
+        String description = task.getDescription();
+        update.accept(task);
+        Task checked = new Task(task);
+        int released = stringBytes(row);
+        write(row, checked);
+        stringsGarbage += released;
+        if (!Objects.equals(caption, checked.getCaption()) || !Objects.equals(description, checked.getDescription())) {
+            unindexText(id, caption, description);
+            indexText(id, checked.getCaption(), checked.getDescription());
+        }
+        return true;
+    }
+
+    @Override
+    public Task getTask(int id) {
+        int row = positions.get(id, NO_POSITION);
+        return row == NO_POSITION ? null : read(row);
+    }
+
+    @Override
+    public boolean containsTask(int id) {
+        return positions.containsKey(id);
+    }
+
+    /**
+     * Возвращает задачи с указанным статусом в порядке добавления в список. В отличие от TaskList,
+     * задача, статус которой изменился, не переносится в конец выборки: колонки просматриваются по порядку строк.
+     *
+     * @param status Статус задачи.
+     * @return Список задач.
+     */
+    @Override
+    public Collection<Task> getTasksByStatus(TaskStatus status) {
+        byte value = (byte) status.ordinal();
+        List<Task> result = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            if (statuses[row] == value) {
+                result.add(read(row));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает задачи с приоритетом не ниже указанного, начиная с наивысшего приоритета.
+     * Задачи раскладываются по приоритетам подсчетом за два прохода по колонкам.
+     *
+     * @param minPriority Минимальный приоритет.
+     * @return Список задач.
+     */
+    @Override
+    public List<Task> getTasksByMinPriority(int minPriority) {
+        int from = Math.max(minPriority, MIN_PRIORITY);
+        int[] starts = new int[MAX_PRIORITY + 2];
+        for (int row = 0; row < rows; row++) {
+            if (statuses[row] != REMOVED && priorities[row] >= from) {
+                starts[MAX_PRIORITY - priorities[row] + 1]++;
+            }
+        }
+        for (int i = 1; i < starts.length; i++) {
+            starts[i] += starts[i - 1];
+        }
+        int[] order = new int[starts[starts.length - 1]];
+        for (int row = 0; row < rows; row++) {
+            if (statuses[row] != REMOVED && priorities[row] >= from) {
+                order[starts[MAX_PRIORITY - priorities[row]]++] = row;
+            }
+        }
+        return readAll(order);
+    }
+
+    /**
+     * Возвращает задачи со сроком выполнения строго раньше указанной даты, упорядоченные по сроку.
+     * Задачи с одинаковым сроком остаются в порядке добавления.
+     *
+     * @param date Дата.
+     * @return Список задач.
+     */
+    @Override
+    public List<Task> getTasksByDeadlineBefore(LocalDate date) {
+        int before = toEpochDay(date);
+        long[] keys = new long[rows];
+        int count = 0;
+        for (int row = 0; row < rows; row++) {
+            if (statuses[row] != REMOVED && deadlines[row] != NO_DATE && deadlines[row] < before) {
+                keys[count++] = (long) deadlines[row] << 32 | row;
+            }
+        }
+        Arrays.sort(keys, 0, count);
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = (int) keys[i];
+        }
+        return readAll(order);
+    }
+
+    /**
+     * Возвращает страницу задач по возрастанию идентификатора, начиная после указанного идентификатора.
+     * Страница находится двоичным поиском по колонке идентификаторов или, если задачи добавлялись
+     * не по возрастанию идентификатора, ограниченной кучей за один проход по колонке.
+     * Объекты Task создаются только для задач страницы.
+     *
+     * @param afterId Идентификатор, после которого начинается страница, или 0 для первой страницы.
+     * @param limit   Размер страницы.
+     * @return Список не более чем из limit задач.
+     */
+    @Override
+    public List<Task> getTasksPage(int afterId, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        if (holes > 0) {
+            compact();
+        }
+        if (sortedById) {
+            int low = 0;
+            int high = rows;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (ids[middle] <= afterId) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            int[] order = new int[Math.min(rows - low, limit)];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = low + i;
+            }
+            return readAll(order);
+        }
+        BoundedLongHeap heap = new BoundedLongHeap(Math.min(limit, rows));
+        for (int row = 0; row < rows; row++) {
+            if (ids[row] > afterId) {
+                heap.offer(idKey(ids[row]));
+            }
+        }
+        return tasksByKeys(heap);
+    }
+
+    /**
+     * Возвращает не более limit задач с наивысшим приоритетом, а при равном приоритете - с меньшим
+     * идентификатором. Задачи отбираются ограниченной кучей за один проход по колонкам.
+     *
+     * @param status Статус задач или null для задач с любым статусом.
+     * @param limit  Количество задач.
+     * @return Список задач.
+     */
+    @Override
+    public List<Task> getTopTasksByPriority(TaskStatus status, int limit) {
+        BoundedLongHeap heap = new BoundedLongHeap(Math.min(limit, size()));
+        for (int row = 0; row < rows; row++) {
+            if (statuses[row] != REMOVED && (status == null || statuses[row] == status.ordinal())) {
+                heap.offer((long) (MAX_PRIORITY - priorities[row]) << 32 | idKey(ids[row]));
+            }
+        }
+        return tasksByKeys(heap);
+    }
+
+    /**
+     * Возвращает не более limit невыполненных задач с ближайшими сроками, включая просроченные,
+     * упорядоченные по сроку, а при равном сроке - по идентификатору.
+     * Задачи отбираются ограниченной кучей за один проход по колонкам.
+     *
+     * @param limit Количество задач.
+     * @return Список задач.
+     */
+    @Override
+    public List<Task> getNextDeadlines(int limit) {
+        BoundedLongHeap heap = new BoundedLongHeap(Math.min(limit, size()));
+        byte done = (byte) TaskStatus.DONE.ordinal();
+        for (int row = 0; row < rows; row++) {
+            if (statuses[row] != REMOVED && statuses[row] != done && deadlines[row] != NO_DATE) {
+                heap.offer((long) deadlines[row] << 32 | idKey(ids[row]));
+            }
+        }
+        return tasksByKeys(heap);
+    }
+
+    @Override
+    public int size() {
+        return positions.size();
+    }
+
+    /**
+     * Вычищает удаленные задачи и уменьшает колонки и массив строк до занятого размера.
+     */
+    @Override
+    public void trimToSize() {
+        if (holes > 0) {
+            compact();
+        }
+        int capacity = Math.max(rows, 1);
+        ids = Arrays.copyOf(ids, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        deadlines = Arrays.copyOf(deadlines, capacity);
+        completions = Arrays.copyOf(completions, capacity);
+        captionOffsets = Arrays.copyOf(captionOffsets, capacity);
+        captionLengths = Arrays.copyOf(captionLengths, capacity);
+        descriptionOffsets = Arrays.copyOf(descriptionOffsets, capacity);
+        descriptionLengths = Arrays.copyOf(descriptionLengths, capacity);
+        if (stringsGarbage > 0) {
+            compactStrings(stringsSize - stringsGarbage);
+        } else {
+            strings = Arrays.copyOf(strings, stringsSize);
+        }
+    }
+
+    /**
+     * Возвращает список задач, доступный только для чтения. Список не копирует задачи:
+     * объект Task создается из колонок при каждом обращении к элементу.
+     *
+     * @return Список задач.
+     */
+    @Override
+    public List<Task> getTasks() {
+        if (holes > 0) {
+            compact();
+        }
+        return new AbstractList<>() {
+            @Override
+            public Task get(int index) {
+                if (index < 0 || index >= rows) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                return read(index);
+            }
+
+            @Override
+            public int size() {
+                return rows;
+            }
+        };
+    }
+
+    private List<Task> readAll(int[] order) {
+        List<Task> result = new ArrayList<>(order.length);
+        for (int row : order) {
+            result.add(read(row));
+        }
+        return result;
+    }
+
+    /**
+     * Создает задачу из строки колонок.
+     */
+    private Task read(int row) {
+        return new Task(ids[row],
+                readString(captionOffsets[row], captionLengths[row]),
+                readString(descriptionOffsets[row], descriptionLengths[row]),
+                priorities[row],
+                toDate(deadlines[row]),
+                toDate(completions[row]),
+                statuses[row] == NO_STATUS ? null : STATUSES[statuses[row]]);
+    }
+
+    /**
+     * Записывает поля задачи, кроме идентификатора, в строку колонок.
+     */
+    private void write(int row, Task task) {
+        priorities[row] = (byte) task.getPriority();
+        statuses[row] = task.getStatus() == null ? NO_STATUS : (byte) task.getStatus().ordinal();
+        deadlines[row] = toEpochDay(task.getDeadline());
+        completions[row] = toEpochDay(task.getCompletion());
+        int captionCharset = charsetOf(task.getCaption());
+        int descriptionCharset = charsetOf(task.getDescription());
+        byte[] caption = toBytes(task.getCaption(), captionCharset);
+        byte[] description = toBytes(task.getDescription(), descriptionCharset);
+        ensureStrings((caption == null ? 0 : caption.length) + (description == null ? 0 : description.length));
+        captionOffsets[row] = stringsSize;
+        captionLengths[row] = appendString(caption, captionCharset);
+        descriptionOffsets[row] = stringsSize;
+        descriptionLengths[row] = appendString(description, descriptionCharset);
+    }
+
+    /**
+     * Выбирает для строки первую кодировку из CHARSETS, в которой она представима.
+     */
+    private int charsetOf(String value) {
+        if (value == null) {
+            return UTF8;
+        }
+        boolean latin1 = true;
+        for (int i = 0; i < value.length() && latin1; i++) {
+            latin1 = value.charAt(i) <= 0xFF;
+        }
+        if (latin1) {
+            return LATIN1;
+        }
+        return cyrillicEncoder != null && cyrillicEncoder.canEncode(value) ? CP1251 : UTF8;
+    }
+
+    private String readString(int offset, int length) {
+        return length == NULL_STRING
+                ? null
+                : new String(strings, offset, length >>> CHARSET_BITS, CHARSETS[length & CHARSET_MASK]);
+    }
+
+    private int appendString(byte[] value, int charset) {
+        if (value == null) {
+            return NULL_STRING;
+        }
+        System.arraycopy(value, 0, strings, stringsSize, value.length);
+        stringsSize += value.length;
+        return value.length << CHARSET_BITS | charset;
+    }
+
+    private static int byteLength(int length) {
+        return length == NULL_STRING ? 0 : length >>> CHARSET_BITS;
+    }
+
+    private int stringBytes(int row) {
+        return byteLength(captionLengths[row]) + byteLength(descriptionLengths[row]);
+    }
+
+    /**
+     * Обеспечивает место для additional байт в массиве строк. Если больше половины массива занято
+     * строками, не принадлежащими задачам, массив уплотняется, иначе - расширяется.
+     */
+    private void ensureStrings(int additional) {
+        if (stringsSize + additional <= strings.length) {
+            return;
+        }
+        if (stringsGarbage > stringsSize / 2) {
+            compactStrings(strings.length);
+        }
+        if (stringsSize + additional > strings.length) {
+            strings = Arrays.copyOf(strings, Math.max(strings.length + (strings.length >> 1), stringsSize + additional));
+        }
+    }
+
+    private void compactStrings(int capacity) {
+        byte[] compacted = new byte[capacity];
+        int size = 0;
+        for (int row = 0; row < rows; row++) {
+            if (statuses[row] == REMOVED) {
+                continue;
+            }
+            size = moveString(compacted, size, captionOffsets, captionLengths, row);
+            size = moveString(compacted, size, descriptionOffsets, descriptionLengths, row);
+        }
+        strings = compacted;
+        stringsSize = size;
+        stringsGarbage = 0;
+    }
+
+    private int moveString(byte[] target, int size, int[] offsets, int[] lengths, int row) {
+        if (lengths[row] == NULL_STRING) {
+            return size;
+        }
+        int length = byteLength(lengths[row]);
+        System.arraycopy(strings, offsets[row], target, size, length);
+        offsets[row] = size;
+        return size + length;
+    }
+
+    private void grow() {
+        int capacity = Math.max(ids.length * 2, INITIAL_CAPACITY);
+        ids = Arrays.copyOf(ids, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        deadlines = Arrays.copyOf(deadlines, capacity);
+        completions = Arrays.copyOf(completions, capacity);
+        captionOffsets = Arrays.copyOf(captionOffsets, capacity);
+        captionLengths = Arrays.copyOf(captionLengths, capacity);
+        descriptionOffsets = Arrays.copyOf(descriptionOffsets, capacity);
+        descriptionLengths = Arrays.copyOf(descriptionLengths, capacity);
+    }
+
+    /**
+     * Вычищает удаленные задачи из колонок, сохраняя порядок оставшихся, и перестраивает индекс.
+     */
+    private void compact() {
+        int size = 0;
+        for (int row = 0; row < rows; row++) {
+            if (statuses[row] == REMOVED) {
+                continue;
+            }
+            if (size != row) {
+                ids[size] = ids[row];
+                priorities[size] = priorities[row];
+                statuses[size] = statuses[row];
+                deadlines[size] = deadlines[row];
+                completions[size] = completions[row];
+                captionOffsets[size] = captionOffsets[row];
+                captionLengths[size] = captionLengths[row];
+                descriptionOffsets[size] = descriptionOffsets[row];
+                descriptionLengths[size] = descriptionLengths[row];
+                positions.put(ids[size], size);
+            }
+            size++;
+        }
+        rows = size;
+        holes = 0;
+        if (stringsGarbage > stringsSize / 2) {
+            compactStrings(strings.length);
+        }
+    }
+
+    private static byte[] toBytes(String value, int charset) {
+        return value == null ? null : value.getBytes(CHARSETS[charset]);
+    }
+
+    private static int toEpochDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    private static LocalDate toDate(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+}
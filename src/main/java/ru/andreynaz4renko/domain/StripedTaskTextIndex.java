@@ -0,0 +1,126 @@
+package ru.andreynaz4renko.domain;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+
+/**
+ * Класс StripedTaskTextIndex представляет собой потокобезопасный полнотекстовый индекс задач,
+ * разбитый на полосы по идентификатору задачи. Каждая полоса - отдельный TaskTextIndex со своей
+ * блокировкой чтения-записи, поэтому изменения задач из разных полос не конкурируют друг с другом,
+ * а поиск блокирует полосы по очереди и только на время поиска в одной полосе.
+ * <p>
+ * Индекс не получает прежний и новый текст задачи, а сверяется с текущим состоянием задачи в хранилище:
+ * метод sync() читает задачу, разбивает ее текст на слова без блокировки и заменяет слова в полосе,
+ * только если задача за это время не изменилась. Поэтому одновременные изменения одной задачи
+ * могут вызывать sync() в любом порядке - индекс всегда приходит к последнему состоянию задачи.
+ */
+public class StripedTaskTextIndex {
+
+    private final Stripe[] stripes;
+
+    /**
+     * Конструктор класса StripedTaskTextIndex.
+     *
+     * @param stripes Количество полос, степень двойки.
+     */
+    public StripedTaskTextIndex(int stripes) {
+        if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Количество полос должно быть степенью двойки: " + stripes);
+        }
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Приводит слова задачи в индексе к ее текущему состоянию в хранилище.
+     * Вызывается после каждого изменения, которое может затронуть заголовок или описание задачи.
+     *
+     * @param id      Идентификатор задачи.
+     * @param current Функция, возвращающая текущую задачу по идентификатору или null, если задачи нет.
+     *                Возвращаемые задачи не должны изменяться: каждое изменение создает новый объект.
+     */
+    public void sync(int id, IntFunction<Task> current) {
+        Stripe stripe = stripes[id & (stripes.length - 1)];
+        while (true) {
+            Task indexed;
+            stripe.lock.readLock().lock();
+            try {
+                indexed = stripe.tasks.get(id);
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+            Task task = current.apply(id);
+            if (task == indexed) {
+                return;
+            }
+            // Описание может читаться из файла, поэтому слова получаются без блокировки полосы.
+            Set<String> removed = words(indexed);
+            Set<String> added = words(task);
+            stripe.lock.writeLock().lock();
+            try {
+                if (stripe.tasks.get(id) != indexed || current.apply(id) != task) {
+                    continue;
+                }
+                stripe.index.remove(id, removed);
+                stripe.index.add(id, added);
+                if (task != null) {
+                    stripe.tasks.put(id, task);
+                } else {
+                    stripe.tasks.remove(id);
+                }
+                return;
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Возвращает идентификаторы задач, текст которых содержал все слова запроса на момент поиска в их полосе.
+     *
+     * @param query Запрос: слова через пробел или другие разделители.
+     * @return Идентификаторы задач, упорядоченные по возрастанию внутри полосы, но не между полосами.
+     */
+    public int[] search(String query) {
+        int[] result = new int[0];
+        for (Stripe stripe : stripes) {
+            int[] ids;
+            stripe.lock.readLock().lock();
+            try {
+                ids = stripe.index.search(query);
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+            if (ids.length > 0) {
+                int size = result.length;
+                result = Arrays.copyOf(result, size + ids.length);
+                System.arraycopy(ids, 0, result, size, ids.length);
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> words(Task task) {
+        return task == null ? Collections.emptySet() : TaskTextIndex.tokenize(task.getCaption(), task.getDescription());
+    }
+
+    /**
+     * Полоса индекса: слова задач полосы и задачи, по которым они получены.
+     */
+    private static final class Stripe {
+
+        private final TaskTextIndex index = new TaskTextIndex();
+
+        private final Map<Integer, Task> tasks = new HashMap<>();
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    }
+}
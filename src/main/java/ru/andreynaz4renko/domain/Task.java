@@ -1,6 +1,7 @@
 package ru.andreynaz4renko.domain;
 
 import java.time.LocalDate;
+import java.util.function.Supplier;
 
 /**
  * // TODO
@@ -15,6 +16,10 @@ public class Task {
     private LocalDate completion;
     private TaskStatus status;
 
+    /**
+     * Источник описания, читающий его из файла при обращении, или null, если описание хранится в поле description.
+     */
+    private Supplier<String> descriptionLoader;
 
     public Task(int id,
                 String caption,
@@ -46,6 +51,23 @@ public class Task {
         this(id, caption, description, priority, deadline, null, TaskStatus.NEW);
     }
 
+    /**
+     * Копирует задачу. Поля переносятся без проверки: исходная задача уже могла быть изменена сеттерами,
+     * которые ограничения конструктора не проверяют.
+     *
+     * @param task Копируемая задача.
+     */
+    public Task(Task task) {
+        this.id = task.id;
+        this.caption = task.caption;
+        this.description = task.description;
+        this.priority = task.priority;
+        this.deadline = task.deadline;
+        this.completion = task.completion;
+        this.status = task.status;
+        this.descriptionLoader = task.descriptionLoader;
+    }
+
     public int getId() {
         return id;
     }
@@ -59,11 +81,22 @@ public class Task {
     }
 
     public String getDescription() {
-        return description;
+        return descriptionLoader != null ? descriptionLoader.get() : description;
     }
 
     public void setDescription(String description) {
         this.description = description;
+        this.descriptionLoader = null;
+    }
+
+    /**
+     * Задает источник, из которого описание читается при каждом обращении к getDescription(),
+     * вместо хранения текста в задаче. Источник сбрасывается при вызове setDescription().
+     *
+     * @param descriptionLoader Источник описания.
+     */
+    public void setDescriptionLoader(Supplier<String> descriptionLoader) {
+        this.descriptionLoader = descriptionLoader;
     }
 
     public int getPriority() {
@@ -102,7 +135,7 @@ public class Task {
     public String toString() {
         return "Task ID: " + id +
                 "\nCaption: " + caption +
-                "\nDescription: " + description +
+                "\nDescription: " + getDescription() +
                 "\nPriority: " + priority +
                 "\nDeadline: " + deadline +
                 "\nCompletion Date: " + completion +
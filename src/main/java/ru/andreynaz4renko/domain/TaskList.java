@@ -1,43 +1,143 @@
 package ru.andreynaz4renko.domain;
 
+import ru.andreynaz4renko.util.BoundedLongHeap;
+import ru.andreynaz4renko.util.IntIntHashMap;
+
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 /**
  * Класс TaskList представляет собой список задач, хранящий набор объектов типа Task.
  * Этот класс предоставляет методы для добавления, удаления и выполнения задач.
+ * Для поиска задачи по идентификатору список поддерживает индекс "идентификатор - позиция",
+ * поэтому поиск, редактирование, выполнение и удаление задачи выполняются за константное время.
+ * Кроме того, список поддерживает вторичные индексы по статусу, приоритету и сроку выполнения,
+ * поэтому выборки по этим полям стоят пропорционально размеру результата, а не всего списка.
+ * Полнотекстовый индекс по заголовкам и описаниям строится при первом поиске и с этого момента
+ * обновляется при каждом изменении списка.
+ * Постраничная выдача и выборки первых k задач отбирают результат ограниченной кучей, не сортируя весь список.
  */
 public class TaskList {
 
+    /**
+     * Значение индекса, обозначающее отсутствие задачи.
+     */
+    private static final int NO_POSITION = -1;
+
+    private static final Comparator<Task> BY_PRIORITY = Comparator.comparingInt(Task::getPriority).reversed()
+            .thenComparingInt(Task::getId);
+
+    /**
+     * Минимальный допустимый приоритет задачи.
+     */
+    public static final int MIN_PRIORITY = 0;
+
+    /**
+     * Максимальный допустимый приоритет задачи.
+     */
+    public static final int MAX_PRIORITY = 10;
+
     /**
      * Список задач, представленных в виде коллекции объектов Task.
+     * Удаленные задачи заменяются на null и вычищаются при уплотнении списка.
+     */
+    private final ArrayList<Task> tasks;
+
+    /**
+     * Индекс, отображающий идентификатор задачи в ее позицию в списке tasks.
+     */
+    private final IntIntHashMap positions;
+
+    /**
+     * Количество удаленных задач, еще не вычищенных из списка tasks.
+     */
+    private int holes;
+
+    /**
+     * Наибольший идентификатор, когда-либо добавленный в список. Не уменьшается при удалении задач,
+     * поэтому идентификаторы удаленных задач не выдаются повторно.
      */
-    private final List<Task> tasks;
+    private int lastTaskId;
+
+    /**
+     * true, пока задачи добавлялись по возрастанию идентификатора: тогда страница по идентификатору
+     * находится двоичным поиском. Удаление и уплотнение порядок не нарушают.
+     */
+    private boolean sortedById = true;
+
+    /**
+     * Вторичный индекс задач по статусу.
+     */
+    private final Map<TaskStatus, Set<Task>> byStatus = new EnumMap<>(TaskStatus.class);
+
+    /**
+     * Вторичный индекс задач по приоритету: элемент списка с индексом p содержит задачи с приоритетом p.
+     */
+    private final List<Set<Task>> byPriority = new ArrayList<>(MAX_PRIORITY + 1);
+
+    /**
+     * Вторичный индекс задач по сроку выполнения, упорядоченный по дате. Задачи без срока в него не попадают.
+     */
+    private final NavigableMap<LocalDate, Set<Task>> byDeadline = new TreeMap<>();
+
+    /**
+     * Полнотекстовый индекс или null, если поиск по тексту еще не выполнялся.
+     */
+    private TaskTextIndex textIndex;
 
     /**
      * Конструктор по умолчанию. Создает пустой список задач.
      */
     public TaskList() {
         tasks = new ArrayList<>();
+        positions = new IntIntHashMap();
+        initIndexes();
     }
 
     /**
      * Конструктор, принимающий список задач для инициализации.
+     * Задачи копируются во внутренний список, при повторении идентификатора остается первая задача.
      *
      * @param tasks Список задач.
      */
     public TaskList(List<Task> tasks) {
-        this.tasks = tasks;
+        this.tasks = new ArrayList<>(tasks.size());
+        this.positions = new IntIntHashMap(tasks.size());
+        initIndexes();
+        for (Task task : tasks) {
+            addTask(task);
+        }
     }
 
     /**
      * Добавляет задачу в список.
      *
      * @param task Задача для добавления.
-     * @return true, если задача успешно добавлена в список, в противном случае - false.
+     * @return true, если задача успешно добавлена в список, false, если задача с таким идентификатором уже есть.
      */
     public boolean addTask(Task task) {
+        if (positions.containsKey(task.getId())) {
+            return false;
+        }
+        positions.put(task.getId(), tasks.size());
+        sortedById &= task.getId() > lastTaskId;
+        lastTaskId = Math.max(lastTaskId, task.getId());
+        index(task);
+        if (hasTextIndex()) {
+            indexText(task.getId(), task.getCaption(), task.getDescription());
+        }
         return tasks.add(task);
     }
 
@@ -48,7 +148,20 @@ public class TaskList {
      * @return true, если задача с указанным идентификатором была успешно удалена, в противном случае - false.
      */
     public boolean removeTask(int id) {
-        return tasks.removeIf(task -> task.getId() == id);
+        int position = positions.get(id, NO_POSITION);
+        if (position == NO_POSITION) {
+            return false;
+        }
+        positions.remove(id);
+        Task task = tasks.set(position, null);
+        unindex(task);
+        if (hasTextIndex()) {
+            unindexText(id, task.getCaption(), task.getDescription());
+        }
+        if (++holes > tasks.size() / 2) {
+            compact();
+        }
+        return true;
     }
 
     /**
@@ -59,23 +172,415 @@ public class TaskList {
      *         в противном случае - false.
      */
     public boolean completeTask(int id) {
-        return tasks.stream()
-                .filter(task -> task.getId() == id)
-                .findFirst()
-                .map(task -> {
-                    task.setStatus(TaskStatus.DONE);
-                    task.setCompletion(LocalDate.now());
-                    return true;
-                })
-                .orElse(false);
+        return updateTask(id, task -> {
+            task.setStatus(TaskStatus.DONE);
+            task.setCompletion(LocalDate.now());
+        });
+    }
+
+    /**
+     * Изменяет задачу с указанным идентификатором.
+     * Все изменения задач, находящихся в списке, должны выполняться через этот метод,
+     * иначе вторичные индексы не узнают об изменении статуса, приоритета или срока.
+     * Задача переносится только в индексах тех полей, значение которых изменилось, поэтому, например,
+     * изменение заголовка не меняет ее место в выборках по статусу, приоритету и сроку.
+     *
+     * @param id     Идентификатор задачи.
+     * @param update Действие, изменяющее задачу.
+     * @return true, если задача найдена и изменена, в противном случае - false.
+     */
+    public boolean updateTask(int id, Consumer<Task> update) {
+        Task task = getTask(id);
+        if (task == null) {
+            return false;
+        }
+        String caption = textIndex != null ? task.getCaption() : null;
+        String description = textIndex != null ? task.getDescription() : null;
+        TaskStatus status = task.getStatus();
+        int priority = task.getPriority();
+        LocalDate deadline = task.getDeadline();
+        try {
+            update.accept(task);
+        } finally {
+            reindex(task, status, priority, deadline);
+            if (textIndex != null && (!Objects.equals(caption, task.getCaption())
+                    || !Objects.equals(description, task.getDescription()))) {
+                unindexText(id, caption, description);
+                indexText(id, task.getCaption(), task.getDescription());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Возвращает задачу по ее идентификатору.
+     *
+     * @param id Идентификатор задачи.
+     * @return Задача с указанным идентификатором или null, если такой задачи нет.
+     */
+    public Task getTask(int id) {
+        int position = positions.get(id, NO_POSITION);
+        return position == NO_POSITION ? null : tasks.get(position);
+    }
+
+    /**
+     * Проверяет, содержит ли список задачу с указанным идентификатором.
+     *
+     * @param id Идентификатор задачи.
+     * @return true, если задача есть в списке, в противном случае - false.
+     */
+    public boolean containsTask(int id) {
+        return positions.containsKey(id);
+    }
+
+    /**
+     * Возвращает задачи с указанным статусом в порядке добавления. Задача, статус которой изменился,
+     * следует за задачами, получившими этот статус раньше нее; изменение других полей порядок не меняет.
+     *
+     * @param status Статус задачи.
+     * @return Коллекция задач, доступная только для чтения.
+     */
+    public Collection<Task> getTasksByStatus(TaskStatus status) {
+        return Collections.unmodifiableCollection(byStatus.get(status));
+    }
+
+    /**
+     * Возвращает задачи с приоритетом не ниже указанного, начиная с наивысшего приоритета.
+     *
+     * @param minPriority Минимальный приоритет.
+     * @return Список задач.
+     */
+    public List<Task> getTasksByMinPriority(int minPriority) {
+        List<Task> result = new ArrayList<>();
+        for (int priority = MAX_PRIORITY; priority >= Math.max(minPriority, MIN_PRIORITY); priority--) {
+            result.addAll(byPriority.get(priority));
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает задачи со сроком выполнения строго раньше указанной даты, упорядоченные по сроку.
+     *
+     * @param date Дата.
+     * @return Список задач.
+     */
+    public List<Task> getTasksByDeadlineBefore(LocalDate date) {
+        List<Task> result = new ArrayList<>();
+        for (Set<Task> bucket : byDeadline.headMap(date, false).values()) {
+            result.addAll(bucket);
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает задачи, заголовок или описание которых содержат все слова запроса,
+     * упорядоченные по убыванию приоритета, а при равном приоритете - по идентификатору.
+     * Первый поиск строит полнотекстовый индекс по всем задачам списка, последующие используют его.
+     *
+     * @param query Слова через пробел, регистр и различие "е" и "ё" не учитываются.
+     * @return Список задач.
+     */
+    public List<Task> searchTasks(String query) {
+        if (textIndex == null) {
+            textIndex = new TaskTextIndex();
+            for (Task task : getTasks()) {
+                textIndex.add(task.getId(), task.getCaption(), task.getDescription());
+            }
+        }
+        int[] ids = textIndex.search(query);
+        List<Task> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(getTask(id));
+        }
+        result.sort(BY_PRIORITY);
+        return result;
+    }
+
+    /**
+     * Возвращает страницу задач по возрастанию идентификатора, начиная после указанного идентификатора.
+     * Курсор устойчив к изменениям списка: следующая страница запрашивается по идентификатору последней задачи
+     * предыдущей, и добавление или удаление других задач не сдвигает и не повторяет задачи на страницах.
+     * Если задачи добавлялись по возрастанию идентификатора, страница находится двоичным поиском,
+     * иначе - ограниченной кучей за один проход по списку.
+     *
+     * @param afterId Идентификатор, после которого начинается страница, или 0 для первой страницы.
+     * @param limit   Размер страницы.
+     * @return Список не более чем из limit задач.
+     */
+    public List<Task> getTasksPage(int afterId, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        List<Task> all = getTasks();
+        if (sortedById) {
+            int low = 0;
+            int high = all.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (all.get(middle).getId() <= afterId) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return new ArrayList<>(all.subList(low, Math.min(all.size(), low + limit)));
+        }
+        BoundedLongHeap heap = new BoundedLongHeap(Math.min(limit, all.size()));
+        for (Task task : all) {
+            if (task.getId() > afterId) {
+                heap.offer(idKey(task.getId()));
+            }
+        }
+        return tasksByKeys(heap);
+    }
+
+    /**
+     * Возвращает не более limit задач с наивысшим приоритетом, а при равном приоритете - с меньшим
+     * идентификатором. Индекс по приоритету просматривается от наивысшего приоритета, пока не набрано
+     * limit задач, поэтому весь список не сортируется и обычно не просматривается.
+     *
+     * @param status Статус задач или null для задач с любым статусом.
+     * @param limit  Количество задач.
+     * @return Список задач.
+     */
+    public List<Task> getTopTasksByPriority(TaskStatus status, int limit) {
+        List<Task> result = new ArrayList<>();
+        for (int priority = MAX_PRIORITY; priority >= MIN_PRIORITY && result.size() < limit; priority--) {
+            Set<Task> bucket = byPriority.get(priority);
+            BoundedLongHeap heap = new BoundedLongHeap(Math.min(limit - result.size(), bucket.size()));
+            for (Task task : bucket) {
+                if (status == null || task.getStatus() == status) {
+                    heap.offer(idKey(task.getId()));
+                }
+            }
+            result.addAll(tasksByKeys(heap));
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает не более limit невыполненных задач с ближайшими сроками, включая просроченные,
+     * упорядоченные по сроку, а при равном сроке - по идентификатору. Индекс по сроку просматривается
+     * от самого раннего срока, пока не набрано limit задач.
+     *
+     * @param limit Количество задач.
+     * @return Список задач.
+     */
+    public List<Task> getNextDeadlines(int limit) {
+        List<Task> result = new ArrayList<>();
+        for (Set<Task> bucket : byDeadline.values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            BoundedLongHeap heap = new BoundedLongHeap(Math.min(limit - result.size(), bucket.size()));
+            for (Task task : bucket) {
+                if (task.getStatus() != TaskStatus.DONE) {
+                    heap.offer(idKey(task.getId()));
+                }
+            }
+            result.addAll(tasksByKeys(heap));
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает наибольший идентификатор, когда-либо добавленный в список.
+     *
+     * @return Последний выданный идентификатор задачи или 0, если задачи в список не добавлялись.
+     */
+    public int getLastTaskId() {
+        return lastTaskId;
+    }
+
+    /**
+     * Устанавливает последний выданный идентификатор задачи, например сохраненный вместе со списком.
+     * Значение меньше идентификаторов уже добавленных задач игнорируется.
+     *
+     * @param lastTaskId Последний выданный идентификатор задачи.
+     */
+    public void setLastTaskId(int lastTaskId) {
+        this.lastTaskId = Math.max(this.lastTaskId, lastTaskId);
+    }
+
+    /**
+     * Возвращает количество задач в списке.
+     *
+     * @return Количество задач.
+     */
+    public int size() {
+        return positions.size();
+    }
+
+    /**
+     * Вычищает удаленные задачи и уменьшает емкость внутреннего списка до количества задач.
+     * Вызывается после загрузки списка целиком, когда новых задач в ближайшее время не ожидается.
+     */
+    public void trimToSize() {
+        if (holes > 0) {
+            compact();
+        }
+        tasks.trimToSize();
     }
 
     /**
-     * Возвращает список задач.
+     * Возвращает список задач, доступный только для чтения.
      *
      * @return Список задач.
      */
     public List<Task> getTasks() {
-        return tasks;
+        if (holes > 0) {
+            compact();
+        }
+        return Collections.unmodifiableList(tasks);
+    }
+
+    /**
+     * Проверяет, построен ли полнотекстовый индекс. Наследники, хранящие задачи по-своему,
+     * проверяют это перед тем, как читать текст задачи для indexText() и unindexText().
+     *
+     * @return true, если поиск по тексту уже выполнялся.
+     */
+    protected boolean hasTextIndex() {
+        return textIndex != null;
+    }
+
+    /**
+     * Добавляет текст задачи в полнотекстовый индекс, если он построен.
+     *
+     * @param id          Идентификатор задачи.
+     * @param caption     Заголовок задачи.
+     * @param description Описание задачи.
+     */
+    protected void indexText(int id, String caption, String description) {
+        if (textIndex != null) {
+            textIndex.add(id, caption, description);
+        }
+    }
+
+    /**
+     * Удаляет прежний текст задачи из полнотекстового индекса, если он построен.
+     *
+     * @param id          Идентификатор задачи.
+     * @param caption     Заголовок задачи.
+     * @param description Описание задачи.
+     */
+    protected void unindexText(int id, String caption, String description) {
+        if (textIndex != null) {
+            textIndex.remove(id, caption, description);
+        }
+    }
+
+    /**
+     * Возвращает ключ ограниченной кучи, младшие 32 бита которого - идентификатор задачи.
+     * Старшие биты задают порядок сортировки, например приоритет или срок.
+     */
+    static long idKey(int id) {
+        return id & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Возвращает задачи по ключам, отобранным кучей, в порядке возрастания ключей.
+     */
+    List<Task> tasksByKeys(BoundedLongHeap heap) {
+        long[] keys = heap.toSortedArray();
+        List<Task> result = new ArrayList<>(keys.length);
+        for (long key : keys) {
+            result.add(getTask((int) key));
+        }
+        return result;
+    }
+
+    private void initIndexes() {
+        for (TaskStatus status : TaskStatus.values()) {
+            byStatus.put(status, new LinkedHashSet<>());
+        }
+        for (int priority = MIN_PRIORITY; priority <= MAX_PRIORITY; priority++) {
+            byPriority.add(new LinkedHashSet<>());
+        }
+    }
+
+    /**
+     * Добавляет задачу во вторичные индексы.
+     */
+    private void index(Task task) {
+        addToStatus(task.getStatus(), task);
+        byPriority.get(task.getPriority()).add(task);
+        addToDeadline(task.getDeadline(), task);
+    }
+
+    /**
+     * Удаляет задачу из вторичных индексов.
+     */
+    private void unindex(Task task) {
+        removeFromStatus(task.getStatus(), task);
+        byPriority.get(task.getPriority()).remove(task);
+        removeFromDeadline(task.getDeadline(), task);
+    }
+
+    /**
+     * Переносит измененную задачу в индексах полей, значения которых изменились.
+     * Индексы неизмененных полей не затрагиваются, поэтому задача сохраняет в них свое место.
+     */
+    private void reindex(Task task, TaskStatus status, int priority, LocalDate deadline) {
+        if (task.getStatus() != status) {
+            removeFromStatus(status, task);
+            addToStatus(task.getStatus(), task);
+        }
+        if (task.getPriority() != priority) {
+            byPriority.get(priority).remove(task);
+            byPriority.get(task.getPriority()).add(task);
+        }
+        if (!Objects.equals(task.getDeadline(), deadline)) {
+            removeFromDeadline(deadline, task);
+            addToDeadline(task.getDeadline(), task);
+        }
+    }
+
+    private void addToStatus(TaskStatus status, Task task) {
+        if (status != null) {
+            byStatus.get(status).add(task);
+        }
+    }
+
+    private void removeFromStatus(TaskStatus status, Task task) {
+        if (status != null) {
+            byStatus.get(status).remove(task);
+        }
+    }
+
+    private void addToDeadline(LocalDate deadline, Task task) {
+        if (deadline != null) {
+            byDeadline.computeIfAbsent(deadline, key -> new LinkedHashSet<>()).add(task);
+        }
+    }
+
+    private void removeFromDeadline(LocalDate deadline, Task task) {
+        if (deadline == null) {
+            return;
+        }
+        Set<Task> bucket = byDeadline.get(deadline);
+        bucket.remove(task);
+        if (bucket.isEmpty()) {
+            byDeadline.remove(deadline);
+        }
+    }
+
+    /**
+     * Вычищает удаленные задачи из списка, сохраняя порядок оставшихся, и перестраивает индекс.
+     */
+    private void compact() {
+        int size = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            if (task != null) {
+                if (size != i) {
+                    tasks.set(size, task);
+                    positions.put(task.getId(), size);
+                }
+                size++;
+            }
+        }
+        tasks.subList(size, tasks.size()).clear();
+        holes = 0;
     }
 }
@@ -0,0 +1,236 @@
+package ru.andreynaz4renko.domain;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Класс TaskTextIndex представляет собой инвертированный индекс слов заголовков и описаний задач.
+ * Для каждого слова индекс хранит упорядоченный массив идентификаторов задач, в тексте которых оно встречается,
+ * поэтому поиск по нескольким словам сводится к пересечению массивов, начиная с самого короткого,
+ * и стоит пропорционально размеру этих массивов, а не всего списка задач.
+ * <p>
+ * Словом считается последовательность букв и цифр. Слова приводятся к нижнему регистру, а буква "ё"
+ * заменяется на "е", поэтому "Отчёт" и "отчет" совпадают.
+ */
+public class TaskTextIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    /**
+     * Добавляет слова заголовка и описания задачи в индекс.
+     *
+     * @param id          Идентификатор задачи.
+     * @param caption     Заголовок задачи.
+     * @param description Описание задачи.
+     */
+    public void add(int id, String caption, String description) {
+        add(id, tokenize(caption, description));
+    }
+
+    /**
+     * Добавляет слова задачи, полученные tokenize(), в индекс.
+     *
+     * @param id     Идентификатор задачи.
+     * @param tokens Слова заголовка и описания задачи.
+     */
+    public void add(int id, Set<String> tokens) {
+        for (String token : tokens) {
+            postings.computeIfAbsent(token, key -> new Postings()).add(id);
+        }
+    }
+
+    /**
+     * Удаляет слова заголовка и описания задачи из индекса. Текст должен совпадать с добавленным.
+     *
+     * @param id          Идентификатор задачи.
+     * @param caption     Заголовок задачи.
+     * @param description Описание задачи.
+     */
+    public void remove(int id, String caption, String description) {
+        remove(id, tokenize(caption, description));
+    }
+
+    /**
+     * Удаляет слова задачи, полученные tokenize(), из индекса. Слова должны совпадать с добавленными.
+     *
+     * @param id     Идентификатор задачи.
+     * @param tokens Слова заголовка и описания задачи.
+     */
+    public void remove(int id, Set<String> tokens) {
+        for (String token : tokens) {
+            Postings ids = postings.get(token);
+            if (ids != null && ids.remove(id) && ids.size == 0) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    /**
+     * Возвращает идентификаторы задач, текст которых содержит все слова запроса.
+     *
+     * @param query Запрос: слова через пробел или другие разделители.
+     * @return Идентификаторы задач по возрастанию или пустой массив, если в запросе нет слов.
+     */
+    public int[] search(String query) {
+        Set<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return EMPTY;
+        }
+        Postings[] lists = new Postings[tokens.size()];
+        int count = 0;
+        for (String token : tokens) {
+            Postings ids = postings.get(token);
+            if (ids == null) {
+                return EMPTY;
+            }
+            lists[count++] = ids;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+        int[] result = Arrays.copyOf(lists[0].ids, lists[0].size);
+        int size = result.length;
+        for (int i = 1; i < lists.length && size > 0; i++) {
+            size = lists[i].retain(result, size);
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Проверяет, содержит ли текст задачи все слова запроса. Используется там, где индекс не хранится.
+     *
+     * @param query Слова запроса, полученные tokenize().
+     * @param task  Задача.
+     * @return true, если заголовок или описание содержат каждое слово запроса.
+     */
+    public static boolean matches(Set<String> query, Task task) {
+        return !query.isEmpty() && tokenize(task.getCaption(), task.getDescription()).containsAll(query);
+    }
+
+    /**
+     * Разбивает текст на слова в нижнем регистре с заменой "ё" на "е".
+     *
+     * @param text Текст или null.
+     * @return Различные слова в порядке появления.
+     */
+    public static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        collect(text, tokens);
+        return tokens;
+    }
+
+    /**
+     * Разбивает тексты на слова в нижнем регистре с заменой "ё" на "е".
+     *
+     * @param first  Первый текст или null.
+     * @param second Второй текст или null.
+     * @return Различные слова в порядке появления.
+     */
+    public static Set<String> tokenize(String first, String second) {
+        Set<String> tokens = new LinkedHashSet<>();
+        collect(first, tokens);
+        collect(second, tokens);
+        return tokens;
+    }
+
+    private static void collect(String text, Set<String> tokens) {
+        if (text == null) {
+            return;
+        }
+        char[] buffer = null;
+        int length = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (buffer == null) {
+                    buffer = new char[Math.min(text.length(), 64)];
+                } else if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, length * 2);
+                }
+                buffer[length++] = normalize(c);
+            } else if (length > 0) {
+                tokens.add(new String(buffer, 0, length));
+                length = 0;
+            }
+        }
+    }
+
+    private static char normalize(char c) {
+        char lower = Character.toLowerCase(c);
+        return lower == 'ё' ? 'е' : lower;
+    }
+
+    /**
+     * Упорядоченный по возрастанию массив идентификаторов задач. Новые задачи получают наибольшие
+     * идентификаторы, поэтому добавление обычно дописывает в конец массива.
+     */
+    private static final class Postings {
+
+        private int[] ids = new int[2];
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int position = Arrays.binarySearch(ids, 0, size, id);
+                if (position >= 0) {
+                    return;
+                }
+                insert(-position - 1, id);
+                return;
+            }
+            insert(size, id);
+        }
+
+        boolean remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            if (size < ids.length / 4) {
+                ids = Arrays.copyOf(ids, Math.max(2, ids.length / 2));
+            }
+            return true;
+        }
+
+        /**
+         * Оставляет в начале массива candidates только идентификаторы, присутствующие в этом списке.
+         * Каждый идентификатор ищется экспоненциальным поиском от предыдущей найденной позиции,
+         * поэтому пересечение стоит O(k log(n / k)) для k кандидатов и списка длины n.
+         *
+         * @return Количество оставшихся идентификаторов.
+         */
+        int retain(int[] candidates, int count) {
+            int kept = 0;
+            int from = 0;
+            for (int i = 0; i < count && from < size; i++) {
+                int step = 1;
+                while (from + step < size && ids[from + step] < candidates[i]) {
+                    step <<= 1;
+                }
+                int position = Arrays.binarySearch(ids, from + (step >> 1), Math.min(from + step + 1, size), candidates[i]);
+                if (position >= 0) {
+                    candidates[kept++] = candidates[i];
+                    from = position + 1;
+                } else {
+                    from = -position - 1;
+                }
+            }
+            return kept;
+        }
+
+        private void insert(int position, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+    }
+}
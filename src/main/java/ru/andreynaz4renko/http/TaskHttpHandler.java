@@ -0,0 +1,265 @@
+package ru.andreynaz4renko.http;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import ru.andreynaz4renko.converters.TaskConverter;
+import ru.andreynaz4renko.data.TaskRepository;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Обработчик запросов к ресурсу /tasks сервера TaskHttpServer.
+ * JSON читается и записывается потоково через JsonParser и JsonGenerator, как в JsonTaskRepository.
+ */
+class TaskHttpHandler implements HttpHandler {
+
+    static final String TASKS_PATH = "/tasks";
+
+    private static final String COMPLETE_PATH = "complete";
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private static final Comparator<Task> BY_ID = Comparator.comparingInt(Task::getId);
+
+    private final TaskRepository repository;
+
+    TaskHttpHandler(TaskRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String[] path = exchange.getRequestURI().getPath()
+                    .substring(TASKS_PATH.length())
+                    .replaceAll("^/+|/+$", "")
+                    .split("/");
+            String method = exchange.getRequestMethod();
+            try {
+                if (path[0].isEmpty()) {
+                    switch (method) {
+                        case "GET" -> listTasks(exchange);
+                        case "POST" -> createTask(exchange);
+                        default -> sendError(exchange, 405, "Метод не поддерживается: " + method);
+                    }
+                } else if (path.length == 1) {
+                    int id = Integer.parseInt(path[0]);
+                    switch (method) {
+                        case "GET" -> sendTask(exchange, 200, repository.getTask(id));
+                        case "PATCH" -> editTask(exchange, id);
+                        case "DELETE" -> removeTask(exchange, id);
+                        default -> sendError(exchange, 405, "Метод не поддерживается: " + method);
+                    }
+                } else if (path.length == 2 && COMPLETE_PATH.equals(path[1])) {
+                    if (!"POST".equals(method)) {
+                        sendError(exchange, 405, "Метод не поддерживается: " + method);
+                        return;
+                    }
+                    int id = Integer.parseInt(path[0]);
+                    sendTask(exchange, 200, repository.completeTask(id) ? repository.getTask(id) : null);
+                } else {
+                    sendError(exchange, 404, "Ресурс не найден");
+                }
+            } catch (JsonProcessingException e) {
+                sendError(exchange, 400, e.getOriginalMessage());
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                sendError(exchange, 400, e.getLocalizedMessage());
+            }
+        }
+    }
+
+    /**
+     * Отправляет задачи, отобранные по параметру status, minPriority или deadlineBefore,
+     * или найденные по словам параметра q. Порядок задач совпадает с командами list и search в TaskManager.
+     */
+    private void listTasks(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        Predicate<Task> filter = task -> true;
+        Comparator<Task> order = BY_ID;
+        if (query.containsKey("status")) {
+            TaskStatus status = TaskStatus.valueOf(query.get("status").toUpperCase(Locale.ROOT));
+            filter = task -> task.getStatus() == status;
+        } else if (query.containsKey("minPriority")) {
+            int minPriority = Integer.parseInt(query.get("minPriority"));
+            filter = task -> task.getPriority() >= minPriority;
+            order = Comparator.comparingInt(Task::getPriority).reversed().thenComparing(BY_ID);
+        } else if (query.containsKey("deadlineBefore")) {
+            LocalDate date = LocalDate.parse(query.get("deadlineBefore"));
+            filter = task -> task.getDeadline() != null && task.getDeadline().isBefore(date);
+            order = Comparator.comparing(Task::getDeadline).thenComparing(BY_ID);
+        }
+        Collection<Task> tasks = query.containsKey("q")
+                ? repository.searchTasks(query.get("q"))
+                : repository.findTasks(filter, order);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody();
+             JsonGenerator generator = JSON_FACTORY.createGenerator(body, JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            for (Task task : tasks) {
+                writeTask(generator, task);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private void createTask(HttpExchange exchange) throws IOException {
+        Map<String, String> fields = readFields(exchange.getRequestBody());
+        String priority = fields.get("priority");
+        String deadline = fields.get("deadline");
+        Task task = new Task(repository.nextTaskId(),
+                fields.get("caption"),
+                fields.get("description"),
+                priority == null ? 0 : Integer.parseInt(priority),
+                deadline == null || deadline.isEmpty() ? null : LocalDate.parse(deadline));
+        if (!repository.addTask(task)) {
+            sendError(exchange, 409, "Задача " + task.getId() + " уже существует");
+            return;
+        }
+        exchange.getResponseHeaders().set("Location", TASKS_PATH + "/" + task.getId());
+        sendTask(exchange, 201, task);
+    }
+
+    private void editTask(HttpExchange exchange, int id) throws IOException {
+        Map<String, String> fields = readFields(exchange.getRequestBody());
+        if (!repository.isTaskExists(id)) {
+            sendTask(exchange, 404, null);
+            return;
+        }
+        if (!repository.editTask(id,
+                fields.get("caption"),
+                fields.get("description"),
+                fields.get("priority"),
+                fields.get("deadline"))) {
+            sendError(exchange, 400, "Некорректные значения полей задачи");
+            return;
+        }
+        sendTask(exchange, 200, repository.getTask(id));
+    }
+
+    private void removeTask(HttpExchange exchange, int id) throws IOException {
+        if (!repository.removeTask(id)) {
+            sendTask(exchange, 404, null);
+            return;
+        }
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    /**
+     * Отправляет задачу или ошибку 404, если задача не найдена.
+     */
+    private static void sendTask(HttpExchange exchange, int status, Task task) throws IOException {
+        if (task == null) {
+            sendError(exchange, 404, "Задача не найдена");
+            return;
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(body, JsonEncoding.UTF8)) {
+            writeTask(generator, task);
+        }
+        send(exchange, status, body.toByteArray());
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(128);
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(body, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeStringField("error", message);
+            generator.writeEndObject();
+        }
+        send(exchange, status, body.toByteArray());
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private static void writeTask(JsonGenerator generator, Task task) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", task.getId());
+        generator.writeStringField("caption", task.getCaption());
+        generator.writeStringField("description", task.getDescription());
+        generator.writeNumberField("priority", task.getPriority());
+        writeDate(generator, "deadline", task.getDeadline());
+        writeDate(generator, "complete", task.getCompletion());
+        if (task.getStatus() != null) {
+            generator.writeStringField("status", TaskConverter.taskStatusToJsonName(task.getStatus()));
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeDate(JsonGenerator generator, String name, LocalDate value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value.toString());
+        }
+    }
+
+    /**
+     * Читает скалярные поля JSON объекта из тела запроса. Значения null и вложенные структуры пропускаются.
+     */
+    private static Map<String, String> readFields(InputStream input) throws IOException {
+        Map<String, String> fields = new HashMap<>();
+        try (JsonParser parser = JSON_FACTORY.createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Ожидался JSON объект");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (value.isScalarValue() && value != JsonToken.VALUE_NULL) {
+                    fields.put(name, parser.getText());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return fields;
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                parameters.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+}
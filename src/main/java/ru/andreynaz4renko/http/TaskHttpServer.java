@@ -0,0 +1,84 @@
+package ru.andreynaz4renko.http;
+
+import com.sun.net.httpserver.HttpServer;
+import ru.andreynaz4renko.data.TaskRepository;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Класс TaskHttpServer представляет собой встроенный HTTP сервер над репозиторием задач на основе
+ * com.sun.net.httpserver из JDK. Каждый запрос обрабатывается в отдельном виртуальном потоке.
+ * Репозиторий вызывается из нескольких потоков одновременно, поэтому он должен быть потокобезопасным:
+ * ConcurrentTaskRepository или обертки над ним, например MetricsTaskRepository. Тогда чтение задач
+ * не блокируется, а изменения разных задач не конкурируют между собой.
+ * <pre>
+ * GET    /tasks[?status=new|minPriority=5|deadlineBefore=2024-01-01]  Список задач.
+ * GET    /tasks/{id}                                                Задача.
+ * POST   /tasks                                                     Создание задачи.
+ * PATCH  /tasks/{id}                                                Редактирование задачи.
+ * POST   /tasks/{id}/complete                                       Пометка задачи как выполненной.
+ * DELETE /tasks/{id}                                                Удаление задачи.
+ * </pre>
+ * Тела запросов и ответов передаются в формате JSON с полями caption, description, priority и deadline.
+ */
+public class TaskHttpServer implements AutoCloseable {
+
+    /**
+     * Время в секундах, в течение которого close() ожидает завершения текущих запросов.
+     */
+    private static final int STOP_DELAY = 1;
+
+    static {
+        // Без TCP_NODELAY заголовки и тело ответа, записываемые раздельно, задерживаются алгоритмом Нейгла
+        // до подтверждения клиента, что добавляет около 40 мс к каждому запросу на keep-alive соединении.
+        // Свойство читается HttpServer при первом создании сервера.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Конструктор класса TaskHttpServer. Сервер не принимает запросы до вызова start().
+     *
+     * @param repository Потокобезопасный репозиторий задач.
+     * @param address    Адрес и порт сервера. Порт 0 означает любой свободный порт.
+     * @throws IOException В случае ошибки при открытии порта.
+     */
+    public TaskHttpServer(TaskRepository repository, InetSocketAddress address) throws IOException {
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.createContext(TaskHttpHandler.TASKS_PATH, new TaskHttpHandler(repository));
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Запускает прием запросов.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Возвращает адрес, на котором сервер принимает запросы.
+     *
+     * @return Адрес сервера.
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Останавливает сервер, ожидая завершения текущих запросов.
+     */
+    @Override
+    public void close() {
+        server.stop(STOP_DELAY);
+        executor.close();
+    }
+}
@@ -0,0 +1,60 @@
+package ru.andreynaz4renko.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Событие JFR записи файла через AtomicFiles с длительностями фаз: записи во временный файл
+ * (включая формирование содержимого, например маршализацию JAXB), сброса на диск и атомарной замены.
+ */
+@Name("ru.andreynaz4renko.AtomicFileWrite")
+@Label("Atomic File Write")
+@Description("Writing a file through a temporary file, fsync and atomic move")
+@Category({"Task Manager", "File"})
+public class AtomicFileWriteEvent extends Event {
+
+    @Label("Path")
+    private String path;
+
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    @Label("Write Time")
+    @Description("Time spent producing and writing the content of the temporary file")
+    @Timespan(Timespan.NANOSECONDS)
+    private long writeTime;
+
+    @Label("Sync Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long syncTime;
+
+    @Label("Move Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long moveTime;
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public void setWriteTime(long writeTime) {
+        this.writeTime = writeTime;
+    }
+
+    public void setSyncTime(long syncTime) {
+        this.syncTime = syncTime;
+    }
+
+    public void setMoveTime(long moveTime) {
+        this.moveTime = moveTime;
+    }
+}
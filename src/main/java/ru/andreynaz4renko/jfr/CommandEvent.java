@@ -0,0 +1,40 @@
+package ru.andreynaz4renko.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Событие JFR выполнения команды TaskManager или BatchTaskManager. В интерактивном режиме длительность
+ * команд new и edit включает ввод полей задачи.
+ * По умолчанию записываются команды длительностью от 1 мс, чтобы сценарии из миллионов коротких команд
+ * не переполняли запись; порог можно снизить в настройках записи.
+ */
+@Name("ru.andreynaz4renko.Command")
+@Label("Command")
+@Description("Execution of a task manager command")
+@Category({"Task Manager", "Command"})
+@StackTrace(false)
+@Threshold("1 ms")
+public class CommandEvent extends Event {
+
+    @Label("Command")
+    private String command;
+
+    /**
+     * Завершает событие и записывает его, если команда выполнялась дольше порога.
+     *
+     * @param command Имя команды.
+     */
+    public void finish(String command) {
+        end();
+        if (shouldCommit()) {
+            this.command = command;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package ru.andreynaz4renko.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import ru.andreynaz4renko.data.TaskRepository;
+
+/**
+ * Класс RepositoryEvent представляет собой общую часть событий JFR загрузки и сохранения задач.
+ * Количество задач и байт вычисляется как прирост счетчиков репозитория за время операции,
+ * поэтому событие не требует изменений в самих репозиториях.
+ * <p>
+ * Если запись JFR не ведется, start() и finish() только проверяют isEnabled().
+ * Поля события protected, потому что JFR не записывает private поля суперкласса события.
+ */
+@Category({"Task Manager", "Repository"})
+@StackTrace(false)
+public abstract class RepositoryEvent extends Event {
+
+    @Label("Repository")
+    @Description("Class of the repository that performed the operation")
+    protected String repository;
+
+    @Label("Success")
+    protected boolean success;
+
+    @Label("Task Count")
+    protected long taskCount;
+
+    @Label("Bytes")
+    @DataAmount
+    protected long bytes;
+
+    /**
+     * Репозиторий, счетчики которого читаются по окончании операции. Не записывается в событие.
+     */
+    private transient TaskRepository source;
+
+    /**
+     * Начинает событие и запоминает счетчики репозитория.
+     *
+     * @param repository Репозиторий, выполняющий операцию.
+     */
+    public void start(TaskRepository repository) {
+        if (!isEnabled()) {
+            return;
+        }
+        this.source = repository;
+        this.repository = repository.getClass().getSimpleName();
+        this.taskCount = -countTasks(repository);
+        this.bytes = -countBytes(repository);
+        begin();
+    }
+
+    /**
+     * Завершает событие и записывает его, если оно проходит по настройкам записи.
+     *
+     * @param success true, если операция выполнена успешно.
+     */
+    public void finish(boolean success) {
+        if (source == null) {
+            return;
+        }
+        end();
+        if (shouldCommit()) {
+            this.success = success;
+            this.taskCount += countTasks(source);
+            this.bytes += countBytes(source);
+            commit();
+        }
+    }
+
+    /**
+     * Возвращает счетчик задач, прирост которого записывается в событие.
+     */
+    protected abstract long countTasks(TaskRepository repository);
+
+    /**
+     * Возвращает счетчик байт, прирост которого записывается в событие.
+     */
+    protected abstract long countBytes(TaskRepository repository);
+}
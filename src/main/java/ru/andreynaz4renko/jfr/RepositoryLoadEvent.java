@@ -0,0 +1,25 @@
+package ru.andreynaz4renko.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import ru.andreynaz4renko.data.TaskRepository;
+
+/**
+ * Событие JFR загрузки задач: количество загруженных задач и прочитанных байт.
+ */
+@Name("ru.andreynaz4renko.RepositoryLoad")
+@Label("Repository Load")
+@Description("Loading tasks from the repository storage")
+public class RepositoryLoadEvent extends RepositoryEvent {
+
+    @Override
+    protected long countTasks(TaskRepository repository) {
+        return repository.getTasksLoaded();
+    }
+
+    @Override
+    protected long countBytes(TaskRepository repository) {
+        return repository.getBytesRead();
+    }
+}
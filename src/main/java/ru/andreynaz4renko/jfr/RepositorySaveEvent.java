@@ -0,0 +1,27 @@
+package ru.andreynaz4renko.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import ru.andreynaz4renko.data.TaskRepository;
+
+/**
+ * Событие JFR сохранения задач: количество записанных задач и байт.
+ * Время записи файлов и преобразования задач внутри сохранения записывается вложенными событиями
+ * AtomicFileWriteEvent и TaskConversionEvent того же потока.
+ */
+@Name("ru.andreynaz4renko.RepositorySave")
+@Label("Repository Save")
+@Description("Saving tasks to the repository storage")
+public class RepositorySaveEvent extends RepositoryEvent {
+
+    @Override
+    protected long countTasks(TaskRepository repository) {
+        return repository.getTasksSaved();
+    }
+
+    @Override
+    protected long countBytes(TaskRepository repository) {
+        return repository.getBytesWritten();
+    }
+}
@@ -0,0 +1,75 @@
+package ru.andreynaz4renko.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Событие JFR преобразования списка задач в TaskConverter.
+ * Ленивые представления преобразуют задачи по одной во время маршализации или демаршализации,
+ * поэтому длительность события охватывает всю операцию, а conversionTime - только время преобразования.
+ * Разница между ними - время JAXB и ввода-вывода.
+ */
+@Name("ru.andreynaz4renko.TaskConversion")
+@Label("Task Conversion")
+@Description("Conversion of a task list between the domain model and the XML or JSON model")
+@Category({"Task Manager", "Conversion"})
+@StackTrace(false)
+public class TaskConversionEvent extends Event {
+
+    @Label("Conversion")
+    private String conversion;
+
+    @Label("Task Count")
+    private long taskCount;
+
+    @Label("Conversion Time")
+    @Description("Time spent converting tasks, excluding marshalling and I/O")
+    @Timespan(Timespan.NANOSECONDS)
+    private long conversionTime;
+
+    private transient boolean finished;
+
+    /**
+     * Создает и начинает событие, если запись JFR ведется.
+     *
+     * @param conversion Название преобразования, например "Task -> XmlTask".
+     * @return Событие, начатое, если isEnabled() возвращает true.
+     */
+    public static TaskConversionEvent start(String conversion) {
+        TaskConversionEvent event = new TaskConversionEvent();
+        if (event.isEnabled()) {
+            event.conversion = conversion;
+            event.begin();
+        }
+        return event;
+    }
+
+    /**
+     * Учитывает преобразованные задачи.
+     *
+     * @param tasks Количество задач.
+     * @param nanos Время преобразования в наносекундах.
+     */
+    public void count(long tasks, long nanos) {
+        taskCount += tasks;
+        conversionTime += nanos;
+    }
+
+    /**
+     * Завершает событие и записывает его, если оно проходит по настройкам записи. Повторные вызовы игнорируются.
+     */
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
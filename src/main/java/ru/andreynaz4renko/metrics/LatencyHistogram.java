@@ -0,0 +1,143 @@
+package ru.andreynaz4renko.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Класс LatencyHistogram представляет собой гистограмму длительностей в наносекундах с логарифмически-линейными
+ * интервалами, как в HdrHistogram: каждый интервал [2^k, 2^(k+1)) делится на 128 равных частей,
+ * поэтому процентили вычисляются с относительной погрешностью менее 1% во всем диапазоне.
+ * <p>
+ * Запись значения - один атомарный инкремент счетчика интервала без блокировок и выделения памяти.
+ * Количество, среднее и процентили вычисляются по счетчикам при чтении. Значения больше
+ * {@link #MAX_VALUE} (около 18 минут) учитываются в последнем интервале.
+ */
+public class LatencyHistogram {
+
+    /**
+     * Наибольшее различимое значение в наносекундах.
+     */
+    public static final long MAX_VALUE = (1L << 40) - 1;
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(index(MAX_VALUE) + 1);
+
+    /**
+     * Учитывает значение.
+     *
+     * @param nanos Длительность в наносекундах. Отрицательные значения учитываются как 0.
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(index(Math.max(0, Math.min(nanos, MAX_VALUE))));
+    }
+
+    /**
+     * Возвращает количество учтенных значений.
+     *
+     * @return Количество значений.
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Возвращает среднее значение, вычисленное по серединам интервалов.
+     *
+     * @return Среднее значение в наносекундах или 0, если значений нет.
+     */
+    public double getMean() {
+        long count = 0;
+        double sum = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long bucket = counts.get(i);
+            if (bucket > 0) {
+                count += bucket;
+                sum += bucket * (lowestValue(i) + highestValue(i)) / 2.0;
+            }
+        }
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * Возвращает наибольшее учтенное значение с точностью до интервала.
+     *
+     * @return Верхняя граница наибольшего непустого интервала или 0, если значений нет.
+     */
+    public long getMax() {
+        for (int i = counts.length() - 1; i >= 0; i--) {
+            if (counts.get(i) > 0) {
+                return highestValue(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Возвращает значение, не превышаемое заданной долей учтенных значений.
+     *
+     * @param percentile Процентиль от 0 до 100.
+     * @return Верхняя граница интервала, содержащего процентиль, или 0, если значений нет.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] snapshot = new long[counts.length()];
+        long count = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return highestValue(i);
+            }
+        }
+        return MAX_VALUE;
+    }
+
+    /**
+     * Обнуляет гистограмму. Значения, учитываемые одновременно со сбросом, могут сохраниться.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * Возвращает номер интервала: значения меньше 128 имеют собственные интервалы,
+     * а каждый следующий интервал [2^k, 2^(k+1)) делится на 128 частей шириной 2^(k-7).
+     */
+    static int index(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    static long lowestValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        return (long) ((index & (SUB_BUCKET_COUNT - 1)) + SUB_BUCKET_COUNT) << shift;
+    }
+
+    static long highestValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        return lowestValue(index) + (1L << shift) - 1;
+    }
+}
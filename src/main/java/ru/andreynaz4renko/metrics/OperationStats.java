@@ -0,0 +1,149 @@
+package ru.andreynaz4renko.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Класс OperationStats представляет собой статистику одной операции репозитория:
+ * количество вызовов, количество неудач и гистограмму длительностей.
+ * <p>
+ * Вызовы и неудачи считаются всегда, а длительность может измеряться у случайной выборки вызовов:
+ * пара вызовов System.nanoTime() стоит десятки наносекунд, что сопоставимо с операцией над списком в памяти.
+ * При интервале выборки N измеряется в среднем каждый N-й вызов; случайный выбор не совпадает
+ * с периодичностью нагрузки, поэтому среднее и процентили выборки остаются несмещенными оценками.
+ */
+public class OperationStats implements OperationStatsMBean {
+
+    /**
+     * Значение start(), означающее, что длительность вызова не измеряется.
+     */
+    public static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    private static final double NANOS_PER_MICRO = 1_000.0;
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * Маска случайного числа: длительность измеряется, если его биты под маской равны нулю.
+     */
+    private volatile int samplingMask;
+
+    /**
+     * Конструктор класса OperationStats.
+     *
+     * @param samplingInterval Интервал выборки: степень двойки, 1 - измерять каждый вызов.
+     */
+    public OperationStats(int samplingInterval) {
+        setSamplingInterval(samplingInterval);
+    }
+
+    /**
+     * Задает интервал выборки измеряемых вызовов.
+     *
+     * @param samplingInterval Интервал выборки: степень двойки, 1 - измерять каждый вызов.
+     */
+    public void setSamplingInterval(int samplingInterval) {
+        if (samplingInterval < 1 || Integer.bitCount(samplingInterval) != 1) {
+            throw new IllegalArgumentException("Интервал выборки должен быть положительной степенью двойки");
+        }
+        samplingMask = samplingInterval - 1;
+    }
+
+    /**
+     * Начинает вызов операции.
+     *
+     * @return System.nanoTime(), если длительность вызова измеряется, в противном случае - NOT_SAMPLED.
+     */
+    public long start() {
+        int mask = samplingMask;
+        if (mask != 0 && (ThreadLocalRandom.current().nextInt() & mask) != 0) {
+            return NOT_SAMPLED;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Учитывает завершенный вызов операции.
+     *
+     * @param start   Значение, возвращенное start().
+     * @param success false, если операция вернула false или бросила исключение.
+     */
+    public void record(long start, boolean success) {
+        if (start != NOT_SAMPLED) {
+            latencies.record(System.nanoTime() - start);
+        }
+        count.increment();
+        if (!success) {
+            failures.increment();
+        }
+    }
+
+    /**
+     * Возвращает гистограмму длительностей измеренных вызовов в наносекундах.
+     *
+     * @return Гистограмма длительностей.
+     */
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public long getSampledCount() {
+        return latencies.getCount();
+    }
+
+    @Override
+    public int getSamplingInterval() {
+        return samplingMask + 1;
+    }
+
+    @Override
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latencies.getMean() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return latencies.getValueAtPercentile(50) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getP90Micros() {
+        return latencies.getValueAtPercentile(90) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latencies.getValueAtPercentile(99) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return latencies.getValueAtPercentile(99.9) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return latencies.getMax() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public void reset() {
+        latencies.reset();
+        count.reset();
+        failures.reset();
+    }
+}
@@ -0,0 +1,30 @@
+package ru.andreynaz4renko.metrics;
+
+/**
+ * JMX интерфейс статистики операции репозитория. Длительности указываются в микросекундах
+ * и вычисляются по измеренным вызовам.
+ */
+public interface OperationStatsMBean {
+
+    long getCount();
+
+    long getSampledCount();
+
+    int getSamplingInterval();
+
+    long getFailureCount();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP90Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+
+    void reset();
+}
@@ -0,0 +1,220 @@
+package ru.andreynaz4renko.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * Класс RepositoryMetrics представляет собой метрики репозитория задач: статистику каждой операции,
+ * количество прочитанных и записанных байт и количество загруженных и сохраненных задач.
+ * <p>
+ * Метрики можно опубликовать в JMX методом register(): счетчики репозитория регистрируются как
+ * ru.andreynaz4renko:type=TaskRepository,name=[имя], а статистика операций - с дополнительным ключом
+ * operation=[операция], например operation=save.
+ */
+public class RepositoryMetrics implements RepositoryMetricsMBean {
+
+    /**
+     * Домен JMX имен метрик.
+     */
+    public static final String DOMAIN = "ru.andreynaz4renko";
+
+    /**
+     * Интервал выборки измеряемых вызовов операций с отдельными задачами. Загрузка и сохранение
+     * измеряются всегда: их длительность несравнимо больше стоимости измерения.
+     */
+    public static final int DEFAULT_SAMPLING_INTERVAL = 16;
+
+    private static final RepositoryOperation[] OPERATIONS = RepositoryOperation.values();
+
+    /**
+     * Статистика операций по порядковому номеру RepositoryOperation.
+     */
+    private final OperationStats[] operations = new OperationStats[OPERATIONS.length];
+
+    private final LongSupplier bytesRead;
+    private final LongSupplier bytesWritten;
+    private final LongSupplier tasksLoaded;
+    private final LongSupplier tasksSaved;
+
+    /**
+     * Значения счетчиков на момент последнего сброса.
+     */
+    private volatile long bytesReadBase;
+    private volatile long bytesWrittenBase;
+    private volatile long tasksLoadedBase;
+    private volatile long tasksSavedBase;
+
+    private final List<ObjectName> registered = new ArrayList<>();
+
+    /**
+     * Конструктор класса RepositoryMetrics.
+     *
+     * @param bytesRead    Счетчик байт, прочитанных репозиторием.
+     * @param bytesWritten Счетчик байт, записанных репозиторием.
+     * @param tasksLoaded  Счетчик задач, загруженных репозиторием.
+     * @param tasksSaved   Счетчик задач, сохраненных репозиторием.
+     */
+    public RepositoryMetrics(LongSupplier bytesRead, LongSupplier bytesWritten,
+                             LongSupplier tasksLoaded, LongSupplier tasksSaved) {
+        this.bytesRead = bytesRead;
+        this.bytesWritten = bytesWritten;
+        this.tasksLoaded = tasksLoaded;
+        this.tasksSaved = tasksSaved;
+        for (RepositoryOperation operation : OPERATIONS) {
+            boolean io = operation == RepositoryOperation.LOAD || operation == RepositoryOperation.SAVE;
+            operations[operation.ordinal()] = new OperationStats(io ? 1 : DEFAULT_SAMPLING_INTERVAL);
+        }
+    }
+
+    /**
+     * Начинает вызов операции.
+     *
+     * @param operation Операция.
+     * @return Значение, передаваемое в record() после вызова.
+     */
+    public long start(RepositoryOperation operation) {
+        return operations[operation.ordinal()].start();
+    }
+
+    /**
+     * Учитывает завершенный вызов операции.
+     *
+     * @param operation Операция.
+     * @param start     Значение, возвращенное start().
+     * @param success   false, если операция вернула false или бросила исключение.
+     */
+    public void record(RepositoryOperation operation, long start, boolean success) {
+        operations[operation.ordinal()].record(start, success);
+    }
+
+    /**
+     * Задает интервал выборки измеряемых вызовов всех операций, кроме загрузки и сохранения.
+     *
+     * @param samplingInterval Интервал выборки: степень двойки, 1 - измерять каждый вызов.
+     */
+    public void setSamplingInterval(int samplingInterval) {
+        for (RepositoryOperation operation : OPERATIONS) {
+            if (operation != RepositoryOperation.LOAD && operation != RepositoryOperation.SAVE) {
+                getStats(operation).setSamplingInterval(samplingInterval);
+            }
+        }
+    }
+
+    /**
+     * Возвращает статистику операции.
+     *
+     * @param operation Операция.
+     * @return Статистика операции.
+     */
+    public OperationStats getStats(RepositoryOperation operation) {
+        return operations[operation.ordinal()];
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.getAsLong() - bytesReadBase;
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.getAsLong() - bytesWrittenBase;
+    }
+
+    @Override
+    public long getTasksLoaded() {
+        return tasksLoaded.getAsLong() - tasksLoadedBase;
+    }
+
+    @Override
+    public long getTasksSaved() {
+        return tasksSaved.getAsLong() - tasksSavedBase;
+    }
+
+    /**
+     * Обнуляет статистику операций и счетчики.
+     */
+    @Override
+    public void reset() {
+        for (OperationStats stats : operations) {
+            stats.reset();
+        }
+        bytesReadBase = bytesRead.getAsLong();
+        bytesWrittenBase = bytesWritten.getAsLong();
+        tasksLoadedBase = tasksLoaded.getAsLong();
+        tasksSavedBase = tasksSaved.getAsLong();
+    }
+
+    /**
+     * Регистрирует метрики в платформенном MBeanServer.
+     *
+     * @param name Имя репозитория в JMX имени, например имя файла задач.
+     * @throws JMException В случае ошибки регистрации, например если имя уже занято.
+     */
+    public synchronized void register(String name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        String prefix = DOMAIN + ":type=TaskRepository,name=" + ObjectName.quote(name);
+        List<ObjectName> names = new ArrayList<>();
+        try {
+            names.add(server.registerMBean(this, new ObjectName(prefix)).getObjectName());
+            for (RepositoryOperation operation : OPERATIONS) {
+                ObjectName objectName = new ObjectName(prefix + ",operation=" + operationName(operation));
+                names.add(server.registerMBean(getStats(operation), objectName).getObjectName());
+            }
+        } catch (JMException e) {
+            unregister(server, names);
+            throw e;
+        }
+        registered.addAll(names);
+    }
+
+    /**
+     * Удаляет метрики из MBeanServer, если они были зарегистрированы.
+     */
+    public synchronized void unregister() {
+        unregister(ManagementFactory.getPlatformMBeanServer(), registered);
+        registered.clear();
+    }
+
+    /**
+     * Возвращает таблицу статистики операций и счетчики репозитория. Длительности указываются в микросекундах
+     * и вычисляются по измеренным вызовам, количество которых указано в столбце sampled.
+     *
+     * @return Многострочный отчет.
+     */
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder(String.format(Locale.ROOT,
+                "%-9s %10s %9s %10s %11s %11s %11s %11s %11s%n",
+                "operation", "count", "failures", "sampled", "mean, us", "p50, us", "p99, us", "p99.9, us", "max, us"));
+        for (RepositoryOperation operation : OPERATIONS) {
+            OperationStats stats = getStats(operation);
+            report.append(String.format(Locale.ROOT, "%-9s %10d %9d %10d %11.1f %11.1f %11.1f %11.1f %11.1f%n",
+                    operationName(operation), stats.getCount(), stats.getFailureCount(), stats.getSampledCount(),
+                    stats.getMeanMicros(), stats.getP50Micros(), stats.getP99Micros(), stats.getP999Micros(),
+                    stats.getMaxMicros()));
+        }
+        report.append(String.format(Locale.ROOT, "bytes read: %d, bytes written: %d, tasks loaded: %d, tasks saved: %d",
+                getBytesRead(), getBytesWritten(), getTasksLoaded(), getTasksSaved()));
+        return report.toString();
+    }
+
+    private static void unregister(MBeanServer server, List<ObjectName> names) {
+        for (ObjectName objectName : names) {
+            try {
+                server.unregisterMBean(objectName);
+            } catch (JMException e) {
+                System.err.println(e.getLocalizedMessage());
+            }
+        }
+    }
+
+    private static String operationName(RepositoryOperation operation) {
+        return operation.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,17 @@
+package ru.andreynaz4renko.metrics;
+
+/**
+ * JMX интерфейс счетчиков репозитория задач. Статистика операций регистрируется отдельными OperationStatsMBean.
+ */
+public interface RepositoryMetricsMBean {
+
+    long getBytesRead();
+
+    long getBytesWritten();
+
+    long getTasksLoaded();
+
+    long getTasksSaved();
+
+    void reset();
+}
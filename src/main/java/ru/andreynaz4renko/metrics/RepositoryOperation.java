@@ -0,0 +1,15 @@
+package ru.andreynaz4renko.metrics;
+
+/**
+ * Операция репозитория задач, для которой RepositoryMetrics считает вызовы, неудачи и длительность.
+ */
+public enum RepositoryOperation {
+    LOAD,
+    SAVE,
+    ADD,
+    EDIT,
+    COMPLETE,
+    REMOVE,
+    SEARCH,
+    FIND
+}
@@ -0,0 +1,71 @@
+package ru.andreynaz4renko.util;
+
+import ru.andreynaz4renko.jfr.AtomicFileWriteEvent;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Класс AtomicFiles записывает файлы так, что читатель видит либо старое, либо новое содержимое целиком.
+ * Данные пишутся во временный файл рядом с целевым, сбрасываются на диск и атомарно заменяют целевой файл,
+ * поэтому сбой во время записи не повреждает ранее сохраненный файл.
+ * Каждая успешная запись регистрируется в JFR событием AtomicFileWriteEvent с длительностями фаз.
+ */
+public final class AtomicFiles {
+
+    private AtomicFiles() { }
+
+    /**
+     * Записывает файл через временный файл и атомарную замену.
+     *
+     * @param path   Путь к целевому файлу.
+     * @param writer Действие, записывающее содержимое в буферизованный поток. Поток закрывается после записи.
+     * @return Размер записанного файла в байтах.
+     * @throws Exception В случае ошибки записи. Целевой файл при этом не изменяется.
+     */
+    public static long write(Path path, Writer writer) throws Exception {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        AtomicFileWriteEvent event = new AtomicFileWriteEvent();
+        event.begin();
+        try {
+            long start = System.nanoTime();
+            try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                writer.write(output);
+            }
+            long written = System.nanoTime();
+            long size;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+                size = channel.size();
+            }
+            long synced = System.nanoTime();
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            event.end();
+            if (event.shouldCommit()) {
+                event.setPath(path.toString());
+                event.setBytes(size);
+                event.setWriteTime(written - start);
+                event.setSyncTime(synced - written);
+                event.setMoveTime(System.nanoTime() - synced);
+                event.commit();
+            }
+            return size;
+        } catch (Exception e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Запись содержимого файла в поток.
+     */
+    @FunctionalInterface
+    public interface Writer {
+        void write(OutputStream output) throws Exception;
+    }
+}
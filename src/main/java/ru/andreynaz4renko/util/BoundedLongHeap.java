@@ -0,0 +1,101 @@
+package ru.andreynaz4renko.util;
+
+import java.util.Arrays;
+
+/**
+ * Класс BoundedLongHeap отбирает k наименьших значений типа long из потока значений за O(n log k)
+ * без сортировки всего потока и без упаковки в Long.
+ * Значения хранятся в двоичной куче с максимумом в корне: новое значение вытесняет корень,
+ * если оно меньше, а иначе отбрасывается за одно сравнение.
+ * <p>
+ * Составной ключ сортировки упаковывается в одно значение, например приоритет в старших 32 битах
+ * и идентификатор задачи в младших.
+ */
+public class BoundedLongHeap {
+
+    private final long[] heap;
+    private int size;
+
+    /**
+     * Конструктор класса BoundedLongHeap.
+     *
+     * @param capacity Количество отбираемых значений k.
+     */
+    public BoundedLongHeap(int capacity) {
+        this.heap = new long[Math.max(capacity, 0)];
+    }
+
+    /**
+     * Упаковывает составной ключ сортировки: порядок в старших 32 битах, идентификатор в младших.
+     * Ключи упорядочены по порядку, а при равном порядке - по идентификатору.
+     *
+     * @param order Порядок, например приоритет или срок в днях эпохи.
+     * @param id    Идентификатор.
+     * @return Ключ.
+     */
+    public static long key(int order, int id) {
+        return (long) order << 32 | id & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Учитывает значение.
+     *
+     * @param value Значение.
+     * @return true, если значение входит в k наименьших учтенных значений.
+     */
+    public boolean offer(long value) {
+        if (size < heap.length) {
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] >= value) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = value;
+            return true;
+        }
+        if (size == 0 || value >= heap[0]) {
+            return false;
+        }
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= value) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = value;
+        return true;
+    }
+
+    /**
+     * Возвращает количество отобранных значений.
+     *
+     * @return Количество значений, не больше k.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает отобранные значения по возрастанию.
+     *
+     * @return Новый массив значений.
+     */
+    public long[] toSortedArray() {
+        long[] values = Arrays.copyOf(heap, size);
+        Arrays.sort(values);
+        return values;
+    }
+}
@@ -0,0 +1,224 @@
+package ru.andreynaz4renko.util;
+
+import java.util.Arrays;
+
+/**
+ * Класс IntIntHashMap представляет собой хеш-таблицу с открытой адресацией, отображающую ключи типа int
+ * в значения типа int без упаковки в Integer.
+ * Используется линейное пробирование и удаление со сдвигом, поэтому таблица не накапливает "надгробия".
+ */
+public class IntIntHashMap {
+
+    /**
+     * Ключ, обозначающий свободную ячейку таблицы. Значение для этого ключа хранится отдельно.
+     */
+    private static final int FREE_KEY = 0;
+
+    /**
+     * Максимальная доля заполнения таблицы перед увеличением ее размера.
+     */
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int threshold;
+
+    private boolean hasFreeKey;
+    private int freeKeyValue;
+
+    /**
+     * Конструктор по умолчанию. Создает пустую таблицу.
+     */
+    public IntIntHashMap() {
+        this(16);
+    }
+
+    /**
+     * Конструктор, принимающий ожидаемое количество элементов.
+     *
+     * @param expectedSize Ожидаемое количество элементов.
+     */
+    public IntIntHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Возвращает значение, связанное с ключом.
+     *
+     * @param key          Ключ.
+     * @param defaultValue Значение, возвращаемое при отсутствии ключа.
+     * @return Значение, связанное с ключом, или defaultValue.
+     */
+    public int get(int key, int defaultValue) {
+        if (key == FREE_KEY) {
+            return hasFreeKey ? freeKeyValue : defaultValue;
+        }
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE_KEY) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Проверяет наличие ключа в таблице.
+     *
+     * @param key Ключ.
+     * @return true, если ключ присутствует, в противном случае - false.
+     */
+    public boolean containsKey(int key) {
+        if (key == FREE_KEY) {
+            return hasFreeKey;
+        }
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE_KEY) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Связывает значение с ключом, заменяя предыдущее значение.
+     *
+     * @param key   Ключ.
+     * @param value Значение.
+     */
+    public void put(int key, int value) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                size++;
+            }
+            freeKeyValue = value;
+            return;
+        }
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE_KEY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > threshold) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    /**
+     * Удаляет ключ из таблицы.
+     *
+     * @param key Ключ.
+     * @return true, если ключ присутствовал в таблице, в противном случае - false.
+     */
+    public boolean remove(int key) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) {
+                return false;
+            }
+            hasFreeKey = false;
+            size--;
+            return true;
+        }
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE_KEY) {
+            if (keys[slot] == key) {
+                shiftKeys(slot);
+                size--;
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Возвращает количество ключей в таблице.
+     *
+     * @return Количество ключей.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Удаляет все ключи из таблицы.
+     */
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        hasFreeKey = false;
+        size = 0;
+    }
+
+    /**
+     * Сдвигает назад элементы цепочки пробирования, следующие за освобожденной ячейкой.
+     */
+    private void shiftKeys(int slot) {
+        while (true) {
+            int last = slot;
+            slot = (slot + 1) & mask;
+            int key;
+            while (true) {
+                key = keys[slot];
+                if (key == FREE_KEY) {
+                    keys[last] = FREE_KEY;
+                    return;
+                }
+                int home = mix(key) & mask;
+                if (last <= slot ? (last >= home || home > slot) : (last >= home && home > slot)) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[last] = key;
+            values[last] = values[slot];
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != FREE_KEY) {
+                int slot = mix(key) & mask;
+                while (keys[slot] != FREE_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
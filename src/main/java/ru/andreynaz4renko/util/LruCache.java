@@ -0,0 +1,170 @@
+package ru.andreynaz4renko.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Класс LruCache представляет собой потокобезопасный кеш ограниченного размера,
+ * вытесняющий давно не использованные записи. Кеш считает попадания, промахи и вытеснения.
+ *
+ * @param <K> Тип ключа.
+ * @param <V> Тип значения.
+ */
+public class LruCache<K, V> {
+
+    private final Map<K, V> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Конструктор класса LruCache.
+     *
+     * @param capacity Максимальное количество записей.
+     */
+    public LruCache(int capacity) {
+        this(capacity, (key, value) -> { });
+    }
+
+    /**
+     * Конструктор класса LruCache с обработчиком вытеснения.
+     *
+     * @param capacity         Максимальное количество записей.
+     * @param evictionListener Обработчик вытесненной записи. Вызывается под блокировкой кеша
+     *                         и не должен обращаться к кешу.
+     */
+    public LruCache(int capacity, BiConsumer<K, V> evictionListener) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Размер кеша должен быть положительным");
+        }
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+                evictions++;
+                evictionListener.accept(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Возвращает значение из кеша или вычисляет и кеширует его.
+     * Вычисление выполняется без блокировки кеша, поэтому одно значение могут одновременно вычислить несколько потоков.
+     *
+     * @param key    Ключ.
+     * @param loader Функция, вычисляющая значение по ключу.
+     * @return Значение.
+     */
+    public V get(K key, Function<K, V> loader) {
+        synchronized (entries) {
+            V value = entries.get(key);
+            if (value != null) {
+                hits++;
+                return value;
+            }
+            misses++;
+        }
+        V value = loader.apply(key);
+        if (value != null) {
+            synchronized (entries) {
+                entries.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Возвращает значение из кеша, не вычисляя его при отсутствии.
+     *
+     * @param key Ключ.
+     * @return Значение или null, если ключа нет в кеше.
+     */
+    public V getIfPresent(K key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    /**
+     * Помещает значение в кеш, заменяя предыдущее.
+     *
+     * @param key   Ключ.
+     * @param value Значение.
+     */
+    public void put(K key, V value) {
+        synchronized (entries) {
+            entries.put(key, value);
+        }
+    }
+
+    /**
+     * Удаляет запись без вызова обработчика вытеснения.
+     *
+     * @param key Ключ.
+     * @return Удаленное значение или null, если ключа не было в кеше.
+     */
+    public V remove(K key) {
+        synchronized (entries) {
+            return entries.remove(key);
+        }
+    }
+
+    /**
+     * Удаляет все записи без вызова обработчика вытеснения.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Возвращает количество записей.
+     *
+     * @return Количество записей.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Возвращает количество обращений get(), нашедших значение в кеше.
+     *
+     * @return Количество попаданий.
+     */
+    public long getHitCount() {
+        synchronized (entries) {
+            return hits;
+        }
+    }
+
+    /**
+     * Возвращает количество обращений get(), не нашедших значение в кеше.
+     *
+     * @return Количество промахов.
+     */
+    public long getMissCount() {
+        synchronized (entries) {
+            return misses;
+        }
+    }
+
+    /**
+     * Возвращает количество записей, вытесненных из-за превышения размера кеша.
+     *
+     * @return Количество вытеснений.
+     */
+    public long getEvictionCount() {
+        synchronized (entries) {
+            return evictions;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package ru.andreynaz4renko.data;
+
+import org.junit.jupiter.api.Test;
+import ru.andreynaz4renko.domain.Task;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Повтор фонового сохранения AsyncTaskRepository, когда делегат не сохраняет задачи.
+ */
+class AsyncTaskRepositoryTest {
+
+    @Test
+    void failedSaveIsRetried() throws Exception {
+        AtomicInteger failures = new AtomicInteger(3);
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger savedTasks = new AtomicInteger(-1);
+        CountDownLatch saved = new CountDownLatch(1);
+        TaskRepository delegate = new TaskRepository() {
+            @Override
+            public boolean loadTasks() {
+                return true;
+            }
+
+            @Override
+            public boolean saveTasks() {
+                attempts.incrementAndGet();
+                if (failures.getAndDecrement() > 0) {
+                    return false;
+                }
+                savedTasks.set(getTasksList().size());
+                saved.countDown();
+                return true;
+            }
+        };
+        try (AsyncTaskRepository repository = new AsyncTaskRepository(delegate, 0)) {
+            assertTrue(repository.loadTasks());
+            // Изменение само планирует сохранение; повторы идут без новых изменений и вызовов saveTasks().
+            assertTrue(repository.addTask(new Task(repository.nextTaskId(), "Задача", null, 0, null)));
+            assertTrue(saved.await(10, TimeUnit.SECONDS));
+            assertEquals(4, attempts.get());
+            assertEquals(1, savedTasks.get());
+            assertTrue(repository.saveTasks());
+        }
+    }
+
+    @Test
+    void explicitSaveDoesNotWaitForRetryDelay() {
+        AtomicInteger failures = new AtomicInteger(1);
+        TaskRepository delegate = new TaskRepository() {
+            @Override
+            public boolean loadTasks() {
+                return true;
+            }
+
+            @Override
+            public boolean saveTasks() {
+                return failures.getAndDecrement() <= 0;
+            }
+        };
+        try (AsyncTaskRepository repository = new AsyncTaskRepository(delegate, 0)) {
+            assertTrue(repository.loadTasks());
+            // Без изменений сохранение выполняется только по вызову, поэтому первая попытка известна.
+            assertFalse(repository.saveTasksAsync().join());
+            assertTrue(repository.saveTasks());
+        }
+    }
+}
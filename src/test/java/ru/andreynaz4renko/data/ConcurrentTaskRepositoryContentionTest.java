@@ -0,0 +1,121 @@
+package ru.andreynaz4renko.data;
+
+import org.junit.jupiter.api.Test;
+import ru.andreynaz4renko.domain.Task;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Полнотекстовый индекс ConcurrentTaskRepository: изменения и поиск не ждут чтения описания другой задачи,
+ * а описания не читаются до первого поиска.
+ */
+class ConcurrentTaskRepositoryContentionTest {
+
+    private static final int TASKS = 256;
+
+    /**
+     * Количество чтений описаний задач, загруженных делегатом.
+     */
+    private final AtomicInteger descriptionReads = new AtomicInteger();
+
+    @Test
+    void textIndexIsBuiltOnFirstSearch() {
+        ConcurrentTaskRepository repository = loaded();
+        assertEquals(0, descriptionReads.get());
+
+        assertTrue(repository.completeTask(1));
+        assertTrue(repository.editTask(2, null, null, "7", "2024-02-01"));
+        assertTrue(repository.removeTask(3));
+        assertEquals(0, descriptionReads.get());
+
+        assertEquals(TASKS - 1, repository.searchTasks("описание").size());
+        assertTrue(descriptionReads.get() > 0);
+    }
+
+    @Test
+    void changesDoNotWaitForIndexingOfAnotherTask() throws Exception {
+        ConcurrentTaskRepository repository = loaded();
+        assertEquals(TASKS, repository.searchTasks("описание").size());
+
+        // Описание добавляемой задачи читается, пока тест не разрешит, как медленное чтение из файла.
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Task slow = new Task(repository.nextTaskId(), "Медленная", null, 0, null);
+        slow.setDescriptionLoader(() -> {
+            reading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "Медленное описание";
+        });
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            try {
+                Future<Boolean> add = executor.submit(() -> repository.addTask(slow));
+                assertTrue(reading.await(10, TimeUnit.SECONDS));
+
+                Future<?> others = executor.submit(() -> {
+                    // Задачи из всех полос индекса, в том числе из полосы медленной задачи.
+                    for (int id = 1; id <= TASKS; id++) {
+                        assertTrue(repository.editTask(id, "Изменена " + id, null, null, null));
+                    }
+                    assertTrue(repository.removeTask(TASKS));
+                    assertTrue(repository.addTask(new Task(repository.nextTaskId(), "Новая", "Быстрая", 0, null)));
+                    assertEquals(TASKS - 1, repository.searchTasks("изменена").size());
+                    assertEquals(1, repository.searchTasks("быстрая").size());
+                    return null;
+                });
+                others.get(10, TimeUnit.SECONDS);
+                assertEquals(List.of(), repository.searchTasks("медленное"));
+
+                release.countDown();
+                assertTrue(add.get(10, TimeUnit.SECONDS));
+            } finally {
+                release.countDown();
+            }
+        }
+        assertEquals(List.of(slow.getId()),
+                repository.searchTasks("медленное").stream().map(Task::getId).toList());
+        assertEquals(0, repository.searchTasks("задача").size());
+    }
+
+    /**
+     * Возвращает репозиторий, загруженный из делегата, задачи которого читают описания через источник.
+     */
+    private ConcurrentTaskRepository loaded() {
+        ConcurrentTaskRepository repository = new ConcurrentTaskRepository(new TaskRepository() {
+            @Override
+            public boolean loadTasks() {
+                tasks = newTaskList();
+                for (int id = 1; id <= TASKS; id++) {
+                    Task task = new Task(id, "Задача " + id, null, 0, null);
+                    int number = id;
+                    task.setDescriptionLoader(() -> {
+                        descriptionReads.incrementAndGet();
+                        return "Описание " + number;
+                    });
+                    tasks.addTask(task);
+                }
+                return true;
+            }
+
+            @Override
+            public boolean saveTasks() {
+                return true;
+            }
+        });
+        assertTrue(repository.loadTasks());
+        return repository;
+    }
+}
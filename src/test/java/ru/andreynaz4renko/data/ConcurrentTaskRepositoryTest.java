@@ -0,0 +1,213 @@
+package ru.andreynaz4renko.data;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
+import ru.andreynaz4renko.domain.TaskStatus;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Одновременные выделение идентификаторов, добавление, редактирование, выполнение и удаление задач
+ * в ConcurrentTaskRepository из нескольких потоков.
+ */
+class ConcurrentTaskRepositoryTest {
+
+    private static final int THREADS = 8;
+    private static final int TASKS_PER_THREAD = 5_000;
+
+    /**
+     * Задачи, которые все потоки одновременно изменяют, каждый - свое поле.
+     */
+    private static final int SHARED_TASKS = 64;
+
+    private static final LocalDate DEADLINE = LocalDate.of(2024, 1, 10);
+
+    private ConcurrentTaskRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ConcurrentTaskRepository(new TaskRepository() {
+            @Override
+            public boolean loadTasks() {
+                return true;
+            }
+
+            @Override
+            public boolean saveTasks() {
+                return true;
+            }
+        });
+        assertTrue(repository.loadTasks());
+    }
+
+    @Test
+    void concurrentChangesAreNotLost() throws Exception {
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        int[] shared = new int[SHARED_TASKS];
+        for (int i = 0; i < shared.length; i++) {
+            shared[i] = repository.nextTaskId();
+            assertTrue(ids.add(shared[i]));
+            assertTrue(repository.addTask(new Task(shared[i], "Общая " + i, "Описание", 0, null)));
+        }
+        // Индекс строится при первом поиске, поэтому дальше потоки изменяют уже построенный индекс.
+        assertEquals(SHARED_TASKS, repository.searchTasks("общая").size());
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Map<Integer, Task>>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int thread = 0; thread < THREADS; thread++) {
+                int number = thread;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return runThread(number, shared, ids);
+                }));
+            }
+            start.countDown();
+        }
+
+        Map<Integer, Task> expected = new HashMap<>();
+        for (Future<Map<Integer, Task>> result : results) {
+            expected.putAll(result.get());
+        }
+        int allocated = SHARED_TASKS + THREADS * TASKS_PER_THREAD;
+        assertEquals(allocated, ids.size(), "Идентификаторы повторяются");
+
+        for (Map.Entry<Integer, Task> entry : expected.entrySet()) {
+            Task actual = repository.getTask(entry.getKey());
+            if (entry.getValue() == null) {
+                assertNull(actual, "Удаленная задача " + entry.getKey());
+            } else {
+                assertNotNull(actual, "Потеряна задача " + entry.getKey());
+                assertSameFields(entry.getValue(), actual);
+            }
+        }
+        for (int s = 0; s < shared.length; s++) {
+            int last = lastIteration(s);
+            Task task = repository.getTask(shared[s]);
+            assertEquals("Заголовок " + last, task.getCaption());
+            assertEquals("Описание " + last, task.getDescription());
+            assertEquals(last % 10 + 1, task.getPriority());
+            assertEquals(DEADLINE.plusDays(last), task.getDeadline());
+            assertEquals(TaskStatus.DONE, task.getStatus());
+        }
+
+        long edited = expected.values().stream()
+                .filter(task -> task != null && task.getCaption().startsWith("Изменена"))
+                .count();
+        assertEquals(edited, repository.searchTasks("изменена").size());
+        assertEquals(1, repository.searchTasks("заголовок " + lastIteration(0)).size());
+        assertEquals(SHARED_TASKS, repository.searchTasks("заголовок").size());
+        assertEquals(0, repository.searchTasks("общая").size());
+        assertEquals(0, repository.searchTasks("задача").size() - expected.values().stream()
+                .filter(task -> task != null && task.getCaption().startsWith("Задача"))
+                .count());
+
+        TaskList snapshot = repository.getTasksList();
+        long removed = expected.values().stream().filter(task -> task == null).count();
+        assertEquals(allocated, snapshot.getLastTaskId());
+        assertEquals(allocated - removed, snapshot.getTasks().size());
+        assertEquals(allocated + 1, repository.nextTaskId());
+    }
+
+    @Test
+    void searchFollowsChanges() {
+        assertTrue(repository.addTask(new Task(repository.nextTaskId(), "Отчёт за март", "Квартал", 2, null)));
+        assertTrue(repository.addTask(new Task(repository.nextTaskId(), "Отчет за апрель", null, 5, null)));
+        assertEquals(List.of(2, 1), ids(repository.searchTasks("отчет")));
+
+        assertTrue(repository.editTask(1, "Счет за март", null, null, null));
+        assertEquals(List.of(2), ids(repository.searchTasks("отчет")));
+        assertEquals(List.of(1), ids(repository.searchTasks("счет квартал")));
+
+        assertTrue(repository.completeTask(1));
+        assertEquals(List.of(1), ids(repository.searchTasks("март")));
+
+        assertTrue(repository.removeTask(2));
+        assertEquals(List.of(), ids(repository.searchTasks("отчет")));
+        assertEquals(List.of(1), ids(repository.searchTasks("за")));
+    }
+
+    /**
+     * Создает и изменяет собственные задачи потока и по ходу работы меняет одно поле общих задач.
+     * На итерации i изменяется общая задача i % SHARED_TASKS значением, зависящим от i, поэтому
+     * изменение, затертое другим потоком, не восстанавливается последующими итерациями.
+     *
+     * @return Ожидаемое состояние собственных задач потока, null для удаленных задач.
+     */
+    private Map<Integer, Task> runThread(int number, int[] shared, Set<Integer> ids) {
+        Map<Integer, Task> expected = new HashMap<>();
+        for (int i = 0; i < TASKS_PER_THREAD; i++) {
+            int id = repository.nextTaskId();
+            assertTrue(ids.add(id), () -> "Идентификатор " + id + " выдан повторно");
+            Task task = new Task(id, "Задача " + number + "-" + i, "Описание", 0, null);
+            assertTrue(repository.addTask(task));
+            switch (i % 4) {
+                case 1 -> {
+                    assertTrue(repository.editTask(id, "Изменена " + i, "", "3", DEADLINE.toString()));
+                    task.setCaption("Изменена " + i);
+                    task.setPriority(3);
+                    task.setDeadline(DEADLINE);
+                }
+                case 2 -> {
+                    assertTrue(repository.completeTask(id));
+                    task.setStatus(TaskStatus.DONE);
+                }
+                case 3 -> {
+                    assertTrue(repository.removeTask(id));
+                    task = null;
+                }
+                default -> {
+                }
+            }
+            expected.put(id, task);
+
+            int s = i % shared.length;
+            switch ((s + number) % THREADS) {
+                case 0 -> assertTrue(repository.editTask(shared[s], "Заголовок " + i, null, null, null));
+                case 1 -> assertTrue(repository.editTask(shared[s], null, "Описание " + i, null, null));
+                case 2 -> assertTrue(repository.editTask(shared[s], null, null, String.valueOf(i % 10 + 1), null));
+                case 3 -> assertTrue(repository.editTask(shared[s], null, null, null,
+                        DEADLINE.plusDays(i).toString()));
+                case 4 -> assertTrue(repository.completeTask(shared[s]));
+                default -> assertNotNull(repository.getTask(shared[s]));
+            }
+        }
+        return expected;
+    }
+
+    /**
+     * Возвращает номер последней итерации, на которой изменяется общая задача s.
+     */
+    private static int lastIteration(int s) {
+        return (TASKS_PER_THREAD - 1 - s) / SHARED_TASKS * SHARED_TASKS + s;
+    }
+
+    private static List<Integer> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+
+    private static void assertSameFields(Task expected, Task actual) {
+        assertEquals(expected.getCaption(), actual.getCaption());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getPriority(), actual.getPriority());
+        assertEquals(expected.getDeadline(), actual.getDeadline());
+        assertEquals(expected.getStatus(), actual.getStatus());
+    }
+}
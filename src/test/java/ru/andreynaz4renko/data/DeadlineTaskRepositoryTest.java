@@ -0,0 +1,104 @@
+package ru.andreynaz4renko.data;
+
+import org.junit.jupiter.api.Test;
+import ru.andreynaz4renko.deadline.DeadlineEvent;
+import ru.andreynaz4renko.deadline.DeadlineScheduler;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskStatus;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сроки, отслеживаемые планировщиком DeadlineTaskRepository поверх ConcurrentTaskRepository,
+ * при одновременном изменении одних и тех же задач.
+ */
+class DeadlineTaskRepositoryTest {
+
+    private static final int TASKS = 10_000;
+
+    private static final LocalDate DEADLINE = LocalDate.of(2024, 1, 10);
+
+    @Test
+    void concurrentChangesLeaveCurrentDeadlines() throws Exception {
+        // События срабатывают только при вызове advance(), поэтому часы можно сразу поставить после всех сроков.
+        DeadlineScheduler scheduler = new DeadlineScheduler(
+                Clock.fixed(DEADLINE.plusYears(1).atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC), 0);
+        ConcurrentTaskRepository concurrent = new ConcurrentTaskRepository(new TaskRepository() {
+            @Override
+            public boolean loadTasks() {
+                return true;
+            }
+
+            @Override
+            public boolean saveTasks() {
+                return true;
+            }
+        });
+        DeadlineTaskRepository repository = new DeadlineTaskRepository(concurrent, scheduler);
+        assertTrue(repository.loadTasks());
+        for (int i = 0; i < TASKS; i++) {
+            assertTrue(repository.addTask(new Task(repository.nextTaskId(), "Задача " + i, null, 0, DEADLINE)));
+        }
+
+        // Потоки переходят к следующей задаче вместе, поэтому изменения каждой задачи выполняются одновременно.
+        CyclicBarrier barrier = new CyclicBarrier(3);
+        try (ExecutorService executor = Executors.newFixedThreadPool(3)) {
+            List<Future<?>> results = List.of(
+                    executor.submit(() -> {
+                        for (int id = 1; id <= TASKS; id++) {
+                            barrier.await();
+                            assertTrue(repository.editTask(id, null, null, null,
+                                    DEADLINE.plusDays(id % 5 + 1).toString()) || id % 7 == 0);
+                        }
+                        return null;
+                    }),
+                    executor.submit(() -> {
+                        for (int id = 1; id <= TASKS; id++) {
+                            barrier.await();
+                            if (id % 3 == 0) {
+                                repository.completeTask(id);
+                            }
+                        }
+                        return null;
+                    }),
+                    executor.submit(() -> {
+                        for (int id = 1; id <= TASKS; id++) {
+                            barrier.await();
+                            if (id % 7 == 0) {
+                                assertTrue(repository.removeTask(id));
+                            }
+                        }
+                        return null;
+                    }));
+            for (Future<?> result : results) {
+                result.get();
+            }
+        }
+
+        Map<Integer, LocalDate> expected = new HashMap<>();
+        for (Task task : concurrent.findTasks(task -> task.getStatus() != TaskStatus.DONE, (a, b) -> 0)) {
+            expected.put(task.getId(), task.getDeadline());
+        }
+        Map<Integer, LocalDate> overdue = new HashMap<>();
+        scheduler.addListener((event, taskId, deadline) -> {
+            if (event == DeadlineEvent.OVERDUE) {
+                overdue.put(taskId, deadline);
+            }
+        });
+        assertEquals(expected.size(), scheduler.size());
+        scheduler.advance();
+        assertEquals(expected, overdue);
+    }
+}
@@ -0,0 +1,156 @@
+package ru.andreynaz4renko.data;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.andreynaz4renko.data.json.JsonTaskRepository;
+import ru.andreynaz4renko.domain.Task;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ленивая загрузка шардов ShardedTaskRepository, запись только измененных шардов и файл счетчика идентификаторов.
+ * Загрузки и сохранения каждого шарда считаются репозиториями шардов, которые создает фабрика.
+ */
+class ShardedTaskRepositoryTest {
+
+    private static final int SHARDS = 4;
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private Path counter;
+
+    private final int[] loads = new int[SHARDS];
+    private final int[] saves = new int[SHARDS];
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = directory.resolve("tasks.json");
+        counter = directory.resolve("tasks.json.lastid");
+        ShardedTaskRepository repository = create();
+        for (int id = 1; id <= 12; id++) {
+            assertTrue(repository.addTask(new Task(id, "Задача " + id, "Описание " + id, id % 11, null)));
+        }
+        assertTrue(repository.saveTasks());
+        assertArrayEquals(new int[]{1, 1, 1, 1}, saves);
+        assertEquals("12", Files.readString(counter, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void shardsAreLoadedOnFirstAccess() {
+        ShardedTaskRepository repository = open();
+        assertArrayEquals(new int[]{0, 0, 0, 0}, loads);
+
+        assertEquals("Задача 6", repository.getTask(6).getCaption());
+        assertTrue(repository.isTaskExists(10));
+        assertArrayEquals(new int[]{0, 0, 1, 0}, loads);
+
+        // Счетчик читается из файла, поэтому новый идентификатор выдается без загрузки шардов.
+        assertEquals(13, repository.nextTaskId());
+        assertTrue(repository.addTask(new Task(13, "Задача 13", null, 0, null)));
+        assertArrayEquals(new int[]{0, 1, 1, 0}, loads);
+
+        // Запросы ко всему списку догружают недостающие шарды, каждый - один раз.
+        assertEquals(List.of(1, 2, 3), repository.getTasksPage(0, 3).stream().map(Task::getId).toList());
+        assertEquals(13, repository.getTasksList().size());
+        assertArrayEquals(new int[]{1, 1, 1, 1}, loads);
+    }
+
+    @Test
+    void onlyChangedShardsAreSaved() throws Exception {
+        byte[][] before = shardBytes();
+        ShardedTaskRepository repository = open();
+        assertTrue(repository.editTask(5, "Изменена", null, null, null));
+        assertTrue(repository.completeTask(9));
+        assertFalse(repository.removeTask(100));
+        assertTrue(repository.saveTasks());
+        assertArrayEquals(new int[]{0, 1, 0, 0}, saves);
+
+        byte[][] after = shardBytes();
+        assertFalse(Arrays.equals(before[1], after[1]));
+        for (int shard : new int[]{0, 2, 3}) {
+            assertArrayEquals(before[shard], after[shard], "шард " + shard);
+        }
+
+        // Без изменений не записываются ни шарды, ни счетчик.
+        long written = repository.getBytesWritten();
+        assertTrue(repository.saveTasks());
+        assertArrayEquals(new int[]{0, 1, 0, 0}, saves);
+        assertEquals(written, repository.getBytesWritten());
+
+        assertEquals("Изменена", open().getTask(5).getCaption());
+    }
+
+    @Test
+    void lastTaskIdIsKeptInCounterFile() throws Exception {
+        ShardedTaskRepository repository = open();
+        assertTrue(repository.removeTask(12));
+        assertTrue(repository.addTask(new Task(14, "Задача 14", null, 0, null)));
+        assertTrue(repository.removeTask(14));
+        assertTrue(repository.saveTasks());
+        assertEquals("14", Files.readString(counter, StandardCharsets.US_ASCII));
+
+        repository = open();
+        assertEquals(15, repository.nextTaskId());
+        assertArrayEquals(new int[]{0, 0, 0, 0}, loads);
+        assertEquals(11, repository.getMaxTaskId());
+
+        // Без файла счетчика он восстанавливается по шардам и записывается при следующем сохранении.
+        Files.delete(counter);
+        repository = open();
+        assertEquals(15, repository.nextTaskId());
+        assertArrayEquals(new int[]{1, 1, 1, 1}, loads);
+        assertTrue(repository.saveTasks());
+        assertEquals("14", Files.readString(counter, StandardCharsets.US_ASCII));
+        assertArrayEquals(new int[]{0, 0, 0, 0}, saves);
+    }
+
+    private ShardedTaskRepository create() {
+        return new ShardedTaskRepository(file.toString(), SHARDS, path -> {
+            int shard = Integer.parseInt(path.substring(path.length() - "0.json".length(), path.length() - 5));
+            return new JsonTaskRepository(path) {
+                @Override
+                public boolean loadTasks() {
+                    loads[shard]++;
+                    return super.loadTasks();
+                }
+
+                @Override
+                public boolean saveTasks() {
+                    saves[shard]++;
+                    return super.saveTasks();
+                }
+            };
+        });
+    }
+
+    private ShardedTaskRepository open() {
+        ShardedTaskRepository repository = create();
+        assertTrue(repository.loadTasks());
+        Arrays.fill(loads, 0);
+        Arrays.fill(saves, 0);
+        return repository;
+    }
+
+    private byte[][] shardBytes() {
+        return IntStream.range(0, SHARDS).mapToObj(shard -> {
+            try {
+                return Files.readAllBytes(directory.resolve("tasks." + shard + ".json"));
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        }).toArray(byte[][]::new);
+    }
+}
@@ -0,0 +1,100 @@
+package ru.andreynaz4renko.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.andreynaz4renko.data.journal.JournalTaskRepository;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskStatus;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Применение пакета изменений, одна из операций которого не выполняется из-за неверного значения.
+ */
+class TaskBatchTest {
+
+    private static final LocalDate DEADLINE = LocalDate.of(2024, 1, 10);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void failedEditLeavesTaskUnchanged() {
+        TaskRepository repository = new TaskRepository() {
+            @Override
+            public boolean loadTasks() {
+                return true;
+            }
+
+            @Override
+            public boolean saveTasks() {
+                return true;
+            }
+        };
+        fill(repository);
+
+        TaskBatchResult result = repository.applyBatch(batch());
+
+        assertApplied(result);
+        assertUnchanged(repository.getTask(1));
+        assertEquals("Новый заголовок", repository.getTask(2).getCaption());
+        assertEquals(TaskStatus.DONE, repository.getTask(3).getStatus());
+    }
+
+    @Test
+    void journalMatchesMemoryAfterFailedEdit() {
+        String snapshot = directory.resolve("tasks.xml").toString();
+        String journal = directory.resolve("tasks.journal").toString();
+        JournalTaskRepository repository = new JournalTaskRepository(snapshot, journal);
+        assertTrue(repository.loadTasks());
+        fill(repository);
+        assertTrue(repository.saveTasks());
+
+        TaskBatchResult result = repository.applyBatch(batch());
+
+        assertApplied(result);
+        assertUnchanged(repository.getTask(1));
+        JournalTaskRepository reloaded = new JournalTaskRepository(snapshot, journal);
+        assertTrue(reloaded.loadTasks());
+        for (int id = 1; id <= 3; id++) {
+            assertEquals(repository.getTask(id).toString(), reloaded.getTask(id).toString());
+        }
+    }
+
+    private static void fill(TaskRepository repository) {
+        for (int id = 1; id <= 3; id++) {
+            assertTrue(repository.addTask(new Task(id, "Задача " + id, "Описание", 5, DEADLINE)));
+        }
+    }
+
+    /**
+     * Пакет, вторая операция которого задает неверную дату после допустимых заголовка, описания и приоритета.
+     */
+    private static TaskBatch batch() {
+        return new TaskBatch()
+                .edit(2, "Новый заголовок", null, null, null)
+                .edit(1, "CHANGED", "CHANGED", "7", "not-a-date")
+                .edit(1, null, null, "11", null)
+                .complete(3);
+    }
+
+    private static void assertApplied(TaskBatchResult result) {
+        assertEquals(List.of(true, false, false, true),
+                List.of(result.isApplied(0), result.isApplied(1), result.isApplied(2), result.isApplied(3)));
+        assertTrue(result.isSaved());
+    }
+
+    private static void assertUnchanged(Task task) {
+        assertEquals("Задача 1", task.getCaption());
+        assertEquals("Описание", task.getDescription());
+        assertEquals(5, task.getPriority());
+        assertEquals(DEADLINE, task.getDeadline());
+        assertFalse(task.getStatus() == TaskStatus.DONE);
+    }
+}
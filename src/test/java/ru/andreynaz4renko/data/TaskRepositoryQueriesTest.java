@@ -0,0 +1,128 @@
+package ru.andreynaz4renko.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.andreynaz4renko.data.binary.BinaryTaskRepository;
+import ru.andreynaz4renko.data.journal.DiskTaskRepository;
+import ru.andreynaz4renko.data.json.JsonTaskRepository;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
+import ru.andreynaz4renko.domain.TaskStatus;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Постраничная выдача и выборки первых k задач репозиториев, хранящих задачи вне TaskList,
+ * в сравнении с теми же запросами к TaskList.
+ */
+class TaskRepositoryQueriesTest {
+
+    private static final int TASKS = 500;
+
+    private static final Comparator<Task> BY_PRIORITY = Comparator.comparingInt(Task::getPriority).reversed()
+            .thenComparingInt(Task::getId);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void repositoriesAnswerLikeTaskList() throws Exception {
+        List<Task> tasks = generate();
+        TaskList expected = new TaskList();
+        tasks.forEach(task -> expected.addTask(new Task(task)));
+
+        ConcurrentTaskRepository concurrent = new ConcurrentTaskRepository(new TaskRepository() {
+            @Override
+            public boolean loadTasks() {
+                return true;
+            }
+
+            @Override
+            public boolean saveTasks() {
+                return true;
+            }
+        });
+        ShardedTaskRepository sharded = new ShardedTaskRepository(directory.resolve("sharded.json").toString(), 3,
+                JsonTaskRepository::new);
+        try (DiskTaskRepository disk = new DiskTaskRepository(directory.resolve("tasks.log").toString(), 16)) {
+            for (TaskRepository repository : List.of(concurrent, sharded, disk)) {
+                String name = repository.getClass().getSimpleName();
+                assertTrue(repository.loadTasks(), name);
+                tasks.forEach(task -> repository.addTask(new Task(task)));
+
+                assertEquals(ids(expected.getTasksPage(0, 10)), ids(repository.getTasksPage(0, 10)), name);
+                assertEquals(ids(expected.getTasksPage(250, 25)), ids(repository.getTasksPage(250, 25)), name);
+                assertEquals(ids(expected.getTasksPage(TASKS - 5, 50)), ids(repository.getTasksPage(TASKS - 5, 50)),
+                        name);
+                assertEquals(ids(expected.getTopTasksByPriority(null, 15)),
+                        ids(repository.getTopTasksByPriority(null, 15)), name);
+                assertEquals(ids(expected.getTopTasksByPriority(TaskStatus.NEW, 15)),
+                        ids(repository.getTopTasksByPriority(TaskStatus.NEW, 15)), name);
+                assertEquals(ids(expected.getNextDeadlines(20)), ids(repository.getNextDeadlines(20)), name);
+                assertEquals(0, repository.getNextDeadlines(0).size(), name);
+            }
+        }
+    }
+
+    @Test
+    void binaryRepositoryAnswersFromSnapshot() {
+        List<Task> tasks = generate();
+        TaskList expected = new TaskList();
+        tasks.forEach(task -> expected.addTask(new Task(task)));
+        String file = directory.resolve("tasks.bin").toString();
+        BinaryTaskRepository source = new BinaryTaskRepository(file);
+        tasks.forEach(task -> source.addTask(new Task(task)));
+        assertTrue(source.saveTasks());
+
+        for (int cacheSize : new int[]{0, 16}) {
+            BinaryTaskRepository repository = new BinaryTaskRepository(file);
+            repository.setLazyDescriptions(cacheSize);
+            assertTrue(repository.loadTasks());
+
+            assertEquals(ids(expected.getTasksPage(100, 10)), ids(repository.getTasksPage(100, 10)));
+            assertEquals(ids(expected.getTopTasksByPriority(TaskStatus.NEW, 15)),
+                    ids(repository.getTopTasksByPriority(TaskStatus.NEW, 15)));
+            assertEquals(ids(expected.getNextDeadlines(20)), ids(repository.getNextDeadlines(20)));
+            assertEquals(ids(expected.getTasksByMinPriority(9)),
+                    ids(repository.findTasks(task -> task.getPriority() >= 9, BY_PRIORITY)));
+            assertEquals("Описание 7", repository.getTasksPage(6, 1).get(0).getDescription());
+
+            int first = expected.getNextDeadlines(1).get(0).getId();
+            assertTrue(repository.completeTask(first));
+            assertEquals(ids(expected.getNextDeadlines(21).subList(1, 21)), ids(repository.getNextDeadlines(20)));
+            assertEquals(expected.size(), repository.getTasksList().size());
+        }
+    }
+
+    /**
+     * Создает задачи со случайными приоритетами, статусами и сроками; каждый пятый идентификатор пропущен.
+     */
+    private static List<Task> generate() {
+        Random random = new Random(42);
+        TaskStatus[] statuses = TaskStatus.values();
+        LocalDate today = LocalDate.of(2024, 1, 1);
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id <= TASKS; id++) {
+            if (id % 5 == 0) {
+                continue;
+            }
+            TaskStatus status = statuses[random.nextInt(statuses.length)];
+            LocalDate deadline = random.nextInt(4) == 0 ? null : today.plusDays(random.nextInt(60) - 10);
+            tasks.add(new Task(id, "Задача " + id, "Описание " + id, random.nextInt(11), deadline,
+                    status == TaskStatus.DONE ? today : null, status));
+        }
+        return tasks;
+    }
+
+    private static List<Integer> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+}
@@ -0,0 +1,257 @@
+package ru.andreynaz4renko.data.binary;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
+import ru.andreynaz4renko.domain.TaskStatus;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Бинарный снимок и BinaryTaskRepository: запись и чтение снимка, последний выданный идентификатор в заголовке,
+ * запросы к отображенному файлу до и после создания задач из снимка в сравнении с теми же запросами к TaskList.
+ */
+class BinaryTaskRepositoryTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 1, 1);
+
+    private static final Comparator<Task> BY_ID = Comparator.comparingInt(Task::getId);
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() {
+        file = directory.resolve("tasks.bin");
+    }
+
+    @Test
+    void snapshotKeepsEveryField() throws Exception {
+        List<Task> tasks = generate();
+        BinaryTaskSnapshotWriter.write(tasks, 250, file);
+
+        BinaryTaskSnapshot snapshot = BinaryTaskSnapshot.open(file);
+        assertEquals(Files.size(file), snapshot.getByteSize());
+        assertEquals(tasks.size(), snapshot.size());
+        assertEquals(250, snapshot.getLastTaskId());
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            assertEquals(task.toString(), snapshot.getTask(i).toString());
+            assertNull(snapshot.getTask(i, false).getDescription());
+            assertEquals(task.getDescription() != null, snapshot.hasDescription(i));
+            assertEquals(task.getDeadline() != null, snapshot.hasDeadline(i));
+            if (task.getDeadline() != null) {
+                assertEquals(task.getDeadline().toEpochDay(), snapshot.getDeadlineEpochDay(i));
+            }
+        }
+    }
+
+    @Test
+    void versionOneSnapshotIsReadWithoutLastTaskId() throws Exception {
+        List<Task> tasks = generate();
+        BinaryTaskSnapshotWriter.write(tasks, 250, file);
+
+        // Снимок версии 1: заголовок без lastId, смещение строк на 4 байта меньше.
+        byte[] current = Files.readAllBytes(file);
+        ByteBuffer old = ByteBuffer.allocate(current.length - 4);
+        old.put(current, 0, BinaryTaskFormat.HEADER_SIZE_WITHOUT_LAST_ID);
+        old.put(current, BinaryTaskFormat.HEADER_SIZE, current.length - BinaryTaskFormat.HEADER_SIZE);
+        old.putInt(BinaryTaskFormat.VERSION_OFFSET, BinaryTaskFormat.VERSION_WITHOUT_LAST_ID);
+        old.putInt(BinaryTaskFormat.STRINGS_OFFSET, old.getInt(BinaryTaskFormat.STRINGS_OFFSET) - 4);
+        Files.write(file, old.array());
+
+        BinaryTaskSnapshot snapshot = BinaryTaskSnapshot.open(file);
+        assertEquals(0, snapshot.getLastTaskId());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).toString(), snapshot.getTask(i).toString());
+        }
+
+        BinaryTaskRepository repository = new BinaryTaskRepository(file.toString());
+        assertTrue(repository.loadTasks());
+        assertEquals(maxId(tasks) + 1, repository.nextTaskId());
+    }
+
+    @Test
+    void lastTaskIdSurvivesRemovalOfNewestTask() {
+        BinaryTaskRepository repository = new BinaryTaskRepository(file.toString());
+        for (int id = 1; id <= 3; id++) {
+            assertTrue(repository.addTask(new Task(id, "Задача " + id, null, 0, null)));
+        }
+        assertTrue(repository.removeTask(3));
+        assertTrue(repository.saveTasks());
+
+        BinaryTaskRepository reloaded = new BinaryTaskRepository(file.toString());
+        assertTrue(reloaded.loadTasks());
+        assertEquals(3, reloaded.getSnapshot().getLastTaskId());
+        assertEquals(2, reloaded.getMaxTaskId());
+        assertEquals(4, reloaded.nextTaskId());
+    }
+
+    @Test
+    void queriesAnswerLikeTaskList() throws Exception {
+        List<Task> tasks = generate();
+        TaskList expected = new TaskList();
+        tasks.forEach(task -> expected.addTask(new Task(task)));
+        expected.setLastTaskId(250);
+        BinaryTaskSnapshotWriter.write(tasks, 250, file);
+
+        List<Function<BinaryTaskRepository, Object>> deferred = List.of(
+                repository -> describe(repository.getTasksPage(0, 10)),
+                repository -> describe(repository.getTasksPage(100, 25)),
+                repository -> describe(repository.getTasksPage(200, 50)),
+                repository -> describe(repository.getTopTasksByPriority(null, 15)),
+                repository -> describe(repository.getTopTasksByPriority(TaskStatus.NEW, 15)),
+                repository -> describe(repository.getTopTasksByPriority(TaskStatus.DONE, 0)),
+                repository -> describe(repository.getNextDeadlines(20)),
+                repository -> describe(repository.findTasks(task -> task.getPriority() >= 8, BY_ID)));
+        List<Object> expectedDeferred = List.of(
+                describe(expected.getTasksPage(0, 10)),
+                describe(expected.getTasksPage(100, 25)),
+                describe(expected.getTasksPage(200, 50)),
+                describe(expected.getTopTasksByPriority(null, 15)),
+                describe(expected.getTopTasksByPriority(TaskStatus.NEW, 15)),
+                describe(expected.getTopTasksByPriority(TaskStatus.DONE, 0)),
+                describe(expected.getNextDeadlines(20)),
+                describe(expected.getTasks().stream().filter(task -> task.getPriority() >= 8).sorted(BY_ID).toList()));
+
+        List<Function<BinaryTaskRepository, Object>> materialized = List.of(
+                repository -> describe(List.of(repository.getTask(42))),
+                repository -> repository.getTask(45) == null,
+                repository -> repository.isTaskExists(42) && !repository.isTaskExists(45),
+                BinaryTaskRepository::getMaxTaskId,
+                BinaryTaskRepository::nextTaskId,
+                repository -> describe(sorted(repository.searchTasks("описание 17"))),
+                repository -> describe(repository.getTasksList().getTasks()));
+        List<Object> expectedMaterialized = List.of(
+                describe(List.of(expected.getTask(42))),
+                true,
+                true,
+                maxId(tasks),
+                251,
+                describe(sorted(expected.searchTasks("описание 17"))),
+                describe(expected.getTasks()));
+
+        for (int cacheSize : new int[]{0, 16}) {
+            // Каждый запрос выполняется на только что загруженном снимке; фабрика списков считает,
+            // сколько раз репозиторий создал список задач: один раз при загрузке и один - из снимка.
+            for (int i = 0; i < deferred.size(); i++) {
+                AtomicInteger lists = new AtomicInteger();
+                BinaryTaskRepository repository = open(cacheSize, lists);
+                assertEquals(expectedDeferred.get(i), deferred.get(i).apply(repository), "запрос " + i);
+                assertEquals(1, lists.get(), "запрос " + i + " создал задачи из снимка");
+                assertEquals(expectedDeferred.get(i), deferred.get(i).apply(repository), "запрос " + i);
+            }
+            for (int i = 0; i < materialized.size(); i++) {
+                AtomicInteger lists = new AtomicInteger();
+                BinaryTaskRepository repository = open(cacheSize, lists);
+                assertEquals(expectedMaterialized.get(i), materialized.get(i).apply(repository), "запрос " + i);
+                assertEquals(2, lists.get(), "запрос " + i);
+                // После создания задач запросы к снимку отвечают по списку задач.
+                for (int j = 0; j < deferred.size(); j++) {
+                    assertEquals(expectedDeferred.get(j), deferred.get(j).apply(repository), "запрос " + j);
+                }
+            }
+        }
+    }
+
+    @Test
+    void changesAfterLoadAreSaved() throws Exception {
+        List<Task> tasks = generate();
+        TaskList expected = new TaskList();
+        tasks.forEach(task -> expected.addTask(new Task(task)));
+        BinaryTaskSnapshotWriter.write(tasks, 250, file);
+
+        // Описания читаются лениво из отображения, которое сохранение заменяет новым файлом.
+        BinaryTaskRepository repository = open(16, new AtomicInteger());
+        // Первое же изменение создает задачи из снимка, поэтому выборки по снимку видят его.
+        assertTrue(repository.completeTask(1));
+        assertEquals(TaskStatus.DONE, repository.getTasksPage(0, 1).get(0).getStatus());
+        assertTrue(repository.editTask(2, "Изменена", "Новое описание", "10", "2024-03-01"));
+        assertTrue(repository.removeTask(3));
+        assertTrue(repository.addTask(new Task(repository.nextTaskId(), "Новая", null, 5, null)));
+        assertTrue(repository.saveTasks());
+
+        expected.completeTask(1);
+        expected.getTask(2).setCaption("Изменена");
+        expected.getTask(2).setDescription("Новое описание");
+        expected.getTask(2).setPriority(10);
+        expected.getTask(2).setDeadline(LocalDate.of(2024, 3, 1));
+        expected.removeTask(3);
+        expected.addTask(new Task(251, "Новая", null, 5, null));
+
+        BinaryTaskRepository reloaded = open(0, new AtomicInteger());
+        List<Task> actual = reloaded.getTasksList().getTasks();
+        assertEquals(expected.size(), actual.size());
+        for (Task task : actual) {
+            Task expectedTask = expected.getTask(task.getId());
+            if (task.getId() == 1) {
+                assertEquals(TaskStatus.DONE, task.getStatus());
+                assertTrue(task.getCompletion() != null);
+            } else {
+                assertEquals(expectedTask.toString(), task.toString());
+            }
+        }
+        assertFalse(reloaded.isTaskExists(3));
+        assertEquals(252, reloaded.nextTaskId());
+    }
+
+    private BinaryTaskRepository open(int cacheSize, AtomicInteger lists) {
+        BinaryTaskRepository repository = new BinaryTaskRepository(file.toString());
+        repository.setTaskListFactory(() -> {
+            lists.incrementAndGet();
+            return new TaskList();
+        });
+        lists.set(0);
+        repository.setLazyDescriptions(cacheSize);
+        assertTrue(repository.loadTasks());
+        return repository;
+    }
+
+    /**
+     * Создает задачи со всеми сочетаниями пустых и заполненных полей; каждый пятый идентификатор пропущен.
+     */
+    private static List<Task> generate() {
+        TaskStatus[] statuses = TaskStatus.values();
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id <= 240; id++) {
+            if (id % 5 == 0) {
+                continue;
+            }
+            TaskStatus status = id % 7 == 0 ? null : statuses[id % statuses.length];
+            LocalDate deadline = id % 4 == 0 ? null : TODAY.plusDays(id * 7 % 60 - 10);
+            String description = id % 6 == 0 ? null : (id % 9 == 0 ? "" : "Описание " + id + " «ё» 😀");
+            tasks.add(new Task(id, "Задача " + id, description, id * 3 % 11, deadline,
+                    status == TaskStatus.DONE ? TODAY : null, status));
+        }
+        return tasks;
+    }
+
+    private static int maxId(List<Task> tasks) {
+        return tasks.stream().mapToInt(Task::getId).max().orElse(0);
+    }
+
+    private static List<Task> sorted(List<Task> tasks) {
+        return tasks.stream().sorted(BY_ID).toList();
+    }
+
+    private static List<String> describe(List<Task> tasks) {
+        return tasks.stream().map(Task::toString).toList();
+    }
+}
@@ -0,0 +1,184 @@
+package ru.andreynaz4renko.data.journal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskStatus;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Файл и индекс DiskTaskRepository: повторное открытие файла, отбрасывание записей после последней COMMIT,
+ * повторное использование ячеек индекса, вытеснение измененных задач из кеша и счетчики кеша.
+ */
+class DiskTaskRepositoryTest {
+
+    private static final LocalDate DEADLINE = LocalDate.of(2024, 1, 10);
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() {
+        file = directory.resolve("tasks.log");
+    }
+
+    @Test
+    void reopenedFileHasSavedTasks() throws Exception {
+        try (DiskTaskRepository repository = open(2)) {
+            add(repository, 1, 2, 3, 4);
+            assertTrue(repository.editTask(1, "Изменена", "Новое описание", "9", "2024-02-01"));
+            assertTrue(repository.completeTask(2));
+            assertTrue(repository.removeTask(4));
+            assertTrue(repository.saveTasks());
+        }
+
+        try (DiskTaskRepository reloaded = open(2)) {
+            assertEquals(List.of(1, 2, 3), ids(reloaded));
+            Task edited = reloaded.getTask(1);
+            assertEquals("Изменена", edited.getCaption());
+            assertEquals("Новое описание", edited.getDescription());
+            assertEquals(9, edited.getPriority());
+            assertEquals(LocalDate.of(2024, 2, 1), edited.getDeadline());
+            assertEquals(TaskStatus.DONE, reloaded.getTask(2).getStatus());
+            assertEquals("Описание 3", reloaded.getTask(3).getDescription());
+            // Запись COMMIT хранит последний выданный идентификатор, даже если задачи с ним уже нет.
+            assertEquals(5, reloaded.nextTaskId());
+            assertEquals(3, reloaded.getMaxTaskId());
+        }
+    }
+
+    @Test
+    void recordsAfterLastCommitAreDiscarded() throws Exception {
+        long committed;
+        try (DiskTaskRepository repository = open(2)) {
+            add(repository, 1, 2);
+            assertTrue(repository.saveTasks());
+            committed = Files.size(file);
+
+            // Вытеснение из маленького кеша пишет измененные задачи в файл до сохранения.
+            assertTrue(repository.editTask(1, "Не сохранена", null, null, null));
+            add(repository, 3, 4, 5);
+            assertTrue(repository.removeTask(2));
+            assertTrue(repository.getTask(1) != null);
+            assertTrue(Files.size(file) > committed);
+        }
+
+        try (DiskTaskRepository reloaded = open(2)) {
+            assertEquals(List.of(1, 2), ids(reloaded));
+            assertEquals("Задача 1", reloaded.getTask(1).getCaption());
+            assertEquals(3, reloaded.nextTaskId());
+            assertEquals(committed, Files.size(file));
+        }
+
+        // Оборванная запись в конце файла тоже отбрасывается.
+        Files.write(file, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+        try (DiskTaskRepository reloaded = open(2)) {
+            assertEquals(List.of(1, 2), ids(reloaded));
+            assertEquals(committed, Files.size(file));
+            add(reloaded, 3);
+            assertTrue(reloaded.saveTasks());
+        }
+        try (DiskTaskRepository reloaded = open(2)) {
+            assertEquals(List.of(1, 2, 3), ids(reloaded));
+        }
+    }
+
+    @Test
+    void freedSlotsAreReused() throws Exception {
+        try (DiskTaskRepository repository = open(16)) {
+            add(repository, 1, 2, 3, 4);
+            assertTrue(repository.saveTasks());
+            assertTrue(repository.removeTask(2));
+            assertTrue(repository.removeTask(3));
+            assertFalse(repository.isTaskExists(2));
+            assertNull(repository.getTask(3));
+
+            // Новые задачи занимают освобожденные ячейки, а удаленная задача добавляется снова.
+            add(repository, 5, 3);
+            assertEquals(List.of(1, 3, 4, 5), ids(repository));
+            assertEquals("Задача 5", repository.getTask(5).getCaption());
+            assertEquals("Задача 3", repository.getTask(3).getCaption());
+            assertEquals(5, repository.getMaxTaskId());
+            assertTrue(repository.saveTasks());
+        }
+
+        try (DiskTaskRepository reloaded = open(16)) {
+            assertEquals(List.of(1, 3, 4, 5), ids(reloaded));
+            assertFalse(reloaded.isTaskExists(2));
+            for (int id : new int[]{1, 3, 4, 5}) {
+                assertEquals("Задача " + id, reloaded.getTask(id).getCaption());
+            }
+            assertEquals(List.of(1, 3), reloaded.getTasksPage(0, 2).stream().map(Task::getId).toList());
+            assertEquals(List.of(4, 5), reloaded.getTasksPage(3, 2).stream().map(Task::getId).toList());
+        }
+    }
+
+    @Test
+    void evictedChangesAreWrittenAndCounted() throws Exception {
+        try (DiskTaskRepository repository = open(2)) {
+            add(repository, 1, 2);
+            assertEquals(0, repository.getCacheEvictionCount());
+
+            add(repository, 3);
+            assertEquals(1, repository.getCacheEvictionCount());
+
+            // Задача 1 вытеснена: первое чтение идет с диска и вытесняет задачу 2, второе - из кеша.
+            long hits = repository.getCacheHitCount();
+            long misses = repository.getCacheMissCount();
+            assertEquals("Задача 1", repository.getTask(1).getCaption());
+            assertEquals(misses + 1, repository.getCacheMissCount());
+            assertEquals(hits, repository.getCacheHitCount());
+            assertEquals(2, repository.getCacheEvictionCount());
+            assertEquals("Задача 1", repository.getTask(1).getCaption());
+            assertEquals(misses + 1, repository.getCacheMissCount());
+            assertEquals(hits + 1, repository.getCacheHitCount());
+
+            // Измененная задача записывается при вытеснении и читается с диска с изменениями.
+            assertTrue(repository.editTask(1, "Изменена", null, "7", null));
+            add(repository, 4, 5);
+            assertEquals(4, repository.getCacheEvictionCount());
+            misses = repository.getCacheMissCount();
+            Task evicted = repository.getTask(1);
+            assertEquals(misses + 1, repository.getCacheMissCount());
+            assertEquals("Изменена", evicted.getCaption());
+            assertEquals(7, evicted.getPriority());
+            assertTrue(repository.saveTasks());
+        }
+
+        try (DiskTaskRepository reloaded = open(2)) {
+            assertEquals(List.of(1, 2, 3, 4, 5), ids(reloaded));
+            assertEquals("Изменена", reloaded.getTask(1).getCaption());
+            assertEquals(0, reloaded.getCacheHitCount());
+            assertEquals(1, reloaded.getCacheMissCount());
+        }
+    }
+
+    private DiskTaskRepository open(int cacheSize) {
+        DiskTaskRepository repository = new DiskTaskRepository(file.toString(), cacheSize);
+        assertTrue(repository.loadTasks());
+        return repository;
+    }
+
+    private static void add(DiskTaskRepository repository, int... ids) {
+        for (int id : ids) {
+            assertTrue(repository.addTask(new Task(id, "Задача " + id, "Описание " + id, id % 11, DEADLINE)));
+        }
+    }
+
+    private static List<Integer> ids(DiskTaskRepository repository) {
+        return repository.getTasksList().getTasks().stream().map(Task::getId).sorted().toList();
+    }
+}
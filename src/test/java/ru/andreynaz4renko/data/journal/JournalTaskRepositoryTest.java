@@ -0,0 +1,206 @@
+package ru.andreynaz4renko.data.journal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskList;
+import ru.andreynaz4renko.domain.TaskStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Восстановление JournalTaskRepository из снимка и журнала: применение журнала поверх снимка,
+ * отбрасывание оборванной или поврежденной записи, последний выданный идентификатор и запись COMMIT, уплотнение.
+ */
+class JournalTaskRepositoryTest {
+
+    private static final LocalDate DEADLINE = LocalDate.of(2024, 1, 10);
+
+    @TempDir
+    Path directory;
+
+    private Path snapshot;
+    private Path journal;
+    private Path compacting;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = directory.resolve("tasks.xml");
+        journal = directory.resolve("tasks.journal");
+        compacting = directory.resolve("tasks.journal.compacting");
+    }
+
+    @Test
+    void journalIsReplayedOverSnapshot() throws Exception {
+        JournalTaskRepository repository = open(0);
+        add(repository, 1, 2, 3);
+        assertTrue(repository.saveTasks());
+        repository.awaitCompaction();
+        assertTrue(Files.exists(snapshot));
+        assertFalse(Files.exists(journal));
+
+        repository = open(Long.MAX_VALUE);
+        assertTrue(repository.editTask(1, "Изменена", "Новое описание", "9", "2024-02-01"));
+        assertTrue(repository.completeTask(2));
+        assertTrue(repository.removeTask(3));
+        add(repository, 4);
+        assertTrue(repository.saveTasks());
+        assertTrue(Files.size(journal) > 0);
+
+        JournalTaskRepository reloaded = open(Long.MAX_VALUE);
+        assertEquals(List.of(1, 2, 4), ids(reloaded));
+        Task edited = reloaded.getTask(1);
+        assertEquals("Изменена", edited.getCaption());
+        assertEquals("Новое описание", edited.getDescription());
+        assertEquals(9, edited.getPriority());
+        assertEquals(LocalDate.of(2024, 2, 1), edited.getDeadline());
+        assertEquals(TaskStatus.DONE, reloaded.getTask(2).getStatus());
+        assertEquals(repository.getTask(2).getCompletion(), reloaded.getTask(2).getCompletion());
+    }
+
+    @Test
+    void tornTailIsDiscarded() throws Exception {
+        JournalTaskRepository repository = open(Long.MAX_VALUE);
+        add(repository, 1, 2);
+        assertTrue(repository.saveTasks());
+        long valid = Files.size(journal);
+        add(repository, 3);
+        assertTrue(repository.saveTasks());
+
+        // Сбой во время дописывания: от последнего сохранения осталась только часть байт.
+        truncate(journal, valid + (Files.size(journal) - valid) / 2);
+
+        JournalTaskRepository reloaded = open(Long.MAX_VALUE);
+        assertEquals(List.of(1, 2), ids(reloaded));
+        assertEquals(valid, Files.size(journal));
+
+        // Журнал обрезан до целых записей, поэтому следующие записи применяются при загрузке.
+        add(reloaded, 5);
+        assertTrue(reloaded.saveTasks());
+        assertEquals(List.of(1, 2, 5), ids(open(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void recordWithWrongChecksumIsDiscarded() throws Exception {
+        JournalTaskRepository repository = open(Long.MAX_VALUE);
+        add(repository, 1);
+        assertTrue(repository.saveTasks());
+        long valid = Files.size(journal);
+        add(repository, 2);
+        assertTrue(repository.saveTasks());
+
+        // Меняется последний байт данных первой записи второго сохранения, длина записи остается верной.
+        byte[] bytes = Files.readAllBytes(journal);
+        int length = ((bytes[(int) valid] & 0xFF) << 24) | ((bytes[(int) valid + 1] & 0xFF) << 16)
+                | ((bytes[(int) valid + 2] & 0xFF) << 8) | (bytes[(int) valid + 3] & 0xFF);
+        bytes[(int) valid + JournalRecord.HEADER_SIZE + length - 1] ^= 1;
+        Files.write(journal, bytes);
+
+        JournalTaskRepository reloaded = open(Long.MAX_VALUE);
+        assertEquals(List.of(1), ids(reloaded));
+        assertEquals(valid, Files.size(journal));
+    }
+
+    @Test
+    void lastTaskIdSurvivesRemovalOfNewestTask() throws Exception {
+        JournalTaskRepository repository = open(Long.MAX_VALUE);
+        add(repository, 1, 2, 3);
+        assertTrue(repository.removeTask(3));
+        assertTrue(repository.saveTasks());
+
+        JournalTaskRepository reloaded = open(Long.MAX_VALUE);
+        assertEquals(List.of(1, 2), ids(reloaded));
+        assertEquals(4, reloaded.nextTaskId());
+    }
+
+    @Test
+    void interruptedCompactionIsCompletedByNextOne() throws Exception {
+        JournalTaskRepository repository = open(Long.MAX_VALUE);
+        add(repository, 1, 2);
+        assertTrue(repository.saveTasks());
+        // Сбой после переноса журнала в уплотняемый, но до записи нового снимка.
+        Files.move(journal, compacting);
+
+        repository = open(Long.MAX_VALUE);
+        assertEquals(List.of(1, 2), ids(repository));
+        add(repository, 3);
+        assertTrue(repository.removeTask(1));
+        assertTrue(repository.saveTasks());
+        assertTrue(Files.exists(compacting));
+        assertTrue(Files.exists(journal));
+
+        repository = open(0);
+        assertTrue(repository.editTask(2, "Изменена", null, null, null));
+        assertTrue(repository.saveTasks());
+        repository.awaitCompaction();
+        assertFalse(Files.exists(compacting));
+        assertFalse(Files.exists(journal));
+
+        // Новый снимок содержит изменения обоих журналов, а новые изменения пишутся в новый журнал.
+        repository = open(Long.MAX_VALUE);
+        add(repository, 4);
+        assertTrue(repository.saveTasks());
+        Files.delete(journal);
+        JournalTaskRepository fromSnapshot = open(Long.MAX_VALUE);
+        assertEquals(List.of(2, 3), ids(fromSnapshot));
+        assertEquals("Изменена", fromSnapshot.getTask(2).getCaption());
+        assertNull(fromSnapshot.getTask(1));
+        assertEquals(4, fromSnapshot.nextTaskId());
+    }
+
+    @Test
+    void commitRecordRestoresLastTaskId() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        JournalRecord.writePut(out, new Task(1, "Задача 1", null, 0, null));
+        JournalRecord.writePut(out, new Task(2, "Задача 2", null, 0, null));
+        JournalRecord.writeRemove(out, 2);
+        JournalRecord.writeCommit(out, 7);
+        int committed = bytes.size();
+        JournalRecord.writePut(out, new Task(3, "Задача 3", null, 0, null));
+
+        // Последняя запись оборвана: применяются записи до COMMIT включительно.
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray(), 0, bytes.size() - 1);
+        TaskList taskList = new TaskList();
+        assertEquals(committed, JournalRecord.replay(buffer, taskList));
+        assertEquals(List.of(1), taskList.getTasks().stream().map(Task::getId).toList());
+        assertEquals(7, taskList.getLastTaskId());
+    }
+
+    private JournalTaskRepository open(long compactionThreshold) {
+        JournalTaskRepository repository = new JournalTaskRepository(snapshot.toString(), journal.toString(),
+                compactionThreshold);
+        assertTrue(repository.loadTasks());
+        return repository;
+    }
+
+    private static void add(JournalTaskRepository repository, int... ids) {
+        for (int id : ids) {
+            assertTrue(repository.addTask(new Task(id, "Задача " + id, "Описание " + id, id % 11, DEADLINE)));
+        }
+    }
+
+    private static List<Integer> ids(JournalTaskRepository repository) {
+        return repository.getTasksList().getTasks().stream().map(Task::getId).sorted().toList();
+    }
+
+    private static void truncate(Path path, long size) throws Exception {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+}
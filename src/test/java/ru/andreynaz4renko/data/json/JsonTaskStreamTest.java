@@ -0,0 +1,126 @@
+package ru.andreynaz4renko.data.json;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Потоковые JsonTaskStreamWriter и JsonTaskStreamReader: запись и чтение задач со специальными символами
+ * и пустыми полями, отсутствующие и null поля, отказ от задач без корректного id.
+ */
+class JsonTaskStreamTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writtenTasksAreReadBack() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (JsonTaskStreamWriter writer = new JsonTaskStreamWriter(output, 42)) {
+            for (Task task : tasks()) {
+                writer.write(task);
+            }
+        }
+
+        List<Task> read = new ArrayList<>();
+        try (JsonTaskStreamReader reader = new JsonTaskStreamReader(new ByteArrayInputStream(output.toByteArray()))) {
+            Task task;
+            while ((task = reader.next()) != null) {
+                read.add(task);
+            }
+            assertEquals(42, reader.getLastTaskId());
+        }
+        assertEquals(describe(tasks()), describe(read));
+    }
+
+    @Test
+    void repositoryLoadsWhatItSaved() {
+        String file = directory.resolve("tasks.json").toString();
+        JsonTaskRepository source = new JsonTaskRepository(file);
+        tasks().forEach(task -> assertTrue(source.addTask(task)));
+        source.getTasksList().setLastTaskId(42);
+        assertTrue(source.saveTasks());
+
+        // Последовательная загрузка, загрузка по частям и загрузка с чтением описаний из файла.
+        JsonTaskRepository lazy = new JsonTaskRepository(file);
+        lazy.setLazyDescriptions(2);
+        for (JsonTaskRepository repository : List.of(new JsonTaskRepository(file), new JsonTaskRepository(file, 3),
+                lazy)) {
+            assertTrue(repository.loadTasks());
+            assertEquals(describe(tasks()), describe(repository.getTasksList().getTasks()));
+            assertEquals(43, repository.nextTaskId());
+        }
+    }
+
+    @Test
+    void missingAndNullFieldsAreEmpty() throws Exception {
+        List<Task> tasks = read("{\"lastId\": null, \"ToDoList\": ["
+                + "{\"id\": \"3\", \"caption\": \"Задача\", \"description\": null, \"priority\": null,"
+                + " \"deadline\": null, \"complete\": null, \"status\": null, \"extra\": {\"a\": [1, {}]}},"
+                + "{\"id\": 4, \"caption\": \"Задача\"}], \"lastId\": 5, \"other\": [1]}");
+        assertEquals(2, tasks.size());
+        for (Task task : tasks) {
+            assertEquals("Задача", task.getCaption());
+            assertNull(task.getDescription());
+            assertEquals(0, task.getPriority());
+            assertNull(task.getDeadline());
+            assertNull(task.getCompletion());
+            assertNull(task.getStatus());
+        }
+        assertEquals(3, tasks.get(0).getId());
+        assertEquals(4, tasks.get(1).getId());
+    }
+
+    @Test
+    void taskWithoutValidIdIsRejected() {
+        for (String id : new String[]{"\"priority\": 1", "\"id\": null", "\"id\": \"\"", "\"id\": \"7a\"", "\"id\": 1.5",
+                "\"id\": true", "\"id\": {}", "\"id\": []", "\"id\": 99999999999", "\"id\": \"99999999999\""}) {
+            assertThrows(IOException.class, () -> read("{\"ToDoList\": [{\"caption\": \"Задача\", " + id + "}]}"), id);
+        }
+    }
+
+    private static List<Task> read(String json) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        try (JsonTaskStreamReader reader = new JsonTaskStreamReader(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))) {
+            Task task;
+            while ((task = reader.next()) != null) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Задачи со специальными символами и всеми сочетаниями пустых полей.
+     */
+    private static List<Task> tasks() {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new Task(1, "Кавычки \" и обратная \\ черта", "Строка 1\nСтрока 2\t\u0001   </script>", 10,
+                LocalDate.of(2024, 2, 29), null, TaskStatus.NEW));
+        tasks.add(new Task(2, "  ", "", 0, null, null, TaskStatus.IN_PROGRESS));
+        tasks.add(new Task(5, "Выполнена", null, 3, LocalDate.of(2023, 12, 31), LocalDate.of(2024, 1, 1),
+                TaskStatus.DONE));
+        tasks.add(new Task(9, "Без статуса ✓ 😀", "{\"id\": 1}", 7, null, null, null));
+        return tasks;
+    }
+
+    private static List<String> describe(List<Task> tasks) {
+        return tasks.stream().map(Task::toString).toList();
+    }
+}
@@ -0,0 +1,101 @@
+package ru.andreynaz4renko.data.xml;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Параллельная загрузка StaxXmlTaskRepository по частям документа в сравнении с последовательной,
+ * в том числе для документов с комментариями, разделами CDATA и инструкциями обработки, содержащими "<Task".
+ */
+class StaxXmlTaskRepositoryTest {
+
+    private static final int TASKS = 300;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void parallelLoadMatchesSequentialLoad() throws Exception {
+        Path file = save();
+        assertSameTasks(file, TASKS);
+    }
+
+    @Test
+    void markupInsideCommentsAndCdataIsNotSplitOn() throws Exception {
+        Path file = save();
+        String xml = Files.readString(file, StandardCharsets.UTF_8);
+        StringBuilder edited = new StringBuilder();
+        int from = 0;
+        int task = 0;
+        int end;
+        // После каждой задачи - комментарий, CDATA или инструкция обработки с разметкой задачи внутри.
+        while ((end = xml.indexOf("</Task>", from)) >= 0) {
+            end += "</Task>".length();
+            edited.append(xml, from, end);
+            switch (task++ % 3) {
+                case 0 -> edited.append("<!-- <Task id=\"9999\" caption=\"Комментарий\"><Priority>1</Priority></Task> -->");
+                case 1 -> edited.append("<?note <Task id=\"9998\"/> ?>");
+                default -> edited.append("<!--\n<Task\n-->");
+            }
+            from = end;
+        }
+        edited.append(xml, from, xml.length());
+        String result = edited.toString()
+                .replace("<Description>Описание 7</Description>",
+                        "<Description><![CDATA[<Task id=\"9997\"> & Описание 7]]></Description>")
+                .replace("</ToDoList>", "</ToDoList>\n<!-- </ToDoList> <Task id=\"9996\"> -->");
+        int prolog = result.indexOf("<ToDoList");
+        Files.writeString(file, result.substring(0, prolog) + "<!-- <Task id=\"9995\"> -->\n" + result.substring(prolog),
+                StandardCharsets.UTF_8);
+
+        List<Task> tasks = assertSameTasks(file, TASKS);
+        assertEquals("<Task id=\"9997\"> & Описание 7", tasks.get(6).getDescription());
+    }
+
+    /**
+     * Загружает файл последовательно и параллельно с разным количеством потоков и сравнивает задачи.
+     */
+    private static List<Task> assertSameTasks(Path file, int size) {
+        StaxXmlTaskRepository sequential = new StaxXmlTaskRepository(file.toString());
+        assertTrue(sequential.loadTasks());
+        List<Task> expected = sequential.getTasksList().getTasks();
+        assertEquals(size, expected.size());
+        for (int threads : new int[]{2, 3, 8}) {
+            StaxXmlTaskRepository parallel = new StaxXmlTaskRepository(file.toString(), threads);
+            assertTrue(parallel.loadTasks(), "потоков: " + threads);
+            assertEquals(describe(expected), describe(parallel.getTasksList().getTasks()), "потоков: " + threads);
+            assertEquals(sequential.nextTaskId(), parallel.nextTaskId(), "потоков: " + threads);
+        }
+        return expected;
+    }
+
+    private Path save() {
+        Path file = directory.resolve("tasks.xml");
+        StaxXmlTaskRepository repository = new StaxXmlTaskRepository(file.toString());
+        TaskStatus[] statuses = TaskStatus.values();
+        for (int id = 1; id <= TASKS; id++) {
+            TaskStatus status = statuses[id % statuses.length];
+            assertTrue(repository.addTask(new Task(id, "Задача " + id + " <a> & \"b\"",
+                    id % 5 == 0 ? null : "Описание " + id, id % 11, id % 4 == 0 ? null : LocalDate.of(2024, 1, 1)
+                    .plusDays(id), status == TaskStatus.DONE ? LocalDate.of(2024, 1, 2) : null, status)));
+        }
+        repository.getTasksList().setLastTaskId(TASKS + 10);
+        assertTrue(repository.saveTasks());
+        return file;
+    }
+
+    private static List<String> describe(List<Task> tasks) {
+        return tasks.stream().map(Task::toString).toList();
+    }
+}
@@ -0,0 +1,119 @@
+package ru.andreynaz4renko.data.xml;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.andreynaz4renko.data.TaskRepository;
+import ru.andreynaz4renko.domain.Task;
+import ru.andreynaz4renko.domain.TaskStatus;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Потоковые XmlTaskStreamWriter и XmlTaskStreamReader в сравнении с JAXB в XmlTaskRepository:
+ * одинаковые байты документа, одинаковые прочитанные задачи и отказ от задач без корректного id.
+ */
+class XmlTaskStreamTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writerOutputMatchesJaxb() throws Exception {
+        assertSameBytes(List.of(), 0);
+        assertSameBytes(List.of(), 7);
+        assertSameBytes(tasks(), 42);
+    }
+
+    @Test
+    void readerMatchesJaxb() throws Exception {
+        Path file = directory.resolve("tasks.xml");
+        save(new XmlTaskRepository(file.toString()), tasks(), 42);
+
+        XmlTaskRepository jaxb = new XmlTaskRepository(file.toString());
+        StaxXmlTaskRepository stax = new StaxXmlTaskRepository(file.toString());
+        assertTrue(jaxb.loadTasks());
+        assertTrue(stax.loadTasks());
+        assertEquals(describe(jaxb.getTasksList().getTasks()), describe(stax.getTasksList().getTasks()));
+        assertEquals(describe(tasks()), describe(stax.getTasksList().getTasks()));
+        assertEquals(43, stax.nextTaskId());
+    }
+
+    @Test
+    void missingOrMalformedFieldsAreHandled() throws Exception {
+        Task task = read("<Task id=\" 3 \" caption=\"Задача\"><Unknown>x</Unknown></Task>");
+        assertEquals(3, task.getId());
+        assertEquals("Задача", task.getCaption());
+        assertNull(task.getDescription());
+        assertEquals(0, task.getPriority());
+        assertNull(task.getDeadline());
+        assertNull(task.getStatus());
+
+        assertThrows(XMLStreamException.class, () -> read("<Task caption=\"Без id\"/>"));
+        assertThrows(XMLStreamException.class, () -> read("<Task id=\"\" caption=\"Задача\"/>"));
+        assertThrows(XMLStreamException.class, () -> read("<Task id=\"7a\" caption=\"Задача\"/>"));
+        assertThrows(XMLStreamException.class, () -> read("<Task id=\"99999999999\" caption=\"Задача\"/>"));
+    }
+
+    private void assertSameBytes(List<Task> tasks, int lastTaskId) throws Exception {
+        Path jaxb = directory.resolve("jaxb.xml");
+        Path stax = directory.resolve("stax.xml");
+        save(new XmlTaskRepository(jaxb.toString()), tasks, lastTaskId);
+        save(new StaxXmlTaskRepository(stax.toString()), tasks, lastTaskId);
+        assertArrayEquals(Files.readAllBytes(jaxb), Files.readAllBytes(stax),
+                () -> Files.exists(stax) ? readString(stax) : "");
+    }
+
+    private static void save(TaskRepository repository, List<Task> tasks, int lastTaskId) {
+        tasks.forEach(task -> assertTrue(repository.addTask(new Task(task))));
+        repository.getTasksList().setLastTaskId(lastTaskId);
+        assertTrue(repository.saveTasks());
+    }
+
+    private static Task read(String task) throws XMLStreamException {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><ToDoList lastId=\"1\">" + task + "</ToDoList>";
+        try (XmlTaskStreamReader reader = new XmlTaskStreamReader(
+                new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)))) {
+            return reader.next();
+        }
+    }
+
+    /**
+     * Задачи со специальными символами и всеми сочетаниями пустых полей.
+     */
+    private static List<Task> tasks() {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new Task(1, "Кавычки \" ' и <теги> & амперсанд", "Строка 1\nСтрока 2\tтаб <b>&amp;</b>", 10,
+                LocalDate.of(2024, 2, 29), null, TaskStatus.NEW));
+        tasks.add(new Task(2, "Пробелы   по краям  ", "  ", 0, null, null, TaskStatus.IN_PROGRESS));
+        tasks.add(new Task(5, "Выполнена", null, 3, LocalDate.of(2023, 12, 31), LocalDate.of(2024, 1, 1),
+                TaskStatus.DONE));
+        tasks.add(new Task(9, "Юникод ✓ 😀", "", 7, null, null, TaskStatus.NEW));
+        tasks.add(new Task(12, "]]> и --> в заголовке", "Описание с ]]> и -->", 1, null, null, TaskStatus.NEW));
+        return tasks;
+    }
+
+    private static String readString(Path path) {
+        try {
+            return Files.readString(path, StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            return e.toString();
+        }
+    }
+
+    private static List<String> describe(List<Task> tasks) {
+        return tasks.stream().map(Task::toString).toList();
+    }
+}
@@ -0,0 +1,132 @@
+package ru.andreynaz4renko.deadline;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * События DeadlineScheduler по часам, дата которых переводится тестом.
+ */
+class DeadlineSchedulerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 1, 1);
+
+    private MutableClock clock;
+    private DeadlineScheduler scheduler;
+    private List<String> events;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(TODAY);
+        scheduler = new DeadlineScheduler(clock, 2);
+        events = new ArrayList<>();
+        scheduler.addListener((event, taskId, deadline) -> events.add(event + " " + taskId + " " + deadline));
+    }
+
+    @Test
+    void dueSoonThenOverdue() {
+        scheduler.schedule(1, TODAY.plusDays(4));
+        assertEquals(0, scheduler.advance());
+
+        clock.setDate(TODAY.plusDays(2));
+        assertEquals(1, scheduler.advance());
+        assertEquals(List.of("DUE_SOON 1 2024-01-05"), events);
+        assertEquals(0, scheduler.advance());
+
+        clock.setDate(TODAY.plusDays(4));
+        assertEquals(0, scheduler.advance());
+
+        clock.setDate(TODAY.plusDays(5));
+        assertEquals(1, scheduler.advance());
+        assertEquals(List.of("DUE_SOON 1 2024-01-05", "OVERDUE 1 2024-01-05"), events);
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    void missedDeadlineFiresOnlyOverdue() {
+        scheduler.schedule(2, TODAY.plusDays(3));
+        scheduler.schedule(1, TODAY.minusDays(1));
+
+        clock.setDate(TODAY.plusDays(10));
+        assertEquals(2, scheduler.advance());
+        assertEquals(List.of("OVERDUE 1 2023-12-31", "OVERDUE 2 2024-01-04"), events);
+    }
+
+    @Test
+    void rescheduleFiresEventsForNewDeadline() {
+        scheduler.schedule(1, TODAY.plusDays(2));
+        scheduler.advance();
+        assertEquals(List.of("DUE_SOON 1 2024-01-03"), events);
+
+        scheduler.schedule(1, TODAY.plusDays(20));
+        clock.setDate(TODAY.plusDays(5));
+        assertEquals(0, scheduler.advance());
+
+        clock.setDate(TODAY.plusDays(18));
+        assertEquals(1, scheduler.advance());
+        assertEquals("DUE_SOON 1 2024-01-21", events.get(1));
+
+        scheduler.schedule(1, TODAY.plusDays(20));
+        assertEquals(0, scheduler.advance());
+        assertEquals(1, scheduler.size());
+    }
+
+    @Test
+    void cancelledTaskFiresNothing() {
+        scheduler.schedule(1, TODAY.plusDays(1));
+        scheduler.schedule(2, TODAY.plusDays(1));
+        scheduler.schedule(3, TODAY.plusDays(1));
+
+        assertTrue(scheduler.cancel(1));
+        assertFalse(scheduler.cancel(1));
+        scheduler.schedule(3, null);
+        assertEquals(1, scheduler.size());
+
+        clock.setDate(TODAY.plusDays(2));
+        assertEquals(1, scheduler.advance());
+        assertEquals(List.of("OVERDUE 2 2024-01-02"), events);
+        assertFalse(scheduler.cancel(2));
+    }
+
+    /**
+     * Часы, показывающие полночь заданной даты по UTC.
+     */
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant instant;
+
+        MutableClock(LocalDate date) {
+            setDate(date);
+        }
+
+        void setDate(LocalDate date) {
+            instant = date.atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
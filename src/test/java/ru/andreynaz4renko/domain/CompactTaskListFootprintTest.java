@@ -0,0 +1,106 @@
+package ru.andreynaz4renko.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Объем кучи, удерживаемый CompactTaskList, в сравнении с TaskList на тех же задачах.
+ * Объем считается как прирост занятой кучи после сборки мусора при удержании построенного списка,
+ * поэтому учитывает все объекты, достижимые из списка, включая индексы. Каждый список строится
+ * несколько раз, и берется наименьший прирост, чтобы не учитывать мусор, не собранный между замерами.
+ * Задачи генерируются так же, как в TaskDataGenerator бенчмарков.
+ */
+class CompactTaskListFootprintTest {
+
+    private static final int TASKS = 100_000;
+
+    private static final double MIN_RATIO = 3.0;
+
+    private static final int ROUNDS = 3;
+
+    private static final String[] WORDS = {
+            "подготовить", "отчет", "проверить", "исправить", "ошибку", "в", "модуле", "задач",
+            "обновить", "документацию", "согласовать", "план", "релиза", "клиента", "сервер", "базу",
+            "данных", "настроить", "мониторинг", "провести", "встречу", "с", "командой", "по", "проекту"
+    };
+
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    @Test
+    void compactListRetainsAtLeastThreeTimesLessHeap() {
+        long regular = measure(TaskList::new);
+        long compact = measure(CompactTaskList::new);
+        double ratio = regular / (double) compact;
+        assertTrue(ratio >= MIN_RATIO, () -> String.format(
+                "TaskList %.1f байт на задачу, CompactTaskList %.1f байт на задачу: %.2fx вместо %.1fx",
+                regular / (double) TASKS, compact / (double) TASKS, ratio, MIN_RATIO));
+    }
+
+    /**
+     * Возвращает наименьший за несколько построений прирост занятой кучи при удержании списка.
+     */
+    private static long measure(Supplier<TaskList> factory) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long retained = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = usedAfterGc(memory);
+            TaskList taskList = fill(factory.get());
+            long after = usedAfterGc(memory);
+            assertEquals(TASKS, taskList.size());
+            retained = Math.min(retained, after - before);
+        }
+        return retained;
+    }
+
+    /**
+     * Заполняет список задачами с собственными строками и датами, одинаковыми для обоих видов списка.
+     */
+    private static TaskList fill(TaskList taskList) {
+        Random random = new Random(42);
+        TaskStatus[] statuses = TaskStatus.values();
+        for (int id = 1; id <= TASKS; id++) {
+            TaskStatus status = statuses[random.nextInt(statuses.length)];
+            LocalDate deadline = START.plusDays(random.nextInt(3650));
+            LocalDate completion = status == TaskStatus.DONE ? deadline.minusDays(random.nextInt(30)) : null;
+            taskList.addTask(new Task(id,
+                    words(random, 2 + random.nextInt(3), 50),
+                    words(random, 5 + random.nextInt(20), Integer.MAX_VALUE),
+                    random.nextInt(11),
+                    deadline,
+                    completion,
+                    status));
+        }
+        taskList.trimToSize();
+        return taskList;
+    }
+
+    private static String words(Random random, int count, int maxLength) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            if (builder.length() + word.length() + 1 > maxLength) {
+                break;
+            }
+            if (i > 0) {
+                builder.append(' ');
+            }
+            builder.append(word);
+        }
+        return builder.toString();
+    }
+
+    private static long usedAfterGc(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
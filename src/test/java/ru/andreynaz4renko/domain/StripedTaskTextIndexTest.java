@@ -0,0 +1,77 @@
+package ru.andreynaz4renko.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сверка StripedTaskTextIndex с текущим состоянием задач, когда вызовы sync() для одной задачи пересекаются.
+ */
+class StripedTaskTextIndexTest {
+
+    @Test
+    void syncOfOutdatedStateDoesNotOverwriteNewerOne() throws Exception {
+        Map<Integer, Task> store = new ConcurrentHashMap<>();
+        StripedTaskTextIndex index = new StripedTaskTextIndex(4);
+
+        // Первое состояние читает описание, пока второе состояние не попадет в индекс.
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Task first = new Task(5, "Первый", null, 0, null);
+        first.setDescriptionLoader(() -> {
+            reading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "Старое";
+        });
+        store.put(5, first);
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<?> outdated = executor.submit(() -> index.sync(5, store::get));
+            try {
+                assertTrue(reading.await(10, TimeUnit.SECONDS));
+                store.put(5, new Task(5, "Второй", "Новое", 0, null));
+                index.sync(5, store::get);
+                assertArrayEquals(new int[]{5}, index.search("второй"));
+            } finally {
+                release.countDown();
+            }
+            outdated.get(10, TimeUnit.SECONDS);
+        }
+
+        assertArrayEquals(new int[]{5}, index.search("второй новое"));
+        assertArrayEquals(new int[0], index.search("первый"));
+        assertArrayEquals(new int[0], index.search("старое"));
+
+        store.remove(5);
+        index.sync(5, store::get);
+        assertArrayEquals(new int[0], index.search("второй"));
+    }
+
+    @Test
+    void searchCoversAllStripes() {
+        Map<Integer, Task> store = new ConcurrentHashMap<>();
+        StripedTaskTextIndex index = new StripedTaskTextIndex(4);
+        for (int id = 1; id <= 10; id++) {
+            store.put(id, new Task(id, id % 2 == 0 ? "Четная" : "Нечетная", "Задача", 0, null));
+            index.sync(id, store::get);
+        }
+
+        int[] even = index.search("четная задача");
+        Arrays.sort(even);
+        assertArrayEquals(new int[]{2, 4, 6, 8, 10}, even);
+    }
+}
@@ -0,0 +1,66 @@
+package ru.andreynaz4renko.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Порядок задач в выборках по вторичным индексам TaskList и CompactTaskList после изменения задач.
+ */
+class TaskListTest {
+
+    private static final LocalDate DEADLINE = LocalDate.of(2024, 1, 10);
+
+    @Test
+    void editingCaptionKeepsOrderInIndexes() {
+        for (TaskList taskList : List.of(filled(new TaskList()), filled(new CompactTaskList()))) {
+            taskList.updateTask(1, task -> task.setCaption("Новый заголовок"));
+
+            String name = taskList.getClass().getSimpleName();
+            assertEquals(List.of(1, 2, 3), ids(taskList.getTasksByStatus(TaskStatus.NEW)), name);
+            assertEquals(List.of(1, 2, 3), ids(taskList.getTasksByMinPriority(5)), name);
+            assertEquals(List.of(1, 2, 3), ids(taskList.getTasksByDeadlineBefore(DEADLINE.plusDays(1))), name);
+        }
+    }
+
+    @Test
+    void changedFieldsMoveTaskOnlyInTheirIndexes() {
+        for (TaskList taskList : List.of(filled(new TaskList()), filled(new CompactTaskList()))) {
+            taskList.updateTask(2, task -> {
+                task.setPriority(7);
+                task.setDeadline(DEADLINE.minusDays(1));
+            });
+            taskList.updateTask(3, task -> task.setDeadline(null));
+
+            String name = taskList.getClass().getSimpleName();
+            assertEquals(List.of(2, 1, 3), ids(taskList.getTasksByMinPriority(5)), name);
+            assertEquals(List.of(2, 1), ids(taskList.getTasksByDeadlineBefore(DEADLINE.plusDays(1))), name);
+            assertEquals(List.of(1, 2, 3), ids(taskList.getTasksByStatus(TaskStatus.NEW)), name);
+        }
+    }
+
+    @Test
+    void completedTaskMovesToDoneIndex() {
+        TaskList taskList = filled(new TaskList());
+
+        taskList.completeTask(2);
+
+        assertEquals(List.of(1, 3), ids(taskList.getTasksByStatus(TaskStatus.NEW)));
+        assertEquals(List.of(2), ids(taskList.getTasksByStatus(TaskStatus.DONE)));
+    }
+
+    private static TaskList filled(TaskList taskList) {
+        for (int id = 1; id <= 3; id++) {
+            taskList.addTask(new Task(id, "Задача " + id, "Описание", 5, DEADLINE));
+        }
+        return taskList;
+    }
+
+    private static List<Integer> ids(Collection<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+}
@@ -0,0 +1,30 @@
+package ru.andreynaz4renko.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Копирование задачи, измененной сеттерами.
+ */
+class TaskTest {
+
+    @Test
+    void copyKeepsFieldsSetBySetters() {
+        Task task = new Task(1, "Задача", "Описание", 5, LocalDate.of(2024, 1, 10));
+        String caption = "З".repeat(60);
+        task.setCaption(caption);
+        task.setPriority(11);
+        task.setDescriptionLoader(() -> "Описание из файла");
+
+        Task copy = new Task(task);
+
+        assertEquals(caption, copy.getCaption());
+        assertEquals(11, copy.getPriority());
+        assertEquals("Описание из файла", copy.getDescription());
+        assertEquals(task.getDeadline(), copy.getDeadline());
+        assertEquals(task.getStatus(), copy.getStatus());
+    }
+}